@@ -41,15 +41,12 @@ function LobbyPage() {
     }, [rawRooms, usersByRoom]);
 
     /**
-     * 로비 페이지가 마운트될 때, 현재 활성 방 ID를 초기화하고,
-     * 주기적으로 방 목록을 새로고침하는 인터벌을 설정합니다.
-     * 언마운트 시 인터벌을 정리합니다.
+     * 로비 페이지가 마운트될 때 현재 활성 방 ID를 초기화합니다.
+     * 방 목록은 RoomContext가 /topic/rooms 변경분으로 최신 상태를 유지하므로 주기적으로 다시 불러오지 않습니다.
      */
     useEffect(() => {
         setActiveRoomId(null);
-        const intervalId = setInterval(fetchRooms, 3000);
-        return () => clearInterval(intervalId);
-    }, [setActiveRoomId, fetchRooms]);
+    }, [setActiveRoomId]);
 
     /**
      * 사용자가 특정 채팅방 입장을 시도할 때 호출되는 핸들러입니다.
@@ -57,7 +57,7 @@ const ChatContext = createContext();
 function ChatProvider({ children }) {
     const { user, loading } = useContext(AuthContext);
     const { joinedRooms, activeRoomId, setUnreadRooms, myRole, setMyRole } = useContext(RoomContext);
-    const { connectToRoom, stompClientsRef } = useContext(WebSocketContext);
+    const { connectToRoom, disconnectFromRoom, stompClientsRef } = useContext(WebSocketContext);
 
     /** @type {[Object<number, Message[]>, Function]} */
     const [messagesByRoom, setMessagesByRoom] = useState({});
@@ -219,6 +219,17 @@ function ChatProvider({ children }) {
         }
     }, [user, joinedRooms, connectToRoom, onMessageReceived, onUserInfoReceived, onPreviewReceived, onMoreMessagesReceived, stompClientsRef, setMyRole]);
 
+    /**
+     * 참여 목록에서 빠진 채팅방의 토픽 구독을 취소하는 Effect.
+     * 공유 연결은 유지하고 해당 방의 구독만 정리합니다.
+     */
+    useEffect(() => {
+        const joinedIds = new Set(joinedRooms.map(room => room.id));
+        [...stompClientsRef.current.keys()]
+            .filter(roomId => !joinedIds.has(roomId))
+            .forEach(roomId => disconnectFromRoom(roomId));
+    }, [joinedRooms, disconnectFromRoom, stompClientsRef]);
+
     /**
      * 특정 채팅방의 이전 메시지를 더 불러옵니다.
      * @param {number} roomId - 메시지를 불러올 방의 ID.
@@ -18,6 +18,48 @@ import axiosInstance from '../api/axiosInstance';
  * @property {boolean} isMember
  */
 
+/**
+ * @typedef {object} RoomDelta
+ * @property {'CREATED'|'DELETED'|'UPDATED'} type
+ * @property {number} roomId
+ * @property {number} version
+ * @property {string} [name]
+ * @property {string} [roomType]
+ * @property {string} [ownerName]
+ * @property {number} [userCount]
+ * @property {number} [connCount]
+ */
+
+/**
+ * 서버가 보낸 방 목록 변경분을 현재 목록에 적용합니다.
+ * @param {RawRoom[]} rooms - 현재 방 목록.
+ * @param {RoomDelta[]} deltas - /topic/rooms로 받은 변경분 목록.
+ * @returns {RawRoom[]} 변경분이 적용된 새 방 목록.
+ */
+function applyRoomDeltas(rooms, deltas) {
+    let next = rooms;
+    for (const delta of deltas) {
+        if (delta.type === 'DELETED') {
+            next = next.filter(room => room.id !== delta.roomId);
+        } else if (delta.type === 'CREATED' && !next.some(room => room.id === delta.roomId)) {
+            next = [...next, {
+                id: delta.roomId,
+                name: delta.name,
+                roomType: delta.roomType,
+                ownerName: delta.ownerName,
+                userCount: delta.userCount,
+                connCount: delta.connCount,
+                isMember: false,
+            }];
+        } else {
+            next = next.map(room => room.id === delta.roomId
+                ? { ...room, userCount: delta.userCount, connCount: delta.connCount }
+                : room);
+        }
+    }
+    return next;
+}
+
 /**
  * @typedef {object} RoomContextType
  * @property {RawRoom[]} rawRooms - API로부터 받은 필터링되지 않은 원본 방 목록.
@@ -30,6 +72,7 @@ import axiosInstance from '../api/axiosInstance';
  * @property {(roomId: number) => Promise<void>} exitRoom - 방에서 나가는 함수.
  * @property {(roomId: number) => Promise<void>} deleteRoom - 방을 삭제하는 함수.
  * @property {() => Promise<void>} fetchRooms - 전체 방 목록을 다시 불러오는 함수.
+ * @property {(deltas: RoomDelta[]) => void} applyDirectoryDeltas - /topic/rooms로 받은 방 목록 변경분을 적용하는 함수.
  * @property {Object<number, 'ADMIN'|'MEMBER'>} myRole - 각 방에서의 현재 사용자 역할을 담은 객체.
  * @property {React.Dispatch<React.SetStateAction<object>>} setMyRole - 사용자 역할 상태를 업데이트하는 함수.
  */
@@ -82,6 +125,15 @@ function RoomProvider({ children }) {
         }
     }, [user, fetchRooms]);
 
+    /**
+     * /topic/rooms로 받은 방 목록 변경분(생성/삭제/참여자 수/접속자 수)을 현재 목록에 적용합니다.
+     * 구독은 WebSocketContext의 공유 연결에서 이루어지며, (재)연결 시에는 {@link fetchRooms}로 전체 목록을 다시 맞춥니다.
+     * @param {RoomDelta[]} deltas - 방 목록 변경분 목록.
+     */
+    const applyDirectoryDeltas = useCallback((deltas) => {
+        setRawRooms(prev => applyRoomDeltas(prev, deltas));
+    }, []);
+
     /**
      * 사용자가 참여하고 있는 방 목록만 필터링하여 메모이즈합니다.
      * @type {RawRoom[]}
@@ -163,6 +215,7 @@ function RoomProvider({ children }) {
         exitRoom,
         deleteRoom,
         fetchRooms,
+        applyDirectoryDeltas,
         myRole,
         setMyRole,
     };
@@ -13,9 +13,10 @@ const SERVER_URL = axiosInstance.getUri();
 
 /**
  * @typedef {object} WebSocketContextType
- * @property {React.MutableRefObject<Map<number, Client>>} stompClientsRef - 활성화된 STOMP 클라이언트 인스턴스들을 저장하는 Ref 객체. (Key: roomId, Value: STOMP Client)
- * @property {(roomId: number, onMessage: Function, onUserInfo: Function, onPreview: Function, onMoreMessages: Function) => Promise<Client>} connectToRoom - 특정 채팅방에 대한 WebSocket 연결을 설정하고 활성화하는 함수.
- * @property {() => Promise<void>} initializeConnections - 모든 활성 WebSocket 연결을 초기화(연결 해제 및 정리)하는 함수.
+ * @property {React.MutableRefObject<Map<number, Client>>} stompClientsRef - 채팅방별 STOMP 클라이언트를 저장하는 Ref 객체. 모든 방이 하나의 공유 클라이언트를 가리킵니다. (Key: roomId, Value: STOMP Client)
+ * @property {(roomId: number, onMessage: Function, onUserInfo: Function, onPreview: Function, onMoreMessages: Function) => Promise<Client>} connectToRoom - 공유 WebSocket 연결에서 특정 채팅방 토픽을 구독하는 함수.
+ * @property {(roomId: number) => void} disconnectFromRoom - 공유 연결은 유지한 채 특정 채팅방 토픽의 구독을 취소하는 함수.
+ * @property {() => Promise<void>} initializeConnections - WebSocket 연결을 초기화(연결 해제 및 정리)하는 함수.
  */
 
 /**
@@ -26,50 +27,67 @@ const WebSocketContext = createContext();
 
 /**
  * WebSocket 연결 상태를 제공하는 React 컴포넌트입니다.
+ * 참여한 모든 채팅방과 방 목록 변경분(/topic/rooms)은 하나의 STOMP 연결을 공유하며, 방 입장/퇴장은 방 토픽의 구독/구독 취소로 처리됩니다.
  * @param {object} props
  * @param {React.ReactNode} props.children - 이 Provider가 감쌀 자식 컴포넌트들.
  * @returns {JSX.Element} WebSocketContext.Provider
  */
 function WebSocketProvider({ children }) {
     const { user, loading, forceLogout } = useContext(AuthContext);
-    const { setJoinedRooms } = useContext(RoomContext);
+    const { fetchRooms, applyDirectoryDeltas } = useContext(RoomContext);
     /**
      * 채팅방별 STOMP 클라이언트 인스턴스를 관리하는 Ref.
-     * key는 roomId, value는 STOMP Client 인스턴스입니다.
+     * key는 roomId, value는 공유 STOMP Client 인스턴스입니다.
      * @type {React.MutableRefObject<Map<number, Client>>}
      */
     const stompClientsRef = useRef(new Map());
+    /**
+     * 채팅방별 구독 목록을 관리하는 Ref. key는 roomId, value는 STOMP 구독 배열입니다.
+     * @type {React.MutableRefObject<Map<number, Array<import('@stomp/stompjs').StompSubscription>>>}
+     */
+    const roomSubscriptionsRef = useRef(new Map());
+    /**
+     * 공유 STOMP 클라이언트와 연결 완료 프로미스를 담는 Ref.
+     * @type {React.MutableRefObject<{client: Client, ready: Promise<Client>} | null>}
+     */
+    const sharedClientRef = useRef(null);
+    /**
+     * 추가 메시지 목록(개인 큐) 수신 콜백. 개인 큐는 연결당 한 번만 구독하므로 최신 콜백을 Ref로 참조합니다.
+     * @type {React.MutableRefObject<Function | null>}
+     */
+    const onMoreMessagesRef = useRef(null);
 
     /**
-     * 특정 채팅방에 대한 WebSocket 연결을 설정하고 활성화합니다.
-     * @param {number} roomId - 연결할 채팅방의 ID.
-     * @param {Function} onMessage - 공개 메시지 수신 시 호출될 콜백 함수.
-     * @param {Function} onUserInfo - 사용자 입장/퇴장/상태 변경 등 사용자 정보 수신 시 호출될 콜백 함수.
-     * @param {Function} onPreview - 링크 미리보기 정보 수신 시 호출될 콜백 함수.
-     * @param {Function} onMoreMessages - 추가 메시지 목록(이전 대화) 수신 시 호출될 콜백 함수.
-     * @returns {Promise<Client>} 연결 성공 시 STOMP 클라이언트 인스턴스를 resolve하는 프로미스.
+     * 공유 STOMP 클라이언트를 반환합니다. 아직 없으면 새로 만들어 연결합니다.
+     * @returns {Promise<Client>} 연결 성공 시 공유 STOMP 클라이언트를 resolve하는 프로미스.
      */
-    const connectToRoom = (roomId, onMessage, onUserInfo, onPreview, onMoreMessages) => {
-        return new Promise((resolve, reject) => {
-            if (!user || stompClientsRef.current.has(roomId)) {
-                resolve();
-                return;
-            }
+    const getSharedClient = () => {
+        if (sharedClientRef.current) {
+            return sharedClientRef.current.ready;
+        }
 
-            const client = new Client({
+        let client;
+        const ready = new Promise((resolve, reject) => {
+            client = new Client({
                 webSocketFactory: () => new SockJS(`${SERVER_URL}/ws`),
-                connectHeaders: { user_id: String(user.userId), room_id: String(roomId) },
+                connectHeaders: { user_id: String(user.userId) },
                 reconnectDelay: 0,
                 onConnect: () => {
-                    console.log(`Room #${roomId}: WebSocket connected`);
-                    client.subscribe('/user/topic/queue/reply', (payload) => onMoreMessages(JSON.parse(payload.body)));
-                    client.subscribe(`/topic/${roomId}/public`, (payload) => onMessage(roomId, payload));
-                    client.subscribe(`/topic/${roomId}/users`, (payload) => onUserInfo(roomId, payload));
-                    client.subscribe(`/topic/${roomId}/previews`, (payload) => onPreview(roomId, payload));
+                    console.log('WebSocket connected');
+                    client.subscribe('/user/topic/queue/reply', (payload) => onMoreMessagesRef.current?.(JSON.parse(payload.body)));
+                    // 메시지 전송 거절 등 서버가 보낸 오류 (예: BUSY)
+                    client.subscribe('/user/queue/errors', (payload) => {
+                        const error = JSON.parse(payload.body);
+                        console.warn('STOMP request rejected:', error.errorCode, error.message);
+                        alert(error.message);
+                    });
+                    // 방 목록 변경분도 같은 연결로 받고, 연결될 때마다 전체 목록을 다시 불러와 끊겨 있던 동안의 변경을 맞춤
+                    client.subscribe('/topic/rooms', (payload) => applyDirectoryDeltas(JSON.parse(payload.body)));
+                    fetchRooms();
                     resolve(client);
                 },
                 onDisconnect: () => {
-                    console.error(`Room #${roomId}: WebSocket disconnected`);
+                    console.error('WebSocket disconnected');
                     forceLogout();
                 },
                 onStompError: (frame) => {
@@ -82,21 +100,78 @@ function WebSocketProvider({ children }) {
                     forceLogout();
                 },
             });
-
             client.activate();
-            stompClientsRef.current.set(roomId, client);
         });
+
+        sharedClientRef.current = { client, ready };
+        return ready;
+    };
+
+    /**
+     * 공유 WebSocket 연결에서 특정 채팅방의 토픽들을 구독합니다.
+     * 서버는 `/topic/{roomId}/public` 구독을 해당 방 입장으로 처리합니다.
+     * @param {number} roomId - 구독할 채팅방의 ID.
+     * @param {Function} onMessage - 공개 메시지 수신 시 호출될 콜백 함수.
+     * @param {Function} onUserInfo - 사용자 입장/퇴장/상태 변경 등 사용자 정보 수신 시 호출될 콜백 함수.
+     * @param {Function} onPreview - 링크 미리보기 정보 수신 시 호출될 콜백 함수.
+     * @param {Function} onMoreMessages - 추가 메시지 목록(이전 대화) 수신 시 호출될 콜백 함수.
+     * @returns {Promise<Client>} 구독 완료 시 공유 STOMP 클라이언트를 resolve하는 프로미스.
+     */
+    const connectToRoom = (roomId, onMessage, onUserInfo, onPreview, onMoreMessages) => {
+        if (!user || stompClientsRef.current.has(roomId)) {
+            return Promise.resolve();
+        }
+        onMoreMessagesRef.current = onMoreMessages;
+
+        const ready = getSharedClient();
+        stompClientsRef.current.set(roomId, sharedClientRef.current.client);
+
+        return ready.then(client => {
+            if (stompClientsRef.current.get(roomId) !== client || roomSubscriptionsRef.current.has(roomId)) {
+                return client; // 구독 전에 방에서 나갔거나 이미 구독함
+            }
+            roomSubscriptionsRef.current.set(roomId, [
+                client.subscribe(`/topic/${roomId}/public`, (payload) => onMessage(roomId, payload)),
+                client.subscribe(`/topic/${roomId}/users`, (payload) => onUserInfo(roomId, payload)),
+                client.subscribe(`/topic/${roomId}/previews`, (payload) => onPreview(roomId, payload)),
+            ]);
+            console.log(`Room #${roomId}: subscribed`);
+            return client;
+        });
+    };
+
+    /**
+     * 공유 WebSocket 연결은 유지한 채 특정 채팅방 토픽들의 구독을 취소합니다.
+     * 서버는 `/topic/{roomId}/public` 구독 취소를 해당 방 퇴장으로 처리합니다.
+     * @param {number} roomId - 구독을 취소할 채팅방의 ID.
+     */
+    const disconnectFromRoom = (roomId) => {
+        const subscriptions = roomSubscriptionsRef.current.get(roomId);
+        if (subscriptions && sharedClientRef.current?.client.connected) {
+            subscriptions.forEach(subscription => subscription.unsubscribe());
+        }
+        roomSubscriptionsRef.current.delete(roomId);
+        stompClientsRef.current.delete(roomId);
+    };
+
+    /**
+     * 공유 WebSocket 연결을 해제하고 모든 방 구독 정보를 정리합니다.
+     */
+    const closeSharedClient = () => {
+        sharedClientRef.current?.client.deactivate();
+        sharedClientRef.current = null;
+        roomSubscriptionsRef.current.clear();
+        stompClientsRef.current.clear();
     };
 
     /**
-     * 모든 활성화된 WebSocket 연결을 초기화(연결 해제 및 정리)합니다.
+     * WebSocket 연결을 초기화(연결 해제 및 정리)합니다.
      * 주로 사용자가 로그인/로그아웃할 때 호출됩니다.
      */
     const initializeConnections = async () => {
         if (!user) return;
         try {
-            stompClientsRef.current.forEach(client => client.deactivate());
-            stompClientsRef.current.clear();
+            closeSharedClient();
         } catch (error) {
             console.error("Failed to clear connections:", error);
         }
@@ -104,25 +179,25 @@ function WebSocketProvider({ children }) {
 
     /**
      * 사용자 인증 상태 변경 시 WebSocket 연결을 관리하는 Effect.
-     * 사용자가 로그인하면 기존 연결을 초기화하고, 로그아웃하면 모든 연결을 해제합니다.
+     * 사용자가 로그인하면 기존 연결을 초기화한 뒤 방 목록 변경분을 받기 위해 공유 연결을 바로 열고, 로그아웃하면 연결을 해제합니다.
      */
     useEffect(() => {
         if (!loading && user) {
             initializeConnections();
+            getSharedClient().catch(error => console.error('Failed to open WebSocket connection:', error));
         } else if (!loading && !user) {
-            stompClientsRef.current.forEach(client => client.deactivate());
-            stompClientsRef.current.clear();
+            closeSharedClient();
         }
 
         return () => {
-            stompClientsRef.current.forEach(client => client.deactivate());
-            stompClientsRef.current.clear();
+            closeSharedClient();
         };
     }, [user, loading]);
 
     const value = {
         stompClientsRef,
         connectToRoom,
+        disconnectFromRoom,
         initializeConnections,
     };
 
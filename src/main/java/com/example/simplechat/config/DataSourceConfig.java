@@ -0,0 +1,62 @@
+package com.example.simplechat.config;
+
+import com.example.simplechat.repository.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * 읽기/쓰기 분리 DataSource 설정입니다.
+ * <p>
+ * {@code spring.datasource.replica.jdbc-url}이 설정된 경우에만 활성화되며, 이때 Spring Boot의 기본 DataSource 대신
+ * 주 DB 풀({@code spring.datasource.*}), 복제본 풀({@code spring.datasource.replica.*}),
+ * 그리고 둘 사이를 고르는 {@link ReadWriteRoutingDataSource}(@Primary)를 등록합니다.
+ * 설정하지 않으면 기존과 같이 단일 DataSource를 사용합니다.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.datasource.replica", name = "jdbc-url")
+public class DataSourceConfig {
+
+    /**
+     * 주 DB 연결 풀. spring.datasource.* 와 spring.datasource.hikari.* 설정을 그대로 사용합니다.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * 복제본 연결 풀. spring.datasource.replica.* (jdbc-url, username, password, driver-class-name 및 Hikari 설정)을 사용합니다.
+     * 복제본에서는 쓰기가 일어나지 않으므로 읽기 전용 연결로 엽니다.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(readYourWritesTracker);
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource,
+                ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        return routing;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.simplechat.config;
+
+import com.example.simplechat.model.ChatMessage;
+import com.example.simplechat.model.ChatRoom;
+import com.example.simplechat.model.Friendship;
+import com.example.simplechat.repository.JDBC_SQL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * perf 프로필에서 내장 데이터베이스에 대량의 합성 데이터를 적재하는 시더입니다.
+ * <p>
+ * 사용자, 채팅방, 방 참여 정보, 메시지, 친구 관계를 생성합니다. 방 참여와 메시지는 Zipf 분포를 따르므로
+ * 소수의 인기 방에 사용자와 메시지가 몰리는 실제 서비스와 비슷한 편향을 가집니다.
+ * 모든 사용자의 비밀번호는 {@code perf.seed.password}이며, 사용자 이름은 {@code user1}, {@code user2}, ... 입니다.
+ * </p>
+ * <p>
+ * users 테이블에 이미 데이터가 있으면 아무것도 하지 않습니다.
+ * </p>
+ */
+@Component
+@Profile("perf")
+@RequiredArgsConstructor
+public class PerfDataSeeder implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerfDataSeeder.class);
+
+    private static final String[] SAMPLE_WORDS = {
+        "안녕하세요", "반갑습니다", "오늘", "회의", "점심", "배포", "확인", "부탁드립니다", "좋아요", "ㅋㅋㅋ",
+        "내일", "일정", "공유", "링크", "문서", "테스트", "완료", "질문", "감사합니다", "잠시만요"
+    };
+
+    private final JDBC_SQL jdbcsql;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${perf.seed.enabled:true}")
+    private boolean enabled;
+
+    @Value("${perf.seed.users:2000}")
+    private int userCount;
+
+    @Value("${perf.seed.rooms:200}")
+    private int roomCount;
+
+    @Value("${perf.seed.messages:1000000}")
+    private long messageCount;
+
+    @Value("${perf.seed.max-rooms-per-user:20}")
+    private int maxRoomsPerUser;
+
+    @Value("${perf.seed.friends-per-user:10}")
+    private int friendsPerUser;
+
+    @Value("${perf.seed.zipf-exponent:1.1}")
+    private double zipfExponent;
+
+    @Value("${perf.seed.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${perf.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${perf.seed.password:password}")
+    private String password;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        Long existing = jdbcsql.queryForObject("SELECT COUNT(*) FROM users", null, (rs, cols) -> rs.getLong(1))
+            .orElse(0L);
+        if (existing > 0) {
+            logger.info("[PerfDataSeeder] 기존 데이터({}명의 사용자)가 있어 시드 데이터 생성을 건너뜁니다.", existing);
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        Random random = new Random(randomSeed);
+
+        List<Long> userIds = seedUsers();
+        // 방 소유자와 작성자를 사용자 중에서 고르므로 사용자나 방이 없으면 방·참여·메시지는 만들지 않음
+        List<Long> roomIds = List.of();
+        List<List<Integer>> members = List.of();
+        if (!userIds.isEmpty() && roomCount > 0) {
+            int[] ownerIndexes = new int[roomCount];
+            roomIds = seedRooms(userIds, ownerIndexes, random);
+            members = seedMemberships(userIds, roomIds, ownerIndexes, random);
+        }
+        seedFriendships(userIds, random);
+        if (!roomIds.isEmpty()) {
+            seedMessages(userIds, roomIds, members, random);
+        }
+
+        logger.info("[PerfDataSeeder] 시드 데이터 생성 완료: 사용자 {}명, 방 {}개, 메시지 {}건 ({}ms)",
+            userIds.size(), roomIds.size(), roomIds.isEmpty() ? 0 : messageCount, System.currentTimeMillis() - started);
+    }
+
+    private List<Long> seedUsers() {
+        // BCrypt는 느리므로 해시는 한 번만 계산해 모든 사용자에게 재사용
+        String passwordHash = passwordEncoder.encode(password);
+        String sql = "INSERT INTO users (username, password_hash, nickname, status_message) VALUES (?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 1; i <= userCount; i++) {
+            batch.add(new Object[]{"user" + i, passwordHash, nickname(i - 1), null});
+            if (batch.size() == batchSize) {
+                jdbcsql.executeBatch(sql, batch);
+                batch.clear();
+            }
+        }
+        flush(sql, batch);
+        return jdbcsql.query("SELECT user_id FROM users ORDER BY user_id", null, (rs, cols) -> rs.getLong(1));
+    }
+
+    private List<Long> seedRooms(List<Long> userIds, int[] ownerIndexes, Random random) {
+        String sql = "INSERT INTO chat_rooms (room_name, room_type, owner_id) VALUES (?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 1; i <= roomCount; i++) {
+            ownerIndexes[i - 1] = random.nextInt(userIds.size());
+            batch.add(new Object[]{"room-" + i, ChatRoom.RoomType.PUBLIC.name(), userIds.get(ownerIndexes[i - 1])});
+            if (batch.size() == batchSize) {
+                jdbcsql.executeBatch(sql, batch);
+                batch.clear();
+            }
+        }
+        flush(sql, batch);
+        return jdbcsql.query("SELECT room_id FROM chat_rooms ORDER BY room_id", null, (rs, cols) -> rs.getLong(1));
+    }
+
+    /**
+     * 방 소유자는 ADMIN으로, 그 외 사용자는 Zipf 분포로 고른 1~maxRoomsPerUser개의 방에 MEMBER로 참여시킵니다.
+     *
+     * @return 방 순서(roomIds 인덱스)별 참여자 목록 (userIds 인덱스)
+     */
+    private List<List<Integer>> seedMemberships(List<Long> userIds, List<Long> roomIds, int[] ownerIndexes, Random random) {
+        List<List<Integer>> members = new ArrayList<>(roomIds.size());
+        for (int i = 0; i < roomIds.size(); i++) {
+            members.add(new ArrayList<>());
+        }
+
+        String sql = "INSERT INTO chat_room_users (user_id, room_id, nickname, role) VALUES (?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+
+        for (int r = 0; r < roomIds.size(); r++) {
+            int owner = ownerIndexes[r];
+            members.get(r).add(owner);
+            batch.add(new Object[]{userIds.get(owner), roomIds.get(r), nickname(owner), "ADMIN"});
+        }
+
+        double[] cdf = zipfCdf(roomIds.size());
+        int roomsPerUserLimit = Math.min(maxRoomsPerUser, roomIds.size());
+        for (int u = 0; u < userIds.size(); u++) {
+            int target = 1 + random.nextInt(roomsPerUserLimit);
+            Set<Integer> joined = new HashSet<>();
+            for (int attempt = 0; joined.size() < target && attempt < target * 4; attempt++) {
+                int r = sample(cdf, random);
+                if (!joined.add(r) || members.get(r).get(0) == u) {
+                    continue;
+                }
+                members.get(r).add(u);
+                batch.add(new Object[]{userIds.get(u), roomIds.get(r), nickname(u), "MEMBER"});
+                if (batch.size() == batchSize) {
+                    jdbcsql.executeBatch(sql, batch);
+                    batch.clear();
+                }
+            }
+        }
+        flush(sql, batch);
+        return members;
+    }
+
+    private void seedFriendships(List<Long> userIds, Random random) {
+        if (userIds.size() < 2) {
+            return;
+        }
+        String sql = "INSERT INTO friendships (user_id_1, user_id_2, status) VALUES (?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        Set<Long> pairs = new HashSet<>();
+        for (Long userId : userIds) {
+            for (int i = 0; i < friendsPerUser; i++) {
+                Long other = userIds.get(random.nextInt(userIds.size()));
+                long low = Math.min(userId, other);
+                long high = Math.max(userId, other);
+                if (low == high || !pairs.add((low << 32) | high)) {
+                    continue;
+                }
+                Friendship.Status status = random.nextInt(10) == 0 ? Friendship.Status.PENDING : Friendship.Status.ACCEPTED;
+                batch.add(new Object[]{userId, other, status.name()});
+                if (batch.size() == batchSize) {
+                    jdbcsql.executeBatch(sql, batch);
+                    batch.clear();
+                }
+            }
+        }
+        flush(sql, batch);
+    }
+
+    /**
+     * 메시지를 방 인기도(Zipf)에 비례하여 분배하고, 작성자는 해당 방의 참여자 중에서 고릅니다.
+     */
+    private void seedMessages(List<Long> userIds, List<Long> roomIds, List<List<Integer>> members, Random random) {
+        String sql = "INSERT INTO chat_messages (room_id, author_id, author_name, message_type, content) VALUES (?, ?, ?, ?, ?)";
+        double[] cdf = zipfCdf(roomIds.size());
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        StringBuilder content = new StringBuilder();
+        for (long m = 1; m <= messageCount; m++) {
+            int r = sample(cdf, random);
+            List<Integer> roomMembers = members.get(r);
+            int author = roomMembers.get(random.nextInt(roomMembers.size()));
+
+            content.setLength(0);
+            int words = 1 + random.nextInt(12);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) content.append(' ');
+                content.append(SAMPLE_WORDS[random.nextInt(SAMPLE_WORDS.length)]);
+            }
+
+            batch.add(new Object[]{roomIds.get(r), userIds.get(author), nickname(author), ChatMessage.MsgType.TEXT.name(), content.toString()});
+            if (batch.size() == batchSize) {
+                jdbcsql.executeBatch(sql, batch);
+                batch.clear();
+            }
+            if (m % 100_000 == 0) {
+                logger.info("[PerfDataSeeder] 메시지 {}/{}건 생성", m, messageCount);
+            }
+        }
+        flush(sql, batch);
+    }
+
+    private static String nickname(int userIndex) {
+        return "사용자" + (userIndex + 1);
+    }
+
+    private void flush(String sql, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcsql.executeBatch(sql, batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 순위 1..n에 대해 1/k^s에 비례하는 누적 분포를 계산합니다.
+     */
+    private double[] zipfCdf(int n) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 1; k <= n; k++) {
+            sum += 1.0 / Math.pow(k, zipfExponent);
+            cdf[k - 1] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, Random random) {
+        int idx = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(idx >= 0 ? idx : -idx - 1, cdf.length - 1);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.simplechat.config;
+
+import com.example.simplechat.repository.QueryMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 클라이언트 인바운드 채널에서 STOMP 메시지 하나의 처리를 {@link QueryMetrics}의 측정 범위로 묶는 인터셉터입니다.
+ * <p>
+ * 범위는 메시지를 처리하는 채널 실행기 스레드에서 {@link #beforeHandle}부터 {@link #afterMessageHandled}까지이며,
+ * 이름은 "STOMP + 목적지"(예: "STOMP /app/chat.sendMessage")입니다.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryScopeChannelInterceptor implements ExecutorChannelInterceptor {
+
+    private final QueryMetrics queryMetrics;
+    private final ThreadLocal<QueryMetrics.Scope> previousScope = new ThreadLocal<>();
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        String command = destination != null ? destination : String.valueOf(SimpMessageHeaderAccessor.getMessageType(message.getHeaders()));
+        previousScope.set(queryMetrics.beginScope("STOMP " + command));
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        QueryMetrics.Scope previous = previousScope.get();
+        previousScope.remove();
+        queryMetrics.endScope(previous);
+    }
+}
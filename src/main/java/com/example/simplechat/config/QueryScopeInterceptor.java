@@ -0,0 +1,40 @@
+package com.example.simplechat.config;
+
+import com.example.simplechat.repository.QueryMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * HTTP 요청 하나를 {@link QueryMetrics}의 측정 범위로 묶는 인터셉터입니다.
+ * <p>
+ * 범위 이름은 "메서드 + 매핑된 URL 패턴"(예: "GET /room/{roomId}/users")이므로
+ * 경로 변수 값이 달라도 같은 엔드포인트로 집계됩니다.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryScopeInterceptor implements HandlerInterceptor {
+    private static final String PREVIOUS_SCOPE_ATTRIBUTE = QueryScopeInterceptor.class.getName() + ".PREVIOUS_SCOPE";
+
+    private final QueryMetrics queryMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = pattern != null ? pattern.toString() : request.getRequestURI();
+        QueryMetrics.Scope previous = queryMetrics.beginScope(request.getMethod() + " " + path);
+        if (previous != null) {
+            request.setAttribute(PREVIOUS_SCOPE_ATTRIBUTE, previous);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        queryMetrics.endScope((QueryMetrics.Scope) request.getAttribute(PREVIOUS_SCOPE_ATTRIBUTE));
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.simplechat.config;
+
+import com.example.simplechat.repository.ReadYourWritesTracker;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 읽기 전용 범위의 연결은 복제본(replica)으로, 그 외의 연결은 주 DB(primary)로 보내는 라우팅 DataSource입니다.
+ * <p>
+ * 복제본으로 가는 조건은 다음을 모두 만족할 때입니다.
+ * <ul>
+ *     <li>{@link com.example.simplechat.repository.ReadOnlyQuery} 범위 안 (읽기 전용, 실제 트랜잭션 없음)</li>
+ *     <li>현재 사용자가 최근 쓰기 이후의 read-your-writes 구간 밖 ({@link ReadYourWritesTracker})</li>
+ * </ul>
+ * 쓰기 트랜잭션, 트랜잭션 밖의 쿼리, 백그라운드 스레드의 쿼리는 모두 주 DB를 사용합니다.
+ * </p>
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReadWriteRoutingDataSource(ReadYourWritesTracker readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !TransactionSynchronizationManager.isActualTransactionActive()
+                && !readYourWritesTracker.isWithinWindow()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
@@ -76,6 +76,8 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("http://10.50.131.25:8000", "http://localhost:3000"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // 방 목록의 조건부 요청/페이지 이어받기에 필요한 응답 헤더를 브라우저 스크립트에 노출
+        configuration.setExposedHeaders(Arrays.asList("ETag", "X-Next-Cursor"));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,22 @@
+package com.example.simplechat.config;
+
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * 애플리케이션 공용 작업 실행기를 등록하는 설정 클래스입니다.
+ * <p>
+ * WebSocket 채널 실행기들이 Executor 빈으로 등록되어 있어 Spring Boot가 기본 {@code applicationTaskExecutor}를
+ * 만들지 않으므로, 저장 완료 후 처리(멘션 알림 등)에 쓰는 실행기를 직접 등록합니다.
+ * </p>
+ */
+@Configuration
+public class TaskExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
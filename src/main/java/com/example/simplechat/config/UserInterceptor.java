@@ -1,6 +1,8 @@
 package com.example.simplechat.config;
 
+import java.util.List;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
@@ -11,14 +13,22 @@ import org.springframework.stereotype.Component;
 /**
  * WebSocket 메시지 채널을 가로채서 사용자 정보를 처리하는 인터셉터입니다.
  * <p>
- * 클라이언트가 WebSocket에 연결(CONNECT)할 때, STOMP 헤더에서 사용자 ID와 방 ID를 추출하여
- * WebSocket 세션 속성에 저장하는 역할을 합니다.
+ * 클라이언트가 WebSocket에 연결(CONNECT)할 때, STOMP 헤더에서 사용자 ID(와 선택적으로 방 ID)를 추출하여
+ * WebSocket 세션 속성에 저장하는 역할을 합니다. 하나의 연결이 여러 방을 구독할 수 있으므로
+ * 방은 연결 시점이 아니라 구독(SUBSCRIBE/UNSUBSCRIBE) 시점에 정해집니다.
  * 이렇게 저장된 정보는 이후의 WebSocket 이벤트(예: 연결 해제) 처리 시 사용됩니다.
  * </p>
+ * <p>
+ * 노드 간 내부 통신에 쓰는 브로커 destination(세션 레지스트리 동기화, 캐시 무효화, 사용자 destination/레지스트리 브로드캐스트)은
+ * 클라이언트가 구독하거나 보낼 수 없도록 막습니다.
+ * </p>
  */
 @Component
 public class UserInterceptor implements ChannelInterceptor {
 
+    private static final List<String> INTERNAL_DESTINATIONS = List.of(
+        "/topic/cluster-", "/queue/cluster-", "/topic/simp-user-registry", "/topic/unresolved-user-destination");
+
     /**
      * 메시지가 채널로 전송되기 전에 호출됩니다.
      * <p>
@@ -38,11 +48,22 @@ public class UserInterceptor implements ChannelInterceptor {
             String userId = accessor.getFirstNativeHeader("user_id");
             String roomId = accessor.getFirstNativeHeader("room_id");
 
-            if (userId != null && roomId != null) {
+            if (userId != null) {
                 accessor.getSessionAttributes().put("user_id", userId);
+            }
+            // room_id는 방마다 연결을 따로 여는 이전 클라이언트 호환용. 방 입장/퇴장은 구독 destination으로 판단
+            if (userId != null && roomId != null) {
                 accessor.getSessionAttributes().put("room_id", roomId);
             }
         }
+
+        if (accessor != null && (StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                || StompCommand.SEND.equals(accessor.getCommand()))) {
+            String destination = accessor.getDestination();
+            if (destination != null && INTERNAL_DESTINATIONS.stream().anyMatch(destination::startsWith)) {
+                throw new MessageDeliveryException(message, "내부 destination에는 접근할 수 없습니다: " + destination);
+            }
+        }
         return message;
     }
 }
\ No newline at end of file
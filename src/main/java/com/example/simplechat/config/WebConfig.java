@@ -3,15 +3,21 @@ package com.example.simplechat.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
  * Spring Web MVC 설정을 사용자 정의하는 클래스입니다.
- * 정적 리소스 핸들러와 전역 CORS(Cross-Origin Resource Sharing) 정책을 구성합니다.
+ * 정적 리소스 핸들러와 전역 CORS(Cross-Origin Resource Sharing) 정책, 요청별 쿼리 측정 인터셉터를 구성합니다.
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    private final QueryScopeInterceptor queryScopeInterceptor;
+
+    public WebConfig(QueryScopeInterceptor queryScopeInterceptor) {
+        this.queryScopeInterceptor = queryScopeInterceptor;
+    }
 
     @Value("${file.profile-upload-dir}")
     private String profileUploadDir;
@@ -53,6 +59,16 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://10.50.131.25:8000", "http://localhost:3000") // 클라이언트 출처 허용
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD") // 허용할 HTTP 메서드
                 .allowCredentials(true) // 자격 증명(쿠키 등) 허용
-                .allowedHeaders("*"); // 모든 헤더 허용
+                .allowedHeaders("*") // 모든 헤더 허용
+                .exposedHeaders("ETag", "X-Next-Cursor"); // 방 목록의 조건부 요청/페이지 커서 헤더 노출
+    }
+
+    /**
+     * 모든 요청을 {@link QueryScopeInterceptor}로 감싸 요청 하나에서 실행된 쿼리 수를 측정합니다.
+     * @param registry 인터셉터를 등록하는 데 사용되는 레지스트리
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryScopeInterceptor);
     }
 }
@@ -1,5 +1,6 @@
 package com.example.simplechat.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.messaging.simp.config.ChannelRegistration;
@@ -15,44 +16,78 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     private final UserInterceptor userInterceptor;
+    private final QueryScopeChannelInterceptor queryScopeChannelInterceptor;
 
-    public WebSocketConfig(UserInterceptor userInterceptor) {
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin;
+    @Value("${websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    public WebSocketConfig(UserInterceptor userInterceptor, QueryScopeChannelInterceptor queryScopeChannelInterceptor) {
         this.userInterceptor = userInterceptor;
+        this.queryScopeChannelInterceptor = queryScopeChannelInterceptor;
     }
 
     /**
      * 메시지 브로커를 구성합니다.
      * <ul>
      *     <li>enableSimpleBroker: /topic, /queue 접두사를 사용하는 간단한 인메모리 브로커를 활성화합니다.
-     *     클라이언트가 이 경로들을 구독할 수 있습니다.</li>
+     *     클라이언트가 이 경로들을 구독할 수 있습니다. (websocket.broker.mode=simple, 단일 노드)</li>
+     *     <li>enableStompBrokerRelay: websocket.broker.mode=relay이면 /topic, /queue를 외부 STOMP 브로커로 릴레이하여
+     *     한 노드에서 발행한 메시지가 다른 노드에 연결된 구독자에게도 전달되도록 합니다. 각 노드의 접속 사용자 목록을
+     *     브로커로 주기적으로 공유하고, 이 노드에서 찾지 못한 사용자 대상 메시지는 다른 노드로 방송하므로
+     *     {@code convertAndSendToUser}가 다른 노드에 연결된 사용자에게도 전달됩니다.</li>
      *     <li>setApplicationDestinationPrefixes: @MessageMapping 메서드로 라우팅될 메시지의 접두사를 /app으로 설정합니다.</li>
+     *     <li>setPreservePublishOrder: 한 세션으로 보내는 메시지가 발행된 순서대로 전달되도록 합니다.
+     *     (방 레인에서 순서대로 보낸 브로드캐스트가 출력 채널 스레드 풀에서 뒤섞이지 않도록)</li>
      * </ul>
      * @param config 메시지 브로커 설정을 위한 레지스트리
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                .setRelayHost(relayHost)
+                .setRelayPort(relayPort)
+                .setClientLogin(relayLogin)
+                .setClientPasscode(relayPasscode)
+                .setSystemLogin(relayLogin)
+                .setSystemPasscode(relayPasscode)
+                .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
+        config.setPreservePublishOrder(true);
     }
 
     /**
      * 클라이언트로부터 들어오는 인바운드 채널을 구성합니다.
-     * 여기서는 사용자 정보를 처리하기 위한 커스텀 인터셉터를 등록합니다.
+     * 여기서는 사용자 정보를 처리하기 위한 커스텀 인터셉터와 메시지별 쿼리 수를 측정하는 인터셉터를 등록합니다.
      * @param registration 채널 등록을 위한 객체
      */
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(userInterceptor);
+        registration.interceptors(userInterceptor, queryScopeChannelInterceptor);
     }
 
     /**
      * STOMP WebSocket 연결을 위한 엔드포인트를 등록하고 CORS를 설정합니다.
      * 클라이언트는 /ws 엔드포인트를 통해 WebSocket 연결을 시작할 수 있습니다.
      * SockJS는 WebSocket을 지원하지 않는 브라우저를 위한 대체 옵션으로 활성화됩니다.
+     * 한 세션에서 보낸 메시지는 받은 순서대로 처리되도록 합니다. (같은 사용자가 연달아 보낸 채팅의 저장 순서 보장)
      * @param registry STOMP 엔드포인트를 등록하기 위한 레지스트리
      */
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.setPreserveReceiveOrder(true);
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("http://10.50.131.25:8000", "http://localhost:3000")
                 .withSockJS();
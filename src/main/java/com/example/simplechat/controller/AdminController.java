@@ -1,15 +1,37 @@
 package com.example.simplechat.controller;
 
+import com.example.simplechat.dto.CacheStatsDto;
+import com.example.simplechat.dto.ClusterNodeDto;
+import com.example.simplechat.dto.NPlusOneSuspectDto;
+import com.example.simplechat.dto.QueryStatDto;
+import com.example.simplechat.dto.RoomAffinityStatsDto;
+import com.example.simplechat.dto.RoomLaneStatsDto;
 import com.example.simplechat.exception.RegistrationException;
+import com.example.simplechat.model.PurgeJob;
+import com.example.simplechat.repository.FriendGraph;
+import com.example.simplechat.repository.HistorySegmentStore;
+import com.example.simplechat.repository.QueryMetrics;
+import com.example.simplechat.repository.RecentMessageBuffer;
+import com.example.simplechat.repository.RoomMembershipIndex;
+import com.example.simplechat.repository.RoomMetadataCache;
+import com.example.simplechat.repository.RoomSummaryCache;
 import com.example.simplechat.service.AdminService;
+import com.example.simplechat.service.ClusterSessionRegistry;
+import com.example.simplechat.service.PurgeService;
+import com.example.simplechat.service.RoomAffinityRouter;
+import com.example.simplechat.service.RoomEventLanes;
+import com.example.simplechat.service.UserProfileCache;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.Map;
 
 @RequiredArgsConstructor
@@ -18,14 +40,22 @@ import java.util.Map;
 public class AdminController {
 
     private final AdminService adminService;
+    private final QueryMetrics queryMetrics;
+    private final PurgeService purgeService;
+    private final UserProfileCache userProfileCache;
+    private final RoomMembershipIndex roomMembershipIndex;
+    private final RecentMessageBuffer recentMessageBuffer;
+    private final HistorySegmentStore historySegmentStore;
+    private final RoomSummaryCache roomSummaryCache;
+    private final RoomMetadataCache roomMetadataCache;
+    private final FriendGraph friendGraph;
+    private final RoomEventLanes roomEventLanes;
+    private final ClusterSessionRegistry clusterSessionRegistry;
+    private final RoomAffinityRouter roomAffinityRouter;
 
     @PostMapping("/command")
     public ResponseEntity<Map<String, String>> executeAdminCommand(@RequestBody Map<String, String> payload, HttpSession session) {
-        Long userId = (Long) session.getAttribute("userId");
-        // 관리자(userId=0)가 아니면 접근 거부
-        if (userId == null || userId != 0) { // Assume userId 0 is admin for now
-            throw new RegistrationException("FORBIDDEN", "관리자만 사용할 수 있는 기능입니다.");
-        }
+        requireAdmin(session);
 
         String command = payload.get("command");
         if (command == null || command.isBlank()) {
@@ -36,4 +66,87 @@ public class AdminController {
 
         return ResponseEntity.ok(Map.of("message", result));
     }
+
+    /**
+     * 쿼리 지문별 실행 횟수, 지연 시간 분위수/히스토그램, 행 수를 총 소요 시간 순으로 반환합니다.
+     */
+    @GetMapping("/query-stats")
+    public ResponseEntity<List<QueryStatDto>> getQueryStats(HttpSession session) {
+        requireAdmin(session);
+        return ResponseEntity.ok(queryMetrics.snapshot());
+    }
+
+    /**
+     * 요청/메시지 하나에서 같은 쿼리가 반복 실행된 N+1 의심 목록을 반환합니다.
+     */
+    @GetMapping("/query-stats/n-plus-one")
+    public ResponseEntity<List<NPlusOneSuspectDto>> getNPlusOneSuspects(HttpSession session) {
+        requireAdmin(session);
+        return ResponseEntity.ok(queryMetrics.nPlusOneSuspects());
+    }
+
+    /**
+     * 누적된 쿼리 통계와 N+1 의심 목록을 초기화합니다.
+     */
+    @DeleteMapping("/query-stats")
+    public ResponseEntity<Void> resetQueryStats(HttpSession session) {
+        requireAdmin(session);
+        queryMetrics.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * 진행 중이거나 대기 중인 purge 작업과 지금까지 삭제한 행 수를 반환합니다.
+     */
+    @GetMapping("/purge-jobs")
+    public ResponseEntity<List<PurgeJob>> getPurgeJobs(HttpSession session) {
+        requireAdmin(session);
+        return ResponseEntity.ok(purgeService.getUnfinishedJobs());
+    }
+
+    /**
+     * 프로세스 내 캐시들의 크기와 적중률을 반환합니다.
+     */
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats(HttpSession session) {
+        requireAdmin(session);
+        return ResponseEntity.ok(List.of(userProfileCache.stats(), roomMembershipIndex.stats(),
+            recentMessageBuffer.stats(), historySegmentStore.stats(), roomSummaryCache.stats(),
+            roomMetadataCache.stats(), friendGraph.stats()));
+    }
+
+    /**
+     * 방 이벤트 전송 레인별 대기열 깊이와 처리/버림 횟수를 반환합니다.
+     */
+    @GetMapping("/room-lanes")
+    public ResponseEntity<List<RoomLaneStatsDto>> getRoomLaneStats(HttpSession session) {
+        requireAdmin(session);
+        return ResponseEntity.ok(roomEventLanes.stats());
+    }
+
+    /**
+     * 세션 레지스트리가 알고 있는 노드별 세션 수와 임대 상태를 반환합니다.
+     */
+    @GetMapping("/cluster-nodes")
+    public ResponseEntity<List<ClusterNodeDto>> getClusterNodes(HttpSession session) {
+        requireAdmin(session);
+        return ResponseEntity.ok(clusterSessionRegistry.nodes());
+    }
+
+    /**
+     * 방 소유 노드 링의 구성과 전달/인계 횟수를 반환합니다.
+     */
+    @GetMapping("/room-affinity")
+    public ResponseEntity<RoomAffinityStatsDto> getRoomAffinityStats(HttpSession session) {
+        requireAdmin(session);
+        return ResponseEntity.ok(roomAffinityRouter.stats());
+    }
+
+    private void requireAdmin(HttpSession session) {
+        Long userId = (Long) session.getAttribute("userId");
+        // 관리자(userId=0)가 아니면 접근 거부
+        if (userId == null || userId != 0) { // Assume userId 0 is admin for now
+            throw new RegistrationException("FORBIDDEN", "관리자만 사용할 수 있는 기능입니다.");
+        }
+    }
 }
@@ -3,13 +3,16 @@ package com.example.simplechat.controller;
 import com.example.simplechat.dto.ChatMessageListDto;
 import com.example.simplechat.dto.ChatMessageListRequestDto;
 import com.example.simplechat.dto.ChatMessageRequestDto;
+import com.example.simplechat.dto.ErrorResponseDto;
 import com.example.simplechat.dto.NickChangeDto;
 import com.example.simplechat.exception.RegistrationException;
 import com.example.simplechat.service.ChatMessageService;
+import com.example.simplechat.service.RoomAffinityRouter;
 import jakarta.servlet.http.HttpSession;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,12 +26,14 @@ import org.springframework.web.multipart.MultipartFile;
 
 /**
  * 채팅 메시지와 관련된 WebSocket 메시지와 RESTful API 요청을 모두 처리하는 컨트롤러입니다.
+ * 방 단위 작업은 {@link RoomAffinityRouter}를 거쳐 방의 소유 노드에서 실행됩니다.
  */
 @RequiredArgsConstructor
 @RestController
 public class ChatMessageController {
 
     private final ChatMessageService chatMessageService;
+    private final RoomAffinityRouter roomAffinityRouter;
 
     /**
      * POST /room/{roomId}/file 특정 채팅방에 대한 파일 업로드를 처리합니다.
@@ -50,7 +55,9 @@ public class ChatMessageController {
             throw new RegistrationException("UNAUTHORIZED", "먼저 로그인해주세요!");
         }
 
-        chatMessageService.uploadChatFile(roomId, userId, file);
+        // 파일은 업로드를 받은 노드에 저장하고, 메시지는 방의 소유 노드에서 생성
+        String fileInfoContent = chatMessageService.storeChatFile(file);
+        roomAffinityRouter.addFileMessage(roomId, userId, fileInfoContent);
 
         return ResponseEntity.ok().build();
     }
@@ -62,7 +69,20 @@ public class ChatMessageController {
      */
     @MessageMapping("/chat.sendMessage")
     public void recvMessage(ChatMessageRequestDto msgDto) {
-        chatMessageService.addChat_publish(msgDto);
+        roomAffinityRouter.sendMessage(msgDto);
+    }
+
+    /**
+     * WebSocket 메시지 처리 중 발생한 {@link RegistrationException}을 보낸 사용자의 오류 큐로 전달합니다.
+     * (예: 방 레인이 밀려 메시지를 거절한 경우 "BUSY") Destination: /user/queue/errors
+     *
+     * @param ex 처리 중 발생한 예외
+     * @return 오류 코드와 메시지
+     */
+    @MessageExceptionHandler(RegistrationException.class)
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public ErrorResponseDto handleMessageError(RegistrationException ex) {
+        return new ErrorResponseDto(ex.getErrorCode(), ex.getMessage());
     }
 
     /**
@@ -72,7 +92,7 @@ public class ChatMessageController {
      */
     @MessageMapping("/chat.changeNick")
     public void changeNick(NickChangeDto nickChangeDto) {
-        chatMessageService.changeNicknameInRoom(nickChangeDto);
+        roomAffinityRouter.changeNickname(nickChangeDto);
     }
 
     /**
@@ -90,7 +110,7 @@ public class ChatMessageController {
         if (userId == null) {
             throw new RegistrationException("UNAUTHORIZED", "세션 정보를 찾을 수 없습니다.");
         }
-        chatMessageService.deleteMessage(messageId, userId);
+        roomAffinityRouter.deleteMessage(messageId, userId);
         return ResponseEntity.noContent().build();
     }
 
@@ -113,7 +133,7 @@ public class ChatMessageController {
             throw new RegistrationException("UNAUTHORIZED", "세션 정보를 찾을 수 없습니다.");
         }
         String newContent = payload.get("content");
-        chatMessageService.editMessage(messageId, userId, newContent);
+        roomAffinityRouter.editMessage(messageId, userId, newContent);
         return ResponseEntity.noContent().build();
     }
 
@@ -127,6 +147,6 @@ public class ChatMessageController {
     @MessageMapping("/chat.getMessageList")
     @SendToUser("/topic/queue/reply")
     public ChatMessageListDto getMessageList(ChatMessageListRequestDto msgListDto) {
-        return chatMessageService.getMessageList(msgListDto);
+        return roomAffinityRouter.getMessageList(msgListDto);
     }
 }
@@ -3,13 +3,16 @@ package com.example.simplechat.controller;
 import com.example.simplechat.dto.ChatRoomListDto;
 import com.example.simplechat.dto.InviteRequestDto;
 import com.example.simplechat.dto.RoomCreateDto;
+import com.example.simplechat.dto.RoomDirectoryPageDto;
 import com.example.simplechat.dto.RoomEnterDto;
 import com.example.simplechat.dto.RoomInitDataDto;
 import com.example.simplechat.exception.RegistrationException;
 import com.example.simplechat.service.ChatRoomService;
+import com.example.simplechat.service.RoomAffinityRouter;
 import jakarta.servlet.http.HttpSession;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -30,17 +33,39 @@ import org.springframework.web.bind.annotation.RestController;
 public class ChatRoomController {
 
     private final ChatRoomService chatRoomService;
+    private final RoomAffinityRouter roomAffinityRouter;
 
     /**
-     * GET /room/list 사용 가능한 모든 채팅방 목록을 가져옵니다.
+     * GET /room/list 사용 가능한 채팅방 목록을 가져옵니다.
+     * <p>
+     * 응답에는 강한 {@code ETag}가 붙으며, {@code If-None-Match}가 일치하면 본문 없이 304 Not Modified를 반환합니다.
+     * {@code limit}을 지정하면 그 수만큼만 반환하고, 남은 방이 있으면 다음 요청의 {@code cursor}로 쓸 값을
+     * {@code X-Next-Cursor} 헤더로 알려 줍니다.
+     * </p>
      *
+     * @param roomType 이 유형의 방만 가져옵니다. (선택 사항)
+     * @param cursor 이전 페이지의 {@code X-Next-Cursor} 값입니다. (선택 사항)
+     * @param limit 페이지 크기입니다. 생략하면 나머지 전체를 반환합니다. (선택 사항)
      * @param session 현재 사용자를 식별하는 데 사용되는 HTTP 세션입니다.
      * @return {@link ChatRoomListDto} 객체 목록입니다.
      */
     @GetMapping("/list")
-    public List<ChatRoomListDto> getRoomList(HttpSession session) {
+    public ResponseEntity<List<ChatRoomListDto>> getRoomList(
+        @RequestParam(value = "type", required = false) String roomType,
+        @RequestParam(value = "cursor", required = false) Long cursor,
+        @RequestParam(value = "limit", required = false) Integer limit,
+        HttpSession session) {
         Long userId = (Long) session.getAttribute("userId");
-        return chatRoomService.getRoomList(userId);
+        RoomDirectoryPageDto page = chatRoomService.getRoomDirectory(userId, roomType, cursor, limit);
+
+        // GET 응답의 ETag가 If-None-Match와 같으면 Spring이 본문 없이 304로 바꿔 보냄
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(page.etag())
+            .cacheControl(CacheControl.noCache());
+        if (page.nextCursor() != null) {
+            response.header("X-Next-Cursor", String.valueOf(page.nextCursor()));
+        }
+        return response.body(page.rooms());
     }
 
     /**
@@ -77,7 +102,7 @@ public class ChatRoomController {
             throw new RegistrationException("UNAUTHORIZED", "먼저 로그인해주세요!");
         }
 
-        return chatRoomService.enterRoom(roomId, userId, enterDto.password());
+        return roomAffinityRouter.enterRoom(roomId, userId, enterDto.password());
     }
 
     /**
@@ -93,7 +118,7 @@ public class ChatRoomController {
         if (userId == null) {
             throw new RegistrationException("UNAUTHORIZED", "세션 정보를 찾을 수 없습니다.");
         }
-        chatRoomService.exitRoom(roomId, userId);
+        roomAffinityRouter.exitRoom(roomId, userId);
     }
 
     /**
@@ -109,7 +134,7 @@ public class ChatRoomController {
         if (userId == null) {
             throw new RegistrationException("UNAUTHORIZED", "세션 정보를 찾을 수 없습니다.");
         }
-        chatRoomService.deleteRoom(roomId, userId);
+        roomAffinityRouter.deleteRoom(roomId, userId);
     }
 
     /**
@@ -130,6 +155,7 @@ public class ChatRoomController {
 
     /**
      * GET /room/{roomId}/init 채팅방의 초기 데이터(최근 메시지 및 사용자 목록 포함)를 가져옵니다.
+     * 방의 소유 노드에서 조회합니다.
      *
      * @param roomId 방의 ID입니다.
      * @param lines 가져올 최근 메시지의 수입니다.
@@ -141,7 +167,7 @@ public class ChatRoomController {
         @RequestParam(name = "lines", defaultValue = "20") int lines, HttpSession session) {
         Long userId = (Long) session.getAttribute("userId");
 
-        return chatRoomService.initRoom(roomId, userId, lines);
+        return roomAffinityRouter.initRoom(roomId, userId, lines);
     }
 
     /**
@@ -160,7 +186,7 @@ public class ChatRoomController {
         if (kickerId == null) {
             throw new RegistrationException("UNAUTHORIZED", "세션 정보를 찾을 수 없습니다.");
         }
-        chatRoomService.kickUser(roomId, kickerId, userIdToKick);
+        roomAffinityRouter.kickUser(roomId, kickerId, userIdToKick);
     }
 
     /**
@@ -183,7 +209,7 @@ public class ChatRoomController {
             throw new RegistrationException("UNAUTHORIZED", "로그인이 필요합니다.");
         }
 
-        chatRoomService.inviteUserToRoom(roomId, inviterId, inviteDto.userId());
+        roomAffinityRouter.inviteUser(roomId, inviterId, inviteDto.userId());
 
         return ResponseEntity.ok().build();
     }
@@ -17,8 +17,9 @@ public class GlobalExceptionHandler {
 
         HttpStatus status = switch (ex.getErrorCode()) {
             case "DUPLICATE_USERNAME", "DUPLICATE_NICKNAME" -> HttpStatus.CONFLICT; // 409
-            case "INVALID_PASSWORD", "INVALID_USERNAME" -> HttpStatus.BAD_REQUEST; // 400
+            case "INVALID_PASSWORD", "INVALID_USERNAME", "INVALID_ROOM_TYPE" -> HttpStatus.BAD_REQUEST; // 400
             case "UNAUTHORIZED" -> HttpStatus.UNAUTHORIZED;	// 401
+            case "BUSY", "UNAVAILABLE" -> HttpStatus.SERVICE_UNAVAILABLE; // 503
             default -> HttpStatus.INTERNAL_SERVER_ERROR; // 500
         };
 
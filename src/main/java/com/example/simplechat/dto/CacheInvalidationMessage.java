@@ -0,0 +1,39 @@
+package com.example.simplechat.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 노드 사이에 주고받는 캐시 무효화 메시지입니다. ({@code ClusterCacheInvalidator} 참고)
+ *
+ * @param type 메시지 종류
+ * @param nodeId 보낸 노드의 ID
+ * @param roomId 채팅방 ID (ROOM, MEMBER 시 사용)
+ * @param userId 사용자 ID (MEMBER, USER, FRIEND_ADDED, FRIEND_REMOVED 시 사용)
+ * @param otherUserId 친구 관계의 상대 사용자 ID (FRIEND_ADDED, FRIEND_REMOVED 시 사용)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL) // JSON으로 변환 시 null인 필드는 제외
+public record CacheInvalidationMessage(
+    Type type,
+    String nodeId,
+    Long roomId,
+    Long userId,
+    Long otherUserId
+) {
+    /**
+     * 메시지의 종류를 나타내는 열거형입니다.
+     */
+    public enum Type {
+        /** 방이 생성/수정/삭제되었거나 방의 참여자가 한꺼번에 지워졌습니다. */
+        ROOM,
+        /** 방 참여자 한 명이 추가/변경/제거되었습니다. */
+        MEMBER,
+        /** 사용자의 프로필(닉네임, 이미지)이 바뀌었습니다. */
+        USER,
+        /** 두 사용자가 친구가 되었습니다. */
+        FRIEND_ADDED,
+        /** 두 사용자의 친구 관계가 없어졌습니다. */
+        FRIEND_REMOVED,
+        /** 보낸 노드가 무효화를 전달하지 못한 적이 있으므로 캐시를 모두 비웁니다. */
+        RESET
+    }
+}
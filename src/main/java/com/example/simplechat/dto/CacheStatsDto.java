@@ -0,0 +1,25 @@
+package com.example.simplechat.dto;
+
+/**
+ * 프로세스 내 캐시 하나의 상태와 적중 통계 DTO입니다.
+ *
+ * @param name 캐시 이름
+ * @param size 현재 항목 수
+ * @param maxSize 최대 항목 수
+ * @param hits 적중 횟수
+ * @param misses 부재(DB 조회) 횟수
+ * @param hitRate 적중률 (0.0 ~ 1.0)
+ * @param evictions 크기 제한으로 밀려난 항목 수
+ * @param invalidations 변경 이벤트로 무효화된 항목 수
+ */
+public record CacheStatsDto(
+    String name,
+    int size,
+    int maxSize,
+    long hits,
+    long misses,
+    double hitRate,
+    long evictions,
+    long invalidations
+) {
+}
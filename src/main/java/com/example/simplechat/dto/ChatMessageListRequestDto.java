@@ -5,13 +5,28 @@ package com.example.simplechat.dto;
  * 커서 기반 페이지네이션을 위한 정보를 담고 있습니다.
  *
  * @param roomId 메시지 목록을 조회할 방의 ID
- * @param beginId 메시지 조회를 시작할 기준이 되는 메시지 ID (이 ID 이전의 메시지를 조회)
+ * @param beginId 메시지 조회를 시작할 기준이 되는 메시지 ID (커서). null이면 최신 메시지부터 조회
  * @param rowCount 조회할 메시지의 개수
+ * @param direction 조회 방향. BEFORE(기본값)는 beginId 이전, AFTER는 beginId 이후의 메시지를 조회
  */
 public record ChatMessageListRequestDto(
     Long roomId,
     Long beginId,
-    Integer rowCount
+    Integer rowCount,
+    Direction direction
 ) {
 
-}
\ No newline at end of file
+    /**
+     * 커서 기준 조회 방향입니다.
+     */
+    public enum Direction {
+        /**
+         * 커서보다 오래된 메시지 (이전 기록 불러오기)
+         */
+        BEFORE,
+        /**
+         * 커서보다 새로운 메시지 (놓친 메시지 따라잡기)
+         */
+        AFTER
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.simplechat.dto;
+
+/**
+ * 클러스터 세션 레지스트리가 알고 있는 노드 하나의 상태 DTO입니다.
+ *
+ * @param nodeId 노드 ID
+ * @param local 현재 노드이면 true
+ * @param roomSessions 노드에 열려 있는 방 세션 수
+ * @param onlineSessions 노드에 열려 있는 presence 세션 수
+ * @param leaseRemainingMs 임대 만료까지 남은 시간 (현재 노드는 -1)
+ */
+public record ClusterNodeDto(
+    String nodeId,
+    boolean local,
+    int roomSessions,
+    int onlineSessions,
+    long leaseRemainingMs
+) {
+}
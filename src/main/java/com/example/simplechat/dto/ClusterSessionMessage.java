@@ -0,0 +1,63 @@
+package com.example.simplechat.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.Map;
+
+/**
+ * 노드 사이에 주고받는 세션/접속 상태 메시지입니다. ({@code ClusterSessionRegistry} 참고)
+ *
+ * @param type 메시지 종류
+ * @param nodeId 보낸 노드의 ID
+ * @param roomId 채팅방 ID (ROOM_JOIN, ROOM_LEAVE 시 사용)
+ * @param userId 사용자 ID (SNAPSHOT, HEARTBEAT, SYNC_REQUEST 외에 사용)
+ * @param username 사용자 이름 (ONLINE 시 사용)
+ * @param nickname 닉네임 (ONLINE, NICKNAME 시 사용)
+ * @param rooms 방 ID → (사용자 ID → 세션 수) (SNAPSHOT 시 사용)
+ * @param online 사용자 ID → 접속 정보 (SNAPSHOT 시 사용)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL) // JSON으로 변환 시 null인 필드는 제외
+public record ClusterSessionMessage(
+    Type type,
+    String nodeId,
+    Long roomId,
+    Long userId,
+    String username,
+    String nickname,
+    Map<Long, Map<Long, Integer>> rooms,
+    Map<Long, OnlineEntry> online
+) {
+    /**
+     * 메시지의 종류를 나타내는 열거형입니다.
+     */
+    public enum Type {
+        /** 보낸 노드에서 방 세션 하나가 열렸습니다. */
+        ROOM_JOIN,
+        /** 보낸 노드에서 방 세션 하나가 닫혔습니다. */
+        ROOM_LEAVE,
+        /** 보낸 노드에서 사용자의 presence 세션 하나가 열렸습니다. */
+        ONLINE,
+        /** 보낸 노드에서 사용자의 presence 세션 하나가 닫혔습니다. */
+        OFFLINE,
+        /** 접속 중인 사용자의 닉네임이 바뀌었습니다. */
+        NICKNAME,
+        /** 보낸 노드가 살아 있음을 알립니다. (임대 갱신) */
+        HEARTBEAT,
+        /** 보낸 노드의 전체 상태입니다. 받은 노드는 해당 노드의 상태를 통째로 교체합니다. */
+        SNAPSHOT,
+        /** 다른 모든 노드에 전체 상태(SNAPSHOT)를 요청합니다. */
+        SYNC_REQUEST
+    }
+
+    /**
+     * 접속 중인 사용자 한 명의 정보입니다.
+     *
+     * @param username 개인 큐 전송에 사용하는 사용자 이름
+     * @param nickname 상태 변경 알림에 표시할 닉네임
+     * @param sessions 열려 있는 presence 세션 수
+     */
+    public record OnlineEntry(String username, String nickname, int sessions) {}
+
+    public static ClusterSessionMessage of(Type type, String nodeId) {
+        return new ClusterSessionMessage(type, nodeId, null, null, null, null, null, null);
+    }
+}
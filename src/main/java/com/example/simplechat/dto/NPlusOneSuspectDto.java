@@ -0,0 +1,20 @@
+package com.example.simplechat.dto;
+
+/**
+ * HTTP 요청이나 STOMP 메시지 하나를 처리하는 동안 같은 쿼리가 반복 실행된 N+1 의심 패턴 DTO입니다.
+ *
+ * @param scope 요청/메시지 이름 (예: "GET /room/list")
+ * @param fingerprint 반복된 쿼리 지문
+ * @param occurrences 임계값 이상 반복이 감지된 요청/메시지 수
+ * @param maxRepeats 한 번의 요청/메시지 안에서 반복된 최대 횟수
+ * @param lastSeenEpochMillis 마지막으로 감지된 시각 (epoch ms)
+ */
+public record NPlusOneSuspectDto(
+    String scope,
+    String fingerprint,
+    long occurrences,
+    long maxRepeats,
+    long lastSeenEpochMillis
+) {
+
+}
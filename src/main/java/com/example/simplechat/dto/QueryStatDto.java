@@ -0,0 +1,34 @@
+package com.example.simplechat.dto;
+
+import java.util.Map;
+
+/**
+ * 정규화된 쿼리 지문 하나에 대한 누적 실행 통계 DTO입니다.
+ *
+ * @param fingerprint 리터럴과 IN 목록 길이를 지운 쿼리 지문
+ * @param count 실행 횟수
+ * @param totalMillis 총 실행 시간 (커넥션 획득 제외, ms)
+ * @param avgMillis 평균 실행 시간 (ms)
+ * @param p50Millis 50백분위 실행 시간 (히스토그램 버킷 상한, ms)
+ * @param p95Millis 95백분위 실행 시간 (히스토그램 버킷 상한, ms)
+ * @param p99Millis 99백분위 실행 시간 (히스토그램 버킷 상한, ms)
+ * @param maxMillis 최대 실행 시간 (ms)
+ * @param avgAcquireMillis 평균 커넥션 획득 대기 시간 (ms)
+ * @param rows 반환되거나 영향을 받은 행 수의 합
+ * @param histogram 버킷 레이블 → 실행 횟수
+ */
+public record QueryStatDto(
+    String fingerprint,
+    long count,
+    double totalMillis,
+    double avgMillis,
+    double p50Millis,
+    double p95Millis,
+    double p99Millis,
+    double maxMillis,
+    double avgAcquireMillis,
+    long rows,
+    Map<String, Long> histogram
+) {
+
+}
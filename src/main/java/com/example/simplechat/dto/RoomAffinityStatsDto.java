@@ -0,0 +1,25 @@
+package com.example.simplechat.dto;
+
+import java.util.List;
+
+/**
+ * 방 소유 노드 라우팅의 상태 DTO입니다.
+ *
+ * @param nodeId 현재 노드 ID
+ * @param members 링에 올라 있는 노드 ID 목록
+ * @param forwarded 소유 노드로 전달한 작업 수
+ * @param served 다른 노드에서 전달받아 실행한 작업 수
+ * @param timeouts 응답을 기다리다 시간이 지나 현재 노드에서 대신 실행한 작업 수
+ * @param handoffsSent 다른 노드로 넘긴 방 버퍼 수
+ * @param handoffsReceived 넘겨받아 적재한 방 버퍼 수
+ */
+public record RoomAffinityStatsDto(
+    String nodeId,
+    List<String> members,
+    long forwarded,
+    long served,
+    long timeouts,
+    long handoffsSent,
+    long handoffsReceived
+) {
+}
@@ -0,0 +1,40 @@
+package com.example.simplechat.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * {@code /topic/rooms}로 전달되는 방 목록 변경분 하나입니다.
+ * 클라이언트는 {@code GET /room/list}로 받은 목록에 방 ID 기준으로 적용합니다.
+ *
+ * @param type 변경 종류
+ * @param roomId 채팅방 ID
+ * @param version 변경분을 만든 방 목록 스냅샷의 버전
+ * @param name 채팅방 이름 (CREATED 시 사용)
+ * @param roomType 채팅방 유형 (CREATED 시 사용)
+ * @param ownerName 방장 닉네임 (CREATED 시 사용)
+ * @param userCount 참여자 수 (CREATED, UPDATED 시 사용)
+ * @param connCount 접속 중인 사용자 수 (CREATED, UPDATED 시 사용)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL) // JSON으로 변환 시 null인 필드는 제외
+public record RoomDeltaDto(
+    DeltaType type,
+    Long roomId,
+    long version,
+    String name,
+    String roomType,
+    String ownerName,
+    Integer userCount,
+    Integer connCount
+) {
+    /**
+     * 방 목록 변경의 종류를 나타내는 열거형입니다.
+     */
+    public enum DeltaType {
+        /** 새 방이 생겼음을 알립니다. 방 정보 전체를 포함합니다. */
+        CREATED,
+        /** 방이 삭제되었음을 알립니다. */
+        DELETED,
+        /** 참여자 수 또는 접속자 수가 바뀌었음을 알립니다. */
+        UPDATED
+    }
+}
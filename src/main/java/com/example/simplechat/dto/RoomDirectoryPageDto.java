@@ -0,0 +1,20 @@
+package com.example.simplechat.dto;
+
+import java.util.List;
+
+/**
+ * 방 목록 스냅샷의 한 페이지를 전달하는 DTO입니다.
+ *
+ * @param version 페이지를 만든 방 목록 스냅샷의 버전
+ * @param rooms 이 페이지의 채팅방 목록 (방 ID 오름차순)
+ * @param nextCursor 다음 페이지 요청에 넘길 커서 (마지막 방 ID). 마지막 페이지면 null
+ * @param etag 페이지 내용을 식별하는 강한 ETag (따옴표 포함)
+ */
+public record RoomDirectoryPageDto(
+    long version,
+    List<ChatRoomListDto> rooms,
+    Long nextCursor,
+    String etag
+) {
+
+}
@@ -0,0 +1,40 @@
+package com.example.simplechat.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * 방 작업을 소유 노드로 전달할 때 노드 전용 큐로 주고받는 메시지입니다. ({@code RoomAffinityRouter} 참고)
+ *
+ * @param kind 메시지 종류
+ * @param correlationId 요청과 응답을 짝짓는 ID (REQUEST, REPLY 시 사용. 응답이 필요 없는 요청은 null)
+ * @param fromNode 보낸 노드의 ID. 응답은 이 노드의 큐로 보냅니다.
+ * @param op 전달한 작업 이름 (REQUEST 시 사용)
+ * @param roomId 채팅방 ID
+ * @param payload 작업 인자, 작업 결과 또는 넘기는 버퍼
+ * @param errorCode 소유 노드에서 작업이 실패했을 때의 오류 코드 (REPLY 시 사용)
+ * @param errorMessage 소유 노드에서 작업이 실패했을 때의 오류 메시지 (REPLY 시 사용)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL) // JSON으로 변환 시 null인 필드는 제외
+public record RoomForwardMessage(
+    Kind kind,
+    String correlationId,
+    String fromNode,
+    String op,
+    Long roomId,
+    JsonNode payload,
+    String errorCode,
+    String errorMessage
+) {
+    /**
+     * 메시지의 종류를 나타내는 열거형입니다.
+     */
+    public enum Kind {
+        /** 소유 노드에서 실행할 방 작업 */
+        REQUEST,
+        /** 방 작업의 결과 */
+        REPLY,
+        /** 소유 노드가 바뀐 방의 최근 메시지 버퍼 */
+        HANDOFF
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.simplechat.dto;
+
+/**
+ * 방 이벤트 전송 레인 하나의 상태 DTO입니다.
+ *
+ * @param lane 레인 번호
+ * @param queueDepth 대기 중인 작업 수
+ * @param capacity 새 메시지용 자리 수
+ * @param maxQueueDepth 지금까지 관측된 최대 대기 작업 수
+ * @param completed 처리한 작업 수
+ * @param rejected 자리가 없어 저장 전에 거절한 메시지 수
+ */
+public record RoomLaneStatsDto(
+    int lane,
+    int queueDepth,
+    int capacity,
+    int maxQueueDepth,
+    long completed,
+    long rejected
+) {
+}
@@ -0,0 +1,34 @@
+package com.example.simplechat.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 새 채팅방이 생성되었을 때 발행되는 애플리케이션 이벤트입니다.
+ * 방 목록을 실시간으로 전달하는 컴포넌트가 새 방을 알리는 데 사용합니다.
+ */
+public class RoomCreatedEvent extends ApplicationEvent {
+	private final Long roomId;
+
+	/**
+	 * 새로운 RoomCreatedEvent를 생성합니다.
+	 * @param source 이벤트의 원본 객체 (보통 this)
+	 * @param roomId 생성된 채팅방의 ID
+	 */
+	public RoomCreatedEvent(Object source, Long roomId) {
+		super(source);
+		this.roomId = roomId;
+	}
+
+	/**
+	 * 생성된 채팅방의 ID를 반환합니다.
+	 * @return 채팅방의 ID
+	 */
+	public Long getRoomId() {
+		return roomId;
+	}
+
+	@Override
+	public String toString() {
+		return "RoomCreatedEvent{roomId=" + roomId + '}';
+	}
+}
@@ -0,0 +1,34 @@
+package com.example.simplechat.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 사용자의 프로필(닉네임, 상태 메시지, 프로필 이미지)이 변경되었을 때 발행되는 애플리케이션 이벤트입니다.
+ * 프로필 캐시 등 프로필 정보를 보관하는 컴포넌트가 해당 사용자의 항목을 무효화하는 데 사용합니다.
+ */
+public class UserProfileChangedEvent extends ApplicationEvent {
+	private final Long userId;
+
+	/**
+	 * 새로운 UserProfileChangedEvent를 생성합니다.
+	 * @param source 이벤트의 원본 객체 (보통 this)
+	 * @param userId 프로필이 변경된 사용자의 ID
+	 */
+	public UserProfileChangedEvent(Object source, Long userId) {
+		super(source);
+		this.userId = userId;
+	}
+
+	/**
+	 * 프로필이 변경된 사용자의 ID를 반환합니다.
+	 * @return 사용자의 ID
+	 */
+	public Long getUserId() {
+		return userId;
+	}
+
+	@Override
+	public String toString() {
+		return "UserProfileChangedEvent{userId=" + userId + '}';
+	}
+}
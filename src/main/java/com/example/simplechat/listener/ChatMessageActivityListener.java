@@ -8,8 +8,9 @@ import com.example.simplechat.event.ChatMessageAddedToRoomEvent;
 import com.example.simplechat.event.UserEnteredRoomEvent;
 import com.example.simplechat.event.UserExitedRoomEvent;
 import com.example.simplechat.model.User;
-import com.example.simplechat.repository.UserRepository;
 import com.example.simplechat.service.LinkPreviewService;
+import com.example.simplechat.service.RoomEventLanes;
+import com.example.simplechat.service.UserProfileCache;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,12 +18,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 /**
  * 채팅 활동(예: 새 메시지, 사용자 입장/퇴장)과 관련된 애플리케이션 이벤트를 수신하고 해당하는 메시지를 WebSocket 클라이언트에
- * 브로드캐스트합니다. 모든 리스너는 비동기적으로 작동합니다.
+ * 브로드캐스트합니다. 모든 전송은 {@link RoomEventLanes}의 방 레인에서 비동기로 실행되므로, 같은 방의 메시지/수정/삭제와
+ * 입장/퇴장/닉네임 변경은 이벤트가 발행된 순서대로 전달됩니다.
  */
 @RequiredArgsConstructor
 @Component
@@ -34,8 +35,9 @@ public class ChatMessageActivityListener {
     private String profileStaticUrlPrefix;
 
     private final SimpMessagingTemplate messagingTemplate;
-    private final UserRepository userRepository;
+    private final UserProfileCache userProfileCache;
     private final LinkPreviewService linkPreviewService;
+    private final RoomEventLanes roomEventLanes;
 
     /**
      * 방에 새 메시지가 추가될 때의 이벤트를 처리합니다. 메시지를 방의 공용 토픽에 브로드캐스트하고, URL이 있는 경우 링크 미리보기 생성을
@@ -43,17 +45,16 @@ public class ChatMessageActivityListener {
      *
      * @param event 메시지와 방 세부 정보가 포함된 {@link ChatMessageAddedToRoomEvent}
      */
-    @Async
     @EventListener
     public void handleChatMessageAddedToRoom(ChatMessageAddedToRoomEvent event) {
+        roomEventLanes.execute(event.getroomId(), () -> broadcastChatMessageAddedToRoom(event));
+    }
+
+    private void broadcastChatMessageAddedToRoom(ChatMessageAddedToRoomEvent event) {
         Long roomId = event.getroomId();
         Long authorId = event.getChatMessage().getAuthor_id();
 
-        String profileImageUrl = userRepository.findProfileById(authorId)
-            .map(profileData -> (String) profileData.get("profile_image_url"))
-            .map(url -> url != null && !url.isBlank() ? profileStaticUrlPrefix + "/" + url
-                : profileStaticUrlPrefix + "/default.png")
-            .orElse(profileStaticUrlPrefix + "/default.png");
+        String profileImageUrl = userProfileCache.getProfileImageUrl(authorId);
 
         ChatMessageDto msgDto = new ChatMessageDto(event.getChatMessage(), profileImageUrl);
 
@@ -78,9 +79,12 @@ public class ChatMessageActivityListener {
      *
      * @param event 사용자와 방 세부 정보가 포함된 {@link UserEnteredRoomEvent}
      */
-    @Async
     @EventListener
     public void handleUserEnteredRoom(UserEnteredRoomEvent event) {
+        roomEventLanes.execute(event.getRoomId(), () -> broadcastUserEnteredRoom(event));
+    }
+
+    private void broadcastUserEnteredRoom(UserEnteredRoomEvent event) {
         User user = event.getUser();
         Long roomId = event.getRoomId();
 
@@ -112,9 +116,12 @@ public class ChatMessageActivityListener {
      *
      * @param event 사용자와 방 세부 정보가 포함된 {@link UserExitedRoomEvent}
      */
-    @Async
     @EventListener
     public void handleUserExitedRoom(UserExitedRoomEvent event) {
+        roomEventLanes.execute(event.getRoomId(), () -> broadcastUserExitedRoom(event));
+    }
+
+    private void broadcastUserExitedRoom(UserExitedRoomEvent event) {
         Long userId = event.getUserId();
         Long roomId = event.getRoomId();
         EventType eventType = event.getEventType();
@@ -135,9 +142,12 @@ public class ChatMessageActivityListener {
      *
      * @param event 닉네임 변경 세부 정보가 포함된 {@link ChangeNicknameEvent}
      */
-    @Async
     @EventListener
     public void handleChangeNicknameEvent(ChangeNicknameEvent event) {
+        roomEventLanes.execute(event.getRoomId(), () -> broadcastChangeNicknameEvent(event));
+    }
+
+    private void broadcastChangeNicknameEvent(ChangeNicknameEvent event) {
         Long userId = event.getUserId();
         Long roomId = event.getRoomId();
         String newNickname = event.getNewNickname();
@@ -9,6 +9,9 @@ import com.example.simplechat.repository.RoomUserRepository;
 import com.example.simplechat.service.RoomSessionManager;
 import com.example.simplechat.service.UserService;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,15 +21,19 @@ import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
 
 /**
  * WebSocket 관련 이벤트를 수신하고 처리하는 리스너 클래스입니다.
- * 사용자의 구독 및 연결 해제 이벤트를 감지하여 적절한 비즈니스 로직을 트리거합니다.
+ * 사용자의 구독, 구독 취소 및 연결 해제 이벤트를 감지하여 적절한 비즈니스 로직을 트리거합니다.
+ * 하나의 WebSocket 세션이 여러 채팅방을 구독할 수 있으며, 입장/퇴장은 (세션, 방) 단위로 처리합니다.
  */
 @RequiredArgsConstructor
 @Component
 public class WebSocketEventListener {
     private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
+    private static final Pattern ROOM_PUBLIC_TOPIC = Pattern.compile("^/topic/(\\d{1,18})/public$");
+    private static final String ROOM_SUBSCRIPTIONS = "room_subscriptions";
     
     private final UserService userService;
     private final ApplicationEventPublisher eventPublisher;
@@ -36,6 +43,10 @@ public class WebSocketEventListener {
     /**
      * 사용자가 특정 STOMP 토픽을 구독할 때 발생하는 이벤트를 처리합니다.
      * 사용자가 채팅방의 public 토픽을 구독하면, 이를 채팅방 입장으로 간주하고 {@link UserEnteredRoomEvent}를 발행합니다.
+     * <p>
+     * 방 ID는 구독 destination({@code /topic/{roomId}/public})에서 읽으므로 하나의 세션이 여러 방을 구독할 수 있습니다.
+     * 구독 취소 시 방을 찾을 수 있도록 구독 ID와 방 ID의 매핑을 세션 속성에 보관합니다.
+     * </p>
      *
      * @param event 세션 구독 이벤트
      */
@@ -44,30 +55,68 @@ public class WebSocketEventListener {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
         Map<String, Object> sessionAttributes = headerAccessor.getSessionAttributes();
 
-        if (sessionAttributes == null || sessionAttributes.get("room_id") == null) {
+        if (sessionAttributes == null || sessionAttributes.get("user_id") == null) {
         	return;
         }
-        String destination = headerAccessor.getDestination();
-
         // 사용자가 /topic/{roomId}/public 토픽을 구독할 때를 입장 시점으로 간주
-        if (destination != null && destination.contains("/topic/") && destination.contains("/public")) {
-        	Long userId = Long.valueOf((String)sessionAttributes.get("user_id"));
-            Long roomId = Long.valueOf((String)sessionAttributes.get("room_id"));
+        Long roomId = parseRoomId(headerAccessor.getDestination());
+        String subscriptionId = headerAccessor.getSubscriptionId();
+        if (roomId == null || subscriptionId == null) {
+            return;
+        }
+
+        try {
+            Long userId = Long.valueOf((String) sessionAttributes.get("user_id"));
+            String role = roomUserRepository.getRole(userId, roomId);
             User user = userService.getUserById(userId);
+            if (role == null || user == null) {
+                logger.warn("사용자 {}는 방 {}의 참여자가 아니므로 입장 처리하지 않습니다.", userId, roomId);
+                return;
+            }
 
-            if (userId != null && roomId != null && user != null) {
-            	roomSessionManager.registerSession(roomId, userId, headerAccessor.getSessionId());
-                // 여기서 UserEnteredRoomEvent 발행
-            	eventPublisher.publishEvent(new UserEnteredRoomEvent(this, user, roomId, 
-            			UserType.valueOf(roomUserRepository.getRole(userId, roomId))) );
+            roomSubscriptions(sessionAttributes).put(subscriptionId, roomId);
+            if (roomSessionManager.registerSession(roomId, userId, headerAccessor.getSessionId())) {
+                // 이 세션에서 처음 구독한 방일 때만 UserEnteredRoomEvent 발행
+                eventPublisher.publishEvent(new UserEnteredRoomEvent(this, user, roomId, UserType.valueOf(role)));
                 logger.info("사용자 {}가 방 {}을(를) 구독했습니다. 입장 이벤트를 발행합니다.", userId, roomId);
             }
+        } catch (NumberFormatException e) {
+            logger.error("세션 속성 'user_id'를 Long으로 변환하는 데 실패했습니다.", e);
+        }
+    }
+
+    /**
+     * 사용자가 STOMP 토픽 구독을 취소할 때 발생하는 이벤트를 처리합니다.
+     * 채팅방의 public 토픽 구독을 취소하면 연결은 유지한 채 해당 방에서만 퇴장한 것으로 보고 {@link UserExitedRoomEvent}를 발행합니다.
+     *
+     * @param event 세션 구독 취소 이벤트
+     */
+    @EventListener
+    public void handleSessionUnsubscribeEvent(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, Object> sessionAttributes = headerAccessor.getSessionAttributes();
+        String subscriptionId = headerAccessor.getSubscriptionId();
+
+        if (sessionAttributes == null || subscriptionId == null) {
+            return;
+        }
+        Map<String, Long> subscriptions = roomSubscriptions(sessionAttributes);
+        Long roomId = subscriptions.remove(subscriptionId);
+        // 같은 방을 다른 구독 ID로 여전히 구독 중이면 퇴장으로 보지 않음
+        if (roomId == null || subscriptions.containsValue(roomId)) {
+            return;
+        }
+
+        Long userId = roomSessionManager.unregisterSession(headerAccessor.getSessionId(), roomId);
+        if (userId != null) {
+            eventPublisher.publishEvent(new UserExitedRoomEvent(this, userId, roomId, EventType.EXIT));
+            logger.info("사용자 {}가 방 {}의 구독을 취소했습니다. 퇴장 이벤트를 발행합니다.", userId, roomId);
         }
     }
     
     /**
      * 사용자의 WebSocket 연결이 끊어졌을 때 발생하는 이벤트를 처리합니다.
-     * 세션 정보를 기반으로 해당 사용자가 어떤 방에 있었는지 확인하고, 있었던 경우 {@link UserExitedRoomEvent}를 발행합니다.
+     * 세션에 등록된 모든 방을 해제하고, 방마다 {@link UserExitedRoomEvent}를 발행합니다.
      *
      * @param event 세션 연결 해제 이벤트
      */
@@ -82,27 +131,40 @@ public class WebSocketEventListener {
 
         String sessionId = headerAccessor.getSessionId();
         String userIdStr = (String) sessionAttributes.get("user_id");
-        String roomIdStr = (String) sessionAttributes.get("room_id");
+
+        // 채팅방 세션인 경우에만 퇴장 로직 처리
+        Map<Long, Long> rooms = roomSessionManager.unregisterSession(sessionId);
 
         logger.info("WebSocket 세션 연결 해제됨: [세션 ID: {}], [사용자 ID: {}], [방 ID: {}], [이유: {}]",
                 sessionId,
                 userIdStr != null ? userIdStr : "N/A",
-                roomIdStr != null ? roomIdStr : "N/A",
+                rooms.isEmpty() ? "N/A" : rooms.keySet(),
                 event.getCloseStatus().getReason());
 
-        // 채팅방 세션인 경우에만 퇴장 로직 처리
-        if (userIdStr != null && roomIdStr != null) {
-            try {
-                Long userId = Long.valueOf(userIdStr);
-                Long roomId = Long.valueOf(roomIdStr);
-                
-                roomSessionManager.unregisterSession(sessionId);
-                // 퇴장 이벤트 발행
-                eventPublisher.publishEvent(new UserExitedRoomEvent(this, userId, roomId, EventType.EXIT));
-                logger.info("사용자 {}의 연결이 끊어졌습니다. 리소스를 정리합니다.", userId);
-            } catch (NumberFormatException e) {
-                logger.error("세션 속성 'user_id' 또는 'room_id'를 Long으로 변환하는 데 실패했습니다.", e);
-            }
+        rooms.forEach((roomId, userId) ->
+            eventPublisher.publishEvent(new UserExitedRoomEvent(this, userId, roomId, EventType.EXIT)));
+        if (!rooms.isEmpty()) {
+            logger.info("사용자 {}의 연결이 끊어졌습니다. 리소스를 정리합니다.", userIdStr);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * {@code /topic/{roomId}/public} 형식의 destination에서 방 ID를 추출합니다.
+     *
+     * @param destination 구독 destination
+     * @return 방 ID, 채팅방 public 토픽이 아니면 null
+     */
+    private static Long parseRoomId(String destination) {
+        if (destination == null) {
+            return null;
+        }
+        Matcher matcher = ROOM_PUBLIC_TOPIC.matcher(destination);
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    // 세션 속성에 보관하는 구독 ID -> 방 ID 매핑. 세션이 끝나면 속성과 함께 사라짐
+    @SuppressWarnings("unchecked")
+    private static Map<String, Long> roomSubscriptions(Map<String, Object> sessionAttributes) {
+        return (Map<String, Long>) sessionAttributes.computeIfAbsent(ROOM_SUBSCRIPTIONS, k -> new ConcurrentHashMap<String, Long>());
+    }
+}
@@ -1,7 +1,5 @@
 package com.example.simplechat.model;
 
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.HashMap;
@@ -23,10 +21,6 @@ public class ChatRoom {
 	private String created_at;
 	private String password_hash;
 	
-    private final List<ChatMessage> chats = new CopyOnWriteArrayList<>();
-    private final Map<Integer, User> users = new HashMap<>();
-    private final User admin = new User("-1", "Server" );
-    
     public ChatRoom(String newName) { name = newName; }
     public ChatRoom(Long newId, String newName) { name = newName; id = newId; }
     public ChatRoom(String newName, RoomType roomtype, Long owner_id, String password_hash) {
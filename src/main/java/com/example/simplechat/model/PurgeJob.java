@@ -0,0 +1,49 @@
+package com.example.simplechat.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 대량 삭제를 작은 배치로 나누어 처리하는 백그라운드 purge 작업입니다.
+ * 진행 상황(deletedRows, cursorId)이 purge_jobs 테이블에 기록되므로 재시작 후에도 이어서 처리됩니다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurgeJob {
+
+	public enum JobType {
+		ROOM,				// 방의 메시지, 참여 정보, 방 행 삭제 (target: room_id)
+		ACCOUNT,			// 계정 행 삭제. 소유한 방의 ROOM 작업 뒤에 실행됨 (target: user_id)
+		MESSAGE_RETENTION	// 보존 기간이 지난 메시지 삭제 (cursor: 삭제할 마지막 message_id)
+	}
+
+	public enum Status {
+		PENDING,
+		RUNNING,
+		DONE,
+		FAILED
+	}
+
+	private Long id;
+	private JobType jobType;
+	private Long targetId;
+	private Status status;
+	private Long cursorId;
+	private long deletedRows;
+	private String lastError;
+	private String ownerNode;			// 작업을 잡은 노드 ID
+	private LocalDateTime leaseUntil;	// 이 시각까지 진행 기록이 없으면 다른 노드가 이어서 처리
+	private LocalDateTime createdAt;
+	private LocalDateTime updatedAt;
+
+	// 새 작업 등록 시 사용할 생성자
+	public PurgeJob(JobType jobType, Long targetId, Long cursorId) {
+		this.jobType = jobType;
+		this.targetId = targetId;
+		this.cursorId = cursorId;
+		this.status = Status.PENDING;
+	}
+}
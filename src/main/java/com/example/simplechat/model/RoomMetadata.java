@@ -0,0 +1,23 @@
+package com.example.simplechat.model;
+
+/**
+ * 채팅방 한 개의 불변 메타데이터입니다.
+ * 방 정보를 자주 읽는 경로(멘션 알림, 방 초기화, 입장/초대)에서 {@link ChatRoom} 대신 사용하며,
+ * {@code RoomMetadataCache}가 이 형태로 보관합니다.
+ *
+ * @param id 채팅방 ID
+ * @param name 채팅방 이름
+ * @param roomType 채팅방 유형
+ * @param ownerId 방장 사용자 ID
+ * @param passwordHash 비공개 방의 비밀번호 해시 (공개 방이면 null)
+ * @param createdAt 생성 시각 (DB_Utils 형식 문자열)
+ */
+public record RoomMetadata(
+    Long id,
+    String name,
+    ChatRoom.RoomType roomType,
+    Long ownerId,
+    String passwordHash,
+    String createdAt
+) {
+}
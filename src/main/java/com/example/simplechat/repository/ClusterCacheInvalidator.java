@@ -0,0 +1,216 @@
+package com.example.simplechat.repository;
+
+import com.example.simplechat.dto.CacheInvalidationMessage;
+import com.example.simplechat.dto.CacheInvalidationMessage.Type;
+import com.example.simplechat.event.UserProfileChangedEvent;
+import com.example.simplechat.service.ClusterChannel;
+import com.example.simplechat.service.ClusterSessionRegistry;
+import com.example.simplechat.service.UserProfileCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 노드마다 따로 가진 캐시({@link FriendGraph}, {@link RoomMetadataCache}, {@link RoomSummaryCache},
+ * {@link RoomMembershipIndex}, {@link UserProfileCache})를 다른 노드의 변경에 맞추는 무효화 전달자입니다.
+ * <p>
+ * 리포지토리의 변경 메서드가 현재 노드의 캐시를 갱신하면서 이 클래스에도 알리면, 커밋 후에
+ * {@link ClusterChannel#CACHE_DESTINATION}으로 무효화 메시지(방, 참여자, 사용자 프로필, 친구 관계)를 보냅니다.
+ * 받은 노드는 방/참여자/프로필 항목은 지워 다음 조회 때 DB에서 다시 읽고, 방 요약은 해당 방만 다시 읽으며,
+ * 친구 관계는 받은 변경을 그대로 반영합니다. 메모리만 고치는 무효화는 채널의 I/O 스레드에서 받은 순서대로 처리하고,
+ * DB를 읽는 방 요약 갱신만 {@code applicationTaskExecutor}로 넘깁니다.
+ * </p>
+ * <p>
+ * 연결이 끊긴 동안에는 메시지를 주고받지 못하므로, 채널이 다시 연결되면 현재 노드의 캐시를 모두 비우거나 다시 읽습니다.
+ * 끊긴 동안 보내지 못한 무효화가 있었다면 연결 직후 RESET을 보내 다른 노드도 캐시를 모두 비우게 합니다.
+ * 그 밖의 누락은 방 요약의 주기적인 대조({@code cache.room-summary.reconcile-interval-ms})가 바로잡습니다.
+ * 단일 노드({@code cluster.registry.transport=local})에서는 아무것도 보내지 않습니다.
+ * 지연 초기화 환경에서도 무효화 destination을 바로 구독하도록 {@code @Lazy(false)}로 즉시 생성합니다.
+ * </p>
+ */
+@Component
+@Lazy(false)
+public class ClusterCacheInvalidator {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCacheInvalidator.class);
+
+    private final ClusterChannel channel;
+    private final ClusterSessionRegistry clusterSessionRegistry;
+    private final ObjectMapper objectMapper;
+    private final FriendGraph friendGraph;
+    private final RoomMetadataCache roomMetadataCache;
+    private final RoomSummaryCache roomSummaryCache;
+    private final RoomMembershipIndex roomMembershipIndex;
+    private final UserProfileCache userProfileCache;
+    private final Executor applicationTaskExecutor;
+    private final String nodeId;
+
+    // 연결되어 있지 않아 보내지 못한 무효화가 있으면 true. 다음 연결 때 RESET을 보내고 지움
+    private final AtomicBoolean missed = new AtomicBoolean();
+
+    public ClusterCacheInvalidator(ClusterChannel channel, ClusterSessionRegistry clusterSessionRegistry,
+                                   ObjectMapper objectMapper, FriendGraph friendGraph,
+                                   RoomMetadataCache roomMetadataCache, RoomSummaryCache roomSummaryCache,
+                                   RoomMembershipIndex roomMembershipIndex, UserProfileCache userProfileCache,
+                                   @Qualifier("applicationTaskExecutor") Executor applicationTaskExecutor) {
+        this.channel = channel;
+        this.clusterSessionRegistry = clusterSessionRegistry;
+        this.objectMapper = objectMapper;
+        this.friendGraph = friendGraph;
+        this.roomMetadataCache = roomMetadataCache;
+        this.roomSummaryCache = roomSummaryCache;
+        this.roomMembershipIndex = roomMembershipIndex;
+        this.userProfileCache = userProfileCache;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.nodeId = clusterSessionRegistry.nodeId();
+    }
+
+    /**
+     * 생성이 끝난 뒤 무효화 destination을 구독하고 연결 리스너를 등록합니다.
+     */
+    @PostConstruct
+    void start() {
+        channel.listen(ClusterChannel.CACHE_DESTINATION, this::receive);
+        clusterSessionRegistry.addConnectedListener(this::connected);
+    }
+
+    /**
+     * 방이 생성/수정/삭제되었거나 방의 참여자가 한꺼번에 지워졌음을 다른 노드에 알립니다.
+     *
+     * @param roomId 채팅방 ID
+     */
+    public void roomChanged(Long roomId) {
+        publishAfterCommit(new CacheInvalidationMessage(Type.ROOM, nodeId, roomId, null, null));
+    }
+
+    /**
+     * 방 참여자 한 명이 추가/변경/제거되었음을 다른 노드에 알립니다.
+     *
+     * @param userId 사용자 ID
+     * @param roomId 채팅방 ID
+     */
+    public void memberChanged(Long userId, Long roomId) {
+        publishAfterCommit(new CacheInvalidationMessage(Type.MEMBER, nodeId, roomId, userId, null));
+    }
+
+    /**
+     * 두 사용자가 친구가 되었음을 다른 노드에 알립니다.
+     *
+     * @param userId1 사용자 ID
+     * @param userId2 상대 사용자 ID
+     */
+    public void friendshipAccepted(long userId1, long userId2) {
+        publishAfterCommit(new CacheInvalidationMessage(Type.FRIEND_ADDED, nodeId, null, userId1, userId2));
+    }
+
+    /**
+     * 두 사용자의 친구 관계가 없어졌음을 다른 노드에 알립니다.
+     *
+     * @param userId1 사용자 ID
+     * @param userId2 상대 사용자 ID
+     */
+    public void friendshipRemoved(long userId1, long userId2) {
+        publishAfterCommit(new CacheInvalidationMessage(Type.FRIEND_REMOVED, nodeId, null, userId1, userId2));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleUserProfileChanged(UserProfileChangedEvent event) {
+        publish(new CacheInvalidationMessage(Type.USER, nodeId, null, event.getUserId(), null));
+    }
+
+    private void publishAfterCommit(CacheInvalidationMessage message) {
+        if (channel.enabled()) {
+            TransactionHooks.afterCommit(() -> publish(message));
+        }
+    }
+
+    private void publish(CacheInvalidationMessage message) {
+        if (!channel.enabled()) {
+            return;
+        }
+        try {
+            if (!channel.publish(ClusterChannel.CACHE_DESTINATION, objectMapper.writeValueAsString(message))) {
+                missed.set(true);
+            }
+        } catch (JsonProcessingException e) {
+            logger.error("[CacheInvalidator] 메시지 JSON 변환 실패: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 다른 노드가 보낸 무효화를 반영합니다. 자기 자신이 보낸 메시지는 무시합니다.
+     */
+    private void receive(String payload) {
+        CacheInvalidationMessage message;
+        try {
+            message = objectMapper.readValue(payload, CacheInvalidationMessage.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("[CacheInvalidator] 알 수 없는 메시지를 무시합니다: {}", e.getMessage());
+            return;
+        }
+        if (message.type() == null || message.nodeId() == null || nodeId.equals(message.nodeId())) {
+            return;
+        }
+        switch (message.type()) {
+            case ROOM -> {
+                roomMetadataCache.evict(message.roomId());
+                roomMembershipIndex.evictRoom(message.roomId());
+                refreshSummary(message.roomId());
+            }
+            case MEMBER -> {
+                roomMembershipIndex.evictMember(message.userId(), message.roomId());
+                refreshSummary(message.roomId());
+            }
+            case USER -> {
+                userProfileCache.invalidate(message.userId());
+                runAsync("방장 닉네임 갱신", () -> roomSummaryCache.ownerProfileChanged(message.userId()));
+            }
+            case FRIEND_ADDED -> friendGraph.friendshipAccepted(message.userId(), message.otherUserId());
+            case FRIEND_REMOVED -> friendGraph.friendshipRemoved(message.userId(), message.otherUserId());
+            case RESET -> {
+                logger.warn("[CacheInvalidator] 노드 {}가 무효화를 전달하지 못했던 적이 있어 캐시를 모두 비웁니다.", message.nodeId());
+                evictAll();
+            }
+        }
+    }
+
+    private void refreshSummary(Long roomId) {
+        runAsync("방 요약 갱신", () -> roomSummaryCache.refresh(roomId));
+    }
+
+    /**
+     * 채널이 연결(재연결 포함)되었습니다. 끊긴 동안 받지 못한 무효화가 있을 수 있으므로 현재 노드의 캐시를 비우고,
+     * 보내지 못한 무효화가 있었다면 다른 노드에도 RESET을 보냅니다.
+     */
+    private void connected() {
+        evictAll();
+        if (missed.getAndSet(false)) {
+            publish(new CacheInvalidationMessage(Type.RESET, nodeId, null, null, null));
+        }
+    }
+
+    private void evictAll() {
+        roomMetadataCache.evictAll();
+        roomMembershipIndex.evictAll();
+        userProfileCache.evictAll();
+        runAsync("친구 관계 재적재", friendGraph::reload);
+        runAsync("방 요약 대조", roomSummaryCache::reconcile);
+    }
+
+    private void runAsync(String task, Runnable action) {
+        applicationTaskExecutor.execute(() -> {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                logger.error("[CacheInvalidator] {} 중 오류 발생: {}", task, e.getMessage(), e);
+            }
+        });
+    }
+}
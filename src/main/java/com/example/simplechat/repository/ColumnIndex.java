@@ -0,0 +1,114 @@
+package com.example.simplechat.repository;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 하나의 ResultSet에 대해 컬럼 레이블(소문자) → 컬럼 인덱스 매핑을 보관하는 클래스입니다.
+ * 구문을 실행할 때 메타데이터를 한 번만 읽어 생성되며, 행마다 getColumnName/toLowerCase를 반복하지 않도록 합니다.
+ * 결과에 없는 컬럼을 조회하면 null을 반환하므로 기존 Map 기반 매핑(row.get)과 같은 의미를 가집니다.
+ */
+public final class ColumnIndex {
+    private final Map<String, Integer> indexByLabel;
+
+    private ColumnIndex(Map<String, Integer> indexByLabel) {
+        this.indexByLabel = indexByLabel;
+    }
+
+    /**
+     * ResultSet 메타데이터로부터 컬럼 인덱스를 생성합니다.
+     *
+     * @param rsmd 조회 결과의 메타데이터
+     * @return 생성된 {@link ColumnIndex}
+     * @throws SQLException 메타데이터 접근 오류 발생 시
+     */
+    public static ColumnIndex of(ResultSetMetaData rsmd) throws SQLException {
+        int columnCount = rsmd.getColumnCount();
+        Map<String, Integer> map = new HashMap<>(columnCount * 2);
+        for (int i = 1; i <= columnCount; i++) {
+            // 같은 이름이 두 번 나오면 첫 번째 컬럼을 사용 (JOIN 시 u.user_id, cru.user_id 등)
+            map.putIfAbsent(rsmd.getColumnLabel(i).toLowerCase(), i);
+        }
+        return new ColumnIndex(map);
+    }
+
+    /**
+     * 컬럼 레이블에 해당하는 1부터 시작하는 인덱스를 반환합니다.
+     *
+     * @param label 소문자 컬럼 레이블
+     * @return 컬럼 인덱스, 결과에 없는 컬럼이면 0
+     */
+    public int indexOf(String label) {
+        Integer idx = indexByLabel.get(label);
+        return idx == null ? 0 : idx;
+    }
+
+    /**
+     * 결과에 해당 컬럼이 포함되어 있는지 확인합니다.
+     *
+     * @param label 소문자 컬럼 레이블
+     * @return 포함되어 있으면 true
+     */
+    public boolean has(String label) {
+        return indexByLabel.containsKey(label);
+    }
+
+    /**
+     * 전체 컬럼 수를 반환합니다.
+     *
+     * @return 컬럼 수
+     */
+    public int size() {
+        return indexByLabel.size();
+    }
+
+    /**
+     * BIGINT/INT 컬럼 값을 Long으로 읽습니다. SQL NULL이거나 컬럼이 없으면 null을 반환합니다.
+     */
+    public Long getLong(ResultSet rs, String label) throws SQLException {
+        int idx = indexOf(label);
+        if (idx == 0) return null;
+        long value = rs.getLong(idx);
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * 정수 컬럼 값을 Integer로 읽습니다. SQL NULL이거나 컬럼이 없으면 null을 반환합니다.
+     */
+    public Integer getInt(ResultSet rs, String label) throws SQLException {
+        int idx = indexOf(label);
+        if (idx == 0) return null;
+        int value = rs.getInt(idx);
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * BIT 컬럼 값을 Boolean으로 읽습니다. SQL NULL이거나 컬럼이 없으면 null을 반환합니다.
+     */
+    public Boolean getBoolean(ResultSet rs, String label) throws SQLException {
+        int idx = indexOf(label);
+        if (idx == 0) return null;
+        boolean value = rs.getBoolean(idx);
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * 문자열 컬럼 값을 읽습니다. SQL NULL이거나 컬럼이 없으면 null을 반환합니다.
+     */
+    public String getString(ResultSet rs, String label) throws SQLException {
+        int idx = indexOf(label);
+        return idx == 0 ? null : rs.getString(idx);
+    }
+
+    /**
+     * 날짜/시간 컬럼 값을 Timestamp로 읽습니다. SQL NULL이거나 컬럼이 없으면 null을 반환합니다.
+     */
+    public Timestamp getTimestamp(ResultSet rs, String label) throws SQLException {
+        int idx = indexOf(label);
+        return idx == 0 ? null : rs.getTimestamp(idx);
+    }
+}
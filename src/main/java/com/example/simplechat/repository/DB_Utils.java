@@ -1,5 +1,7 @@
 package com.example.simplechat.repository;
 
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -10,6 +12,21 @@ import java.util.HashMap;
  * 주로 JDBC 쿼리 결과를 파싱하거나 SQL 쿼리 문자열에서 특정 정보를 추출하는 데 사용됩니다.
  */
 public class DB_Utils {
+	/**
+	 * 엔티티의 created_at 문자열에 사용하는 공통 날짜/시간 포맷입니다.
+	 */
+	public static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+	/**
+	 * Timestamp를 "yyyy-MM-dd HH:mm:ss" 형식의 문자열로 변환합니다.
+	 *
+	 * @param ts 변환할 Timestamp (null 허용)
+	 * @return 포맷된 문자열, ts가 null이면 null
+	 */
+	public static String formatTimestamp(Timestamp ts) {
+		return ts == null ? null : ts.toLocalDateTime().format(DATE_TIME_FORMAT);
+	}
+
 	/**
 	 * {@link JDBC_SQL}의 결과(List&lt;String&gt;)를 범용적인 List&lt;Map&lt;String, Object&gt;&gt; 형태로 파싱합니다.
 	 * 첫 번째 문자열은 헤더(컬럼 이름)로 간주하며, 그 이후의 문자열은 탭으로 구분된 실제 데이터 행으로 간주합니다.
@@ -42,35 +59,4 @@ public class DB_Utils {
 
 		return parsedData;
 	}
-
-	/**
-	 * INSERT INTO SQL 쿼리 문자열에서 테이블 이름을 추출합니다.
-	 * 쿼리 문자열이 "INSERT INTO"로 시작하지 않거나 테이블 이름을 찾을 수 없는 경우 null을 반환합니다.
-	 *
-	 * @param sqlQuery 테이블 이름을 추출할 SQL INSERT 쿼리 문자열
-	 * @return 추출된 테이블 이름 (트림된 형태) 또는 null
-	 */
-	public static String TableNameFromInsert(String sqlQuery) {
-        if (sqlQuery == null || sqlQuery.trim().isEmpty()) {
-            return null;
-        }
-
-        String normalizedSql = sqlQuery.trim().toUpperCase();
-
-        if (!normalizedSql.startsWith("INSERT INTO")) {
-            return null;
-        }
-
-        int startIndex = "INSERT INTO ".length();
-        int endIndex = normalizedSql.indexOf(" ", startIndex);
-        if (endIndex == -1) {
-            endIndex = normalizedSql.indexOf("(", startIndex);
-        }
-
-        if (endIndex == -1) {
-            return sqlQuery.substring(startIndex).trim();
-        } else {
-            return sqlQuery.substring(startIndex, endIndex).trim();
-        }
-	}
 }
@@ -0,0 +1,271 @@
+package com.example.simplechat.repository;
+
+import com.example.simplechat.dto.CacheStatsDto;
+import com.example.simplechat.model.Friendship;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 수락된(ACCEPTED) 친구 관계를 사용자별 인접 집합으로 보관하는 캐시입니다.
+ * <p>
+ * 접속/연결 해제마다 친구 목록을 {@code OR} 조건으로 조회하지 않도록, 처음 사용할 때 수락된 친구 관계를 한 번 읽어 두고
+ * {@link FriendshipRepository}의 저장/상태 변경/삭제 메서드가 커밋 후에 반영합니다.
+ * 사용자별 친구 ID는 정렬된 {@code long[]}로 보관해 박싱 없이 순회하고, 친구 여부는 이진 탐색으로 확인합니다.
+ * 배열은 변경 시 새로 만들어 교체하므로 읽는 쪽은 잠금 없이 사용할 수 있습니다.
+ * </p>
+ * <p>
+ * 적재가 실패하면 예외를 그대로 던지고 적재 전 상태로 남아 다음 사용 때 다시 읽습니다.
+ * 적재 도중 커밋된 변경은 모아 두었다가 새로 읽은 값 위에 순서대로 다시 반영합니다.
+ * (추가/제거는 여러 번 반영해도 결과가 같으므로 이미 읽은 값에 포함되어 있어도 문제없음)
+ * </p>
+ */
+@Component
+public class FriendGraph {
+    private static final Logger logger = LoggerFactory.getLogger(FriendGraph.class);
+
+    private static final long[] NO_FRIENDS = new long[0];
+    private static final String EDGES_SQL = "SELECT user_id_1, user_id_2 FROM friendships WHERE status = ?";
+
+    private final JDBC_SQL jdbcsql;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    // 사용자 ID → 정렬된 친구 ID 배열. 배열은 교체만 하고 수정하지 않음
+    private final Map<Long, long[]> adjacency = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    // 다시 읽는 중이면 true. adjacency 잠금으로 보호
+    private boolean reloading;
+    // 적재 전(또는 적재/다시 읽는 중)에 커밋된 변경. 적재를 시작할 때 비우고, 읽은 값을 반영한 뒤 다시 적용
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder changes = new LongAdder();
+
+    public FriendGraph(JDBC_SQL jdbcsql, ReadYourWritesTracker readYourWritesTracker) {
+        this.jdbcsql = jdbcsql;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    /**
+     * 사용자의 친구 수를 반환합니다.
+     *
+     * @param userId 사용자 ID
+     * @return 수락된 친구 수
+     */
+    public int friendCount(long userId) {
+        return friendsOf(userId).length;
+    }
+
+    /**
+     * 두 사용자가 친구인지 확인합니다.
+     *
+     * @param userId 사용자 ID
+     * @param otherUserId 상대 사용자 ID
+     * @return 수락된 친구 관계이면 true
+     */
+    public boolean areFriends(long userId, long otherUserId) {
+        return Arrays.binarySearch(friendsOf(userId), otherUserId) >= 0;
+    }
+
+    /**
+     * 사용자의 친구 ID를 오름차순으로 순회합니다.
+     *
+     * @param userId 사용자 ID
+     * @param action 친구 ID마다 호출할 동작
+     */
+    public void forEachFriend(long userId, LongConsumer action) {
+        for (long friendId : friendsOf(userId)) {
+            action.accept(friendId);
+        }
+    }
+
+    private long[] friendsOf(long userId) {
+        ensureLoaded();
+        hits.increment();
+        return adjacency.getOrDefault(userId, NO_FRIENDS);
+    }
+
+    /**
+     * 두 사용자 사이의 수락된 친구 관계를 추가합니다.
+     *
+     * @param userId1 사용자 ID
+     * @param userId2 상대 사용자 ID
+     */
+    public void friendshipAccepted(long userId1, long userId2) {
+        TransactionHooks.afterCommit(() -> apply(() -> {
+            adjacency.put(userId1, withFriend(adjacency.getOrDefault(userId1, NO_FRIENDS), userId2));
+            adjacency.put(userId2, withFriend(adjacency.getOrDefault(userId2, NO_FRIENDS), userId1));
+        }));
+    }
+
+    /**
+     * 두 사용자 사이의 친구 관계를 제거합니다. (친구 삭제, 수락 외 상태로 변경 시)
+     *
+     * @param userId1 사용자 ID
+     * @param userId2 상대 사용자 ID
+     */
+    public void friendshipRemoved(long userId1, long userId2) {
+        TransactionHooks.afterCommit(() -> apply(() -> {
+            removeFriend(userId1, userId2);
+            removeFriend(userId2, userId1);
+        }));
+    }
+
+    private void removeFriend(long userId, long friendId) {
+        long[] friends = adjacency.getOrDefault(userId, NO_FRIENDS);
+        int index = Arrays.binarySearch(friends, friendId);
+        if (index < 0) {
+            return;
+        }
+        if (friends.length == 1) {
+            adjacency.remove(userId);
+            return;
+        }
+        long[] next = new long[friends.length - 1];
+        System.arraycopy(friends, 0, next, 0, index);
+        System.arraycopy(friends, index + 1, next, index, friends.length - index - 1);
+        adjacency.put(userId, next);
+    }
+
+    private static long[] withFriend(long[] friends, long friendId) {
+        int index = Arrays.binarySearch(friends, friendId);
+        if (index >= 0) {
+            return friends;
+        }
+        int insertAt = -index - 1;
+        long[] next = new long[friends.length + 1];
+        System.arraycopy(friends, 0, next, 0, insertAt);
+        next[insertAt] = friendId;
+        System.arraycopy(friends, insertAt, next, insertAt + 1, friends.length - insertAt);
+        return next;
+    }
+
+    /**
+     * 적재된 친구 관계를 DB에서 다시 읽어 교체합니다. (다른 노드의 변경을 놓쳤을 수 있을 때)
+     * 다시 읽는 동안에는 기존 값으로 답하며, 그 사이 커밋된 변경은 새로 읽은 값 위에 다시 반영합니다.
+     * 아직 적재 전이면 아무것도 하지 않습니다. (처음 사용할 때 읽음)
+     */
+    public void reload() {
+        if (!loaded) {
+            return;
+        }
+        synchronized (this) {
+            synchronized (adjacency) {
+                reloading = true;
+            }
+            try {
+                load();
+            } finally {
+                synchronized (adjacency) {
+                    reloading = false;
+                    pendingChanges.clear();
+                }
+            }
+        }
+    }
+
+    private void apply(Runnable change) {
+        synchronized (adjacency) {
+            if (loaded) {
+                change.run();
+                changes.increment();
+            }
+            if (!loaded || reloading) {
+                pendingChanges.add(change);
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            // 실패하면 loaded=false 그대로 예외 전파
+            load();
+        }
+    }
+
+    private void load() {
+        // 지금까지 커밋된 변경은 이제 읽을 값에 포함되므로 버림
+        synchronized (adjacency) {
+            pendingChanges.clear();
+        }
+        Map<Long, long[]> fresh = readFromDb();
+        synchronized (adjacency) {
+            adjacency.clear();
+            adjacency.putAll(fresh);
+            pendingChanges.forEach(Runnable::run);
+            changes.add(pendingChanges.size());
+            pendingChanges.clear();
+            loaded = true;
+        }
+        logger.info("[FriendGraph] 친구 관계가 있는 사용자 {}명 적재", fresh.size());
+    }
+
+    private Map<Long, long[]> readFromDb() {
+        loads.increment();
+        // 오래 보관할 값이므로 복제본 지연을 피해 주 DB에서 읽음
+        Map<Long, long[]> edges = new HashMap<>();
+        Map<Long, Integer> sizes = new HashMap<>();
+        List<long[]> rows = readYourWritesTracker.readFromPrimary(() -> jdbcsql.queryOrThrow(EDGES_SQL,
+            new Object[]{Friendship.Status.ACCEPTED.name()}, (rs, cols) -> new long[]{rs.getLong(1), rs.getLong(2)}));
+        for (long[] row : rows) {
+            append(edges, sizes, row[0], row[1]);
+            append(edges, sizes, row[1], row[0]);
+        }
+        Map<Long, long[]> fresh = new HashMap<>(edges.size() * 2);
+        edges.forEach((userId, friends) -> {
+            long[] trimmed = Arrays.copyOf(friends, sizes.get(userId));
+            Arrays.sort(trimmed);
+            fresh.put(userId, dedupe(trimmed));
+        });
+        return fresh;
+    }
+
+    private static void append(Map<Long, long[]> edges, Map<Long, Integer> sizes, long userId, long friendId) {
+        long[] friends = edges.computeIfAbsent(userId, id -> new long[4]);
+        int size = sizes.getOrDefault(userId, 0);
+        if (size == friends.length) {
+            friends = Arrays.copyOf(friends, size * 2);
+            edges.put(userId, friends);
+        }
+        friends[size] = friendId;
+        sizes.put(userId, size + 1);
+    }
+
+    private static long[] dedupe(long[] sorted) {
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+
+    /**
+     * 캐시 크기와 통계를 반환합니다. (크기는 친구가 있는 사용자 수, 실패는 DB 적재 횟수, 무효화는 반영된 변경 수)
+     *
+     * @return 캐시 통계
+     */
+    public CacheStatsDto stats() {
+        long hitCount = hits.sum();
+        long loadCount = loads.sum();
+        long total = hitCount + loadCount;
+        return new CacheStatsDto("friend-graph", adjacency.size(), -1, hitCount, loadCount,
+            total == 0 ? 0.0 : (double) hitCount / total, 0, changes.sum());
+    }
+}
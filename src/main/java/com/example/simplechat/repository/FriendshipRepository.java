@@ -13,11 +13,14 @@ import java.util.stream.Collectors;
 /**
  * 친구 관계(Friendship) 엔티티의 영속성(데이터베이스 CRUD)을 관리하는 리포지토리 클래스입니다.
  * {@link JDBC_SQL}을 사용하여 데이터베이스와 상호작용합니다.
+ * 수락된 친구 관계의 추가/제거는 {@link FriendGraph}에 반영하고, {@link ClusterCacheInvalidator}로 다른 노드에도 알립니다.
  */
 @Repository
 @RequiredArgsConstructor
 public class FriendshipRepository {
     private final JDBC_SQL jdbcsql;
+    private final FriendGraph friendGraph;
+    private final ClusterCacheInvalidator cacheInvalidator;
 
     /**
      * 새로운 친구 관계를 저장합니다.
@@ -26,14 +29,17 @@ public class FriendshipRepository {
      * @return ID와 생성 시간을 포함하여 저장된 {@link Friendship} 객체
      */
     public Friendship save(Friendship friendship) {
-        String sql = "INSERT INTO friendships (user_id_1, user_id_2, status) VALUES (?, ?, ?)";
-        
+        String[] columns = {"user_id_1", "user_id_2", "status"};
         Object[] params = {friendship.getUserId1(), friendship.getUserId2(), friendship.getStatus().name()};
-        Map<String, Object> result = jdbcsql.executeUpdate(sql, params, new String[]{"relation_id"}, new String[]{"created_at"});
-
-        if (result != null && result.containsKey("relation_id")) {
-            friendship.setRelationId(((Number) result.get("relation_id")).longValue());
-            friendship.setCreatedAt(((Timestamp) result.get("created_at")).toLocalDateTime());
+        jdbcsql.executeInsertReturning("friendships", columns, params, new String[]{"relation_id", "created_at"},
+                (rs, cols) -> {
+                    friendship.setRelationId(rs.getLong(1));
+                    friendship.setCreatedAt(rs.getTimestamp(2).toLocalDateTime());
+                    return friendship;
+                });
+        if (friendship.getStatus() == Friendship.Status.ACCEPTED) {
+            friendGraph.friendshipAccepted(friendship.getUserId1(), friendship.getUserId2());
+            cacheInvalidator.friendshipAccepted(friendship.getUserId1(), friendship.getUserId2());
         }
         return friendship;
     }
@@ -49,7 +55,14 @@ public class FriendshipRepository {
     public void updateStatus(long userId1, long userId2, String status) {
         String sql = "UPDATE friendships SET status = ? WHERE (user_id_1 = ? AND user_id_2 = ?) OR (user_id_1 = ? AND user_id_2 = ?)";
         Object[] params = {status, userId1, userId2, userId2, userId1};
-        jdbcsql.executeUpdate(sql, params, null, null);
+        jdbcsql.executeUpdate(sql, params, null);
+        if (Friendship.Status.ACCEPTED.name().equals(status)) {
+            friendGraph.friendshipAccepted(userId1, userId2);
+            cacheInvalidator.friendshipAccepted(userId1, userId2);
+        } else {
+            friendGraph.friendshipRemoved(userId1, userId2);
+            cacheInvalidator.friendshipRemoved(userId1, userId2);
+        }
     }
 
     /**
@@ -61,7 +74,9 @@ public class FriendshipRepository {
     public void delete(long userId1, long userId2) {
         String sql = "DELETE FROM friendships WHERE (user_id_1 = ? AND user_id_2 = ?) OR (user_id_1 = ? AND user_id_2 = ?)";
         Object[] params = {userId1, userId2, userId2, userId1};
-        jdbcsql.executeUpdate(sql, params, null, null);
+        jdbcsql.executeUpdate(sql, params, null);
+        friendGraph.friendshipRemoved(userId1, userId2);
+        cacheInvalidator.friendshipRemoved(userId1, userId2);
     }
     
     /**
@@ -73,7 +88,40 @@ public class FriendshipRepository {
     public void deleteByRequesterAndReceiver(long requesterId, long receiverId) {
         String sql = "DELETE FROM friendships WHERE user_id_1 = ? AND user_id_2 = ?";
         Object[] params = {requesterId, receiverId};
-        jdbcsql.executeUpdate(sql, params, null, null);
+        jdbcsql.executeUpdate(sql, params, null);
+        // 한 방향의 행만 지우므로(주로 PENDING 요청) 반대 방향에 수락된 관계가 남아 있으면 그래프의 간선을 유지
+        if (!existsAccepted(requesterId, receiverId)) {
+            friendGraph.friendshipRemoved(requesterId, receiverId);
+            cacheInvalidator.friendshipRemoved(requesterId, receiverId);
+        }
+    }
+
+    /**
+     * 사용자가 포함된 친구 관계(요청 포함)를 최대 {@code limit}개 삭제합니다. (계정 purge용)
+     *
+     * @param userId 사용자 ID
+     * @param limit 이번 배치에서 삭제할 최대 행 수
+     * @return 삭제된 행 수
+     */
+    public long deleteBatchByUserId(long userId, int limit) {
+        String sql = jdbcsql.isSqlServer()
+                ? "DELETE TOP (?) FROM friendships OUTPUT DELETED.user_id_1, DELETED.user_id_2 WHERE user_id_1 = ? OR user_id_2 = ?"
+                : "SELECT user_id_1, user_id_2 FROM OLD TABLE (DELETE TOP (?) FROM friendships WHERE user_id_1 = ? OR user_id_2 = ?)";
+        List<long[]> pairs = jdbcsql.executeReturning(sql, new Object[]{limit, userId, userId},
+                (rs, cols) -> new long[]{rs.getLong(1), rs.getLong(2)});
+        // 수락 여부와 관계없이 간선 제거 (없는 간선은 무시됨)
+        pairs.forEach(pair -> {
+            friendGraph.friendshipRemoved(pair[0], pair[1]);
+            cacheInvalidator.friendshipRemoved(pair[0], pair[1]);
+        });
+        return pairs.size();
+    }
+
+    private boolean existsAccepted(long userId1, long userId2) {
+        String sql = "SELECT 1 FROM friendships WHERE ((user_id_1 = ? AND user_id_2 = ?) OR (user_id_1 = ? AND user_id_2 = ?)) " +
+                     "AND status = 'ACCEPTED'";
+        return jdbcsql.queryForObject(sql, new Object[]{userId1, userId2, userId2, userId1}, (rs, cols) -> rs.getInt(1))
+                .isPresent();
     }
 
     /**
@@ -83,6 +131,7 @@ public class FriendshipRepository {
      * @param status 조회할 친구 관계의 상태 (예: PENDING, ACCEPTED)
      * @return 조회된 {@link Friendship} 객체 목록
      */
+    @ReadOnlyQuery
     public List<Friendship> findByUserIdAndStatus(long userId, Friendship.Status status) {
         String sql = "SELECT * FROM friendships WHERE (user_id_1 = ? OR user_id_2 = ?) AND status = ?";
         Object[] params = {userId, userId, status.name()};
@@ -96,6 +145,7 @@ public class FriendshipRepository {
      * @param userId 친구 요청을 받은 사용자의 ID
      * @return 대기 중인 {@link Friendship} 객체 목록
      */
+    @ReadOnlyQuery
     public List<Friendship> findIncomingPendingRequests(long userId) {
         String sql = "SELECT * FROM friendships WHERE user_id_2 = ? AND status = 'PENDING'";
         Object[] params = {userId};
@@ -110,6 +160,7 @@ public class FriendshipRepository {
      * @param userId2 친구 관계에 있는 두 번째 사용자의 ID
      * @return 두 사용자 간의 친구 관계를 담고 있는 {@link Optional<Friendship>} 객체
      */
+    @ReadOnlyQuery
     public Optional<Friendship> findByUsers(long userId1, long userId2) {
         String sql = "SELECT * FROM friendships WHERE (user_id_1 = ? AND user_id_2 = ?) OR (user_id_1 = ? AND user_id_2 = ?)";
         Object[] params = {userId1, userId2, userId2, userId1};
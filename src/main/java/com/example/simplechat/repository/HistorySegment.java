@@ -0,0 +1,287 @@
+package com.example.simplechat.repository;
+
+import com.example.simplechat.model.ChatMessage;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * {@link HistorySegmentStore}의 방별 로그를 이루는 고정 크기 메모리 매핑 파일 하나입니다.
+ * <p>
+ * 파일 내용은 힙 밖(페이지 캐시)에 있고, 레코드는 조회할 때만 {@link ChatMessage}로 디코딩됩니다.
+ * 레코드 형식 (big-endian, 문자열 길이 -1 = null):
+ * <pre>
+ * int   길이(레코드 전체) | byte 플래그 | long message_id | long author_id | byte message_type
+ * short author_name 길이 + UTF-8 | short created_at 길이 + UTF-8 | int content 길이(-1 = null) + UTF-8
+ * int   길이(뒤로 탐색용)
+ * </pre>
+ * message_id 순으로 추가된 "순서 레코드"에는 {@code indexInterval}개마다 (message_id, 위치) 희소 인덱스를 두고,
+ * 수정본처럼 순서와 무관하게 덧붙인 레코드는 {@link #REVISION} 플래그로 구분해 순차 탐색에서 제외합니다.
+ * 모든 쓰기는 {@link HistorySegmentStore}가 방 단위 쓰기 잠금 아래에서 수행합니다.
+ * </p>
+ */
+final class HistorySegment {
+
+    static final byte DELETED = 0x1;
+    static final byte REVISION = 0x2;
+    static final byte SUPERSEDED = 0x4;
+
+    private static final int MAGIC = 0x53434853; // "SCHS"
+    private static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    // 길이(4) + 플래그(1) + id(8) + 작성자(8) + 유형(1) + 이름 길이(2) + 시각 길이(2) + 내용 길이(4) + 길이(4)
+    private static final int FIXED_RECORD_BYTES = 34;
+    private static final long NULL_AUTHOR = Long.MIN_VALUE;
+    private static final ChatMessage.MsgType[] TYPES = ChatMessage.MsgType.values();
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int indexInterval;
+    private int writePos = HEADER_BYTES;
+
+    // 순서 레코드의 희소 인덱스
+    private long[] indexIds = new long[16];
+    private int[] indexOffsets = new int[16];
+    private int indexSize;
+    private int orderedCount;
+    private long firstId = -1;
+    private long lastId = -1;
+
+    private HistorySegment(Path path, MappedByteBuffer buffer, int indexInterval) {
+        this.path = path;
+        this.buffer = buffer;
+        this.indexInterval = indexInterval;
+    }
+
+    /**
+     * 새 세그먼트 파일을 만들고 매핑합니다.
+     *
+     * @param path          파일 경로 (이미 있으면 덮어씀)
+     * @param roomId        채팅방 ID (헤더에 기록)
+     * @param size          파일 크기(바이트)
+     * @param indexInterval 희소 인덱스 간격
+     * @return 매핑된 세그먼트
+     * @throws IOException 파일 생성/매핑 실패 시
+     */
+    static HistorySegment create(Path path, long roomId, int size, int indexInterval) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 매핑은 채널을 닫아도 유지됨
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT_VERSION);
+            buffer.putLong(8, roomId);
+            return new HistorySegment(path, buffer, indexInterval);
+        }
+    }
+
+    /**
+     * 레코드 하나를 저장하는 데 필요한 바이트 수를 계산합니다.
+     */
+    static int encodedSize(ChatMessage msg) {
+        return FIXED_RECORD_BYTES + byteLength(shortUtf8(msg.getAuthor_name())) + byteLength(shortUtf8(msg.getCreated_at()))
+            + byteLength(utf8(msg.getContent()));
+    }
+
+    boolean fits(int recordBytes) {
+        return writePos + recordBytes <= buffer.capacity();
+    }
+
+    /**
+     * 레코드를 끝에 추가합니다. 호출자는 {@link #fits(int)}로 공간을 먼저 확인해야 합니다.
+     *
+     * @param msg   저장할 메시지
+     * @param flags 0(순서 레코드) 또는 {@link #REVISION}
+     * @return 레코드 위치
+     */
+    int append(ChatMessage msg, byte flags) {
+        byte[] name = shortUtf8(msg.getAuthor_name());
+        byte[] createdAt = shortUtf8(msg.getCreated_at());
+        byte[] content = utf8(msg.getContent());
+        int length = FIXED_RECORD_BYTES + byteLength(name) + byteLength(createdAt) + byteLength(content);
+
+        int offset = writePos;
+        int p = offset;
+        buffer.putInt(p, length);
+        buffer.put(p + 4, flags);
+        buffer.putLong(p + 5, msg.getId());
+        buffer.putLong(p + 13, msg.getAuthor_id() != null ? msg.getAuthor_id() : NULL_AUTHOR);
+        buffer.put(p + 21, (byte) msg.getMsg_type().ordinal());
+        p += 22;
+        p = putShortString(p, name);
+        p = putShortString(p, createdAt);
+        buffer.putInt(p, content != null ? content.length : -1);
+        if (content != null) {
+            buffer.put(p + 4, content);
+            p += content.length;
+        }
+        buffer.putInt(p + 4, length);
+        writePos = offset + length;
+
+        if ((flags & REVISION) == 0) {
+            if (orderedCount % indexInterval == 0) {
+                if (indexSize == indexIds.length) {
+                    indexIds = Arrays.copyOf(indexIds, indexSize * 2);
+                    indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+                }
+                indexIds[indexSize] = msg.getId();
+                indexOffsets[indexSize] = offset;
+                indexSize++;
+            }
+            orderedCount++;
+            if (firstId < 0) {
+                firstId = msg.getId();
+            }
+            lastId = msg.getId();
+        }
+        return offset;
+    }
+
+    /**
+     * message_id가 {@code messageId} 이상인 첫 순서 레코드의 위치를 찾습니다.
+     *
+     * @return 레코드 위치. 모두 작으면 {@link #end()}
+     */
+    int seek(long messageId) {
+        if (indexSize == 0) {
+            return end();
+        }
+        // messageId보다 작은 마지막 인덱스 항목부터 순차 탐색
+        int lo = 0;
+        int hi = indexSize - 1;
+        int start = 0;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (indexIds[mid] < messageId) {
+                start = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        int offset = indexOffsets[start];
+        while (offset < writePos) {
+            if (!isRevision(offset) && idAt(offset) >= messageId) {
+                return offset;
+            }
+            offset = next(offset);
+        }
+        return end();
+    }
+
+    int next(int offset) {
+        return offset + buffer.getInt(offset);
+    }
+
+    /**
+     * @return 이전 레코드 위치. 첫 레코드면 -1
+     */
+    int previous(int offset) {
+        if (offset <= HEADER_BYTES) {
+            return -1;
+        }
+        return offset - buffer.getInt(offset - 4);
+    }
+
+    int end() {
+        return writePos;
+    }
+
+    long idAt(int offset) {
+        return buffer.getLong(offset + 5);
+    }
+
+    boolean isRevision(int offset) {
+        return (buffer.get(offset + 4) & REVISION) != 0;
+    }
+
+    byte flagsAt(int offset) {
+        return buffer.get(offset + 4);
+    }
+
+    void setFlags(int offset, byte flags) {
+        buffer.put(offset + 4, flags);
+    }
+
+    ChatMessage read(long roomId, int offset) {
+        long authorId = buffer.getLong(offset + 13);
+        ChatMessage msg = new ChatMessage(idAt(offset), authorId == NULL_AUTHOR ? null : authorId, null, roomId);
+        msg.setMsg_type(TYPES[buffer.get(offset + 21)]);
+        int p = offset + 22;
+        int nameLength = buffer.getShort(p);
+        msg.setAuthor_name(string(p + 2, nameLength));
+        p += 2 + Math.max(0, nameLength);
+        int createdLength = buffer.getShort(p);
+        msg.setCreated_at(string(p + 2, createdLength));
+        p += 2 + Math.max(0, createdLength);
+        msg.setContent(string(p + 4, buffer.getInt(p)));
+        return msg;
+    }
+
+    long firstId() {
+        return firstId;
+    }
+
+    long lastId() {
+        return lastId;
+    }
+
+    /**
+     * 파일이 그대로 있는지 확인합니다. (삭제되었거나 다른 파일로 바뀌었으면 false)
+     */
+    boolean isIntact() {
+        return Files.isRegularFile(path) && buffer.getInt(0) == MAGIC;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * 파일을 삭제합니다. 매핑은 GC가 버퍼를 회수할 때 해제됩니다.
+     */
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 다음 시작 시 디렉터리 정리에서 삭제됨
+        }
+    }
+
+    private int putShortString(int p, byte[] value) {
+        buffer.putShort(p, (short) (value != null ? value.length : -1));
+        if (value != null) {
+            buffer.put(p + 2, value);
+            return p + 2 + value.length;
+        }
+        return p + 2;
+    }
+
+    private String string(int offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    // author_name/created_at 길이는 short로 기록하므로 넘치는 부분은 잘라냄 (실제 컬럼 길이보다 충분히 큼)
+    private static byte[] shortUtf8(String value) {
+        byte[] bytes = utf8(value);
+        return bytes == null || bytes.length <= Short.MAX_VALUE ? bytes : Arrays.copyOf(bytes, Short.MAX_VALUE);
+    }
+
+    private static int byteLength(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+}
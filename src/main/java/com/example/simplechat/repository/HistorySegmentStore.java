@@ -0,0 +1,703 @@
+package com.example.simplechat.repository;
+
+import com.example.simplechat.dto.CacheStatsDto;
+import com.example.simplechat.model.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 깊은 이전 기록 조회(스크롤백)를 위한 방별 추가 전용(append-only) 메모리 매핑 로그 저장소입니다.
+ * <p>
+ * {@link RecentMessageBuffer}가 보관하지 않는 오래된 구간의 {@link MessageRepository#findBeforeId} 조회가
+ * 매번 chat_messages를 읽지 않도록, 스크롤백이 일어난 방의 기록을 {@link HistorySegment} 파일들에 message_id 순으로 적어 두고
+ * 희소 인덱스로 찾아 읽습니다. 데이터는 힙 밖의 매핑 파일에 있으므로 큰 스크롤백 캐시가 GC 일시 정지를 늘리지 않습니다.
+ * </p>
+ * <p>
+ * 로그는 방 기록 전체가 아니라 연속된 한 구간({@code coveredFrom} 초과 ~ {@code coveredUpTo} 이하)만 담습니다.
+ * 처음 스크롤백이 일어나면 백그라운드에서 커서 바로 아래의 메시지 {@code history-store.window-messages}개를 읽어 로그를 만들고,
+ * 조회가 구간의 아래쪽 끝을 넘어가면 그 아래의 같은 개수를 읽어 앞쪽에 세그먼트로 덧붙입니다.
+ * 방마다 적은 레코드가 {@code history-store.max-room-bytes}를 넘으면 더 내려가지 않고 그보다 오래된 구간은 DB에서 조회합니다.
+ * 조회가 구간의 위쪽 끝보다 새로운 구간을 요청하면 그 사이의 메시지를 이어 붙이되, 한 창보다 많거나 이미 상한에 닿았으면
+ * 로그를 비우고 새 커서 아래에서 다시 만듭니다. 쓰기 지연(write-behind)으로 늦게 커밋되는 메시지를 놓치지 않도록
+ * {@code history-store.catch-up-lag-ms}보다 오래된 메시지까지만 적습니다. 수정은 이전 레코드를 {@link HistorySegment#SUPERSEDED}로
+ * 표시하고 수정본을 덧붙이며, 삭제는 레코드를 {@link HistorySegment#DELETED}로 표시합니다(tombstone).
+ * </p>
+ * <p>
+ * 파일은 프로세스 수명 동안의 캐시입니다. 프로세스가 내려가 있는 동안의 수정/삭제는 알 수 없으므로 시작 시 남아 있는 세그먼트 파일을 지우고,
+ * 실행 중 파일이 사라지거나 손상되면 해당 방의 로그를 버려 다음 조회 때 DB에서 다시 만듭니다.
+ * 최대 {@code history-store.max-rooms}개 방을 LRU로 유지합니다.
+ * </p>
+ */
+@Component
+@Lazy(false)
+public class HistorySegmentStore {
+    private static final Logger logger = LoggerFactory.getLogger(HistorySegmentStore.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String MAX_ID_BEFORE_SQL =
+            "SELECT MAX(message_id) AS max_id FROM chat_messages WHERE created_at < ?";
+    private static final String COUNT_RANGE_SQL =
+            "SELECT COUNT(1) FROM chat_messages WHERE room_id = ? AND message_id > ? AND message_id <= ?";
+    private static final String STREAM_RANGE_SQL =
+            "SELECT " + SqlCatalog.MESSAGE_HISTORY_COLUMNS + " FROM chat_messages " +
+            "WHERE room_id = ? AND message_id > ? AND message_id <= ? ORDER BY message_id ASC";
+
+    private final JDBC_SQL jdbcsql;
+    private final Executor applicationTaskExecutor;
+
+    @Value("${history-store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${history-store.dir:${java.io.tmpdir}/simplechat-history}")
+    private String directoryPath;
+    private Path directory;
+
+    @Value("${history-store.segment-bytes:8388608}")
+    private int segmentBytes;
+
+    @Value("${history-store.index-interval:64}")
+    private int indexInterval;
+
+    @Value("${history-store.max-rooms:200}")
+    private int maxRooms;
+
+    @Value("${history-store.window-messages:1000}")
+    private int windowMessages;
+
+    @Value("${history-store.max-room-bytes:67108864}")
+    private long maxRoomBytes;
+
+    @Value("${history-store.catch-up-lag-ms:5000}")
+    private long catchUpLagMillis;
+
+    @Value("${history-store.catch-up-interval-ms:2000}")
+    private long catchUpIntervalMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    // 보존 기간 정리로 삭제된 메시지의 최대 ID. 이 이하의 레코드는 읽지 않음
+    private final AtomicLong retentionFloor = new AtomicLong();
+
+    // accessOrder=true: get()이 항목을 가장 최근 위치로 옮기므로 모든 접근을 동기화
+    private final Map<Long, RoomLog> rooms = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, RoomLog> eldest) {
+            if (size() > maxRooms) {
+                evictions.increment();
+                eldest.getValue().discard();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public HistorySegmentStore(JDBC_SQL jdbcsql, Executor applicationTaskExecutor) {
+        this.jdbcsql = jdbcsql;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        directory = Path.of(directoryPath);
+        try {
+            Files.createDirectories(directory);
+            // 이전 실행이 남긴 세그먼트 파일만 삭제
+            try (Stream<Path> stale = Files.list(directory)) {
+                stale.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(path -> path.toFile().delete());
+            }
+            logger.info("[HistorySegmentStore] 기록 로그 디렉터리: {}", directory);
+        } catch (IOException e) {
+            logger.error("[HistorySegmentStore] 디렉터리를 준비하지 못해 비활성화합니다: {}", e.getMessage());
+            enabled = false;
+        }
+    }
+
+    /**
+     * 커서 이전의 메시지를 최신순으로 반환합니다.
+     * 방의 로그가 없거나 요청 구간을 아직 담고 있지 않으면 로그 생성/확장을 예약하고 null을 반환합니다.
+     * 방의 로그가 상한에 닿아 더 오래된 구간으로 확장할 수 없으면 예약 없이 null을 반환합니다.
+     *
+     * @param roomId   채팅방 ID
+     * @param beforeId 이 ID보다 작은 메시지만 반환
+     * @param limit    최대 개수
+     * @return 최신순 목록. 로그로 답할 수 없으면 null (DB에서 조회해야 함)
+     */
+    public List<ChatMessage> findBefore(Long roomId, long beforeId, int limit) {
+        if (!enabled) {
+            return null;
+        }
+        RoomLog log;
+        synchronized (rooms) {
+            log = rooms.get(roomId);
+            if (log == null) {
+                log = new RoomLog(roomId);
+                rooms.put(roomId, log);
+            }
+        }
+        List<ChatMessage> result;
+        log.lock.readLock().lock();
+        try {
+            if (!log.ready || beforeId - 1 > log.coveredUpTo) {
+                misses.increment();
+                scheduleCatchUp(log, beforeId);
+                return null;
+            }
+            result = log.readBefore(beforeId, limit, retentionFloor.get());
+            if (result == null) {
+                // 구간 아래쪽 끝에 닿음
+                misses.increment();
+                if (log.bytes < maxRoomBytes) {
+                    scheduleCatchUp(log, beforeId);
+                }
+                return null;
+            }
+        } catch (RuntimeException | InternalError e) {
+            // 매핑된 파일이 잘렸거나 손상된 경우
+            logger.warn("[HistorySegmentStore] 방 {}의 로그를 읽지 못해 버립니다: {}", roomId, e.toString());
+            result = null;
+        } finally {
+            log.lock.readLock().unlock();
+        }
+        if (result == null) {
+            misses.increment();
+            drop(log);
+            return null;
+        }
+        hits.increment();
+        return result;
+    }
+
+    private void scheduleCatchUp(RoomLog log, long beforeId) {
+        long now = System.currentTimeMillis();
+        if (now - log.lastCatchUpAt < catchUpIntervalMillis || !log.catchingUp.compareAndSet(false, true)) {
+            return;
+        }
+        log.lastCatchUpAt = now;
+        log.wantedBefore = beforeId;
+        try {
+            applicationTaskExecutor.execute(() -> {
+                try {
+                    catchUp(log);
+                } catch (RuntimeException e) {
+                    logger.warn("[HistorySegmentStore] 방 {}의 로그를 만들지 못했습니다: {}", log.roomId, e.getMessage());
+                    drop(log);
+                } finally {
+                    log.catchingUp.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.catchingUp.set(false);
+        }
+    }
+
+    /**
+     * 마지막으로 요청된 커서에 맞춰 로그를 만들거나, 위쪽(새 메시지) 또는 아래쪽(오래된 메시지)으로 넓힙니다.
+     */
+    private void catchUp(RoomLog log) {
+        long beforeId = log.wantedBefore;
+        if (!log.ready) {
+            buildWindow(log, beforeId);
+        } else if (beforeId - 1 > log.coveredUpTo) {
+            appendNewer(log, beforeId);
+        } else {
+            prependOlder(log);
+        }
+    }
+
+    /**
+     * 커서 바로 아래의 한 창을 읽어 빈 로그를 만듭니다.
+     */
+    private void buildWindow(RoomLog log, long beforeId) {
+        Optional<Long> upper = maxIdBeforeCutoff();
+        if (upper.isEmpty()) {
+            log.markCovered(0, true);
+            log.markReady(0);
+            return;
+        }
+        long top = Math.min(beforeId - 1, upper.get());
+        readWindowBelow(log, top + 1);
+        log.markReady(top);
+        logger.debug("[HistorySegmentStore] 방 {} 로그 생성 ({}~{})", log.roomId, log.coveredFrom + 1, top);
+    }
+
+    /**
+     * 로그의 위쪽 끝 이후, 지연 기준보다 오래된 메시지들을 DB에서 읽어 이어 붙입니다.
+     * 메시지 ID는 방과 무관하게 증가하므로, 기준 시각 이전의 전체 최대 ID까지 읽으면 그 이하의 이 방 메시지는 모두 담깁니다.
+     * 이어 붙일 메시지가 한 창보다 많거나 로그가 이미 상한에 닿았으면 로그를 비우고 새 커서 아래에서 다시 만듭니다.
+     */
+    private void appendNewer(RoomLog log, long beforeId) {
+        Optional<Long> upper = maxIdBeforeCutoff();
+        long from = log.coveredUpTo;
+        if (upper.isEmpty() || upper.get() <= from) {
+            log.markReady(from);
+            return;
+        }
+        long to = upper.get();
+
+        long expected = jdbcsql.queryForObject(COUNT_RANGE_SQL, new Object[]{log.roomId, from, to},
+                (rs, cols) -> rs.getLong(1))
+            .orElseThrow(() -> new IllegalStateException("이어 붙일 기록 건수를 읽지 못했습니다."));
+        if (expected > windowMessages || log.bytes >= maxRoomBytes) {
+            log.reset();
+            buildWindow(log, beforeId);
+            return;
+        }
+
+        long appended = 0;
+        try (Stream<ChatMessage> messages = jdbcsql.queryForStream(STREAM_RANGE_SQL, new Object[]{log.roomId, from, to},
+                MessageRepository::mapRowToMsg)) {
+            Iterator<ChatMessage> it = messages.iterator();
+            while (it.hasNext()) {
+                ChatMessage msg = it.next();
+                log.lock.writeLock().lock();
+                try {
+                    log.appendOrdered(msg);
+                } finally {
+                    log.lock.writeLock().unlock();
+                }
+                appended++;
+            }
+        }
+
+        // 조회 오류는 빈 스트림으로 돌아오므로 건수로 누락 여부를 확인
+        if (expected != appended || log.stale) {
+            throw new IllegalStateException("기록 " + appended + "건을 적었으나 DB에는 " + expected + "건이 있습니다.");
+        }
+        log.markReady(to);
+        logger.debug("[HistorySegmentStore] 방 {} 로그에 {}건 추가 (~{})", log.roomId, appended, to);
+    }
+
+    /**
+     * 로그의 아래쪽 끝 바로 아래의 한 창을 읽어 앞쪽에 덧붙입니다. 방의 첫 메시지까지 담았거나 상한에 닿았으면 아무것도 하지 않습니다.
+     */
+    private void prependOlder(RoomLog log) {
+        if (log.reachedStart || log.bytes >= maxRoomBytes) {
+            return;
+        }
+        long from = log.coveredFrom;
+        readWindowBelow(log, from + 1);
+        logger.debug("[HistorySegmentStore] 방 {} 로그를 {}까지 확장 ({}바이트)", log.roomId, log.coveredFrom + 1, log.bytes);
+    }
+
+    /**
+     * {@code beforeId} 미만의 방 메시지를 최대 한 창 읽어 로그 앞쪽에 덧붙이고 구간의 아래쪽 끝을 옮깁니다.
+     */
+    private void readWindowBelow(RoomLog log, long beforeId) {
+        List<ChatMessage> newestFirst = jdbcsql.queryOrThrow(SqlCatalog.MESSAGE_HISTORY_BEFORE,
+            new Object[]{windowMessages, log.roomId, beforeId}, MessageRepository::mapRowToMsg);
+        boolean reachedStart = newestFirst.size() < windowMessages;
+        long lowest = newestFirst.isEmpty() ? beforeId : newestFirst.get(newestFirst.size() - 1).getId();
+        log.prepend(newestFirst.reversed());
+        if (log.stale) {
+            throw new IllegalStateException("로그를 넓히는 도중 반영할 수 없는 변경이 있었습니다.");
+        }
+        log.markCovered(reachedStart ? 0 : lowest - 1, reachedStart);
+    }
+
+    private Optional<Long> maxIdBeforeCutoff() {
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - catchUpLagMillis);
+        return jdbcsql.queryForObjectOrThrow(MAX_ID_BEFORE_SQL, new Object[]{cutoff},
+            (rs, cols) -> cols.getLong(rs, "max_id"));
+    }
+
+    /**
+     * 수정된 메시지를 로그에 반영합니다. 이전 레코드를 대체 표시하고 수정본을 덧붙입니다.
+     *
+     * @param msg 수정된 메시지
+     */
+    public void replace(ChatMessage msg) {
+        ChatMessage copy = new ChatMessage(msg.getId(), msg.getAuthor_id(), msg.getAuthor_name(), msg.getRoom_id());
+        copy.setMsg_type(msg.getMsg_type());
+        copy.setContent(msg.getContent());
+        copy.setCreated_at(msg.getCreated_at());
+        TransactionHooks.afterCommit(() -> modify(copy.getRoom_id(), copy.getId(), copy));
+    }
+
+    /**
+     * 삭제된 메시지를 로그에서 삭제 표시(tombstone)합니다.
+     *
+     * @param roomId    채팅방 ID
+     * @param messageId 삭제된 메시지 ID
+     */
+    public void remove(Long roomId, Long messageId) {
+        TransactionHooks.afterCommit(() -> modify(roomId, messageId, null));
+    }
+
+    private void modify(Long roomId, Long messageId, ChatMessage revision) {
+        RoomLog log;
+        synchronized (rooms) {
+            log = rooms.get(roomId);
+        }
+        if (log == null) {
+            return;
+        }
+        log.lock.writeLock().lock();
+        try {
+            if (log.tombstone(messageId, revision)) {
+                invalidations.increment();
+            }
+        } catch (RuntimeException | InternalError e) {
+            log.stale = true;
+        } finally {
+            log.lock.writeLock().unlock();
+        }
+        if (log.stale && !log.catchingUp.get()) {
+            drop(log);
+        }
+    }
+
+    /**
+     * 방의 로그를 버립니다. (방 purge 시)
+     *
+     * @param roomId 채팅방 ID
+     */
+    public void evictRoom(Long roomId) {
+        TransactionHooks.afterCommit(() -> drop(roomId));
+    }
+
+    /**
+     * ID가 {@code maxMessageId} 이하인 메시지를 모든 로그에서 읽지 않도록 합니다. (보존 기간 정리 시)
+     *
+     * @param maxMessageId 삭제된 메시지의 최대 ID
+     */
+    public void trimUpTo(long maxMessageId) {
+        TransactionHooks.afterCommit(() -> retentionFloor.accumulateAndGet(maxMessageId, Math::max));
+    }
+
+    private void drop(Long roomId) {
+        RoomLog removed;
+        synchronized (rooms) {
+            removed = rooms.remove(roomId);
+        }
+        if (removed != null) {
+            invalidations.increment();
+            removed.discard();
+        }
+    }
+
+    // 그사이 새로 만들어진 같은 방의 로그는 건드리지 않음
+    private void drop(RoomLog log) {
+        boolean removed;
+        synchronized (rooms) {
+            removed = rooms.remove(log.roomId, log);
+        }
+        if (removed) {
+            invalidations.increment();
+        }
+        log.discard();
+    }
+
+    /**
+     * 세그먼트 파일이 사라지거나 바뀐 방의 로그를 버립니다. 다음 조회 때 DB에서 다시 만듭니다.
+     */
+    @Scheduled(fixedDelayString = "${history-store.verify-interval-ms:60000}")
+    public void verifyFiles() {
+        if (!enabled) {
+            return;
+        }
+        List<RoomLog> logs;
+        synchronized (rooms) {
+            logs = new ArrayList<>(rooms.values());
+        }
+        for (RoomLog log : logs) {
+            boolean intact;
+            log.lock.readLock().lock();
+            try {
+                intact = log.segments.stream().allMatch(HistorySegment::isIntact);
+            } finally {
+                log.lock.readLock().unlock();
+            }
+            if (!intact) {
+                logger.warn("[HistorySegmentStore] 방 {}의 세그먼트 파일이 없어 로그를 다시 만듭니다.", log.roomId);
+                drop(log);
+            }
+        }
+    }
+
+    /**
+     * 로그 수와 적중 통계를 반환합니다. (크기는 로그가 있는 방 수, 적중은 로그로 답한 이전 기록 조회 수)
+     *
+     * @return 캐시 통계
+     */
+    public CacheStatsDto stats() {
+        int size;
+        synchronized (rooms) {
+            size = rooms.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return new CacheStatsDto("history-store", size, maxRooms, hitCount, missCount,
+            total == 0 ? 0.0 : (double) hitCount / total, evictions.sum(), invalidations.sum());
+    }
+
+    /**
+     * 한 방의 세그먼트 목록과 수정본 위치입니다. 읽기는 읽기 잠금, 모든 쓰기는 쓰기 잠금 아래에서 수행합니다.
+     */
+    private final class RoomLog {
+        final long roomId;
+        // message_id 오름차순. 앞쪽으로 넓힐 때는 목록 앞에 세그먼트를 끼워 넣음
+        final List<HistorySegment> segments = new ArrayList<>();
+        // 수정된 메시지 ID → 최신 수정본 위치
+        final Map<Long, RecordAt> revisions = new HashMap<>();
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final AtomicBoolean catchingUp = new AtomicBoolean();
+        // coveredFrom 초과, coveredUpTo 이하의 방 메시지는 모두 로그에 있음
+        volatile long coveredFrom;
+        volatile long coveredUpTo;
+        // coveredFrom 이하에는 방 메시지가 없음 (더 넓힐 필요 없음)
+        volatile boolean reachedStart;
+        volatile boolean ready;
+        // 지금까지 적은 레코드 바이트 수 (max-room-bytes와 비교)
+        volatile long bytes;
+        // 로그를 만드는 도중 반영할 수 없는 변경이 있었거나 쓰기에 실패함 → 버리고 다시 만듦
+        volatile boolean stale;
+        volatile long lastCatchUpAt;
+        // 마지막으로 로그가 답하지 못한 조회의 커서
+        volatile long wantedBefore;
+        private int nextFileNo;
+        boolean discarded;
+
+        RoomLog(long roomId) {
+            this.roomId = roomId;
+        }
+
+        void appendOrdered(ChatMessage msg) {
+            if (discarded) {
+                throw new IllegalStateException("버려진 로그입니다.");
+            }
+            append(msg, (byte) 0);
+        }
+
+        void markCovered(long from, boolean start) {
+            lock.writeLock().lock();
+            try {
+                if (!discarded) {
+                    coveredFrom = from;
+                    reachedStart = start;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void markReady(long upTo) {
+            lock.writeLock().lock();
+            try {
+                if (!discarded) {
+                    coveredUpTo = upTo;
+                    ready = true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private RecordAt append(ChatMessage msg, byte flags) {
+            int size = HistorySegment.encodedSize(msg);
+            HistorySegment tail = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (tail == null || !tail.fits(size)) {
+                tail = newSegment(Math.max(segmentBytes, HistorySegment.HEADER_BYTES + size));
+                segments.add(tail);
+            }
+            bytes += size;
+            return new RecordAt(tail, tail.append(msg, flags));
+        }
+
+        /**
+         * 로그의 첫 메시지보다 오래된 메시지들을 새 세그먼트에 적어 앞쪽에 끼워 넣습니다.
+         * 파일은 잠금 밖에서 메시지 크기에 맞춰 만들고, 목록에 넣을 때만 쓰기 잠금을 잡습니다.
+         *
+         * @param oldestFirst message_id 오름차순 메시지 (모두 현재 첫 메시지보다 오래됨)
+         */
+        void prepend(List<ChatMessage> oldestFirst) {
+            List<HistorySegment> older = new ArrayList<>();
+            long written = 0;
+            try {
+                int[] sizes = oldestFirst.stream().mapToInt(HistorySegment::encodedSize).toArray();
+                long remaining = Arrays.stream(sizes).asLongStream().sum();
+                HistorySegment current = null;
+                for (int i = 0; i < sizes.length; i++) {
+                    if (current == null || !current.fits(sizes[i])) {
+                        int capacity = (int) Math.min(segmentBytes, remaining);
+                        current = newSegment(HistorySegment.HEADER_BYTES + Math.max(capacity, sizes[i]));
+                        older.add(current);
+                    }
+                    current.append(oldestFirst.get(i), (byte) 0);
+                    remaining -= sizes[i];
+                    written += sizes[i];
+                }
+            } catch (RuntimeException e) {
+                older.forEach(HistorySegment::delete);
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                if (discarded) {
+                    older.forEach(HistorySegment::delete);
+                    throw new IllegalStateException("버려진 로그입니다.");
+                }
+                segments.addAll(0, older);
+                bytes += written;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private HistorySegment newSegment(int size) {
+            Path path = directory.resolve(roomId + "-" + nextFileNo++ + SEGMENT_SUFFIX);
+            try {
+                return HistorySegment.create(path, roomId, size, indexInterval);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * 순서 레코드에서 메시지를 찾아 삭제(또는 수정) 표시합니다.
+         *
+         * @param revision 수정본. null이면 삭제
+         * @return 표시했으면 true
+         */
+        boolean tombstone(long messageId, ChatMessage revision) {
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                HistorySegment segment = segments.get(i);
+                if (segment.firstId() < 0 || segment.firstId() > messageId) {
+                    continue;
+                }
+                int offset = segment.seek(messageId);
+                if (offset == segment.end() || segment.idAt(offset) != messageId) {
+                    break;
+                }
+                byte flags = segment.flagsAt(offset);
+                if ((flags & HistorySegment.DELETED) != 0) {
+                    return false;
+                }
+                if (revision == null) {
+                    segment.setFlags(offset, (byte) (flags | HistorySegment.DELETED));
+                    revisions.remove(messageId);
+                } else {
+                    revisions.put(messageId, append(revision, HistorySegment.REVISION));
+                    segment.setFlags(offset, (byte) (flags | HistorySegment.SUPERSEDED));
+                }
+                return true;
+            }
+            // 아직 적지 않은 메시지를 이어 붙이는(넓히는) 중이면, 이미 읽어 온 (변경 전) 내용이 적힐 수 있음
+            if ((messageId > coveredUpTo || messageId <= coveredFrom) && catchingUp.get()) {
+                stale = true;
+            }
+            return false;
+        }
+
+        /**
+         * @return 최신순 목록. limit개를 채우기 전에 구간 아래쪽 끝에 닿았고 그 아래에 메시지가 더 있을 수 있으면 null
+         */
+        List<ChatMessage> readBefore(long beforeId, int limit, long floor) {
+            List<ChatMessage> result = new ArrayList<>(limit);
+            int index = segments.size() - 1;
+            while (index >= 0 && (segments.get(index).firstId() < 0 || segments.get(index).firstId() >= beforeId)) {
+                index--;
+            }
+            if (index < 0) {
+                return reachedStart || coveredFrom <= floor ? result : null;
+            }
+            HistorySegment segment = segments.get(index);
+            int offset = segment.previous(segment.seek(beforeId));
+            while (result.size() < limit) {
+                if (offset < 0) {
+                    if (--index < 0) {
+                        return reachedStart || coveredFrom <= floor ? result : null;
+                    }
+                    segment = segments.get(index);
+                    offset = segment.previous(segment.end());
+                    continue;
+                }
+                if (!segment.isRevision(offset)) {
+                    long id = segment.idAt(offset);
+                    if (id <= floor) {
+                        break;
+                    }
+                    byte flags = segment.flagsAt(offset);
+                    if ((flags & HistorySegment.DELETED) == 0) {
+                        if ((flags & HistorySegment.SUPERSEDED) != 0) {
+                            RecordAt at = revisions.get(id);
+                            result.add(at.segment().read(roomId, at.offset()));
+                        } else {
+                            result.add(segment.read(roomId, offset));
+                        }
+                    }
+                }
+                offset = segment.previous(offset);
+            }
+            return result;
+        }
+
+        /**
+         * 세그먼트를 모두 지우고 빈 로그로 되돌립니다. (새 커서 아래에서 다시 만들 때)
+         */
+        void reset() {
+            lock.writeLock().lock();
+            try {
+                segments.forEach(HistorySegment::delete);
+                segments.clear();
+                revisions.clear();
+                ready = false;
+                reachedStart = false;
+                coveredFrom = 0;
+                coveredUpTo = 0;
+                bytes = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void discard() {
+            lock.writeLock().lock();
+            try {
+                segments.forEach(HistorySegment::delete);
+                segments.clear();
+                revisions.clear();
+                ready = false;
+                discarded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 세그먼트 안의 레코드 위치입니다. 앞쪽에 세그먼트가 끼워져도 바뀌지 않도록 번호 대신 세그먼트를 가리킵니다.
+     */
+    private record RecordAt(HistorySegment segment, int offset) { }
+}
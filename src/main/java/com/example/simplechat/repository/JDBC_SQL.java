@@ -1,9 +1,18 @@
 package com.example.simplechat.repository;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.SQLExceptionSubclassTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -16,27 +25,141 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * JDBC를 직접 사용하여 데이터베이스와 상호작용하는 유틸리티 클래스입니다.
  * SQL SELECT, INSERT, UPDATE, DELETE 쿼리를 실행하는 일반적인 메서드를 제공합니다.
  * 트랜잭션 관리와 리소스 정리를 포함합니다.
+ * 연결은 {@link DataSourceUtils}로 얻으므로 {@code @Transactional} 서비스 메서드 안에서는 Spring 트랜잭션에 참여하고,
+ * 그 밖에서는 호출마다 로컬 트랜잭션으로 커밋합니다.
+ * 스키마 초기화(spring.sql.init, perf 프로필)가 끝난 뒤에 생성되도록 {@link DependsOnDatabaseInitialization}을 지정하고,
+ * 데이터베이스 종류를 시작할 때 판별하도록 즉시 생성합니다.
  */
 @Component
+@Lazy(false)
+@DependsOnDatabaseInitialization
 @RequiredArgsConstructor
 public class JDBC_SQL {
     private static final Logger logger = LoggerFactory.getLogger(JDBC_SQL.class);
     private final DataSource dataSource;
+    private final QueryMetrics queryMetrics;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final SQLExceptionTranslator exceptionTranslator = new SQLExceptionSubclassTranslator();
+
+    /**
+     * 연결된 DB가 SQL Server인지 여부 (OUTPUT 절 지원 여부). 시작할 때 메타데이터로 한 번 판별합니다.
+     */
+    private boolean sqlServer;
 
     /**
      * 데이터베이스 연결을 가져옵니다.
+     * <p>
+     * 진행 중인 Spring 트랜잭션({@code @Transactional})이 있으면 그 트랜잭션에 묶인 연결을 반환하므로,
+     * 서비스 메서드 하나의 여러 쿼리가 같은 연결과 한 번의 커밋을 공유합니다.
+     * 반환된 연결은 {@link #closeResources}를 통해 {@link DataSourceUtils#releaseConnection}으로 반납해야 합니다.
+     * </p>
      * @return 데이터베이스 연결
      * @throws SQLException 데이터베이스 접근 오류 발생 시
      */
     private Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+        return DataSourceUtils.doGetConnection(dataSource);
+    }
+
+    /**
+     * 연결이 Spring 트랜잭션에 참여 중인지 확인합니다.
+     * 참여 중이면 커밋/롤백은 트랜잭션 매니저가 담당하므로 JDBC_SQL은 손대지 않습니다.
+     * {@link ReadOnlyQuery}처럼 연결만 공유하고 실제 트랜잭션은 없는 범위는 참여로 보지 않습니다.
+     */
+    private boolean isSpringManaged(Connection connection) {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && DataSourceUtils.isConnectionTransactional(connection, dataSource);
+    }
+
+    /**
+     * Spring 트랜잭션 밖에서 호출된 경우에만 자동 커밋을 끄고 이 작업만의 로컬 트랜잭션을 시작합니다.
+     */
+    private void beginLocalTransaction(Connection connection) throws SQLException {
+        if (!isSpringManaged(connection)) {
+            connection.setAutoCommit(false);
+        }
+    }
+
+    /**
+     * {@link #beginLocalTransaction}으로 시작한 로컬 트랜잭션을 커밋합니다. Spring 트랜잭션 안에서는 아무것도 하지 않습니다.
+     */
+    private void commitLocalTransaction(Connection connection) throws SQLException {
+        if (!isSpringManaged(connection)) {
+            connection.commit();
+        }
+    }
+
+    /**
+     * 작업 실패 시 트랜잭션을 정리합니다.
+     * <p>
+     * 로컬 트랜잭션이면 롤백하고 기존처럼 오류를 호출자에게 전달하지 않습니다. (자동 커밋 중인 조회는 아무것도 하지 않음)
+     * Spring 트랜잭션에 참여 중이면 연결을 직접 롤백하지 않고 {@link DataAccessException}을 던져
+     * 트랜잭션 전체가 롤백되도록 합니다. 그렇지 않으면 실패한 단계만 빠진 채 나머지가 커밋됩니다.
+     * </p>
+     */
+    private void rollbackOnFailure(Connection connection, String sqlQuery, SQLException cause) {
+        if (connection == null) {
+            return;
+        }
+        if (isSpringManaged(connection)) {
+            throw translate(sqlQuery, cause);
+        }
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                logger.warn("오류로 인해 트랜잭션이 롤백되었습니다.");
+            }
+        } catch (SQLException rollbackEx) {
+            logger.error("롤백 중 오류 발생: {}", rollbackEx.getMessage(), rollbackEx);
+        }
     }
     
+    private DataAccessException translate(String sqlQuery, SQLException cause) {
+        DataAccessException translated = exceptionTranslator.translate("JDBC_SQL", sqlQuery, cause);
+        return translated != null ? translated : new UncategorizedSQLException("JDBC_SQL", sqlQuery, cause);
+    }
+
+    /**
+     * 연결된 데이터베이스의 종류를 시작할 때 한 번 판별합니다.
+     * 판별하지 못하면 잘못된 SQL(OUTPUT / FINAL TABLE)을 보내지 않도록 시작을 중단합니다.
+     *
+     * @throws IllegalStateException 데이터베이스에 연결하지 못한 경우
+     */
+    @PostConstruct
+    void detectDatabase() {
+        Connection connection = null;
+        try {
+            connection = getConnection();
+            String product = connection.getMetaData().getDatabaseProductName();
+            sqlServer = product.contains("SQL Server");
+            logger.info("데이터베이스 종류: {} (OUTPUT 절 사용: {})", product, sqlServer);
+        } catch (SQLException e) {
+            throw new IllegalStateException("데이터베이스 종류를 확인하지 못했습니다: " + e.getMessage(), e);
+        } finally {
+            closeResources(null, null, connection);
+        }
+    }
+
+    /**
+     * 연결된 데이터베이스가 SQL Server인지 확인합니다.
+     * SQL Server가 아닌 경우(perf 프로필의 H2 등) OUTPUT 절 대신 {@code FINAL TABLE} 구문을 사용해야 합니다.
+     *
+     * @return SQL Server이면 true
+     */
+    public boolean isSqlServer() {
+        return sqlServer;
+    }
+
     /**
      * SQL SELECT 쿼리를 실행하고 결과를 List<Map<String, Object>> 형태로 반환합니다.
      * PreparedStatement를 사용하여 SQL 인젝션을 방지합니다.
@@ -46,6 +169,7 @@ public class JDBC_SQL {
      * @return 쿼리 결과의 각 행을 Map으로 표현한 리스트. 컬럼 이름은 키로 사용됩니다.
      */
     public List<Map<String, Object>> executeSelect(String sqlQuery, Object[] params) {
+        QueryMetrics.Sample sample = queryMetrics.start(sqlQuery);
     	List<Map<String, Object>> result = new ArrayList<>();
         Connection connection = null;
         PreparedStatement statement = null;
@@ -53,6 +177,7 @@ public class JDBC_SQL {
         
         try {
             connection = getConnection();
+            sample.acquired();
             statement = connection.prepareStatement(sqlQuery);
             if (params != null) {
 	            for (int i = 0; i < params.length; i++) {
@@ -74,105 +199,380 @@ public class JDBC_SQL {
             }
         } catch (SQLException e) {
         	logger.error("SELECT 작업 중 데이터베이스 오류 발생: {}", e.getMessage(), e);
-            try {
-                if (connection != null) {
-                    connection.rollback();
-                    logger.warn("오류로 인해 트랜잭션이 롤백되었습니다.");
-                }
-            } catch (SQLException rollbackEx) {
-                logger.error("롤백 중 오류 발생: {}", rollbackEx.getMessage(), rollbackEx);
-            }
+            rollbackOnFailure(connection, sqlQuery, e);
         } finally {
+            sample.finish(result.size());
             closeResources(resultSet, statement, connection);
         }
         
         return result;
     }
     
+    /**
+     * SQL SELECT 쿼리를 실행하고 각 행을 {@link RowMapper}로 변환한 리스트를 반환합니다.
+     * 컬럼 이름 → 인덱스 매핑은 구문당 한 번만 계산되며, 행마다 Map을 생성하지 않습니다.
+     *
+     * @param sqlQuery 실행할 SELECT 쿼리 문자열
+     * @param params 쿼리의 Placeholder(?)에 바인딩될 매개변수 배열
+     * @param mapper 각 행을 객체로 변환할 매퍼
+     * @param <T> 매핑 결과 타입
+     * @return 매핑된 객체 리스트. 오류 발생 시 빈 리스트 (Spring 트랜잭션 안에서는 {@link DataAccessException}을 던짐)
+     */
+    public <T> List<T> query(String sqlQuery, Object[] params, RowMapper<T> mapper) {
+        return doQuery(sqlQuery, params, mapper, false);
+    }
+
+    /**
+     * {@link #query}와 같지만 트랜잭션 밖에서도 오류를 빈 리스트로 바꾸지 않고 던집니다.
+     * 캐시 적재처럼 실패한 조회 결과(빈 리스트)를 정상 결과로 오래 보관하면 안 되는 곳에서 사용합니다.
+     *
+     * @throws DataAccessException 연결 획득이나 조회에 실패한 경우
+     */
+    public <T> List<T> queryOrThrow(String sqlQuery, Object[] params, RowMapper<T> mapper) {
+        return doQuery(sqlQuery, params, mapper, true);
+    }
+
+    private <T> List<T> doQuery(String sqlQuery, Object[] params, RowMapper<T> mapper, boolean rethrow) {
+        QueryMetrics.Sample sample = queryMetrics.start(sqlQuery);
+        List<T> result = new ArrayList<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            sample.acquired();
+            statement = connection.prepareStatement(sqlQuery);
+            bindParams(statement, params);
+
+            resultSet = statement.executeQuery();
+            ColumnIndex cols = ColumnIndex.of(resultSet.getMetaData());
+            while (resultSet.next()) {
+                result.add(mapper.mapRow(resultSet, cols));
+            }
+        } catch (SQLException e) {
+            logger.error("SELECT 작업 중 데이터베이스 오류 발생: {}", e.getMessage(), e);
+            rollbackOnFailure(connection, sqlQuery, e);
+            if (rethrow) {
+                throw translate(sqlQuery, e);
+            }
+        } finally {
+            sample.finish(result.size());
+            closeResources(resultSet, statement, connection);
+        }
+
+        return result;
+    }
+
+    /**
+     * SQL SELECT 쿼리를 실행하고 첫 번째 행만 {@link RowMapper}로 변환하여 반환합니다.
+     *
+     * @param sqlQuery 실행할 SELECT 쿼리 문자열
+     * @param params 쿼리의 Placeholder(?)에 바인딩될 매개변수 배열
+     * @param mapper 행을 객체로 변환할 매퍼
+     * @param <T> 매핑 결과 타입
+     * @return 첫 번째 행을 담은 {@link Optional}. 결과가 없거나 오류 발생 시 Optional.empty()
+     *         (Spring 트랜잭션 안에서의 오류는 {@link DataAccessException}을 던짐)
+     */
+    public <T> Optional<T> queryForObject(String sqlQuery, Object[] params, RowMapper<T> mapper) {
+        return doQueryForObject(sqlQuery, params, mapper, false);
+    }
+
+    /**
+     * {@link #queryForObject}와 같지만 트랜잭션 밖에서도 오류를 던지므로, 빈 결과는 "행이 없음"만을 뜻합니다.
+     *
+     * @throws DataAccessException 연결 획득이나 조회에 실패한 경우
+     */
+    public <T> Optional<T> queryForObjectOrThrow(String sqlQuery, Object[] params, RowMapper<T> mapper) {
+        return doQueryForObject(sqlQuery, params, mapper, true);
+    }
+
+    private <T> Optional<T> doQueryForObject(String sqlQuery, Object[] params, RowMapper<T> mapper, boolean rethrow) {
+        QueryMetrics.Sample sample = queryMetrics.start(sqlQuery);
+        int rows = 0;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            sample.acquired();
+            statement = connection.prepareStatement(sqlQuery);
+            statement.setMaxRows(1);
+            bindParams(statement, params);
+
+            resultSet = statement.executeQuery();
+            if (resultSet.next()) {
+                rows = 1;
+                return Optional.ofNullable(mapper.mapRow(resultSet, ColumnIndex.of(resultSet.getMetaData())));
+            }
+        } catch (SQLException e) {
+            logger.error("SELECT 작업 중 데이터베이스 오류 발생: {}", e.getMessage(), e);
+            rollbackOnFailure(connection, sqlQuery, e);
+            if (rethrow) {
+                throw translate(sqlQuery, e);
+            }
+        } finally {
+            sample.finish(rows);
+            closeResources(resultSet, statement, connection);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * SQL SELECT 쿼리를 실행하고 결과를 지연 소비되는 {@link Stream}으로 반환합니다.
+     * 행은 스트림이 소비될 때마다 ResultSet에서 하나씩 읽어 매핑되므로 전체 결과를 메모리에 올리지 않습니다.
+     * <p>
+     * <b>반환된 스트림은 반드시 닫아야 합니다</b> (try-with-resources 사용).
+     * 스트림을 닫을 때 ResultSet, Statement, Connection이 함께 반납됩니다.
+     * </p>
+     *
+     * @param sqlQuery 실행할 SELECT 쿼리 문자열
+     * @param params 쿼리의 Placeholder(?)에 바인딩될 매개변수 배열
+     * @param mapper 각 행을 객체로 변환할 매퍼
+     * @param <T> 매핑 결과 타입
+     * @return 매핑된 객체의 스트림. 쿼리 실행 오류 시 빈 스트림 (Spring 트랜잭션 안에서는 {@link DataAccessException}을 던짐)
+     */
+    public <T> Stream<T> queryForStream(String sqlQuery, Object[] params, RowMapper<T> mapper) {
+        QueryMetrics.Sample sample = queryMetrics.start(sqlQuery);
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            sample.acquired();
+            statement = connection.prepareStatement(sqlQuery);
+            bindParams(statement, params);
+            resultSet = statement.executeQuery();
+            ColumnIndex cols = ColumnIndex.of(resultSet.getMetaData());
+
+            final ResultSet rs = resultSet;
+            final Connection conn = connection;
+            final long[] rows = new long[1];
+            Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        rows[0]++;
+                        action.accept(mapper.mapRow(rs, cols));
+                        return true;
+                    } catch (SQLException e) {
+                        rollbackOnFailure(conn, sqlQuery, e);
+                        throw new IllegalStateException("스트림 조회 중 데이터베이스 오류 발생: " + e.getMessage(), e);
+                    }
+                }
+            };
+
+            final Statement st = statement;
+            return StreamSupport.stream(spliterator, false)
+                    .onClose(() -> {
+                        sample.finish(rows[0]);
+                        closeResources(rs, st, conn);
+                    });
+        } catch (SQLException e) {
+            logger.error("SELECT 스트림 작업 중 데이터베이스 오류 발생: {}", e.getMessage(), e);
+            sample.finish(0);
+            try {
+                rollbackOnFailure(connection, sqlQuery, e);
+            } finally {
+                closeResources(resultSet, statement, connection);
+            }
+            return Stream.empty();
+        }
+    }
+
     /**
      * SQL INSERT, UPDATE, DELETE 쿼리를 실행합니다.
-     * 생성된 키를 반환하거나 추가 컬럼을 조회하여 Map 형태로 반환할 수 있습니다.
+     * 생성된 키를 Map 형태로 반환할 수 있습니다. 키 외의 서버 생성 컬럼(created_at 등)이 필요한 INSERT는
+     * {@link #executeInsertReturning}을 사용합니다.
      * 트랜잭션을 자동으로 커밋하거나 롤백합니다.
      *
      * @param sqlQuery 실행할 SQL 쿼리 문자열
      * @param params 쿼리의 Placeholder(?)에 바인딩될 매개변수 배열
      * @param returnCols 생성된 키를 반환받을 컬럼 이름 배열 (예: {"id"})
-     * @param addCols 삽입 후 추가로 조회할 컬럼 이름 배열 (예: {"created_at"})
-     * @return 영향을 받은 행의 수, 생성된 키 및 추가 조회 컬럼을 포함하는 Map
+     * @return 영향을 받은 행의 수와 생성된 키를 포함하는 Map
      */
-    public Map<String, Object> executeUpdate(String sqlQuery, Object[] params, String[] returnCols, String[] addCols) {
+    public Map<String, Object> executeUpdate(String sqlQuery, Object[] params, String[] returnCols) {
+        QueryMetrics.Sample sample = queryMetrics.start(sqlQuery);
     	Map<String, Object> result = new HashMap<>();
         Connection connection = null;
         PreparedStatement statement = null;
         
         try {
             connection = getConnection();
-            connection.setAutoCommit(false); 
-            
-            statement = connection.prepareStatement(sqlQuery, Statement.RETURN_GENERATED_KEYS);
+            sample.acquired();
+            beginLocalTransaction(connection);
             
-            if (params != null) {
-	            for (int i = 0; i < params.length; i++) {
-	            	statement.setObject(i + 1, params[i]);
-	            }
-            }
+            statement = returnCols != null
+            		? connection.prepareStatement(sqlQuery, Statement.RETURN_GENERATED_KEYS)
+            		: connection.prepareStatement(sqlQuery);
+            bindParams(statement, params);
 
         	int rowsAffected = statement.executeUpdate();
         	
-            ResultSet generatedKeys = statement.getGeneratedKeys();
-            if (generatedKeys.next() && returnCols != null) {
-            	for (int i = 0; i < returnCols.length; i++) {
-            		result.put(returnCols[i].toLowerCase(), generatedKeys.getObject(i + 1));
-            	}
-            }
-            
-            if (addCols != null && returnCols != null && returnCols.length > 0) {
-            	generatedKeys.close(); // GeneratedKeys는 더 이상 필요 없으므로 닫음
-            	statement.close(); // 기존 statement 닫고
-	            String selectSql = "SELECT ";
-	            for (String col : addCols) {
-	            	selectSql += col + ", ";
+            if (returnCols != null) {
+	            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+		            if (generatedKeys.next()) {
+		            	for (int i = 0; i < returnCols.length; i++) {
+		            		result.put(returnCols[i].toLowerCase(), generatedKeys.getObject(i + 1));
+		            	}
+		            }
 	            }
-	            selectSql = selectSql.substring(0, selectSql.length() - 2); // 마지막 ", " 제거
-	            selectSql += " FROM " + DB_Utils.TableNameFromInsert(sqlQuery) + " ";
-	            selectSql += "WHERE " + returnCols[0] + " = ?";
-	            
-	            statement = connection.prepareStatement(selectSql);
-	            statement.setObject(1, result.get(returnCols[0].toLowerCase()));
-	            
-	            ResultSet resultSet = statement.executeQuery();
-	            ResultSetMetaData rsmd = resultSet.getMetaData();
-	            int columnCount = rsmd.getColumnCount();
-	            
-	            while (resultSet.next()) {
-	                for (int i = 1; i <= columnCount; i++) {
-	                	result.put(rsmd.getColumnName(i).toLowerCase(), resultSet.getObject(i));
-	                }
-	            }
-	            resultSet.close();
             }
             
             result.put("affected_rows", (long) rowsAffected);
             
-            connection.commit();
+            commitLocalTransaction(connection);
+            readYourWritesTracker.markWrite();
             
         } catch (SQLException e) {
         	logger.error("UPDATE/INSERT/DELETE 작업 중 데이터베이스 오류 발생: {}", e.getMessage(), e);
-            try {
-                if (connection != null) {
-                    connection.rollback();
-                    logger.warn("오류로 인해 트랜잭션이 롤백되었습니다.");
-                }
-            } catch (SQLException rollbackEx) {
-                logger.error("롤백 중 오류 발생: {}", rollbackEx.getMessage(), rollbackEx);
-            }
+            rollbackOnFailure(connection, sqlQuery, e);
         } finally {
+            sample.finish(result.containsKey("affected_rows") ? (long) result.get("affected_rows") : 0);
             closeResources(null, statement, connection);
         }
         
         return result;
     }
     
+    /**
+     * 결과 집합을 반환하는 DML(OUTPUT 절을 포함한 INSERT/MERGE 등)을 하나의 트랜잭션으로 실행하고,
+     * 반환된 각 행을 {@link RowMapper}로 변환합니다.
+     * 결과를 모두 읽은 뒤 커밋하며, 오류 발생 시 롤백하고 빈 리스트를 반환합니다.
+     *
+     * @param sqlQuery 실행할 DML 쿼리 문자열
+     * @param params 쿼리의 Placeholder(?)에 바인딩될 매개변수 배열
+     * @param mapper 반환된 각 행을 객체로 변환할 매퍼
+     * @param <T> 매핑 결과 타입
+     * @return 매핑된 객체 리스트. 오류 발생 시 빈 리스트 (Spring 트랜잭션 안에서는 {@link DataAccessException}을 던짐)
+     */
+    public <T> List<T> executeReturning(String sqlQuery, Object[] params, RowMapper<T> mapper) {
+        QueryMetrics.Sample sample = queryMetrics.start(sqlQuery);
+        List<T> result = new ArrayList<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            sample.acquired();
+            beginLocalTransaction(connection);
+
+            statement = connection.prepareStatement(sqlQuery);
+            bindParams(statement, params);
+
+            resultSet = statement.executeQuery();
+            ColumnIndex cols = ColumnIndex.of(resultSet.getMetaData());
+            while (resultSet.next()) {
+                result.add(mapper.mapRow(resultSet, cols));
+            }
+
+            commitLocalTransaction(connection);
+            readYourWritesTracker.markWrite();
+        } catch (SQLException e) {
+            logger.error("RETURNING DML 작업 중 데이터베이스 오류 발생: {}", e.getMessage(), e);
+            result.clear();
+            rollbackOnFailure(connection, sqlQuery, e);
+        } finally {
+            sample.finish(result.size());
+            closeResources(resultSet, statement, connection);
+        }
+
+        return result;
+    }
+
+    /**
+     * 한 번의 왕복으로 행을 삽입하고, 생성된 키와 서버 기본값 컬럼을 함께 반환받습니다.
+     * {@code INSERT INTO table (...) OUTPUT INSERTED.col, ... VALUES (...)} 형태의 구문을 생성하여
+     * {@link #executeReturning}으로 실행하므로, 삽입 후 별도의 SELECT를 실행하지 않습니다.
+     * SQL Server가 아닌 DB에서는 {@code SELECT ... FROM FINAL TABLE (INSERT ...)}로 대체합니다.
+     *
+     * @param table 대상 테이블 이름
+     * @param columns 값을 지정할 컬럼 이름 배열
+     * @param params 각 컬럼에 바인딩될 값 배열 (columns와 같은 순서)
+     * @param outputCols 삽입된 행에서 반환받을 컬럼 이름 배열 (예: {"message_id", "created_at"})
+     * @param mapper 반환된 행을 객체로 변환할 매퍼
+     * @param <T> 매핑 결과 타입
+     * @return 반환된 행을 매핑한 {@link Optional}. 오류 발생 시 Optional.empty()
+     */
+    public <T> Optional<T> executeInsertReturning(String table, String[] columns, Object[] params,
+    		String[] outputCols, RowMapper<T> mapper) {
+        StringBuilder values = new StringBuilder(" VALUES (");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) values.append(", ");
+            values.append('?');
+        }
+        values.append(')');
+
+        StringBuilder sql = new StringBuilder();
+        if (isSqlServer()) {
+            sql.append("INSERT INTO ").append(table).append(" (").append(String.join(", ", columns)).append(") OUTPUT ");
+            for (int i = 0; i < outputCols.length; i++) {
+                if (i > 0) sql.append(", ");
+                sql.append("INSERTED.").append(outputCols[i]);
+            }
+            sql.append(values);
+        } else {
+            // H2 등 OUTPUT 절이 없는 DB: 데이터 변경 델타 테이블로 동일한 결과를 한 번에 조회
+            sql.append("SELECT ").append(String.join(", ", outputCols))
+               .append(" FROM FINAL TABLE (INSERT INTO ").append(table)
+               .append(" (").append(String.join(", ", columns)).append(')').append(values).append(')');
+        }
+
+        List<T> rows = executeReturning(sql.toString(), params, mapper);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    /**
+     * 같은 DML 구문을 여러 매개변수 묶음으로 JDBC 배치 실행합니다.
+     * 전체를 하나의 트랜잭션으로 커밋하며, 오류 발생 시 롤백합니다.
+     * 대량 데이터 적재(예: perf 프로필의 시드 데이터 생성)에 사용합니다.
+     *
+     * @param sqlQuery 실행할 DML 쿼리 문자열
+     * @param paramsList 각 실행에 바인딩될 매개변수 배열 목록
+     * @return 영향을 받은 전체 행 수. 오류 발생 시 0
+     */
+    public long executeBatch(String sqlQuery, List<Object[]> paramsList) {
+        QueryMetrics.Sample sample = queryMetrics.start(sqlQuery);
+        long affected = 0;
+        Connection connection = null;
+        PreparedStatement statement = null;
+
+        try {
+            connection = getConnection();
+            sample.acquired();
+            beginLocalTransaction(connection);
+
+            statement = connection.prepareStatement(sqlQuery);
+            for (Object[] params : paramsList) {
+                bindParams(statement, params);
+                statement.addBatch();
+            }
+            for (int count : statement.executeBatch()) {
+                // SUCCESS_NO_INFO(-2)는 1건으로 계산
+                affected += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+
+            commitLocalTransaction(connection);
+            readYourWritesTracker.markWrite();
+        } catch (SQLException e) {
+            logger.error("배치 작업 중 데이터베이스 오류 발생: {}", e.getMessage(), e);
+            affected = 0;
+            rollbackOnFailure(connection, sqlQuery, e);
+        } finally {
+            sample.finish(affected);
+            closeResources(null, statement, connection);
+        }
+
+        return affected;
+    }
+
     /**
      * IDENTITY_INSERT를 ON으로 설정하여 ID를 수동으로 지정하는 INSERT 쿼리를 실행합니다.
      * 특정 레거시 시스템 또는 데이터 마이그레이션 시 사용될 수 있습니다.
@@ -183,6 +583,8 @@ public class JDBC_SQL {
      * @return 작업 결과 (현재는 빈 Map)
      */
     public Map<String, Object> executeInsert_IdentitiyOn(String sqlQuery, Object[] params) {
+        QueryMetrics.Sample sample = queryMetrics.start(sqlQuery);
+        int inserted = 0;
     	Map<String, Object> result = new HashMap<>();
         Connection connection = null;
         PreparedStatement statement = null;
@@ -190,7 +592,8 @@ public class JDBC_SQL {
         
         try {
             connection = getConnection();
-            connection.setAutoCommit(false); 
+            sample.acquired();
+            beginLocalTransaction(connection);
             
             identityStatement = connection.createStatement();
             identityStatement.execute("SET IDENTITY_INSERT users ON"); // 테이블 이름이 하드코딩됨, 유의
@@ -201,23 +604,18 @@ public class JDBC_SQL {
 	            	statement.setObject(i + 1, params[i]);
 	            }
             }
-            statement.executeUpdate();
+            inserted = statement.executeUpdate();
             
             identityStatement.execute("SET IDENTITY_INSERT users OFF");
             
-            connection.commit();
+            commitLocalTransaction(connection);
+            readYourWritesTracker.markWrite();
             
         } catch (SQLException e) {
         	logger.error("IDENTITY_INSERT 작업 중 데이터베이스 오류 발생: {}", e.getMessage(), e);
-            try {
-                if (connection != null) {
-                    connection.rollback();
-                    logger.warn("오류로 인해 트랜잭션이 롤백되었습니다.");
-                }
-            } catch (SQLException rollbackEx) {
-                logger.error("롤백 중 오류 발생: {}", rollbackEx.getMessage(), rollbackEx);
-            }
+            rollbackOnFailure(connection, sqlQuery, e);
         } finally {
+            sample.finish(inserted);
             closeResources(null, statement, connection);
             closeResources(null, identityStatement, null); // identityStatement만 닫음
         }
@@ -266,6 +664,21 @@ public class JDBC_SQL {
 		return count;
 	}
 
+    /**
+     * PreparedStatement의 Placeholder(?)에 매개변수를 순서대로 바인딩합니다.
+     *
+     * @param statement 바인딩할 PreparedStatement
+     * @param params 바인딩할 매개변수 배열 (null 허용)
+     * @throws SQLException 바인딩 중 오류 발생 시
+     */
+    private void bindParams(PreparedStatement statement, Object[] params) throws SQLException {
+        if (params != null) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+        }
+    }
+
     /**
      * JDBC 리소스(ResultSet, Statement, Connection)를 안전하게 닫습니다.
      * @param resultSet 닫을 ResultSet
@@ -276,9 +689,11 @@ public class JDBC_SQL {
         try {
             if (resultSet != null) resultSet.close();
             if (statement != null) statement.close();
-            if (connection != null) connection.close();
         } catch (SQLException e) {
             logger.error("JDBC 리소스 닫기 중 오류 발생: {}", e.getMessage(), e);
+        } finally {
+            // Spring 트랜잭션에 묶인 연결은 닫지 않고 참조만 반납하며, 그 외에는 풀에 반환
+            DataSourceUtils.releaseConnection(connection, dataSource);
         }
     }
 }
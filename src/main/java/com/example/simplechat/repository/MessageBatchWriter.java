@@ -0,0 +1,261 @@
+package com.example.simplechat.repository;
+
+import com.example.simplechat.model.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 채팅 메시지 INSERT를 모아서 한 번에 처리하는 write-behind 컴포넌트입니다.
+ * <p>
+ * 여러 방에서 들어온 메시지를 큐에 쌓아 두었다가, 배치 크기(max-batch-size)에 도달하거나
+ * 첫 메시지가 들어온 뒤 지정된 시간(max-delay-ms)이 지나면 하나의 커넥션·하나의 커밋으로 저장합니다.
+ * 저장이 끝나면 각 메시지의 {@link CompletableFuture}를 DB가 부여한 message_id와 created_at으로 완료시킵니다.
+ * </p>
+ * <p>
+ * SQL Server JDBC 드라이버는 executeBatch에서 생성 키를 반환하지 않으므로, 여러 행을 하나의
+ * {@code MERGE ... OUTPUT} 문으로 삽입하고 행 순번(ord)으로 결과를 원래 요청과 대응시킵니다.
+ * 배치 크기마다 다른 구문이 계획 캐시에 쌓이지 않도록, 배치는 2의 거듭제곱 크기 조각(예: 200 → 128, 64, 8)으로 나누어
+ * {@link SqlCatalog#MESSAGE_INSERT_MERGE}의 미리 만든 구문으로 실행합니다. 조각마다 하나의 커밋입니다.
+ * </p>
+ */
+@Component
+public class MessageBatchWriter {
+    private static final Logger logger = LoggerFactory.getLogger(MessageBatchWriter.class);
+
+    // ord, room_id, author_id, author_name, message_type, content, parent_message_id
+    private static final int PARAMS_PER_ROW = 7;
+    // SQL Server는 요청당 최대 2100개의 매개변수만 허용
+    private static final int MAX_ROWS_PER_STATEMENT = 2000 / PARAMS_PER_ROW;
+
+    private final JDBC_SQL jdbcsql;
+
+    @Value("${chat.write-behind.max-batch-size:200}")
+    private int maxBatchSize;
+
+    @Value("${chat.write-behind.max-delay-ms:5}")
+    private long maxDelayMs;
+
+    @Value("${chat.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.write-behind.offer-timeout-ms:200}")
+    private long offerTimeoutMs;
+
+    /**
+     * 저장 대기 중인 메시지와 그 결과를 전달할 Future입니다.
+     */
+    private record PendingInsert(ChatMessage msg, CompletableFuture<ChatMessage> future) { }
+
+    private BlockingQueue<PendingInsert> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    public MessageBatchWriter(JDBC_SQL jdbcsql) {
+        this.jdbcsql = jdbcsql;
+    }
+
+    @PostConstruct
+    void start() {
+        maxBatchSize = Math.max(1, Math.min(maxBatchSize, MAX_ROWS_PER_STATEMENT));
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::runLoop, "message-batch-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("[MessageBatchWriter] 시작됨: 배치 크기={} 최대 지연={}ms 큐 용량={}", maxBatchSize, maxDelayMs, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 종료 시점에 남아 있는 메시지는 호출 스레드에서 모두 저장
+        List<PendingInsert> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int i = 0; i < rest.size(); i += maxBatchSize) {
+            flush(rest.subList(i, Math.min(i + maxBatchSize, rest.size())));
+        }
+    }
+
+    /**
+     * 메시지를 저장 대기열에 추가합니다.
+     * 대기열이 가득 찬 경우에는 호출 스레드가 {@code chat.write-behind.offer-timeout-ms}까지 기다리고, 그래도 자리가 없으면
+     * {@link RejectedExecutionException}을 던져 역압(back-pressure)을 겁니다. 호출 스레드에서 직접 저장하지 않으므로
+     * 저장과 콜백은 항상 writer 스레드 하나에서 ID 순서대로 일어납니다.
+     * <p>
+     * {@code onSaved}는 대기열에 넣기 전에 등록되므로 항상 저장을 완료한 스레드에서 완료 순서대로 호출됩니다.
+     * (반환된 Future에 나중에 붙인 후속 작업은 이미 완료된 경우 붙인 스레드에서 실행되어 순서가 보장되지 않습니다)
+     * </p>
+     *
+     * @param msg 저장할 새 메시지 (ID 없음)
+     * @param onSaved 저장 직후 ID가 채워진 메시지로 호출할 콜백
+     * @return 저장과 콜백이 끝나면 ID와 생성 시간이 채워진 메시지로 완료되는 Future
+     * @throws RejectedExecutionException 대기열이 가득 차 기다린 뒤에도 넣지 못한 경우
+     */
+    public CompletableFuture<ChatMessage> submit(ChatMessage msg, Consumer<ChatMessage> onSaved) {
+        PendingInsert pending = new PendingInsert(msg, new CompletableFuture<>());
+        CompletableFuture<ChatMessage> result = pending.future().thenApply(saved -> {
+            onSaved.accept(saved);
+            return saved;
+        });
+        if (!running) {
+            // 종료 중에는 writer 스레드가 없으므로 호출 스레드에서 저장
+            flush(List.of(pending));
+            return result;
+        }
+        if (!offer(pending)) {
+            throw new RejectedExecutionException("메시지 저장 대기열이 가득 찼습니다. (용량 " + queueCapacity + ")");
+        }
+        if (!running && queue.remove(pending)) {
+            // 넣는 사이 stop()이 시작됨. stop()이 이미 꺼내 간 경우가 아니면 직접 저장
+            flush(List.of(pending));
+        }
+        return result;
+    }
+
+    private boolean offer(PendingInsert pending) {
+        try {
+            return queue.offer(pending) || queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void runLoop() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingInsert first = queue.take();
+                batch.add(first);
+
+                // 첫 메시지 이후 maxDelayMs 동안, 또는 배치가 찰 때까지 모음
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    if (batch.size() >= maxBatchSize) {
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("[MessageBatchWriter] 배치 처리 중 예기치 않은 오류 발생: {}", e.getMessage(), e);
+                batch.forEach(p -> p.future().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 배치를 버킷 크기 조각으로 나누어 순서대로 저장하고 각 Future를 요청 순서대로 완료합니다.
+     *
+     * @param batch 저장할 메시지 목록 (MAX_ROWS_PER_STATEMENT 이하)
+     */
+    private void flush(List<PendingInsert> batch) {
+        int saved = 0;
+        for (int from = 0; from < batch.size(); ) {
+            int size = SqlCatalog.rowBucket(batch.size() - from);
+            saved += insert(batch.subList(from, from + size));
+            from += size;
+        }
+        if (!batch.isEmpty()) {
+            logger.debug("[MessageBatchWriter] {}건 저장 완료", saved);
+        }
+    }
+
+    /**
+     * 버킷 크기만큼의 메시지를 하나의 MERGE ... OUTPUT 문으로 저장하고 각 Future를 완료합니다.
+     *
+     * @param batch 저장할 메시지 목록 (크기는 {@link SqlCatalog#rowBucket(int)}의 결과)
+     * @return 저장된 행 수
+     */
+    private int insert(List<PendingInsert> batch) {
+        boolean sqlServer = jdbcsql.isSqlServer();
+        // SQL Server가 아니면 ord 컬럼 없이 삽입하고, message_id 순서로 요청 순번을 대응
+        int paramsPerRow = sqlServer ? PARAMS_PER_ROW : PARAMS_PER_ROW - 1;
+        Object[] params = new Object[batch.size() * paramsPerRow];
+        for (int i = 0; i < batch.size(); i++) {
+            ChatMessage msg = batch.get(i).msg();
+            int base = i * paramsPerRow;
+            if (sqlServer) {
+                params[base++] = i;
+            }
+            params[base] = msg.getRoom_id();
+            params[base + 1] = msg.getAuthor_id();
+            params[base + 2] = msg.getAuthor_name();
+            params[base + 3] = msg.getMsg_type().name();
+            params[base + 4] = msg.getContent();
+            params[base + 5] = msg.getParent_msg_id();
+        }
+
+        record InsertedRow(int ord, long messageId, String createdAt) { }
+        List<InsertedRow> rows;
+        if (sqlServer) {
+            rows = jdbcsql.executeReturning(SqlCatalog.MESSAGE_INSERT_MERGE.sql(batch.size()), params,
+                    (rs, cols) -> new InsertedRow(
+                            rs.getInt(1),
+                            rs.getLong(2),
+                            DB_Utils.formatTimestamp(rs.getTimestamp(3))));
+        } else {
+            int[] position = {0};
+            rows = jdbcsql.executeReturning(SqlCatalog.MESSAGE_INSERT_FINAL_TABLE.sql(batch.size()), params,
+                    (rs, cols) -> new InsertedRow(
+                            position[0]++,
+                            rs.getLong(1),
+                            DB_Utils.formatTimestamp(rs.getTimestamp(2))));
+        }
+
+        Map<Integer, InsertedRow> byOrd = new HashMap<>(rows.size() * 2);
+        rows.forEach(row -> byOrd.put(row.ord(), row));
+
+        // 요청 순서대로 완료시켜 후속 이벤트도 같은 순서로 발행되도록 함
+        for (int i = 0; i < batch.size(); i++) {
+            PendingInsert pending = batch.get(i);
+            InsertedRow row = byOrd.get(i);
+            if (row == null) {
+                pending.future().completeExceptionally(
+                        new IllegalStateException("메시지 저장에 실패했습니다: 방 " + pending.msg().getRoom_id()));
+                continue;
+            }
+            pending.msg().setId(row.messageId());
+            pending.msg().setCreated_at(row.createdAt());
+            pending.future().complete(pending.msg());
+        }
+        return rows.size();
+    }
+}
@@ -1,15 +1,16 @@
 package com.example.simplechat.repository;
 
 import com.example.simplechat.model.ChatMessage;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
@@ -21,6 +22,15 @@ import org.springframework.stereotype.Repository;
 @Repository
 public class MessageRepository {
 	private final JDBC_SQL jdbcsql;
+	private final MessageBatchWriter batchWriter;
+	private final ReadYourWritesTracker readYourWritesTracker;
+	private final RecentMessageBuffer recentMessages;
+	private final HistorySegmentStore historyStore;
+	
+	/**
+	 * 기록 조회 한 번에 가져올 수 있는 최대 메시지 수입니다.
+	 */
+	public static final int MAX_HISTORY_PAGE_SIZE = 200;
 	
 	/**
 	 * 특정 채팅방의 모든 메시지를 조회합니다.
@@ -28,48 +38,83 @@ public class MessageRepository {
 	 * @param roomId 메시지를 조회할 방의 ID
 	 * @return 해당 방의 {@link ChatMessage} 객체 목록. 메시지가 없으면 빈 리스트를 반환합니다.
 	 */
+	@ReadOnlyQuery
 	public List<ChatMessage> findByRoomId(Long roomId){
 		String sql = "SELECT * FROM chat_messages WHERE room_id = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{roomId});
-		
-		if( parsedTable.isEmpty() )
-			return Collections.emptyList();
-
-		return parsedTable.stream()
-				.map(this::mapRowToMsg)
-				.collect(Collectors.toList());
+		return jdbcsql.query(sql, new Object[]{roomId}, MessageRepository::mapRowToMsg);
 	}
 	
 	/**
-	 * 특정 채팅방에서 지정된 개수(N)만큼의 메시지를 ID 기준으로 정렬하여 조회합니다.
-	 * `beginId`를 기준으로 이전 또는 이후 메시지를 조회할 수 있습니다.
+	 * 특정 채팅방의 모든 메시지를 ID 오름차순으로 지연 조회하는 스트림을 반환합니다.
+	 * 전체 기록을 리스트로 올리지 않고 순차 처리(내보내기, 재색인 등)할 때 사용합니다.
+	 * <b>반환된 스트림은 반드시 닫아야 합니다.</b>
 	 *
 	 * @param roomId 메시지를 조회할 방의 ID
-	 * @param beginId (선택 사항) 조회 시작 기준이 되는 메시지 ID. null인 경우 최신 메시지부터 조회.
-	 * @param N 조회할 메시지의 최대 개수
-	 * @param Sort 정렬 순서 ("ASC" 또는 "DESC")
-	 * @return 조회된 {@link ChatMessage} 객체 목록. 메시지가 없으면 빈 리스트를 반환합니다.
-	 */
-	public List<ChatMessage> findTopNByRoomIdOrderById(Long roomId, Long beginId, Integer N, String Sort) {
-		StringBuilder sql = new StringBuilder("SELECT TOP ").append(N).append(" * FROM chat_messages WHERE room_id = ?");
-		List<Object> params = new ArrayList<>();
-		
-		params.add(roomId);
-		if (beginId != null) {
-			sql.append(" AND message_id < ?"); // DESC 정렬을 가정 (더 작은 ID = 더 오래된 메시지)
-			params.add(beginId);
+	 * @return {@link ChatMessage} 스트림
+	 */
+	public Stream<ChatMessage> streamByRoomId(Long roomId) {
+		String sql = "SELECT * FROM chat_messages WHERE room_id = ? ORDER BY message_id ASC";
+		return jdbcsql.queryForStream(sql, new Object[]{roomId}, MessageRepository::mapRowToMsg);
+	}
+	
+	/**
+	 * 특정 채팅방의 가장 최근 메시지를 최신순(message_id 내림차순)으로 조회합니다.
+	 * {@link RecentMessageBuffer}가 보관 중인 구간이면 DB를 조회하지 않습니다.
+	 *
+	 * @param roomId 메시지를 조회할 방의 ID
+	 * @param limit 조회할 최대 개수 ({@link #MAX_HISTORY_PAGE_SIZE}를 넘으면 잘라냄)
+	 * @return 최신순으로 정렬된 {@link ChatMessage} 목록 (parent_message_id 제외)
+	 */
+	@ReadOnlyQuery
+	public List<ChatMessage> findLatestByRoomId(Long roomId, int limit) {
+		List<ChatMessage> buffered = recentMessages.findLatest(roomId, clampPageSize(limit));
+		if (buffered != null) {
+			return buffered;
 		}
-		sql.append(" ORDER BY message_id ").append(Sort);
-		
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql.toString(), params.toArray());
+		return jdbcsql.query(SqlCatalog.MESSAGE_HISTORY_LATEST, new Object[]{clampPageSize(limit), roomId}, MessageRepository::mapRowToMsg);
+	}
 	
-		if (parsedTable.isEmpty()) {
-			return Collections.emptyList();
+	/**
+	 * 커서(메시지 ID) 이전의 메시지를 최신순(message_id 내림차순)으로 조회합니다. (이전 기록 불러오기)
+	 * {@link RecentMessageBuffer}, {@link HistorySegmentStore} 순으로 확인하고 둘 다 답할 수 없을 때만 DB를 조회합니다.
+	 *
+	 * @param roomId 메시지를 조회할 방의 ID
+	 * @param beforeId 이 ID보다 작은 메시지만 조회
+	 * @param limit 조회할 최대 개수
+	 * @return 최신순으로 정렬된 {@link ChatMessage} 목록
+	 */
+	@ReadOnlyQuery
+	public List<ChatMessage> findBeforeId(Long roomId, Long beforeId, int limit) {
+		List<ChatMessage> buffered = recentMessages.findBefore(roomId, beforeId, clampPageSize(limit));
+		if (buffered != null) {
+			return buffered;
 		}
-
-		return parsedTable.stream()
-			.map(this::mapRowToMsg)
-			.collect(Collectors.toList());
+		List<ChatMessage> logged = historyStore.findBefore(roomId, beforeId, clampPageSize(limit));
+		if (logged != null) {
+			return logged;
+		}
+		return jdbcsql.query(SqlCatalog.MESSAGE_HISTORY_BEFORE, new Object[]{clampPageSize(limit), roomId, beforeId}, MessageRepository::mapRowToMsg);
+	}
+	
+	/**
+	 * 커서(메시지 ID) 이후의 메시지를 오래된 순(message_id 오름차순)으로 조회합니다. (재접속 시 놓친 메시지 따라잡기)
+	 *
+	 * @param roomId 메시지를 조회할 방의 ID
+	 * @param afterId 이 ID보다 큰 메시지만 조회
+	 * @param limit 조회할 최대 개수
+	 * @return 오래된 순으로 정렬된 {@link ChatMessage} 목록
+	 */
+	@ReadOnlyQuery
+	public List<ChatMessage> findAfterId(Long roomId, Long afterId, int limit) {
+		List<ChatMessage> buffered = recentMessages.findAfter(roomId, afterId, clampPageSize(limit));
+		if (buffered != null) {
+			return buffered;
+		}
+		return jdbcsql.query(SqlCatalog.MESSAGE_HISTORY_AFTER, new Object[]{clampPageSize(limit), roomId, afterId}, MessageRepository::mapRowToMsg);
+	}
+	
+	private static int clampPageSize(int limit) {
+		return Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
 	}
 	
 	/**
@@ -79,16 +124,10 @@ public class MessageRepository {
 	 * @param authorId 메시지를 보낸 작성자의 ID
 	 * @return 해당 방과 작성자의 {@link ChatMessage} 객체 목록. 메시지가 없으면 빈 리스트를 반환합니다.
 	 */
+	@ReadOnlyQuery
 	public List<ChatMessage> findByRoomIdandAuthorId(Long roomId, Long authorId){
 		String sql = "SELECT * FROM chat_messages WHERE room_id = ? AND author_id = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{roomId, authorId});
-		
-		if( parsedTable.isEmpty() )
-			return Collections.emptyList();
-		
-		return parsedTable.stream()
-				.map(this::mapRowToMsg)
-				.collect(Collectors.toList());
+		return jdbcsql.query(sql, new Object[]{roomId, authorId}, MessageRepository::mapRowToMsg);
 	}
 	
 	/**
@@ -104,6 +143,27 @@ public class MessageRepository {
 			return update(msg);
 	}
 	
+	/**
+	 * 새로운 채팅 메시지를 write-behind 배치 저장 대기열에 넣습니다.
+	 * 다른 메시지들과 함께 하나의 구문으로 저장되며, 저장이 끝나면 ID와 생성 시간이 채워진 메시지로 Future가 완료됩니다.
+	 *
+	 * {@code onSaved}는 writer 스레드에서 저장 완료 순서(= ID 순서)대로 호출됩니다.
+	 *
+	 * @param msg 저장할 새 {@link ChatMessage} 객체 (ID 없음)
+	 * @param onSaved 저장 직후 ID가 채워진 메시지로 호출할 콜백 (오래 걸리는 작업은 다른 실행기로 넘길 것)
+	 * @return 저장된 {@link ChatMessage}로 완료되는 {@link CompletableFuture}
+	 */
+	public CompletableFuture<ChatMessage> saveAsync(ChatMessage msg, Consumer<ChatMessage> onSaved) {
+		// 실제 INSERT는 writer 스레드에서 일어나므로 요청/메시지 스레드에서 한 번, 커밋 시점에 작성자 ID로 다시 기록.
+		// 구간이 커밋 시점부터 시작되고, 소유 노드로 전달되어 사용자 정보가 없는 스레드에서 호출된 경우에도 기록됨
+		readYourWritesTracker.markWrite();
+		return batchWriter.submit(msg, saved -> {
+			readYourWritesTracker.markWrite(saved.getAuthor_id());
+			recentMessages.append(saved);
+			onSaved.accept(saved);
+		});
+	}
+	
 	/**
 	 * 새로운 채팅 메시지를 데이터베이스에 삽입합니다.
 	 * 생성된 메시지 ID와 생성 시간을 {@link ChatMessage} 객체에 채웁니다.
@@ -112,26 +172,16 @@ public class MessageRepository {
 	 * @return ID와 생성 시간이 채워진 {@link ChatMessage} 객체
 	 */
 	private ChatMessage insert(ChatMessage msg) {
-		StringBuilder sql = new StringBuilder("INSERT INTO chat_messages (room_id, author_id, author_name, message_type, content");
-		List<Object> params = new ArrayList<>(Arrays.asList(msg.getRoom_id(), msg.getAuthor_id(), msg.getAuthor_name(), msg.getMsg_type().name(), msg.getContent()));
-
-		if( msg.getParent_msg_id() != null ) {
-			sql.append(", parent_message_id");
-			params.add(msg.getParent_msg_id());
-		}
-		sql.append(") VALUES (?, ?, ?, ?, ?");
-		if( msg.getParent_msg_id() != null ) {
-			sql.append(", ?");
-		}
-		sql.append(")");
+		String[] columns = {"room_id", "author_id", "author_name", "message_type", "content", "parent_message_id"};
+		Object[] params = {msg.getRoom_id(), msg.getAuthor_id(), msg.getAuthor_name(), msg.getMsg_type().name(), msg.getContent(), msg.getParent_msg_id()};
 		
-		Map<String, Object> result = jdbcsql.executeUpdate(sql.toString(), params.toArray(), 
-				new String[]{"message_id"}, new String[] {"created_at"});
-		
-		if( result != null && result.containsKey("message_id")) { 
-			msg.setId( ((Number)result.get("message_id")).longValue() ); 
-			msg.setCreated_at(((Timestamp)result.get("created_at")).toLocalDateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-		}
+		jdbcsql.executeInsertReturning("chat_messages", columns, params, new String[]{"message_id", "created_at"},
+				(rs, cols) -> {
+					msg.setId(rs.getLong(1));
+					msg.setCreated_at(DB_Utils.formatTimestamp(rs.getTimestamp(2)));
+					return msg;
+				});
+		recentMessages.append(msg);
 		return msg;
 	}
 	
@@ -142,39 +192,29 @@ public class MessageRepository {
 	 * @return 업데이트된 {@link ChatMessage} 객체
 	 */
 	private ChatMessage update(ChatMessage msg) {
-		String sql = "UPDATE chat_messages SET content = ?, message_type = ? WHERE message_id = ?";
 		// msg.getMsg_type().name() 추가하여 메시지 타입도 업데이트 되도록 수정. UPDATE 타입인 경우.
-		jdbcsql.executeUpdate(sql, new Object[]{msg.getContent(), msg.getMsg_type().name(), msg.getId()}, null, null);
+		jdbcsql.executeUpdate(SqlCatalog.MESSAGE_UPDATE_CONTENT, new Object[]{msg.getContent(), msg.getMsg_type().name(), msg.getId()}, null);
+		recentMessages.replace(msg);
+		historyStore.replace(msg);
 		return msg;
 	}
 	
 	/**
-	 * 데이터베이스 조회 결과의 Map 형태 한 행을 {@link ChatMessage} 엔티티로 매핑합니다.
+	 * 데이터베이스 조회 결과의 한 행을 {@link ChatMessage} 엔티티로 매핑합니다.
 	 *
-	 * @param row 데이터베이스에서 조회된 단일 행을 나타내는 Map
+	 * @param rs 현재 행에 위치한 ResultSet
+	 * @param cols 구문당 한 번 계산된 컬럼 인덱스
 	 * @return 매핑된 {@link ChatMessage} 객체
+	 * @throws SQLException 컬럼 값을 읽는 중 오류가 발생한 경우
 	 */
-	private ChatMessage mapRowToMsg(Map<String, Object> row) {
-		ChatMessage msg = new ChatMessage((Long) row.get("message_id"), (Long) row.get("author_id"), (String) row.get("author_name"), (Long) row.get("room_id"));
-		msg.setMsg_type(ChatMessage.MsgType.valueOf((String)row.get("message_type")));
-		msg.setContent((String) row.get("content"));
-		// Timestamp 객체가 아닐 수 있으므로 toString()을 통해 안전하게 처리
-		Object createdAtObj = row.get("created_at");
-		if (createdAtObj instanceof Timestamp) {
-			msg.setCreated_at(((Timestamp) createdAtObj).toLocalDateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-		} else if (createdAtObj != null) {
-			msg.setCreated_at(createdAtObj.toString());
-		} else {
-			msg.setCreated_at(null);
-		}
-		
-		// parent_message_id가 없을 수도 있으므로 확인 후 설정
-		Object parentMsgIdObj = row.get("parent_message_id");
-		if (parentMsgIdObj instanceof Number) {
-		    msg.setParent_msg_id(((Number) parentMsgIdObj).longValue());
-		} else {
-		    msg.setParent_msg_id(null);
-		}
+	static ChatMessage mapRowToMsg(ResultSet rs, ColumnIndex cols) throws SQLException {
+		ChatMessage msg = new ChatMessage(cols.getLong(rs, "message_id"), cols.getLong(rs, "author_id"),
+				cols.getString(rs, "author_name"), cols.getLong(rs, "room_id"));
+		msg.setMsg_type(ChatMessage.MsgType.valueOf(cols.getString(rs, "message_type")));
+		msg.setContent(cols.getString(rs, "content"));
+		msg.setCreated_at(DB_Utils.formatTimestamp(cols.getTimestamp(rs, "created_at")));
+		// parent_message_id가 없을 수도 있으므로 null 허용
+		msg.setParent_msg_id(cols.getLong(rs, "parent_message_id"));
 		
 		return msg;
 	}
@@ -185,33 +225,94 @@ public class MessageRepository {
 	 * @param messageId 조회할 메시지의 ID
 	 * @return 메시지를 포함하는 {@link Optional<ChatMessage>} 객체. 메시지가 없으면 Optional.empty() 반환.
 	 */
+	@ReadOnlyQuery
 	public Optional<ChatMessage> findById(Long messageId) {
 		String sql = "SELECT * FROM chat_messages WHERE message_id = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{messageId});
-		
-		if( parsedTable.isEmpty() )
-			return Optional.empty();
-		
-		return Optional.of(mapRowToMsg(parsedTable.get(0)));
+		return jdbcsql.queryForObject(sql, new Object[]{messageId}, MessageRepository::mapRowToMsg);
 	}
 
 	/**
 	 * 메시지 ID를 기준으로 채팅 메시지를 삭제합니다.
 	 *
 	 * @param messageId 삭제할 메시지의 ID
+	 * @param roomId 메시지가 속한 방의 ID (최근 메시지 버퍼 갱신용)
 	 */
-	public void deleteById(Long messageId) {
+	public void deleteById(Long messageId, Long roomId) {
 		String sql = "DELETE FROM chat_messages WHERE message_id = ?";
-		jdbcsql.executeUpdate(sql, new Object[]{messageId}, null, null);
+		jdbcsql.executeUpdate(sql, new Object[]{messageId}, null);
+		recentMessages.remove(roomId, messageId);
+		historyStore.remove(roomId, messageId);
 	}
 
 	/**
-	 * 특정 채팅방의 모든 메시지를 삭제합니다.
+	 * 특정 채팅방의 메시지를 최대 {@code limit}개 삭제합니다.
+	 * 한 구문이 잡는 잠금 수를 제한하여 잠금 확대(lock escalation)로 다른 방의 쓰기가 막히지 않도록
+	 * {@link com.example.simplechat.service.PurgeService}가 0이 반환될 때까지 반복 호출합니다.
 	 *
 	 * @param roomId 메시지를 삭제할 방의 ID
+	 * @param limit 이번 배치에서 삭제할 최대 행 수
+	 * @return 삭제된 행 수
+	 */
+	public long deleteBatchByRoomId(Long roomId, int limit) {
+		String sql = "DELETE TOP (?) FROM chat_messages WHERE room_id = ?";
+		long deleted = affectedRows(jdbcsql.executeUpdate(sql, new Object[]{limit, roomId}, null));
+		recentMessages.evictRoom(roomId);
+		historyStore.evictRoom(roomId);
+		return deleted;
+	}
+
+	/**
+	 * 사용자가 작성한 메시지를 최대 {@code limit}개 삭제합니다. (계정 purge용)
+	 * 삭제된 메시지가 있던 방의 최근 메시지 버퍼와 기록 로그는 버립니다.
+	 * {@link com.example.simplechat.service.PurgeService}가 0이 반환될 때까지 반복 호출합니다.
+	 *
+	 * @param authorId 작성자 ID
+	 * @param limit 이번 배치에서 삭제할 최대 행 수
+	 * @return 삭제된 행 수
+	 */
+	public long deleteBatchByAuthorId(Long authorId, int limit) {
+		// 지운 메시지의 방 ID를 돌려받아 해당 방의 캐시만 버림
+		String sql = jdbcsql.isSqlServer()
+				? "DELETE TOP (?) FROM chat_messages OUTPUT DELETED.room_id WHERE author_id = ?"
+				: "SELECT room_id FROM OLD TABLE (DELETE TOP (?) FROM chat_messages WHERE author_id = ?)";
+		List<Long> roomIds = jdbcsql.executeReturning(sql, new Object[]{limit, authorId}, (rs, cols) -> rs.getLong(1));
+		roomIds.stream().distinct().forEach(roomId -> {
+			recentMessages.evictRoom(roomId);
+			historyStore.evictRoom(roomId);
+		});
+		return roomIds.size();
+	}
+
+	/**
+	 * ID가 {@code maxMessageId} 이하인 메시지를 최대 {@code limit}개 삭제합니다. (보존 기간 정리용)
+	 *
+	 * @param maxMessageId 삭제 대상의 마지막 메시지 ID
+	 * @param limit 이번 배치에서 삭제할 최대 행 수
+	 * @return 삭제된 행 수
+	 */
+	public long deleteBatchUpTo(Long maxMessageId, int limit) {
+		String sql = "DELETE TOP (?) FROM chat_messages WHERE message_id <= ?";
+		long deleted = affectedRows(jdbcsql.executeUpdate(sql, new Object[]{limit, maxMessageId}, null));
+		recentMessages.trimUpTo(maxMessageId);
+		historyStore.trimUpTo(maxMessageId);
+		return deleted;
+	}
+
+	/**
+	 * 주어진 시각 이전에 작성된 메시지 중 가장 큰 메시지 ID를 조회합니다.
+	 * 메시지 ID는 작성 순서대로 증가하므로, 이 ID 이하의 메시지가 보존 기간 정리 대상입니다.
+	 *
+	 * @param cutoff 기준 시각
+	 * @return 대상 메시지의 최대 ID. 대상이 없으면 Optional.empty()
 	 */
-	public void deleteByRoomId(Long roomId) {
-		String sql = "DELETE FROM chat_messages WHERE room_id = ?";
-		jdbcsql.executeUpdate(sql, new Object[]{roomId}, null, null);
+	@ReadOnlyQuery
+	public Optional<Long> findMaxIdCreatedBefore(LocalDateTime cutoff) {
+		String sql = "SELECT MAX(message_id) AS max_id FROM chat_messages WHERE created_at < ?";
+		return jdbcsql.queryForObject(sql, new Object[]{Timestamp.valueOf(cutoff)}, (rs, cols) -> cols.getLong(rs, "max_id"));
+	}
+
+	private static long affectedRows(Map<String, Object> result) {
+		Object affected = result.get("affected_rows");
+		return affected != null ? (long) affected : 0L;
 	}
 }
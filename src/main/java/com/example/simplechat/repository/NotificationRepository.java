@@ -4,11 +4,11 @@ import com.example.simplechat.model.Notification;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * 알림(Notification) 엔티티의 영속성(데이터베이스 CRUD)을 관리하는 리포지토리 클래스입니다.
@@ -27,7 +27,7 @@ public class NotificationRepository {
      * @return ID와 생성 시간을 포함하여 저장된 {@link Notification} 객체
      */
     public Notification save(Notification notification) {
-        String sql = "INSERT INTO notifications (receiver_id, notification_type, content, related_entity_id, metadata) VALUES (?, ?, ?, ?, ?)";
+        String[] columns = {"receiver_id", "notification_type", "content", "related_entity_id", "metadata"};
         Object[] params = {
             notification.getReceiverId(),
             notification.getNotificationType().name(),
@@ -35,12 +35,12 @@ public class NotificationRepository {
             notification.getRelatedEntityId(),
             notification.getMetadata()
         };
-        Map<String, Object> result = jdbcsql.executeUpdate(sql, params, new String[]{"notification_id"}, new String[]{"created_at"});
-
-        if (result != null && result.containsKey("notification_id")) {
-            notification.setId(((Number) result.get("notification_id")).longValue());
-            notification.setCreatedAt(((Timestamp) result.get("created_at")).toLocalDateTime());
-        }
+        jdbcsql.executeInsertReturning("notifications", columns, params, new String[]{"notification_id", "created_at"},
+                (rs, cols) -> {
+                    notification.setId(rs.getLong(1));
+                    notification.setCreatedAt(rs.getTimestamp(2).toLocalDateTime());
+                    return notification;
+                });
         return notification;
     }
 
@@ -50,14 +50,11 @@ public class NotificationRepository {
      * @param notificationId 조회할 알림의 ID
      * @return 알림을 포함하는 {@link Optional<Notification>} 객체. 알림이 없으면 Optional.empty() 반환.
      */
+    @ReadOnlyQuery
     public Optional<Notification> findById(long notificationId) {
         String sql = "SELECT * FROM notifications WHERE notification_id = ?";
         Object[] params = {notificationId};
-        List<Map<String, Object>> rows = jdbcsql.executeSelect(sql, params);
-        if (rows.isEmpty()) {
-            return Optional.empty();
-        }
-        return Optional.of(mapRowToNotification(rows.get(0)));
+        return jdbcsql.queryForObject(sql, params, NotificationRepository::mapRowToNotification);
     }
 
     /**
@@ -67,22 +64,14 @@ public class NotificationRepository {
      * @param isRead (선택 사항) 읽음 상태로 필터링할지 여부 (true: 읽음, false: 안 읽음, null: 필터링 안 함)
      * @return 조회된 {@link Notification} 객체 목록
      */
+    @ReadOnlyQuery
     public List<Notification> findByReceiverId(long receiverId, Boolean isRead) {
-        StringBuilder sql = new StringBuilder("SELECT * FROM notifications WHERE receiver_id = ?");
-        if (isRead != null) {
-            sql.append(" AND is_read = ?");
+        if (isRead == null) {
+            return jdbcsql.query(SqlCatalog.NOTIFICATION_BY_RECEIVER, new Object[]{receiverId},
+                    NotificationRepository::mapRowToNotification);
         }
-        sql.append(" ORDER BY created_at DESC");
-
-        Object[] params;
-        if (isRead != null) {
-            params = new Object[]{receiverId, isRead};
-        } else {
-            params = new Object[]{receiverId};
-        }
-
-        List<Map<String, Object>> rows = jdbcsql.executeSelect(sql.toString(), params);
-        return rows.stream().map(this::mapRowToNotification).collect(Collectors.toList());
+        return jdbcsql.query(SqlCatalog.NOTIFICATION_BY_RECEIVER_AND_READ, new Object[]{receiverId, isRead},
+                NotificationRepository::mapRowToNotification);
     }
 
     /**
@@ -96,19 +85,16 @@ public class NotificationRepository {
         if (notificationIds == null || notificationIds.isEmpty()) {
             return;
         }
-        String inSql = notificationIds.stream()
-                                      .map(id -> "?")
-                                      .collect(Collectors.joining(", "));
-        String sql = String.format("UPDATE notifications SET is_read = ? WHERE notification_id IN (%s) AND receiver_id = ?", inSql);
-        
-        Object[] params = new Object[notificationIds.size() + 2];
-        params[0] = isRead;
-        for (int i = 0; i < notificationIds.size(); i++) {
-            params[i + 1] = notificationIds.get(i);
-        }
-        params[notificationIds.size() + 1] = receiverId;
+        // ID 개수를 버킷 크기로 올림하여 구문 종류를 고정 (SqlCatalog 참고)
+        for (List<Long> chunk : SqlCatalog.chunks(notificationIds)) {
+            int bucket = SqlCatalog.inListBucket(chunk.size());
+            Object[] params = new Object[bucket + 2];
+            params[0] = isRead;
+            SqlCatalog.fillInList(chunk, bucket, params, 1);
+            params[bucket + 1] = receiverId;
 
-        jdbcsql.executeUpdate(sql, params, null, null);
+            jdbcsql.executeUpdate(SqlCatalog.NOTIFICATION_SET_READ.sql(bucket), params, null);
+        }
     }
 
     /**
@@ -119,25 +105,42 @@ public class NotificationRepository {
     public void deleteById(long notificationId) {
         String sql = "DELETE FROM notifications WHERE notification_id = ?";
         Object[] params = {notificationId};
-        jdbcsql.executeUpdate(sql, params, null, null);
+        jdbcsql.executeUpdate(sql, params, null);
+    }
+
+    /**
+     * 사용자가 받은 알림을 최대 {@code limit}개 삭제합니다. (계정 purge용)
+     *
+     * @param receiverId 수신자 ID
+     * @param limit 이번 배치에서 삭제할 최대 행 수
+     * @return 삭제된 행 수
+     */
+    public long deleteBatchByReceiverId(long receiverId, int limit) {
+        String sql = "DELETE TOP (?) FROM notifications WHERE receiver_id = ?";
+        Object affected = jdbcsql.executeUpdate(sql, new Object[]{limit, receiverId}, null).get("affected_rows");
+        return affected != null ? (long) affected : 0L;
     }
 
     /**
-     * 데이터베이스 행(Map)을 {@link Notification} 엔티티로 매핑합니다.
+     * 데이터베이스 조회 결과의 한 행을 {@link Notification} 엔티티로 매핑합니다.
      *
-     * @param row 데이터베이스에서 조회된 단일 행을 나타내는 Map
+     * @param rs 현재 행에 위치한 ResultSet
+     * @param cols 구문당 한 번 계산된 컬럼 인덱스
      * @return 매핑된 {@link Notification} 객체
+     * @throws SQLException 컬럼 값을 읽는 중 오류가 발생한 경우
      */
-    private Notification mapRowToNotification(Map<String, Object> row) {
+    private static Notification mapRowToNotification(ResultSet rs, ColumnIndex cols) throws SQLException {
+        Boolean isRead = cols.getBoolean(rs, "is_read");
+        Timestamp createdAt = cols.getTimestamp(rs, "created_at");
         return new Notification(
-            ((Number) row.get("notification_id")).longValue(),
-            ((Number) row.get("receiver_id")).longValue(),
-            Notification.NotificationType.valueOf((String) row.get("notification_type")),
-            (String) row.get("content"),
-            row.get("related_entity_id") != null ? ((Number) row.get("related_entity_id")).longValue() : null,
-            (String) row.get("metadata"),
-            (Boolean) row.get("is_read"),
-            ((Timestamp) row.get("created_at")).toLocalDateTime()
+            cols.getLong(rs, "notification_id"),
+            cols.getLong(rs, "receiver_id"),
+            Notification.NotificationType.valueOf(cols.getString(rs, "notification_type")),
+            cols.getString(rs, "content"),
+            cols.getLong(rs, "related_entity_id"),
+            cols.getString(rs, "metadata"),
+            isRead != null && isRead,
+            createdAt != null ? createdAt.toLocalDateTime() : null
         );
     }
 }
\ No newline at end of file
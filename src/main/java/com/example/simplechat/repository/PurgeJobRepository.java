@@ -0,0 +1,144 @@
+package com.example.simplechat.repository;
+
+import com.example.simplechat.model.PurgeJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * purge_jobs 테이블에 대한 데이터 접근을 담당하는 리포지토리입니다.
+ * {@link com.example.simplechat.service.PurgeService}가 작업 등록과 진행 상황 기록에 사용합니다.
+ * <p>
+ * 여러 노드가 같은 DB를 쓰므로 작업은 조건부 UPDATE로 잡고(owner_node, lease_until), 진행 상황을 기록할 때마다 임대를 연장합니다.
+ * 임대 시각은 노드 간 시계 차이의 영향을 받지 않도록 DB의 현재 시각으로 계산합니다.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class PurgeJobRepository {
+
+    private final JDBC_SQL jdbcsql;
+
+    /**
+     * 새로운 purge 작업을 PENDING 상태로 등록합니다.
+     *
+     * @param job 등록할 {@link PurgeJob} 객체
+     * @return ID와 생성 시간을 포함하여 저장된 {@link PurgeJob} 객체
+     */
+    public PurgeJob save(PurgeJob job) {
+        String[] columns = {"job_type", "target_id", "status", "cursor_id"};
+        Object[] params = {job.getJobType().name(), job.getTargetId(), job.getStatus().name(), job.getCursorId()};
+        jdbcsql.executeInsertReturning("purge_jobs", columns, params, new String[]{"job_id", "created_at"},
+                (rs, cols) -> {
+                    job.setId(rs.getLong(1));
+                    job.setCreatedAt(rs.getTimestamp(2).toLocalDateTime());
+                    return job;
+                });
+        return job;
+    }
+
+    /**
+     * 같은 삭제 범위를 덮는 보존 기간 작업이 없을 때만 보존 기간 작업을 등록합니다.
+     * 실패하지 않은 작업 중 cursor_id가 같거나 큰 작업이 있으면 등록하지 않습니다. (확인과 등록은 한 구문)
+     *
+     * @param maxMessageId 삭제할 마지막 메시지 ID
+     * @return 등록된 작업. 이미 같은 범위의 작업이 있으면 Optional.empty()
+     */
+    public Optional<PurgeJob> saveRetentionIfAbsent(long maxMessageId) {
+        PurgeJob job = new PurgeJob(PurgeJob.JobType.MESSAGE_RETENTION, null, maxMessageId);
+        String select = "SELECT CAST(? AS NVARCHAR(30)), CAST(? AS NVARCHAR(20)), CAST(? AS BIGINT) WHERE NOT EXISTS (SELECT 1 FROM purge_jobs "
+                + "WHERE job_type = ? AND cursor_id >= ? AND status <> 'FAILED')";
+        String sql = jdbcsql.isSqlServer()
+                ? "INSERT INTO purge_jobs (job_type, status, cursor_id) OUTPUT INSERTED.job_id, INSERTED.created_at " + select
+                : "SELECT job_id, created_at FROM FINAL TABLE (INSERT INTO purge_jobs (job_type, status, cursor_id) " + select + ")";
+        Object[] params = {job.getJobType().name(), job.getStatus().name(), maxMessageId, job.getJobType().name(), maxMessageId};
+        return jdbcsql.executeReturning(sql, params, (rs, cols) -> {
+            job.setId(rs.getLong(1));
+            job.setCreatedAt(rs.getTimestamp(2).toLocalDateTime());
+            return job;
+        }).stream().findFirst();
+    }
+
+    /**
+     * 가장 먼저 등록된 미완료 작업을 이 노드가 처리하도록 잡습니다.
+     * 계정 작업은 소유한 방의 작업 뒤에 실행되어야 하므로 클러스터 전체에서 맨 앞의 작업 하나만 대상이며,
+     * 다른 노드의 임대가 남아 있으면 잡지 않습니다. 임대가 끝난 작업(처리하던 노드가 멈추거나 재시작된 경우)은 이어서 처리합니다.
+     *
+     * @param owner 이 노드의 ID
+     * @param leaseMs 임대 시간
+     * @return 잡은 작업 (RUNNING). 미완료 작업이 없거나 다른 노드가 처리 중이면 Optional.empty()
+     */
+    public Optional<PurgeJob> claimNext(String owner, long leaseMs) {
+        Optional<Long> head = jdbcsql.queryForObject(
+                "SELECT TOP (1) job_id FROM purge_jobs WHERE status IN ('PENDING', 'RUNNING') ORDER BY job_id",
+                null, (rs, cols) -> rs.getLong(1));
+        if (head.isEmpty()) {
+            return Optional.empty();
+        }
+        String sql = "UPDATE purge_jobs SET status = 'RUNNING', owner_node = ?, "
+                + "lease_until = DATEADD(MILLISECOND, ?, CURRENT_TIMESTAMP), updated_at = CURRENT_TIMESTAMP "
+                + "WHERE job_id = ? AND status IN ('PENDING', 'RUNNING') "
+                + "AND (owner_node = ? OR lease_until IS NULL OR lease_until < CURRENT_TIMESTAMP)";
+        Object affected = jdbcsql.executeUpdate(sql, new Object[]{owner, (int) leaseMs, head.get(), owner}, null)
+                .get("affected_rows");
+        if (affected == null || (long) affected == 0) {
+            return Optional.empty();
+        }
+        return jdbcsql.queryForObject("SELECT * FROM purge_jobs WHERE job_id = ?", new Object[]{head.get()},
+                PurgeJobRepository::mapRowToJob);
+    }
+
+    /**
+     * 미완료 작업 목록을 등록 순서대로 조회합니다.
+     *
+     * @return PENDING/RUNNING 상태의 작업 목록
+     */
+    @ReadOnlyQuery
+    public List<PurgeJob> findUnfinished() {
+        String sql = "SELECT * FROM purge_jobs WHERE status IN ('PENDING', 'RUNNING') ORDER BY job_id";
+        return jdbcsql.query(sql, null, PurgeJobRepository::mapRowToJob);
+    }
+
+    /**
+     * 배치 하나를 처리한 뒤 진행 상황을 기록하고 임대를 연장합니다. 작업을 잡은 노드일 때만 기록됩니다.
+     *
+     * @param jobId 작업 ID
+     * @param owner 이 노드의 ID
+     * @param leaseMs 연장할 임대 시간
+     * @param status 새 상태
+     * @param deletedRows 지금까지 삭제한 누적 행 수
+     * @param lastError 실패 사유 (없으면 null)
+     * @return 기록했으면 true. 임대가 끝나 다른 노드가 작업을 가져갔으면 false
+     */
+    public boolean updateProgress(long jobId, String owner, long leaseMs, PurgeJob.Status status, long deletedRows, String lastError) {
+        String sql = "UPDATE purge_jobs SET status = ?, deleted_rows = ?, last_error = ?, "
+                + "lease_until = DATEADD(MILLISECOND, ?, CURRENT_TIMESTAMP), updated_at = CURRENT_TIMESTAMP "
+                + "WHERE job_id = ? AND owner_node = ?";
+        Object affected = jdbcsql.executeUpdate(sql,
+                new Object[]{status.name(), deletedRows, lastError, (int) leaseMs, jobId, owner}, null).get("affected_rows");
+        return affected != null && (long) affected > 0;
+    }
+
+    private static PurgeJob mapRowToJob(ResultSet rs, ColumnIndex cols) throws SQLException {
+        Timestamp createdAt = cols.getTimestamp(rs, "created_at");
+        Timestamp updatedAt = cols.getTimestamp(rs, "updated_at");
+        Timestamp leaseUntil = cols.getTimestamp(rs, "lease_until");
+        return new PurgeJob(
+                cols.getLong(rs, "job_id"),
+                PurgeJob.JobType.valueOf(cols.getString(rs, "job_type")),
+                cols.getLong(rs, "target_id"),
+                PurgeJob.Status.valueOf(cols.getString(rs, "status")),
+                cols.getLong(rs, "cursor_id"),
+                cols.getLong(rs, "deleted_rows"),
+                cols.getString(rs, "last_error"),
+                cols.getString(rs, "owner_node"),
+                leaseUntil != null ? leaseUntil.toLocalDateTime() : null,
+                createdAt != null ? createdAt.toLocalDateTime() : null,
+                updatedAt != null ? updatedAt.toLocalDateTime() : null);
+    }
+}
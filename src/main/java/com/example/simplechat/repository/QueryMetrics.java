@@ -0,0 +1,326 @@
+package com.example.simplechat.repository;
+
+import com.example.simplechat.dto.NPlusOneSuspectDto;
+import com.example.simplechat.dto.QueryStatDto;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link JDBC_SQL}이 실행하는 쿼리의 지연 시간과 N+1 패턴을 수집하는 컴포넌트입니다.
+ * <p>
+ * 쿼리는 리터럴과 IN 목록 길이를 지운 정규화된 지문(fingerprint) 단위로 묶이며, 지문마다
+ * 실행 횟수, 지연 시간 히스토그램, 반환/영향 행 수, 커넥션 획득 대기 시간을 누적합니다.
+ * </p>
+ * <p>
+ * HTTP 요청이나 STOMP 메시지 하나를 처리하는 동안을 하나의 범위(scope)로 보고 쿼리 수를 셉니다.
+ * 범위 안에서 같은 지문이 {@code metrics.query.n-plus-one-threshold}번 이상 반복되면 N+1 의심으로 기록하고,
+ * 전체 쿼리 수가 {@code metrics.query.per-scope-warn-threshold}를 넘으면 경고 로그를 남깁니다.
+ * </p>
+ */
+@Component
+public class QueryMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(QueryMetrics.class);
+
+    /**
+     * 히스토그램 버킷의 상한(마이크로초). 마지막 버킷은 그 이상 전부입니다.
+     */
+    private static final long[] BUCKET_UPPER_MICROS = {
+        250, 500, 1_000, 2_000, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000, Long.MAX_VALUE
+    };
+
+    private static final int MAX_FINGERPRINTS = 2_000;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    // 같은 형태가 반복되는 여러 행 VALUES 목록: (?, ?), (?, ?), ... → (?, ?), ...
+    private static final Pattern REPEATED_ROWS = Pattern.compile("(\\((?:[^()]|\\([^()]*\\))*\\))(?:\\s*,\\s*\\1)+");
+
+    private final Map<String, String> fingerprintCache = new ConcurrentHashMap<>();
+    private final Map<String, QueryStat> stats = new ConcurrentHashMap<>();
+    private final Map<String, Suspect> suspects = new ConcurrentHashMap<>();
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+
+    @Value("${metrics.query.per-scope-warn-threshold:30}")
+    private int perScopeWarnThreshold;
+
+    @Value("${metrics.query.n-plus-one-threshold:5}")
+    private int nPlusOneThreshold;
+
+    /**
+     * 쿼리 하나의 측정을 시작합니다. 커넥션을 얻은 직후 {@link Sample#acquired()},
+     * 결과 처리가 끝나면 {@link Sample#finish(long)}를 호출해야 합니다.
+     *
+     * @param sql 실행할 SQL 문자열
+     * @return 측정 객체
+     */
+    public Sample start(String sql) {
+        return new Sample(this, sql);
+    }
+
+    /**
+     * 현재 스레드에서 HTTP 요청/STOMP 메시지 처리 범위를 시작합니다.
+     *
+     * @param name 범위 이름 (예: "GET /room/list", "STOMP /app/chat.sendMessage")
+     * @return 이전 범위 (중첩된 경우). {@link #endScope(Scope)}에 그대로 넘겨야 합니다.
+     */
+    public Scope beginScope(String name) {
+        Scope previous = currentScope.get();
+        currentScope.set(new Scope(name));
+        return previous;
+    }
+
+    /**
+     * 현재 범위를 끝내고 쿼리 수를 평가합니다.
+     *
+     * @param previous {@link #beginScope(String)}가 반환한 이전 범위
+     */
+    public void endScope(Scope previous) {
+        Scope scope = currentScope.get();
+        if (previous == null) {
+            currentScope.remove();
+        } else {
+            currentScope.set(previous);
+        }
+        if (scope == null || scope.total == 0) {
+            return;
+        }
+
+        for (Map.Entry<String, int[]> entry : scope.counts.entrySet()) {
+            int repeats = entry.getValue()[0];
+            if (repeats >= nPlusOneThreshold) {
+                suspects.computeIfAbsent(scope.name + "\n" + entry.getKey(), k -> new Suspect(scope.name, entry.getKey()))
+                        .observe(repeats);
+                logger.warn("[QueryMetrics] N+1 의심: '{}'에서 같은 쿼리가 {}번 실행됨: {}", scope.name, repeats, entry.getKey());
+            }
+        }
+        if (scope.total > perScopeWarnThreshold) {
+            logger.warn("[QueryMetrics] '{}' 처리 중 쿼리 {}개 실행 (임계값 {})", scope.name, scope.total, perScopeWarnThreshold);
+        }
+    }
+
+    /**
+     * 지문별 통계를 총 소요 시간 내림차순으로 반환합니다.
+     *
+     * @return 쿼리 통계 목록
+     */
+    public List<QueryStatDto> snapshot() {
+        List<QueryStatDto> result = new ArrayList<>(stats.size());
+        stats.forEach((fingerprint, stat) -> result.add(stat.toDto(fingerprint)));
+        result.sort(Comparator.comparingDouble(QueryStatDto::totalMillis).reversed());
+        return result;
+    }
+
+    /**
+     * 감지된 N+1 의심 목록을 발생 횟수 내림차순으로 반환합니다.
+     *
+     * @return N+1 의심 목록
+     */
+    public List<NPlusOneSuspectDto> nPlusOneSuspects() {
+        List<NPlusOneSuspectDto> result = new ArrayList<>(suspects.size());
+        suspects.values().forEach(s -> result.add(s.toDto()));
+        result.sort(Comparator.comparingLong(NPlusOneSuspectDto::occurrences).reversed());
+        return result;
+    }
+
+    /**
+     * 누적된 통계와 N+1 의심 목록을 초기화합니다.
+     */
+    public void reset() {
+        stats.clear();
+        suspects.clear();
+    }
+
+    private void record(String sql, long acquireNanos, long execNanos, long rows) {
+        String fingerprint = fingerprint(sql);
+        QueryStat stat = stats.get(fingerprint);
+        if (stat == null) {
+            if (stats.size() >= MAX_FINGERPRINTS) {
+                fingerprint = "(기타)";
+            }
+            stat = stats.computeIfAbsent(fingerprint, k -> new QueryStat());
+        }
+        stat.record(acquireNanos, execNanos, rows);
+
+        Scope scope = currentScope.get();
+        if (scope != null) {
+            scope.total++;
+            scope.counts.computeIfAbsent(fingerprint, k -> new int[1])[0]++;
+        }
+    }
+
+    /**
+     * SQL을 정규화된 지문으로 변환합니다. 공백을 하나로 줄이고, 리터럴은 ?로,
+     * IN 목록과 여러 행 VALUES는 길이와 관계없이 같은 형태로 바꿉니다.
+     */
+    String fingerprint(String sql) {
+        String cached = fingerprintCache.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String fp = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        fp = STRING_LITERAL.matcher(fp).replaceAll("?");
+        fp = NUMBER_LITERAL.matcher(fp).replaceAll("?");
+        fp = IN_LIST.matcher(fp).replaceAll("IN (?...)");
+        fp = REPEATED_ROWS.matcher(fp).replaceAll("$1, ...");
+        if (fingerprintCache.size() < MAX_FINGERPRINTS * 4) {
+            fingerprintCache.put(sql, fp);
+        }
+        return fp;
+    }
+
+    /**
+     * 실행 중인 쿼리 하나의 측정 상태입니다.
+     */
+    public static final class Sample {
+        private final QueryMetrics owner;
+        private final String sql;
+        private final long startNanos;
+        private long acquiredNanos;
+
+        private Sample(QueryMetrics owner, String sql) {
+            this.owner = owner;
+            this.sql = sql;
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * 커넥션 획득이 끝난 시점을 기록합니다.
+         */
+        public void acquired() {
+            acquiredNanos = System.nanoTime();
+        }
+
+        /**
+         * 쿼리 처리가 끝난 시점을 기록하고 통계에 반영합니다.
+         *
+         * @param rows 반환되거나 영향을 받은 행 수
+         */
+        public void finish(long rows) {
+            long now = System.nanoTime();
+            long acquired = acquiredNanos == 0 ? now : acquiredNanos;
+            owner.record(sql, acquired - startNanos, now - acquired, rows);
+        }
+    }
+
+    /**
+     * HTTP 요청 또는 STOMP 메시지 하나를 처리하는 동안의 쿼리 집계입니다. 한 스레드에서만 사용됩니다.
+     */
+    public static final class Scope {
+        private final String name;
+        private final Map<String, int[]> counts = new HashMap<>();
+        private int total;
+
+        private Scope(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class QueryStat {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder acquireNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_UPPER_MICROS.length);
+
+        void record(long acquire, long exec, long rowCount) {
+            count.increment();
+            totalNanos.add(exec);
+            acquireNanos.add(acquire);
+            rows.add(rowCount);
+            maxNanos.accumulate(exec);
+            long micros = exec / 1_000;
+            for (int i = 0; i < BUCKET_UPPER_MICROS.length; i++) {
+                if (micros < BUCKET_UPPER_MICROS[i]) {
+                    buckets.incrementAndGet(i);
+                    break;
+                }
+            }
+        }
+
+        QueryStatDto toDto(String fingerprint) {
+            long n = count.sum();
+            long[] counts = new long[buckets.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+            }
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                String label = BUCKET_UPPER_MICROS[i] == Long.MAX_VALUE
+                        ? ">=" + BUCKET_UPPER_MICROS[i - 1] / 1000.0 + "ms"
+                        : "<" + BUCKET_UPPER_MICROS[i] / 1000.0 + "ms";
+                histogram.put(label, counts[i]);
+            }
+            return new QueryStatDto(
+                    fingerprint,
+                    n,
+                    totalNanos.sum() / 1_000_000.0,
+                    n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n,
+                    percentileMillis(counts, n, 0.50),
+                    percentileMillis(counts, n, 0.95),
+                    percentileMillis(counts, n, 0.99),
+                    maxNanos.get() / 1_000_000.0,
+                    n == 0 ? 0 : acquireNanos.sum() / 1_000_000.0 / n,
+                    rows.sum(),
+                    histogram);
+        }
+
+        /**
+         * 히스토그램에서 백분위가 속한 버킷의 상한을 밀리초로 반환합니다. (마지막 버킷은 최대값)
+         */
+        private double percentileMillis(long[] counts, long n, double p) {
+            if (n == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(n * p);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return BUCKET_UPPER_MICROS[i] == Long.MAX_VALUE
+                            ? maxNanos.get() / 1_000_000.0
+                            : BUCKET_UPPER_MICROS[i] / 1000.0;
+                }
+            }
+            return maxNanos.get() / 1_000_000.0;
+        }
+    }
+
+    private static final class Suspect {
+        private final String scope;
+        private final String fingerprint;
+        private final LongAdder occurrences = new LongAdder();
+        private final LongAccumulator maxRepeats = new LongAccumulator(Long::max, 0);
+        private volatile long lastSeenMillis;
+
+        Suspect(String scope, String fingerprint) {
+            this.scope = scope;
+            this.fingerprint = fingerprint;
+        }
+
+        void observe(int repeats) {
+            occurrences.increment();
+            maxRepeats.accumulate(repeats);
+            lastSeenMillis = System.currentTimeMillis();
+        }
+
+        NPlusOneSuspectDto toDto() {
+            return new NPlusOneSuspectDto(scope, fingerprint, occurrences.sum(), maxRepeats.get(), lastSeenMillis);
+        }
+    }
+}
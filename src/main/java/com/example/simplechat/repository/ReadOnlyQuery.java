@@ -0,0 +1,25 @@
+package com.example.simplechat.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 데이터를 변경하지 않는 리포지토리 메서드임을 선언합니다.
+ * <p>
+ * {@code @Transactional(readOnly = true, propagation = SUPPORTS)}와 같습니다. 실제 트랜잭션을 시작하지 않으므로
+ * 커밋 왕복이 추가되지 않고, 메서드 안의 쿼리들은 하나의 연결을 공유합니다.
+ * 복제본(replica)이 설정되어 있으면 {@link com.example.simplechat.config.ReadWriteRoutingDataSource}가
+ * 이 범위의 연결을 복제본에서 가져옵니다. 쓰기 트랜잭션 안에서 호출되면 그 트랜잭션에 합류하여 주 DB를 그대로 사용합니다.
+ * </p>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+public @interface ReadOnlyQuery {
+}
@@ -0,0 +1,121 @@
+package com.example.simplechat.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpAttributes;
+import org.springframework.messaging.simp.SimpAttributesContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 사용자별 마지막 쓰기 시각을 기록하여, 쓰기 직후 일정 시간 동안 그 사용자의 읽기를 주 DB로 보내기 위한 컴포넌트입니다.
+ * <p>
+ * 복제본은 주 DB보다 늦게 반영되므로, 방금 메시지를 보내거나 프로필을 바꾼 사용자가 복제본에서 이전 상태를 읽지 않도록
+ * {@code spring.datasource.replica.read-your-writes-window-ms} 동안 읽기를 주 DB로 고정합니다.
+ * 사용자는 HTTP 세션의 {@code userId} 또는 STOMP 세션의 {@code user_id}(없으면 WebSocket 세션 ID)로 식별합니다.
+ * 복제본이 설정되지 않은 경우에는 아무것도 기록하지 않습니다.
+ * </p>
+ */
+@Component
+public class ReadYourWritesTracker {
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    // readFromPrimary() 안에서 실행 중인지 여부 (중첩 호출 허용)
+    private final ThreadLocal<Boolean> primaryScope = new ThreadLocal<>();
+
+    @Value("${spring.datasource.replica.jdbc-url:}")
+    private String replicaUrl;
+
+    @Value("${spring.datasource.replica.read-your-writes-window-ms:5000}")
+    private long windowMillis;
+
+    /**
+     * 현재 요청/메시지의 사용자가 쓰기를 수행했음을 기록합니다.
+     */
+    public void markWrite() {
+        if (replicaUrl.isEmpty()) {
+            return;
+        }
+        record(currentUserKey());
+    }
+
+    /**
+     * 지정한 사용자가 쓰기를 수행했음을 기록합니다.
+     * 요청/메시지 스레드가 아닌 곳(write-behind 배치 저장 스레드 등)에서 커밋된 쓰기를 작성자에게 귀속시킬 때 사용합니다.
+     *
+     * @param userId 쓰기를 수행한 사용자 ID
+     */
+    public void markWrite(Long userId) {
+        if (replicaUrl.isEmpty() || userId == null) {
+            return;
+        }
+        record("user:" + userId);
+    }
+
+    private void record(String key) {
+        if (key == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        lastWriteByUser.put(key, now);
+        if (lastWriteByUser.size() > PRUNE_THRESHOLD) {
+            lastWriteByUser.values().removeIf(writtenAt -> now - writtenAt >= windowMillis);
+        }
+    }
+
+    /**
+     * 현재 요청/메시지의 사용자가 최근 쓰기 이후 아직 read-your-writes 구간 안에 있는지 확인합니다.
+     *
+     * @return 구간 안이면 true (주 DB에서 읽어야 함)
+     */
+    public boolean isWithinWindow() {
+        if (primaryScope.get() != null) {
+            return true;
+        }
+        String key = currentUserKey();
+        if (key == null) {
+            return false;
+        }
+        Long writtenAt = lastWriteByUser.get(key);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < windowMillis;
+    }
+
+    /**
+     * 작업 안의 읽기를 {@link ReadOnlyQuery} 범위 안에서도 주 DB로 보냅니다.
+     * 읽은 결과를 인메모리 캐시에 오래 보관하는 경우처럼 복제본 지연을 허용할 수 없을 때 사용합니다.
+     *
+     * @param reader 실행할 읽기 작업
+     * @param <T>    결과 타입
+     * @return 작업 결과
+     */
+    public <T> T readFromPrimary(Supplier<T> reader) {
+        if (primaryScope.get() != null) {
+            return reader.get();
+        }
+        primaryScope.set(Boolean.TRUE);
+        try {
+            return reader.get();
+        } finally {
+            primaryScope.remove();
+        }
+    }
+
+    private String currentUserKey() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            // 세션이 없으면 새로 만들지 않고 null을 반환
+            Object userId = request.getAttribute("userId", RequestAttributes.SCOPE_SESSION);
+            return userId != null ? "user:" + userId : null;
+        }
+        SimpAttributes simp = SimpAttributesContextHolder.getAttributes();
+        if (simp != null) {
+            Object userId = simp.getAttribute("user_id");
+            return userId != null ? "user:" + userId : "ws:" + simp.getSessionId();
+        }
+        return null;
+    }
+}
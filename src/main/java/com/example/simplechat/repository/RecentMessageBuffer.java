@@ -0,0 +1,498 @@
+package com.example.simplechat.repository;
+
+import com.example.simplechat.dto.CacheStatsDto;
+import com.example.simplechat.model.ChatMessage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 활성 채팅방마다 가장 최근 메시지 N개를 보관하는 링 버퍼입니다.
+ * <p>
+ * 방 입장({@code initRoom})과 메시지 목록의 첫 페이지들이 매번 chat_messages를 조회하지 않도록
+ * {@link MessageRepository}의 기록 조회가 먼저 이 버퍼를 확인하고, 버퍼가 답할 수 없는 더 오래된 구간만 DB에서 읽습니다.
+ * 방은 처음 조회될 때 최신 {@code cache.recent-messages.size}개를 읽어 적재하며(지연 로딩),
+ * 이후의 저장/수정/삭제는 DB 반영(커밋) 후 버퍼에도 적용됩니다.
+ * </p>
+ * <p>
+ * 각 방의 버퍼는 "{@code coveredAfter}보다 큰 ID의 메시지는 모두 버퍼에 있다"는 조건을 유지하므로,
+ * 요청한 구간이 그 안에 있을 때만 버퍼에서 응답합니다. 최대 {@code cache.recent-messages.max-rooms}개 방을 LRU로 유지하고,
+ * {@code cache.recent-messages.idle-ttl-ms} 동안 조회되지 않은 방은 주기적으로 내보냅니다.
+ * 지연 초기화 환경에서도 정리 스케줄이 등록되도록 {@code @Lazy(false)}로 즉시 생성합니다.
+ * </p>
+ * <p>
+ * 방 소유 노드가 바뀌면 이전 소유 노드가 {@link #export}로 버퍼를 꺼내 보내고, 새 소유 노드는 {@link #importRoom}으로
+ * DB 조회 없이 바로 적재합니다. ({@code RoomAffinityRouter} 참고)
+ * </p>
+ */
+@Component
+@Lazy(false)
+public class RecentMessageBuffer {
+
+    // 적재 중 경합 감지용 방 ID 스트라이프 수 (2의 거듭제곱)
+    private static final int STRIPES = 64;
+
+    private final JDBC_SQL jdbcsql;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final int capacity;
+    private final int maxRooms;
+    private final long idleTtlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    // 방 변경이 있을 때마다 해당 스트라이프를 증가. 적재 도중 변경이 있었다면 읽어 온 목록을 버퍼로 올리지 않음
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    // accessOrder=true: get()이 항목을 가장 최근 위치로 옮기므로 모든 접근을 동기화
+    private final Map<Long, Ring> rooms;
+
+    public RecentMessageBuffer(JDBC_SQL jdbcsql, ReadYourWritesTracker readYourWritesTracker,
+                               @Value("${cache.recent-messages.size:200}") int capacity,
+                               @Value("${cache.recent-messages.max-rooms:1000}") int maxRooms,
+                               @Value("${cache.recent-messages.idle-ttl-ms:600000}") long idleTtlMillis) {
+        this.jdbcsql = jdbcsql;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.capacity = Math.max(1, capacity);
+        this.maxRooms = maxRooms;
+        this.idleTtlMillis = idleTtlMillis;
+        this.rooms = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Ring> eldest) {
+                if (size() > RecentMessageBuffer.this.maxRooms) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 다른 노드로 넘기기 위해 꺼낸 방 하나의 버퍼입니다.
+     *
+     * @param coveredAfter 이 ID보다 큰 메시지는 모두 {@code messages}에 있음 (0이면 방의 모든 메시지)
+     * @param messages message_id 오름차순 메시지 목록
+     */
+    public record Handoff(long coveredAfter, List<ChatMessage> messages) {}
+
+    /**
+     * 방의 최근 메시지를 최신순으로 반환합니다.
+     *
+     * @param roomId 채팅방 ID
+     * @param limit  최대 개수
+     * @return 최신순 목록. 버퍼로 답할 수 없으면 null (DB에서 조회해야 함)
+     */
+    public List<ChatMessage> findLatest(Long roomId, int limit) {
+        return findBefore(roomId, Long.MAX_VALUE, limit);
+    }
+
+    /**
+     * 커서 이전의 메시지를 최신순으로 반환합니다.
+     *
+     * @param roomId   채팅방 ID
+     * @param beforeId 이 ID보다 작은 메시지만 반환
+     * @param limit    최대 개수
+     * @return 최신순 목록. 버퍼로 답할 수 없으면 null (DB에서 조회해야 함)
+     */
+    public List<ChatMessage> findBefore(Long roomId, long beforeId, int limit) {
+        List<ChatMessage> result = ringOf(roomId).newestBefore(beforeId, limit);
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+
+    /**
+     * 커서 이후의 메시지를 오래된 순으로 반환합니다.
+     *
+     * @param roomId  채팅방 ID
+     * @param afterId 이 ID보다 큰 메시지만 반환
+     * @param limit   최대 개수
+     * @return 오래된 순 목록. 버퍼로 답할 수 없으면 null (DB에서 조회해야 함)
+     */
+    public List<ChatMessage> findAfter(Long roomId, long afterId, int limit) {
+        List<ChatMessage> result = ringOf(roomId).oldestAfter(afterId, limit);
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+
+    private Ring ringOf(Long roomId) {
+        synchronized (rooms) {
+            Ring cached = rooms.get(roomId);
+            if (cached != null) {
+                cached.touch();
+                return cached;
+            }
+        }
+
+        // DB 조회는 잠금 밖에서 수행. 복제본 지연으로 최근 메시지가 빠진 목록이 버퍼에 남지 않도록 주 DB에서 읽음
+        int stripe = stripe(roomId);
+        long observed = versions.get(stripe);
+        List<ChatMessage> latest = readYourWritesTracker.readFromPrimary(() -> jdbcsql.query(
+                SqlCatalog.MESSAGE_HISTORY_LATEST, new Object[]{capacity, roomId}, MessageRepository::mapRowToMsg));
+        Ring loaded = new Ring(capacity, latest);
+        synchronized (rooms) {
+            if (versions.get(stripe) == observed) {
+                Ring raced = rooms.putIfAbsent(roomId, loaded);
+                return raced != null ? raced : loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 새로 저장된 메시지를 버퍼에 추가합니다.
+     *
+     * @param msg ID가 할당된 메시지
+     */
+    public void append(ChatMessage msg) {
+        ChatMessage copy = copyOf(msg);
+        TransactionHooks.afterCommit(() -> {
+            Ring ring = changedRing(copy.getRoom_id());
+            if (ring != null) {
+                ring.insert(copy);
+            }
+        });
+    }
+
+    /**
+     * 수정된 메시지를 버퍼에 반영합니다. 버퍼에 없는 (오래된) 메시지면 무시합니다.
+     *
+     * @param msg 수정된 메시지
+     */
+    public void replace(ChatMessage msg) {
+        ChatMessage copy = copyOf(msg);
+        TransactionHooks.afterCommit(() -> {
+            Ring ring = changedRing(copy.getRoom_id());
+            if (ring != null) {
+                ring.replace(copy);
+            }
+        });
+    }
+
+    /**
+     * 삭제된 메시지를 버퍼에서 제거합니다.
+     *
+     * @param roomId    채팅방 ID
+     * @param messageId 삭제된 메시지 ID
+     */
+    public void remove(Long roomId, Long messageId) {
+        TransactionHooks.afterCommit(() -> {
+            Ring ring = changedRing(roomId);
+            if (ring != null && ring.remove(messageId)) {
+                invalidations.increment();
+            }
+        });
+    }
+
+    /**
+     * 방 전체를 버퍼에서 내보냅니다. (방 purge 시)
+     *
+     * @param roomId 채팅방 ID
+     */
+    public void evictRoom(Long roomId) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (rooms) {
+                versions.incrementAndGet(stripe(roomId));
+                if (rooms.remove(roomId) != null) {
+                    invalidations.increment();
+                }
+            }
+        });
+    }
+
+    /**
+     * 모든 방에서 ID가 {@code maxMessageId} 이하인 메시지를 제거합니다. (보존 기간 정리 시)
+     *
+     * @param maxMessageId 삭제된 메시지의 최대 ID
+     */
+    public void trimUpTo(long maxMessageId) {
+        TransactionHooks.afterCommit(() -> {
+            List<Ring> loaded;
+            synchronized (rooms) {
+                for (int i = 0; i < STRIPES; i++) {
+                    versions.incrementAndGet(i);
+                }
+                loaded = new ArrayList<>(rooms.values());
+            }
+            loaded.forEach(ring -> ring.trimUpTo(maxMessageId));
+        });
+    }
+
+    /**
+     * 버퍼에 적재된 방 ID 목록을 반환합니다.
+     */
+    public List<Long> roomIds() {
+        synchronized (rooms) {
+            return new ArrayList<>(rooms.keySet());
+        }
+    }
+
+    /**
+     * 방의 버퍼를 꺼냅니다. 버퍼에서는 지우지 않습니다.
+     *
+     * @param roomId 채팅방 ID
+     * @return 방의 버퍼, 적재되어 있지 않으면 null
+     */
+    public Handoff export(Long roomId) {
+        Ring ring;
+        synchronized (rooms) {
+            ring = rooms.get(roomId);
+        }
+        return ring == null ? null : ring.export();
+    }
+
+    /**
+     * 다른 노드에서 넘겨받은 방의 버퍼를 적재합니다. 이미 적재된 방(주 DB에서 읽어 온 상태)이면 무시합니다.
+     *
+     * @param roomId  채팅방 ID
+     * @param handoff 넘겨받은 버퍼
+     * @return 적재했으면 true
+     */
+    public boolean importRoom(Long roomId, Handoff handoff) {
+        Ring ring = new Ring(capacity, handoff.coveredAfter(), handoff.messages());
+        synchronized (rooms) {
+            versions.incrementAndGet(stripe(roomId));
+            return rooms.putIfAbsent(roomId, ring) == null;
+        }
+    }
+
+    /**
+     * 버퍼의 가장 최근 메시지 이후에 저장된 메시지를 주 DB에서 읽어 채웁니다.
+     * 넘겨받은 버퍼에 이전 소유 노드가 넘긴 뒤 저장을 마친 메시지가 빠지지 않도록 할 때 사용합니다.
+     *
+     * @param roomId 채팅방 ID
+     */
+    public void catchUp(Long roomId) {
+        Ring ring;
+        synchronized (rooms) {
+            ring = rooms.get(roomId);
+        }
+        if (ring == null) {
+            return;
+        }
+        long newest = ring.newestId();
+        List<ChatMessage> missed = readYourWritesTracker.readFromPrimary(() -> jdbcsql.query(
+                SqlCatalog.MESSAGE_HISTORY_AFTER, new Object[]{capacity, roomId, newest}, MessageRepository::mapRowToMsg));
+        missed.forEach(ring::insert);
+    }
+
+    private Ring changedRing(Long roomId) {
+        synchronized (rooms) {
+            versions.incrementAndGet(stripe(roomId));
+            // 메시지가 오가는 방은 활성 방이므로 get()으로 LRU 순서도 갱신
+            return rooms.get(roomId);
+        }
+    }
+
+    /**
+     * {@code cache.recent-messages.idle-ttl-ms} 동안 조회되지 않은 방을 내보냅니다.
+     */
+    @Scheduled(fixedDelayString = "${cache.recent-messages.sweep-interval-ms:60000}")
+    public void evictIdleRooms() {
+        long cutoff = System.currentTimeMillis() - idleTtlMillis;
+        synchronized (rooms) {
+            Iterator<Ring> it = rooms.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().lastAccess < cutoff) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private static int stripe(Long roomId) {
+        return Long.hashCode(roomId) & (STRIPES - 1);
+    }
+
+    // 기록 조회(SqlCatalog.MESSAGE_HISTORY_COLUMNS)와 같은 필드만 보관
+    private static ChatMessage copyOf(ChatMessage msg) {
+        ChatMessage copy = new ChatMessage(msg.getId(), msg.getAuthor_id(), msg.getAuthor_name(), msg.getRoom_id());
+        copy.setMsg_type(msg.getMsg_type());
+        copy.setContent(msg.getContent());
+        copy.setCreated_at(msg.getCreated_at());
+        return copy;
+    }
+
+    /**
+     * 버퍼 크기와 적중 통계를 반환합니다. (크기는 적재된 방 수, 적중은 버퍼로 답한 기록 조회 수)
+     *
+     * @return 캐시 통계
+     */
+    public CacheStatsDto stats() {
+        int size;
+        synchronized (rooms) {
+            size = rooms.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return new CacheStatsDto("recent-messages", size, maxRooms, hitCount, missCount,
+            total == 0 ? 0.0 : (double) hitCount / total, evictions.sum(), invalidations.sum());
+    }
+
+    /**
+     * 한 방의 최근 메시지를 message_id 오름차순으로 담는 고정 크기 원형 배열입니다.
+     */
+    private static final class Ring {
+        private final ChatMessage[] slots;
+        private int head;
+        private int count;
+        // 이 ID보다 큰 메시지는 모두 버퍼에 있음 (0이면 방의 모든 메시지를 보관 중)
+        private long coveredAfter;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        Ring(int capacity, List<ChatMessage> newestFirst) {
+            slots = new ChatMessage[capacity];
+            for (int i = newestFirst.size() - 1; i >= 0; i--) {
+                slots[count++] = newestFirst.get(i);
+            }
+            coveredAfter = count < capacity ? 0 : at(0).getId() - 1;
+        }
+
+        Ring(int capacity, long coveredAfter, List<ChatMessage> oldestFirst) {
+            slots = new ChatMessage[capacity];
+            int skip = Math.max(0, oldestFirst.size() - capacity);
+            for (int i = skip; i < oldestFirst.size(); i++) {
+                slots[count++] = oldestFirst.get(i);
+            }
+            this.coveredAfter = skip == 0 ? coveredAfter : oldestFirst.get(skip).getId() - 1;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        private ChatMessage at(int i) {
+            return slots[(head + i) % slots.length];
+        }
+
+        private void set(int i, ChatMessage msg) {
+            slots[(head + i) % slots.length] = msg;
+        }
+
+        // 찾으면 위치, 없으면 -(삽입 위치) - 1
+        private int indexOf(long messageId) {
+            int lo = 0;
+            int hi = count - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                long id = at(mid).getId();
+                if (id < messageId) {
+                    lo = mid + 1;
+                } else if (id > messageId) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+
+        synchronized List<ChatMessage> newestBefore(long beforeId, int limit) {
+            int found = indexOf(beforeId);
+            int end = found >= 0 ? found : -found - 1;
+            // 버퍼에 limit개가 없으면 더 오래된 메시지가 DB에만 있을 수 있음
+            if (end < limit && coveredAfter != 0) {
+                return null;
+            }
+            List<ChatMessage> result = new ArrayList<>(Math.min(limit, end));
+            for (int i = end - 1; i >= 0 && result.size() < limit; i--) {
+                result.add(at(i));
+            }
+            return result;
+        }
+
+        synchronized List<ChatMessage> oldestAfter(long afterId, int limit) {
+            if (afterId < coveredAfter) {
+                return null;
+            }
+            int found = indexOf(afterId);
+            int start = found >= 0 ? found + 1 : -found - 1;
+            List<ChatMessage> result = new ArrayList<>(Math.min(limit, count - start));
+            for (int i = start; i < count && result.size() < limit; i++) {
+                result.add(at(i));
+            }
+            return result;
+        }
+
+        synchronized void insert(ChatMessage msg) {
+            if (msg.getId() <= coveredAfter) {
+                return;
+            }
+            int found = indexOf(msg.getId());
+            if (found >= 0) {
+                set(found, msg);
+                return;
+            }
+            int pos = -found - 1;
+            if (count == slots.length) {
+                if (pos == 0) {
+                    // 버퍼의 모든 메시지보다 오래된 메시지: 넣자마자 밀려나므로 경계만 갱신
+                    coveredAfter = msg.getId();
+                    return;
+                }
+                coveredAfter = at(0).getId();
+                set(0, null);
+                head = (head + 1) % slots.length;
+                count--;
+                pos--;
+            }
+            for (int i = count; i > pos; i--) {
+                set(i, at(i - 1));
+            }
+            set(pos, msg);
+            count++;
+        }
+
+        synchronized Handoff export() {
+            List<ChatMessage> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                messages.add(at(i));
+            }
+            return new Handoff(coveredAfter, messages);
+        }
+
+        synchronized long newestId() {
+            return count == 0 ? coveredAfter : at(count - 1).getId();
+        }
+
+        synchronized void replace(ChatMessage msg) {
+            int found = indexOf(msg.getId());
+            if (found >= 0) {
+                set(found, msg);
+            }
+        }
+
+        synchronized boolean remove(long messageId) {
+            int found = indexOf(messageId);
+            if (found < 0) {
+                return false;
+            }
+            for (int i = found; i < count - 1; i++) {
+                set(i, at(i + 1));
+            }
+            set(count - 1, null);
+            count--;
+            return true;
+        }
+
+        synchronized void trimUpTo(long maxMessageId) {
+            while (count > 0 && at(0).getId() <= maxMessageId) {
+                set(0, null);
+                head = (head + 1) % slots.length;
+                count--;
+            }
+            coveredAfter = Math.max(coveredAfter, maxMessageId);
+        }
+    }
+}
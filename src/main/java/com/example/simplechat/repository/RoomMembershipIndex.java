@@ -0,0 +1,379 @@
+package com.example.simplechat.repository;
+
+import com.example.simplechat.dto.CacheStatsDto;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 채팅방별 참여자(사용자 ID → 닉네임/역할) 인덱스입니다.
+ * <p>
+ * 메시지 전송마다 호출되는 닉네임 조회, 수정/삭제 시의 역할 확인, 방 목록의 참여 여부 확인이
+ * chat_room_users를 매번 조회하지 않도록 방 단위로 참여자 전체를 한 번에 읽어 보관합니다.
+ * 처음 조회되는 방만 읽어 오며(지연 로딩), 최대 {@code cache.room-membership.max-rooms}개를 넘으면
+ * 가장 오래 사용하지 않은 방부터 밀어냅니다.
+ * </p>
+ * <p>
+ * {@link RoomUserRepository}의 변경 메서드가 같은 내용을 인덱스에도 반영합니다. 트랜잭션 안에서 호출된 경우
+ * 커밋 후에 반영하므로 롤백된 변경이 남지 않습니다. 적재는 복제본 지연으로 오래된 참여자 목록이 캐시되지 않도록
+ * 항상 primary에서 읽고, 삭제 표시된 방은 빈 방으로 적재합니다. 읽기에 실패하면 아무것도 저장하지 않고 예외를 던지므로
+ * 일시적인 DB 오류가 빈 참여자 목록으로 남지 않습니다.
+ * </p>
+ * <p>
+ * 방 목록의 참여 여부 표시를 위해 사용자별 참여 방 ID 집합도 함께 보관합니다. (최대 {@code cache.room-membership.max-users}명)
+ * 같은 변경 메서드가 두 인덱스를 함께 갱신합니다.
+ * </p>
+ */
+@Component
+public class RoomMembershipIndex {
+
+    /**
+     * 방 안에서의 사용자 정보입니다.
+     *
+     * @param nickname 방 닉네임
+     * @param role     방 역할 (예: "ADMIN", "MEMBER")
+     */
+    public record Member(String nickname, String role) {}
+
+    private final JDBC_SQL jdbcsql;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final int maxRooms;
+    private final int maxUsers;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    // 진행 중인 적재의 토큰. 적재 도중 해당 방/사용자가 변경되면 토큰을 지워 읽어 온 (이전) 목록을 저장하지 않음.
+    // 변경과 무관한 방/사용자의 적재는 버리지 않음. rooms와 같은 잠금으로 보호
+    private final Map<Long, Object> roomLoads = new HashMap<>();
+    private final Map<Long, Object> userLoads = new HashMap<>();
+
+    // accessOrder=true: get()이 항목을 가장 최근 위치로 옮기므로 모든 접근을 동기화
+    private final Map<Long, Map<Long, Member>> rooms;
+    // 사용자 ID → 참여 방 ID 집합. rooms와 같은 잠금으로 보호
+    private final Map<Long, Set<Long>> userRooms;
+
+    public RoomMembershipIndex(JDBC_SQL jdbcsql, ReadYourWritesTracker readYourWritesTracker,
+                               @Value("${cache.room-membership.max-rooms:2000}") int maxRooms,
+                               @Value("${cache.room-membership.max-users:10000}") int maxUsers) {
+        this.jdbcsql = jdbcsql;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.maxRooms = maxRooms;
+        this.maxUsers = maxUsers;
+        this.rooms = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Map<Long, Member>> eldest) {
+                if (size() > RoomMembershipIndex.this.maxRooms) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.userRooms = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Set<Long>> eldest) {
+                if (size() > RoomMembershipIndex.this.maxUsers) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 방에서의 사용자 정보를 반환합니다. 방이 인덱스에 없으면 참여자 전체를 읽어 저장합니다.
+     *
+     * @param userId 사용자 ID
+     * @param roomId 채팅방 ID
+     * @return 참여 중이면 닉네임과 역할, 아니면 null (삭제 표시된 방 포함)
+     * @throws org.springframework.dao.DataAccessException 방을 적재하다 DB 조회에 실패한 경우
+     */
+    public Member find(Long userId, Long roomId) {
+        if (userId == null || roomId == null) {
+            return null;
+        }
+        return membersOf(roomId).get(userId);
+    }
+
+    private Map<Long, Member> membersOf(Long roomId) {
+        synchronized (rooms) {
+            Map<Long, Member> cached = rooms.get(roomId);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+
+        // DB 조회는 잠금 밖에서 수행 (같은 방을 동시에 적재하면 나중에 시작한 적재의 결과만 저장)
+        Object token = new Object();
+        synchronized (rooms) {
+            roomLoads.put(roomId, token);
+        }
+        Map<Long, Member> loaded;
+        try {
+            loaded = load(roomId);
+        } catch (RuntimeException e) {
+            // 읽지 못한 방은 빈 방으로 저장하지 않음 (다음 조회 때 다시 적재)
+            synchronized (rooms) {
+                roomLoads.remove(roomId, token);
+            }
+            throw e;
+        }
+        synchronized (rooms) {
+            if (roomLoads.remove(roomId, token)) {
+                rooms.put(roomId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 사용자가 참여 중인 방 ID 집합을 반환합니다. 사용자가 인덱스에 없으면 DB에서 한 번 읽어 저장합니다.
+     *
+     * @param userId 사용자 ID (null이면 빈 집합)
+     * @return 읽기 전용 방 ID 집합 (삭제 표시된 방 제외)
+     * @throws org.springframework.dao.DataAccessException 사용자를 적재하다 DB 조회에 실패한 경우
+     */
+    public Set<Long> roomsOf(Long userId) {
+        if (userId == null) {
+            return Set.of();
+        }
+        synchronized (rooms) {
+            Set<Long> cached = userRooms.get(userId);
+            if (cached != null) {
+                hits.increment();
+                return Collections.unmodifiableSet(cached);
+            }
+        }
+        misses.increment();
+
+        Object token = new Object();
+        synchronized (rooms) {
+            userLoads.put(userId, token);
+        }
+        String sql = "SELECT cru.room_id FROM chat_room_users cru " +
+                     "INNER JOIN chat_rooms r ON r.room_id = cru.room_id " +
+                     "WHERE cru.user_id = ? AND r.deleted_at IS NULL";
+        Set<Long> loaded = ConcurrentHashMap.newKeySet();
+        try {
+            loaded.addAll(readYourWritesTracker.readFromPrimary(() ->
+                jdbcsql.queryOrThrow(sql, new Object[]{userId}, (rs, cols) -> cols.getLong(rs, "room_id"))));
+        } catch (RuntimeException e) {
+            synchronized (rooms) {
+                userLoads.remove(userId, token);
+            }
+            throw e;
+        }
+        synchronized (rooms) {
+            if (userLoads.remove(userId, token)) {
+                userRooms.put(userId, loaded);
+            }
+        }
+        return Collections.unmodifiableSet(loaded);
+    }
+
+    private Map<Long, Member> load(Long roomId) {
+        String sql = "SELECT cru.user_id, cru.nickname, cru.role FROM chat_room_users cru " +
+                     "INNER JOIN chat_rooms r ON r.room_id = cru.room_id " +
+                     "WHERE cru.room_id = ? AND r.deleted_at IS NULL";
+        List<Map.Entry<Long, Member>> rows = readYourWritesTracker.readFromPrimary(() ->
+            jdbcsql.queryOrThrow(sql, new Object[]{roomId}, (rs, cols) -> Map.entry(cols.getLong(rs, "user_id"),
+                new Member(cols.getString(rs, "nickname"), cols.getString(rs, "role")))));
+
+        Map<Long, Member> members = new ConcurrentHashMap<>(Math.max(16, rows.size() * 2));
+        for (Map.Entry<Long, Member> row : rows) {
+            members.put(row.getKey(), row.getValue());
+        }
+        return members;
+    }
+
+    /**
+     * 참여자 추가 또는 닉네임/역할 변경을 반영합니다. 방이 아직 적재되지 않았다면 다음 적재 때 DB에서 읽습니다.
+     *
+     * @param userId 사용자 ID
+     * @param roomId 채팅방 ID
+     * @param member 새 닉네임과 역할
+     */
+    public void put(Long userId, Long roomId, Member member) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (rooms) {
+                roomLoads.remove(roomId);
+                userLoads.remove(userId);
+                Map<Long, Member> members = rooms.get(roomId);
+                if (members != null) {
+                    members.put(userId, member);
+                }
+                Set<Long> joined = userRooms.get(userId);
+                if (joined != null) {
+                    joined.add(roomId);
+                }
+            }
+        });
+    }
+
+    /**
+     * 방의 닉네임 변경을 반영합니다. 역할은 그대로 유지합니다.
+     *
+     * @param userId   사용자 ID
+     * @param roomId   채팅방 ID
+     * @param nickname 새 닉네임
+     */
+    public void rename(Long userId, Long roomId, String nickname) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (rooms) {
+                roomLoads.remove(roomId);
+                Map<Long, Member> members = rooms.get(roomId);
+                if (members != null) {
+                    members.computeIfPresent(userId, (id, m) -> new Member(nickname, m.role()));
+                }
+            }
+        });
+    }
+
+    /**
+     * 방에서 사용자가 나간 것을 반영합니다.
+     *
+     * @param userId 사용자 ID
+     * @param roomId 채팅방 ID
+     */
+    public void remove(Long userId, Long roomId) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (rooms) {
+                roomLoads.remove(roomId);
+                userLoads.remove(userId);
+                Map<Long, Member> members = rooms.get(roomId);
+                if (members != null && members.remove(userId) != null) {
+                    invalidations.increment();
+                }
+                Set<Long> joined = userRooms.get(userId);
+                if (joined != null) {
+                    joined.remove(roomId);
+                }
+            }
+        });
+    }
+
+    /**
+     * 적재된 모든 방에서 사용자를 제거합니다. (계정 삭제 시)
+     *
+     * @param userId 사용자 ID
+     */
+    public void removeUser(Long userId) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (rooms) {
+                // 사용자가 어느 방에 있었는지 모르므로 진행 중인 방 적재는 모두 버림
+                roomLoads.clear();
+                userLoads.remove(userId);
+                for (Map<Long, Member> members : rooms.values()) {
+                    if (members.remove(userId) != null) {
+                        invalidations.increment();
+                    }
+                }
+                userRooms.remove(userId);
+            }
+        });
+    }
+
+    /**
+     * 방 전체를 인덱스에서 지웁니다. (방 삭제 표시, purge 시) 다음 조회 때 DB에서 다시 적재합니다.
+     *
+     * @param roomId 채팅방 ID
+     */
+    public void evictRoom(Long roomId) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (rooms) {
+                // 어느 사용자의 방 집합에 이 방이 들어 있을지 모르므로 진행 중인 사용자 적재는 모두 버림
+                roomLoads.remove(roomId);
+                userLoads.clear();
+                if (rooms.remove(roomId) != null) {
+                    invalidations.increment();
+                }
+                for (Set<Long> joined : userRooms.values()) {
+                    joined.remove(roomId);
+                }
+            }
+        });
+    }
+
+    /**
+     * 인덱스에 적재된 방 ID 목록을 반환합니다.
+     */
+    public List<Long> roomIds() {
+        synchronized (rooms) {
+            return new ArrayList<>(rooms.keySet());
+        }
+    }
+
+    /**
+     * 방의 참여자 목록만 인덱스에서 내립니다. 사용자별 참여 방 집합은 그대로 둡니다.
+     * (현재 노드가 더 이상 방을 소유하지 않게 된 경우) 다음 조회 때 DB에서 다시 적재합니다.
+     *
+     * @param roomId 채팅방 ID
+     */
+    public void unloadRoom(Long roomId) {
+        synchronized (rooms) {
+            roomLoads.remove(roomId);
+            rooms.remove(roomId);
+        }
+    }
+
+    /**
+     * 방의 참여자 목록과 사용자의 참여 방 집합을 인덱스에서 지웁니다. (다른 노드에서 참여 정보가 바뀐 경우)
+     * 다음 조회 때 DB에서 다시 적재합니다.
+     *
+     * @param userId 사용자 ID
+     * @param roomId 채팅방 ID
+     */
+    public void evictMember(Long userId, Long roomId) {
+        synchronized (rooms) {
+            roomLoads.remove(roomId);
+            userLoads.remove(userId);
+            if (rooms.remove(roomId) != null) {
+                invalidations.increment();
+            }
+            userRooms.remove(userId);
+        }
+    }
+
+    /**
+     * 인덱스를 모두 비웁니다. (다른 노드의 무효화를 놓쳤을 수 있을 때)
+     */
+    public void evictAll() {
+        synchronized (rooms) {
+            roomLoads.clear();
+            userLoads.clear();
+            invalidations.add(rooms.size());
+            rooms.clear();
+            userRooms.clear();
+        }
+    }
+
+    /**
+     * 인덱스 크기와 적중 통계를 반환합니다. (크기는 적재된 방 수, 적중/실패는 사용자별 집합 조회 포함)
+     *
+     * @return 캐시 통계
+     */
+    public CacheStatsDto stats() {
+        int size;
+        synchronized (rooms) {
+            size = rooms.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return new CacheStatsDto("room-membership", size, maxRooms, hitCount, missCount,
+            total == 0 ? 0.0 : (double) hitCount / total, evictions.sum(), invalidations.sum());
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.simplechat.repository;
+
+import com.example.simplechat.dto.CacheStatsDto;
+import com.example.simplechat.model.ChatRoom;
+import com.example.simplechat.model.RoomMetadata;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 채팅방 메타데이터({@link RoomMetadata}) 캐시입니다. 방 ID와 방 이름으로 조회할 수 있습니다.
+ * <p>
+ * 멘션 알림, 방 초기화, 입장/초대처럼 방 정보를 자주 읽는 경로가 매번 chat_rooms를 조회하지 않도록
+ * 처음 조회한 방을 불변 레코드로 보관합니다. 최대 {@code cache.room-metadata.max-size}개를 넘으면
+ * 가장 오래 사용하지 않은 방부터 밀어냅니다. 삭제 표시된 방은 보관하지 않습니다.
+ * </p>
+ * <p>
+ * {@link RoomRepository}의 저장/삭제 메서드가 커밋 후 해당 방을 무효화하며, 적재는 복제본 지연으로
+ * 오래된 값이 캐시되지 않도록 primary에서 읽습니다.
+ * </p>
+ */
+@Component
+public class RoomMetadataCache {
+
+    private static final String COLUMNS = "room_id, room_name, room_type, owner_id, password_hash, created_at";
+
+    private final JDBC_SQL jdbcsql;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    // 캐시를 무효화할 때마다 증가. 적재 도중 무효화가 있었다면 읽어 온 값을 저장하지 않음
+    private final AtomicLong generation = new AtomicLong();
+
+    // accessOrder=true: get()이 항목을 가장 최근 위치로 옮기므로 모든 접근을 동기화
+    private final Map<Long, RoomMetadata> byId;
+    // 방 이름 → 방 ID. byId에 있는 방만 담으며 byId와 같은 잠금으로 보호
+    private final Map<String, Long> idByName = new HashMap<>();
+
+    public RoomMetadataCache(JDBC_SQL jdbcsql, ReadYourWritesTracker readYourWritesTracker,
+                             @Value("${cache.room-metadata.max-size:5000}") int maxSize) {
+        this.jdbcsql = jdbcsql;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.maxSize = maxSize;
+        this.byId = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, RoomMetadata> eldest) {
+                if (size() > RoomMetadataCache.this.maxSize) {
+                    idByName.remove(eldest.getValue().name(), eldest.getKey());
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 방 ID로 메타데이터를 조회합니다. 캐시에 없으면 DB에서 읽어 저장합니다.
+     *
+     * @param roomId 채팅방 ID
+     * @return 삭제되지 않은 방이면 메타데이터, 아니면 Optional.empty()
+     */
+    public Optional<RoomMetadata> findById(Long roomId) {
+        if (roomId == null) {
+            return Optional.empty();
+        }
+        synchronized (byId) {
+            RoomMetadata cached = byId.get(roomId);
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+        }
+        return load("room_id = ?", roomId);
+    }
+
+    /**
+     * 방 이름으로 메타데이터를 조회합니다. 캐시에 없으면 DB에서 읽어 저장합니다.
+     *
+     * @param name 채팅방 이름
+     * @return 삭제되지 않은 방이면 메타데이터, 아니면 Optional.empty()
+     */
+    public Optional<RoomMetadata> findByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        synchronized (byId) {
+            Long roomId = idByName.get(name);
+            RoomMetadata cached = roomId != null ? byId.get(roomId) : null;
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+        }
+        return load("room_name = ?", name);
+    }
+
+    private Optional<RoomMetadata> load(String condition, Object key) {
+        misses.increment();
+        // DB 조회는 잠금 밖에서 수행 (같은 방을 동시에 적재하면 중복 조회될 수 있으나 결과는 같음)
+        long observed = generation.get();
+        String sql = "SELECT " + COLUMNS + " FROM chat_rooms WHERE " + condition + " AND deleted_at IS NULL";
+        Optional<RoomMetadata> loaded = readYourWritesTracker.readFromPrimary(() ->
+            jdbcsql.queryForObject(sql, new Object[]{key}, RoomMetadataCache::mapRow));
+        loaded.ifPresent(room -> {
+            synchronized (byId) {
+                if (generation.get() == observed) {
+                    byId.put(room.id(), room);
+                    idByName.put(room.name(), room.id());
+                }
+            }
+        });
+        return loaded;
+    }
+
+    private static RoomMetadata mapRow(ResultSet rs, ColumnIndex cols) throws SQLException {
+        return new RoomMetadata(
+            cols.getLong(rs, "room_id"),
+            cols.getString(rs, "room_name"),
+            ChatRoom.RoomType.valueOf(cols.getString(rs, "room_type")),
+            cols.getLong(rs, "owner_id"),
+            cols.getString(rs, "password_hash"),
+            DB_Utils.formatTimestamp(cols.getTimestamp(rs, "created_at")));
+    }
+
+    /**
+     * 방의 메타데이터를 무효화합니다. (방 수정, 삭제 표시, 삭제 시) 다음 조회 때 DB에서 다시 읽습니다.
+     *
+     * @param roomId 채팅방 ID
+     */
+    public void evict(Long roomId) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (byId) {
+                generation.incrementAndGet();
+                RoomMetadata removed = byId.remove(roomId);
+                if (removed != null) {
+                    idByName.remove(removed.name(), roomId);
+                    invalidations.increment();
+                }
+            }
+        });
+    }
+
+    /**
+     * 캐시를 모두 비웁니다. (다른 노드의 무효화를 놓쳤을 수 있을 때) 다음 조회 때 DB에서 다시 읽습니다.
+     */
+    public void evictAll() {
+        synchronized (byId) {
+            generation.incrementAndGet();
+            invalidations.add(byId.size());
+            byId.clear();
+            idByName.clear();
+        }
+    }
+
+    /**
+     * 캐시 크기와 적중 통계를 반환합니다.
+     *
+     * @return 캐시 통계
+     */
+    public CacheStatsDto stats() {
+        int size;
+        synchronized (byId) {
+            size = byId.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return new CacheStatsDto("room-metadata", size, maxSize, hitCount, missCount,
+            total == 0 ? 0.0 : (double) hitCount / total, evictions.sum(), invalidations.sum());
+    }
+}
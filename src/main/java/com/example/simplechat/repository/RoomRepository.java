@@ -3,15 +3,14 @@ package com.example.simplechat.repository;
 import com.example.simplechat.dto.ChatRoomListDto;
 import com.example.simplechat.dto.ChatRoomUserDto;
 import com.example.simplechat.model.ChatRoom;
+import com.example.simplechat.model.RoomMetadata;
 import com.example.simplechat.service.RoomSessionManager;
-import java.sql.Timestamp;
-import java.time.format.DateTimeFormatter;
-import java.util.Collections;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
-import java.util.ArrayList;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
@@ -25,41 +24,31 @@ import org.springframework.stereotype.Repository;
 public class RoomRepository {
 	private final RoomSessionManager roomSessionManager;
 	private final JDBC_SQL jdbcsql;
+	private final RoomMembershipIndex membershipIndex;
+	private final RoomSummaryCache roomSummaries;
+	private final RoomMetadataCache roomMetadata;
+	private final ClusterCacheInvalidator cacheInvalidator;
     @Value("${file.profile-static-url-prefix}")
     private String profileStaticUrlPrefix;
 	
 	/**
-	 * 채팅방 이름으로 채팅방을 조회합니다.
+	 * 채팅방 이름으로 채팅방 메타데이터를 조회합니다. {@link RoomMetadataCache}가 응답합니다.
 	 *
 	 * @param name 조회할 채팅방의 이름
-	 * @return 해당 이름의 {@link ChatRoom} 객체를 포함하는 {@link Optional}. 방이 없으면 Optional.empty() 반환.
+	 * @return 해당 이름의 {@link RoomMetadata}를 포함하는 {@link Optional}. 방이 없거나 삭제 상태면 Optional.empty() 반환.
 	 */
-	public Optional<ChatRoom> findByName(String name) {
-		String sql = "SELECT * FROM chat_rooms WHERE room_name = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{name});
-		
-		if( parsedTable.isEmpty() )
-			return Optional.empty();
-		
-		Map<String, Object> roomRow = parsedTable.get(0);
-		return Optional.of(mapRowToRoom(roomRow));
+	public Optional<RoomMetadata> findByName(String name) {
+		return roomMetadata.findByName(name);
 	}
 	
 	/**
-	 * 채팅방 ID로 채팅방을 조회합니다.
+	 * 채팅방 ID로 채팅방 메타데이터를 조회합니다. {@link RoomMetadataCache}가 응답합니다.
 	 *
 	 * @param id 조회할 채팅방의 ID
-	 * @return 해당 ID의 {@link ChatRoom} 객체를 포함하는 {@link Optional}. 방이 없으면 Optional.empty() 반환.
+	 * @return 해당 ID의 {@link RoomMetadata}를 포함하는 {@link Optional}. 방이 없거나 삭제 상태면 Optional.empty() 반환.
 	 */
-	public Optional<ChatRoom> findById(Long id) {
-		String sql = "SELECT * FROM chat_rooms WHERE room_id = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{id});
-		
-		if( parsedTable.isEmpty() )
-			return Optional.empty();
-		
-		Map<String, Object> roomRow = parsedTable.get(0);
-		return Optional.of(mapRowToRoom(roomRow));
+	public Optional<RoomMetadata> findById(Long id) {
+		return roomMetadata.findById(id);
 	}
 	
 	/**
@@ -68,17 +57,10 @@ public class RoomRepository {
 	 * @param roomType 조회할 채팅방의 유형
 	 * @return 해당 유형의 {@link ChatRoom} 객체 목록. 방이 없으면 빈 리스트를 반환합니다.
 	 */
+	@ReadOnlyQuery
 	public List<ChatRoom> findByRoomType(ChatRoom.RoomType roomType) {
-		String sql = "SELECT * FROM chat_rooms WHERE room_type = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{roomType.name()});
-
-		if (parsedTable.isEmpty()) {
-			return Collections.emptyList();
-		}
-
-		return parsedTable.stream()
-				.map(this::mapRowToRoom)
-				.collect(Collectors.toList());
+		String sql = "SELECT * FROM chat_rooms WHERE room_type = ? AND deleted_at IS NULL";
+		return jdbcsql.query(sql, new Object[]{roomType.name()}, RoomRepository::mapRowToRoom);
 	}
 	
 	/**
@@ -87,38 +69,26 @@ public class RoomRepository {
 	 * @param ownerId 조회할 소유자의 ID
 	 * @return 해당 소유자의 {@link ChatRoom} 객체 목록. 방이 없으면 빈 리스트를 반환합니다.
 	 */
+	@ReadOnlyQuery
 	public List<ChatRoom> findByOwnerId(Long ownerId) {
-		String sql = "SELECT * FROM chat_rooms WHERE owner_id = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{ownerId});
-
-		if (parsedTable.isEmpty()) {
-			return Collections.emptyList();
-		}
-
-		return parsedTable.stream()
-				.map(this::mapRowToRoom)
-				.collect(Collectors.toList());
+		String sql = "SELECT * FROM chat_rooms WHERE owner_id = ? AND deleted_at IS NULL";
+		return jdbcsql.query(sql, new Object[]{ownerId}, RoomRepository::mapRowToRoom);
 	}
 	
 	/**
-	 * 데이터베이스 행(Map)을 {@link ChatRoom} 엔티티로 매핑합니다.
+	 * 데이터베이스 조회 결과의 한 행을 {@link ChatRoom} 엔티티로 매핑합니다.
 	 *
-	 * @param row 데이터베이스에서 조회된 단일 행을 나타내는 Map
+	 * @param rs 현재 행에 위치한 ResultSet
+	 * @param cols 구문당 한 번 계산된 컬럼 인덱스
 	 * @return 매핑된 {@link ChatRoom} 객체
+	 * @throws SQLException 컬럼 값을 읽는 중 오류가 발생한 경우
 	 */
-	private ChatRoom mapRowToRoom(Map<String, Object> row) {
-		ChatRoom room = new ChatRoom((Long) row.get("room_id"), (String) row.get("room_name"));
-		room.setRoom_type(ChatRoom.RoomType.valueOf((String)row.get("room_type")));
-		room.setOwner((Long) row.get("owner_id"));
-		room.setPassword_hash((String)row.get("password_hash"));
-		Object createdAtObj = row.get("created_at");
-		if (createdAtObj instanceof Timestamp) {
-			room.setCreated_at(((Timestamp) createdAtObj).toLocalDateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-		} else if (createdAtObj != null) {
-			room.setCreated_at(createdAtObj.toString());
-		} else {
-			room.setCreated_at(null);
-		}
+	private static ChatRoom mapRowToRoom(ResultSet rs, ColumnIndex cols) throws SQLException {
+		ChatRoom room = new ChatRoom(cols.getLong(rs, "room_id"), cols.getString(rs, "room_name"));
+		room.setRoom_type(ChatRoom.RoomType.valueOf(cols.getString(rs, "room_type")));
+		room.setOwner(cols.getLong(rs, "owner_id"));
+		room.setPassword_hash(cols.getString(rs, "password_hash"));
+		room.setCreated_at(DB_Utils.formatTimestamp(cols.getTimestamp(rs, "created_at")));
 		
 		return room;
 	}
@@ -130,21 +100,22 @@ public class RoomRepository {
 	 * @param roomId 사용자 목록을 조회할 방의 ID
 	 * @return 해당 방의 {@link ChatRoomUserDto} 객체 목록
 	 */
+	@ReadOnlyQuery
 	public List<ChatRoomUserDto> findUsersByRoomId(Long roomId){
 		String sql = "SELECT u.user_id, cru.nickname, cru.role, u.profile_image_url "+
 					"FROM users u INNER JOIN chat_room_users cru ON u.user_id = cru.user_id "+
 					"WHERE room_id = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{roomId});
+		Set<Long> connectedUsers = roomSessionManager.getConnectedUsers(roomId);
 		
-		return parsedTable.stream()
-			.map(row -> new ChatRoomUserDto(
-					(Long) row.get("user_id"),
-					(String) row.get("nickname"),
-					ChatRoomUserDto.UserType.valueOf((String) row.get("role")),
-					roomSessionManager.getConnectedUsers(roomId).contains(row.get("user_id")) ? ChatRoomUserDto.ConnectType.CONNECT:ChatRoomUserDto.ConnectType.DISCONNECT,
-							profileStaticUrlPrefix + "/" + (String) row.get("profile_image_url") 
-			))
-			.collect(Collectors.toList());
+		return jdbcsql.query(sql, new Object[]{roomId}, (rs, cols) -> {
+			Long userId = cols.getLong(rs, "user_id");
+			return new ChatRoomUserDto(
+					userId,
+					cols.getString(rs, "nickname"),
+					ChatRoomUserDto.UserType.valueOf(cols.getString(rs, "role")),
+					connectedUsers.contains(userId) ? ChatRoomUserDto.ConnectType.CONNECT:ChatRoomUserDto.ConnectType.DISCONNECT,
+					profileStaticUrlPrefix + "/" + cols.getString(rs, "profile_image_url"));
+		});
 	}
 	
 	/**
@@ -168,50 +139,51 @@ public class RoomRepository {
 	 * @return ID와 생성 시간이 채워진 {@link ChatRoom} 객체
 	 */
 	private ChatRoom insert(ChatRoom room) {
-		String sql = "INSERT INTO chat_rooms (room_name, room_type, owner_id, password_hash) VALUES ( ?, ?, ?, ? )";
-		Map<String, Object> result = jdbcsql.executeUpdate(sql,
-				new Object[]{room.getName(), room.getRoom_type().name(), room.getOwner(), room.getPassword_hash()}, 
-				new String[]{"room_id"}, new String[] {"created_at"});
-		
-		if( result != null && result.containsKey("room_id")) { 
-			room.setId( ((Number)result.get("room_id")).longValue()  ); 
-			room.setCreated_at(((Timestamp)result.get("created_at")).toLocalDateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+		jdbcsql.executeInsertReturning("chat_rooms",
+				new String[]{"room_name", "room_type", "owner_id", "password_hash"},
+				new Object[]{room.getName(), room.getRoom_type().name(), room.getOwner(), room.getPassword_hash()},
+				new String[]{"room_id", "created_at"},
+				(rs, cols) -> {
+					room.setId(rs.getLong(1));
+					room.setCreated_at(DB_Utils.formatTimestamp(rs.getTimestamp(2)));
+					return room;
+				});
+		if (room.getId() != null) {
+			roomSummaries.roomCreated(room);
+			cacheInvalidator.roomChanged(room.getId());
 		}
 		return room;
 	}
 	
 	/**
 	 * 기존 채팅방 정보를 업데이트합니다.
-	 * {@link ChatRoom#getChangedFields(ChatRoom)}를 사용하여 변경된 필드만 동적으로 SQL 쿼리를 구성하여 업데이트합니다.
+	 * {@link ChatRoom#getChangedFields(ChatRoom)}로 변경 여부를 확인한 뒤, 수정 가능한 컬럼을 모두 갱신하는 고정 구문({@link SqlCatalog#ROOM_UPDATE})으로 업데이트합니다.
 	 *
 	 * @param room 업데이트할 {@link ChatRoom} 객체
 	 * @return 업데이트된 {@link ChatRoom} 객체
 	 * @throws RuntimeException 방을 찾을 수 없거나 업데이트에 실패한 경우
 	 */
 	private ChatRoom update(ChatRoom room) {
-		Optional<ChatRoom> fromdb = findByName(room.getName());
+		Optional<RoomMetadata> fromdb = findByName(room.getName());
 		if (fromdb.isEmpty())
 			throw new RuntimeException("이름으로 방을 찾을 수 없습니다: " + room.getName());
 		
-		Map<String, Object> Changed = room.getChangedFields(fromdb.get());
+		RoomMetadata current = fromdb.get();
+		Map<String, Object> Changed = room.getChangedFields(
+				new ChatRoom(current.name(), current.roomType(), current.ownerId(), current.passwordHash()));
 		if (Changed.isEmpty()) { return room; } // 변경 사항 없으면 바로 리턴
 		
-		StringBuilder sql = new StringBuilder("UPDATE chat_rooms SET ");
-		List<Object> values = new ArrayList<>();
+		Object[] values = {room.getName(), room.getRoom_type() == null ? null : room.getRoom_type().name(),
+				room.getOwner(), room.getPassword_hash(), room.getId()};
 		
-		for( Map.Entry<String, Object> entry : Changed.entrySet() ) {
-			sql.append(entry.getKey()).append(" = ?, ");
-			values.add(entry.getValue());
-		}
-		sql.delete(sql.length() - 2, sql.length()); // 마지막 ", " 제거
-		sql.append(" WHERE room_id = ?");
-		values.add(room.getId());
-		
-		Long affectedRows = (long)jdbcsql.executeUpdate(sql.toString(), values.toArray(), null, null).get("affected_rows");
+		Long affectedRows = (long)jdbcsql.executeUpdate(SqlCatalog.ROOM_UPDATE, values, null).get("affected_rows");
 		
 		if (affectedRows == null || affectedRows == 0L) {
 			throw new RuntimeException("ID " + room.getId() + "를 가진 채팅방을 찾을 수 없거나 삭제할 수 없습니다.");
 		}
+		roomSummaries.roomUpdated(room);
+		roomMetadata.evict(room.getId());
+		cacheInvalidator.roomChanged(room.getId());
 		
 		return room;
 	}
@@ -224,11 +196,44 @@ public class RoomRepository {
 	 */
 	public void deleteById(Long id) {
 		String sql = "DELETE FROM chat_rooms WHERE room_id = ?";
-		Long affectedRows = (long)jdbcsql.executeUpdate(sql, new Object[]{id}, null, null).get("affected_rows");
+		Long affectedRows = (long)jdbcsql.executeUpdate(sql, new Object[]{id}, null).get("affected_rows");
 		
 		if (affectedRows == null || affectedRows == 0L) {
 			throw new RuntimeException("ID " + id + "를 가진 채팅방을 찾을 수 없거나 삭제할 수 없습니다.");
 		}
+		roomSummaries.roomDeleted(id);
+		roomMetadata.evict(id);
+		cacheInvalidator.roomChanged(id);
+	}
+	
+	/**
+	 * 채팅방을 삭제 상태(tombstone)로 표시합니다. 표시된 방은 즉시 조회/목록에서 제외되며,
+	 * 메시지와 참여 정보, 방 행 자체는 purge 작업이 나누어 삭제합니다.
+	 * 방 이름은 purge가 끝날 때까지 사용 중으로 남습니다.
+	 *
+	 * @param id 삭제할 채팅방의 ID
+	 * @return 이번 호출로 표시되었으면 true, 없거나 이미 삭제 상태면 false
+	 */
+	public boolean markDeleted(Long id) {
+		String sql = "UPDATE chat_rooms SET deleted_at = CURRENT_TIMESTAMP WHERE room_id = ? AND deleted_at IS NULL";
+		Object affected = jdbcsql.executeUpdate(sql, new Object[]{id}, null).get("affected_rows");
+		// 삭제 표시된 방은 인덱스에 빈 방으로 다시 적재되어 참여 여부 확인이 즉시 false가 됨
+		membershipIndex.evictRoom(id);
+		roomSummaries.roomDeleted(id);
+		roomMetadata.evict(id);
+		cacheInvalidator.roomChanged(id);
+		return affected != null && (long) affected > 0;
+	}
+	
+	/**
+	 * 삭제 상태로 표시된 채팅방 행을 삭제합니다. 메시지와 참여 정보가 모두 지워진 뒤에 호출해야 합니다.
+	 * 이미 삭제된 경우에도 오류 없이 넘어가므로 purge 작업을 재시작해도 안전합니다.
+	 *
+	 * @param id 삭제할 채팅방의 ID
+	 */
+	public void deleteTombstoned(Long id) {
+		String sql = "DELETE FROM chat_rooms WHERE room_id = ? AND deleted_at IS NOT NULL";
+		jdbcsql.executeUpdate(sql, new Object[]{id}, null);
 	}
 	
 	/**
@@ -237,16 +242,11 @@ public class RoomRepository {
 	 * @param name 확인할 채팅방의 이름
 	 * @return 해당 이름의 채팅방이 존재하면 true, 그렇지 않으면 false
 	 */
+	@ReadOnlyQuery
 	public boolean existsByName(String name) {
 		String sql = "SELECT COUNT(1) FROM chat_rooms WHERE room_name = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{name});
-
-		if (parsedTable.isEmpty()) {
-			return false;
-		}
-
-		long count = ((Number) parsedTable.get(0).values().iterator().next()).longValue();
-		return count > 0;
+		return jdbcsql.queryForObject(sql, new Object[]{name}, (rs, cols) -> rs.getLong(1))
+				.orElse(0L) > 0;
 	}
 	
 	/**
@@ -254,107 +254,65 @@ public class RoomRepository {
 	 *
 	 * @return 모든 {@link ChatRoom} 객체 목록. 방이 없으면 빈 리스트를 반환합니다.
 	 */
+	@ReadOnlyQuery
 	public List<ChatRoom> findAll() {
-		String sql = "SELECT * FROM chat_rooms";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, null);
-
-		if (parsedTable.isEmpty()) {
-			return Collections.emptyList();
-		}
-
-		return parsedTable.stream()
-				.map(this::mapRowToRoom)
-				.collect(Collectors.toList());
+		String sql = "SELECT * FROM chat_rooms WHERE deleted_at IS NULL";
+		return jdbcsql.query(sql, null, RoomRepository::mapRowToRoom);
 	}
 	
 	/**
 	 * 모든 채팅방 목록과 각 방의 사용자 수를 함께 조회합니다.
-	 * {@link ChatRoomListDto} 형태로 반환됩니다.
+	 * {@link ChatRoomListDto} 형태로 반환되며, 집계 쿼리 대신 {@link RoomSummaryCache}의 요약으로 답합니다.
 	 *
 	 * @return {@link ChatRoomListDto} 객체 목록
 	 */
 	public List<ChatRoomListDto> findAllWithCount(){
-		String sql = "SELECT r.room_id, r.room_name, r.room_type, u.nickname AS ownerName, COUNT(c.user_id) AS userCount "
-					+ "FROM chat_rooms r "
-					+ "LEFT JOIN chat_room_users c ON r.room_id = c.room_id "
-					+ "LEFT JOIN users u ON r.owner_id = u.user_id "
-					+ "GROUP BY r.room_id, r.room_name, r.room_type, u.nickname;";
-		
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, null);
-		
-		if (parsedTable.isEmpty()) {
-			return Collections.emptyList();
-		}
-
-		return parsedTable.stream()
-								.map(row -> {
-									Number userCount = (Number) row.get("userCount");
-									return new ChatRoomListDto(
-											(Long) row.get("room_id"),
-											(String) row.get("room_name"),
-											(String) row.get("room_type"),
-											(String) row.get("ownerName"),
-											userCount != null ? userCount.intValue() : 0,
-											null, false);
-								}) // connCount와 isMember는 이 쿼리에서 알 수 없으므로 null/false 처리
-				.collect(Collectors.toList());
+		// connCount와 isMember는 요약에 없으므로 null/false 처리
+		return roomSummaries.findAll().stream()
+				.map(s -> new ChatRoomListDto(s.id(), s.name(), s.roomType(), s.ownerName(), s.memberCount(), null, false))
+				.toList();
+	}
+	
+	/**
+	 * 방 목록(디렉터리)의 현재 스냅샷을 반환합니다. 방 생성/삭제, 참여자 수 변경 시 버전이 올라갑니다.
+	 *
+	 * @return 방 ID 오름차순의 불변 방 요약 목록과 그 버전
+	 */
+	public RoomSummaryCache.Snapshot findDirectorySnapshot() {
+		return roomSummaries.snapshot();
 	}
 	
 	/**
 	 * 채팅방 ID를 기준으로 단일 채팅방의 상세 정보를 {@link ChatRoomListDto} 형태로 조회합니다.
+	 * {@link RoomSummaryCache}의 요약으로 답합니다.
 	 *
 	 * @param roomId 조회할 채팅방의 ID
 	 * @return {@link ChatRoomListDto} 객체를 포함하는 {@link Optional}. 방이 없으면 Optional.empty() 반환.
 	 */
 	public Optional<ChatRoomListDto> findRoomDtoById(Long roomId) {
-        String sql = "SELECT r.room_id as id, r.room_name as name, r.room_type, u.nickname as owner_name, " +
-                     "(SELECT COUNT(*) FROM chat_room_users cru WHERE cru.room_id = r.room_id) as user_count " +
-                     "FROM chat_rooms r JOIN users u ON r.owner_id = u.user_id " +
-                     "WHERE r.room_id = ?";
-        List<Map<String, Object>> rows = jdbcsql.executeSelect(sql, new Object[]{roomId});
-        if (rows.isEmpty()) {
-            return Optional.empty();
-        }
-        Map<String, Object> row = rows.get(0);
-        return Optional.of(new ChatRoomListDto(
-            (Long) row.get("id"),
-            (String) row.get("name"),
-            (String) row.get("room_type"),
-            (String) row.get("owner_name"),
-            ((Number) row.get("user_count")).intValue(),
-            0, // connected_users는 이 쿼리에서 알 수 없으므로 0으로 설정
-            false // isMember는 이 쿼리에서 알 수 없으므로 false로 설정
-        ));
-    }
+		// connected_users와 isMember는 요약에 없으므로 0/false로 설정
+		return roomSummaries.find(roomId)
+				.map(s -> new ChatRoomListDto(s.id(), s.name(), s.roomType(), s.ownerName(), s.memberCount(), 0, false));
+	}
 	
 	/**
 	 * 전체 채팅방의 개수를 반환합니다.
 	 *
 	 * @return 전체 채팅방의 개수
 	 */
+	@ReadOnlyQuery
 	public long count() {
-		String sql = "SELECT COUNT(*) FROM chat_rooms";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, null);
-
-		if (parsedTable.isEmpty()) {
-			return 0L;
-		}
-		
-		return ((Number) parsedTable.get(0).values().iterator().next()).longValue();
+		String sql = "SELECT COUNT(*) FROM chat_rooms WHERE deleted_at IS NULL";
+		return jdbcsql.queryForObject(sql, null, (rs, cols) -> rs.getLong(1)).orElse(0L);
 	}
 	
 	/**
-	 * 특정 채팅방에 속한 사용자 수를 반환합니다.
+	 * 특정 채팅방에 속한 사용자 수를 반환합니다. {@link RoomSummaryCache}의 참여자 수로 답합니다.
 	 *
 	 * @param roomId 사용자 수를 조회할 방의 ID
-	 * @return 해당 방의 사용자 수
+	 * @return 해당 방의 사용자 수. 삭제되었거나 없는 방이면 0
 	 */
 	public int countUsersByRoomId(Long roomId) {
-	    String sql = "SELECT count(user_id) FROM chat_room_users WHERE room_id = ?";
-	    List<Map<String, Object>> result = jdbcsql.executeSelect(sql, new Object[]{roomId});
-	    if (result.isEmpty()) {
-	        return 0;
-	    }
-	    return ((Number) result.get(0).values().iterator().next()).intValue();
+		return roomSummaries.find(roomId).map(RoomSummaryCache.RoomSummary::memberCount).orElse(0);
 	}
 }
@@ -0,0 +1,367 @@
+package com.example.simplechat.repository;
+
+import com.example.simplechat.dto.CacheStatsDto;
+import com.example.simplechat.event.UserProfileChangedEvent;
+import com.example.simplechat.model.ChatRoom;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 삭제되지 않은 모든 채팅방의 요약(이름, 유형, 방장 닉네임, 참여자 수)을 보관하는 캐시입니다.
+ * <p>
+ * 공개되어 주기적으로 호출되는 방 목록이 매번 chat_rooms/chat_room_users/users를 GROUP BY로 집계하지 않도록,
+ * 처음 사용할 때 한 번 읽어 두고 {@link RoomRepository}와 {@link RoomUserRepository}의 변경 메서드가 방 생성/수정/삭제와
+ * 참여자 수 증감을 커밋 후에 반영합니다. 방장 닉네임은 {@link UserProfileChangedEvent}를 받으면 다시 읽습니다.
+ * </p>
+ * <p>
+ * 증감 누락(다른 경로의 직접 수정 등)에 대비해 {@code cache.room-summary.reconcile-interval-ms}마다 DB에서 다시 집계해 맞춥니다.
+ * 요약이 바뀔 때마다 {@link #version()}이 증가하며, {@link #snapshot()}은 버전별로 한 번만 만든 불변 목록을 공유합니다.
+ * 지연 초기화 환경에서도 대조 스케줄이 등록되도록 {@code @Lazy(false)}로 즉시 생성합니다.
+ * </p>
+ */
+@Component
+@Lazy(false)
+public class RoomSummaryCache {
+    private static final Logger logger = LoggerFactory.getLogger(RoomSummaryCache.class);
+
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+    private static final String ROOMS_SQL =
+            "SELECT r.room_id, r.room_name, r.room_type, r.owner_id, u.nickname AS owner_name " +
+            "FROM chat_rooms r LEFT JOIN users u ON r.owner_id = u.user_id WHERE r.deleted_at IS NULL";
+    private static final String MEMBER_COUNTS_SQL =
+            "SELECT room_id, COUNT(1) AS member_count FROM chat_room_users GROUP BY room_id";
+    private static final String ROOM_SQL =
+            "SELECT r.room_id, r.room_name, r.room_type, r.owner_id, u.nickname AS owner_name, " +
+            "(SELECT COUNT(1) FROM chat_room_users cru WHERE cru.room_id = r.room_id) AS member_count " +
+            "FROM chat_rooms r LEFT JOIN users u ON r.owner_id = u.user_id WHERE r.room_id = ? AND r.deleted_at IS NULL";
+    private static final String OWNER_NAME_SQL = "SELECT nickname FROM users WHERE user_id = ?";
+
+    /**
+     * 방 하나의 요약입니다. 변경 시 새 인스턴스로 교체합니다.
+     *
+     * @param id          채팅방 ID
+     * @param name        채팅방 이름
+     * @param roomType    채팅방 유형 ("PUBLIC", "PRIVATE", "GAME")
+     * @param ownerId     방장 사용자 ID
+     * @param ownerName   방장 닉네임
+     * @param memberCount 참여자 수
+     */
+    public record RoomSummary(Long id, String name, String roomType, Long ownerId, String ownerName, int memberCount) {
+
+        RoomSummary withMemberCount(int count) {
+            return new RoomSummary(id, name, roomType, ownerId, ownerName, count);
+        }
+
+        RoomSummary withOwnerName(String owner) {
+            return new RoomSummary(id, name, roomType, ownerId, owner, memberCount);
+        }
+    }
+
+    /**
+     * 특정 버전의 방 요약 전체입니다. 방 ID 오름차순으로 정렬된 불변 목록이며, 같은 버전 동안 모든 요청이 공유합니다.
+     *
+     * @param version 요약 버전
+     * @param rooms   방 요약 목록
+     */
+    public record Snapshot(long version, List<RoomSummary> rooms) {}
+
+    private final JDBC_SQL jdbcsql;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final Map<Long, RoomSummary> rooms = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot = new Snapshot(-1, List.of());
+    // 변경이 반영될 때마다 증가. 적재/대조 도중 변경이 있었다면 읽어 온 결과를 다시 읽음
+    private final AtomicLong mutations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder corrections = new LongAdder();
+
+    public RoomSummaryCache(JDBC_SQL jdbcsql, ReadYourWritesTracker readYourWritesTracker) {
+        this.jdbcsql = jdbcsql;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    /**
+     * 모든 방의 요약을 방 ID 순으로 반환합니다.
+     *
+     * @return 방 요약 목록
+     */
+    public List<RoomSummary> findAll() {
+        return snapshot().rooms();
+    }
+
+    /**
+     * 현재 버전의 방 요약 스냅샷을 반환합니다. 마지막 스냅샷 이후 변경이 있었을 때만 새로 만듭니다.
+     *
+     * @return 방 요약 스냅샷
+     */
+    public Snapshot snapshot() {
+        ensureLoaded();
+        hits.increment();
+        Snapshot current = snapshot;
+        if (current.version() == version.get()) {
+            return current;
+        }
+        synchronized (rooms) {
+            current = snapshot;
+            if (current.version() != version.get()) {
+                current = new Snapshot(version.get(),
+                    rooms.values().stream().sorted(Comparator.comparing(RoomSummary::id)).toList());
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * 방 하나의 요약을 반환합니다.
+     *
+     * @param roomId 채팅방 ID
+     * @return 삭제되지 않은 방이면 요약, 아니면 Optional.empty()
+     */
+    public Optional<RoomSummary> find(Long roomId) {
+        ensureLoaded();
+        hits.increment();
+        return Optional.ofNullable(rooms.get(roomId));
+    }
+
+    /**
+     * 요약이 바뀔 때마다 증가하는 버전입니다. (방 생성/수정/삭제, 참여자 수, 방장 닉네임 변경)
+     *
+     * @return 현재 버전
+     */
+    public long version() {
+        ensureLoaded();
+        return version.get();
+    }
+
+    /**
+     * 새로 생성된 방을 추가합니다. 참여자 수는 이후의 {@link #memberAdded(Long)}로 늘어납니다.
+     *
+     * @param room ID가 할당된 방
+     */
+    public void roomCreated(ChatRoom room) {
+        String ownerName = ownerNameOf(room.getOwner());
+        TransactionHooks.afterCommit(() -> apply(() -> rooms.put(room.getId(), new RoomSummary(room.getId(), room.getName(),
+            room.getRoom_type().name(), room.getOwner(), ownerName, 0))));
+    }
+
+    /**
+     * 수정된 방의 이름/유형/방장을 반영합니다.
+     *
+     * @param room 수정된 방
+     */
+    public void roomUpdated(ChatRoom room) {
+        String ownerName = ownerNameOf(room.getOwner());
+        TransactionHooks.afterCommit(() -> apply(() -> rooms.computeIfPresent(room.getId(), (id, s) -> new RoomSummary(id,
+            room.getName(), room.getRoom_type() != null ? room.getRoom_type().name() : s.roomType(), room.getOwner(),
+            ownerName, s.memberCount()))));
+    }
+
+    /**
+     * 삭제(또는 삭제 표시)된 방을 제거합니다.
+     *
+     * @param roomId 채팅방 ID
+     */
+    public void roomDeleted(Long roomId) {
+        TransactionHooks.afterCommit(() -> apply(() -> rooms.remove(roomId)));
+    }
+
+    /**
+     * 방의 참여자 수를 1 늘립니다.
+     *
+     * @param roomId 채팅방 ID
+     */
+    public void memberAdded(Long roomId) {
+        TransactionHooks.afterCommit(() -> apply(() ->
+            rooms.computeIfPresent(roomId, (id, s) -> s.withMemberCount(s.memberCount() + 1))));
+    }
+
+    /**
+     * 방의 참여자 수를 1 줄입니다.
+     *
+     * @param roomId 채팅방 ID
+     */
+    public void memberRemoved(Long roomId) {
+        TransactionHooks.afterCommit(() -> apply(() ->
+            rooms.computeIfPresent(roomId, (id, s) -> s.withMemberCount(Math.max(0, s.memberCount() - 1)))));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleUserProfileChanged(UserProfileChangedEvent event) {
+        ownerProfileChanged(event.getUserId());
+    }
+
+    /**
+     * 사용자가 방장인 방들의 방장 닉네임을 다시 읽어 반영합니다.
+     *
+     * @param userId 프로필이 바뀐 사용자 ID
+     */
+    public void ownerProfileChanged(Long userId) {
+        if (!loaded || rooms.values().stream().noneMatch(s -> userId.equals(s.ownerId()))) {
+            return;
+        }
+        String ownerName = ownerNameOf(userId);
+        apply(() -> rooms.replaceAll((id, s) -> userId.equals(s.ownerId()) ? s.withOwnerName(ownerName) : s));
+    }
+
+    /**
+     * 방 하나의 요약을 DB에서 다시 읽어 교체합니다. (다른 노드에서 방이나 참여자가 바뀐 경우)
+     * 읽는 도중 다른 변경이 반영되면 다시 읽고, 계속 변경이 일어나면 주기적인 대조에 맡깁니다.
+     *
+     * @param roomId 채팅방 ID
+     */
+    public void refresh(Long roomId) {
+        if (!loaded) {
+            return;
+        }
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            long observed = mutations.get();
+            loads.increment();
+            Optional<RoomSummary> fresh = readYourWritesTracker.readFromPrimary(() ->
+                jdbcsql.queryForObjectOrThrow(ROOM_SQL, new Object[]{roomId}, (rs, cols) -> new RoomSummary(
+                    cols.getLong(rs, "room_id"), cols.getString(rs, "room_name"), cols.getString(rs, "room_type"),
+                    cols.getLong(rs, "owner_id"), cols.getString(rs, "owner_name"), cols.getInt(rs, "member_count"))));
+            synchronized (rooms) {
+                if (mutations.get() == observed) {
+                    apply(() -> fresh.ifPresentOrElse(summary -> rooms.put(roomId, summary), () -> rooms.remove(roomId)));
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(Runnable change) {
+        synchronized (rooms) {
+            mutations.incrementAndGet();
+            if (loaded) {
+                change.run();
+                version.incrementAndGet();
+            }
+        }
+    }
+
+    private String ownerNameOf(Long ownerId) {
+        if (ownerId == null) {
+            return null;
+        }
+        return jdbcsql.queryForObject(OWNER_NAME_SQL, new Object[]{ownerId},
+            (rs, cols) -> cols.getString(rs, "nickname")).orElse(null);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            Map<Long, RoomSummary> fresh = readStable();
+            synchronized (rooms) {
+                rooms.clear();
+                rooms.putAll(fresh);
+                loaded = true;
+                version.incrementAndGet();
+            }
+            logger.info("[RoomSummaryCache] 방 요약 {}개 적재", fresh.size());
+        }
+    }
+
+    /**
+     * 읽는 도중 변경이 반영되지 않은 결과를 반환합니다. 계속 변경이 일어나면 마지막으로 읽은 결과를 반환합니다.
+     */
+    private Map<Long, RoomSummary> readStable() {
+        Map<Long, RoomSummary> fresh = null;
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            long observed = mutations.get();
+            fresh = readFromDb();
+            if (mutations.get() == observed) {
+                break;
+            }
+        }
+        return fresh;
+    }
+
+    private Map<Long, RoomSummary> readFromDb() {
+        loads.increment();
+        // 오래 보관할 값이므로 복제본 지연을 피해 주 DB에서 읽음
+        // 실패한 집계(빈 결과)를 정상 결과로 적재하거나 대조에 쓰지 않도록 오류를 던지는 조회 사용
+        return readYourWritesTracker.readFromPrimary(() -> {
+            Map<Long, Integer> counts = new HashMap<>();
+            for (Map.Entry<Long, Integer> row : jdbcsql.queryOrThrow(MEMBER_COUNTS_SQL, null,
+                    (rs, cols) -> Map.entry(cols.getLong(rs, "room_id"), cols.getInt(rs, "member_count")))) {
+                counts.put(row.getKey(), row.getValue());
+            }
+            Map<Long, RoomSummary> fresh = new HashMap<>();
+            for (RoomSummary summary : jdbcsql.queryOrThrow(ROOMS_SQL, null, (rs, cols) -> {
+                Long id = cols.getLong(rs, "room_id");
+                return new RoomSummary(id, cols.getString(rs, "room_name"), cols.getString(rs, "room_type"),
+                    cols.getLong(rs, "owner_id"), cols.getString(rs, "owner_name"), counts.getOrDefault(id, 0));
+            })) {
+                fresh.put(summary.id(), summary);
+            }
+            return fresh;
+        });
+    }
+
+    /**
+     * DB에서 다시 집계해 캐시와 다른 항목을 바로잡습니다. 대조 중 변경이 있었으면 이번 대조는 건너뜁니다.
+     */
+    @Scheduled(fixedDelayString = "${cache.room-summary.reconcile-interval-ms:300000}",
+               initialDelayString = "${cache.room-summary.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!loaded) {
+            return;
+        }
+        long observed = mutations.get();
+        Map<Long, RoomSummary> fresh = readFromDb();
+        synchronized (rooms) {
+            if (mutations.get() != observed) {
+                return;
+            }
+            int drift = 0;
+            for (Map.Entry<Long, RoomSummary> entry : fresh.entrySet()) {
+                if (!entry.getValue().equals(rooms.get(entry.getKey()))) {
+                    drift++;
+                }
+            }
+            drift += (int) rooms.keySet().stream().filter(id -> !fresh.containsKey(id)).count();
+            if (drift > 0) {
+                rooms.clear();
+                rooms.putAll(fresh);
+                version.incrementAndGet();
+                corrections.add(drift);
+                logger.warn("[RoomSummaryCache] DB와 다른 방 요약 {}개를 바로잡았습니다.", drift);
+            }
+        }
+    }
+
+    /**
+     * 캐시 크기와 통계를 반환합니다. (적중은 캐시로 답한 조회 수, 실패는 DB 적재/대조 횟수, 무효화는 대조로 바로잡은 항목 수)
+     *
+     * @return 캐시 통계
+     */
+    public CacheStatsDto stats() {
+        long hitCount = hits.sum();
+        long loadCount = loads.sum();
+        long total = hitCount + loadCount;
+        return new CacheStatsDto("room-summary", rooms.size(), -1, hitCount, loadCount,
+            total == 0 ? 0.0 : (double) hitCount / total, 0, corrections.sum());
+    }
+}
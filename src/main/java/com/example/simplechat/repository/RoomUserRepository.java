@@ -7,32 +7,50 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * chat_room_users 테이블에 대한 데이터 접근을 담당하는 리포지토리입니다.
  * 사용자와 채팅방 간의 관계(멤버십)를 관리하며, JDBC_SQL을 통해 데이터베이스와 상호작용합니다.
+ * 참여 여부/닉네임/역할 조회는 {@link RoomMembershipIndex}가 응답하며, 변경 메서드는 인덱스와
+ * {@link RoomSummaryCache}의 참여자 수에도 같은 내용을 반영하고, {@link ClusterCacheInvalidator}로 다른 노드에도 알립니다.
  */
 @RequiredArgsConstructor
 @Repository
 public class RoomUserRepository {
     private static final Logger logger = LoggerFactory.getLogger(RoomUserRepository.class);
 	private final JDBC_SQL jdbcsql;
+	private final RoomMembershipIndex membershipIndex;
+	private final RoomSummaryCache roomSummaries;
+	private final ClusterCacheInvalidator cacheInvalidator;
 	
+	/**
+	 * 사용자가 참여한 방의 기본 정보입니다.
+	 *
+	 * @param roomId    채팅방 ID
+	 * @param roomName  채팅방 이름
+	 * @param roomType  채팅방 유형
+	 * @param ownerName 방 개설자의 닉네임
+	 */
+	public record JoinedRoom(Long roomId, String roomName, String roomType, String ownerName) {}
+
 	/**
      * 특정 사용자가 참여하고 있는 모든 채팅방의 기본 정보를 조회합니다.
      * 방 정보와 방 개설자의 닉네임을 함께 가져옵니다.
      *
      * @param userId 사용자의 ID
-     * @return 각 방의 정보를 담은 Map의 리스트
+     * @return 각 방의 정보 리스트
      */
-    public List<Map<String, Object>> findRoomsByUserId(Long userId) {
+    @ReadOnlyQuery
+    public List<JoinedRoom> findRoomsByUserId(Long userId) {
         String sql = "SELECT r.room_id, r.room_name, r.room_type, u.nickname as owner_name " +
                      "FROM chat_rooms r " +
                      "INNER JOIN chat_room_users cru ON r.room_id = cru.room_id " +
                      "LEFT JOIN users u ON r.owner_id = u.user_id " +
-                     "WHERE cru.user_id = ?";
+                     "WHERE cru.user_id = ? AND r.deleted_at IS NULL";
         
-        return jdbcsql.executeSelect(sql, new Object[]{userId});
+        return jdbcsql.query(sql, new Object[]{userId}, (rs, cols) -> new JoinedRoom(cols.getLong(rs, "room_id"),
+            cols.getString(rs, "room_name"), cols.getString(rs, "room_type"), cols.getString(rs, "owner_name")));
     }
 	
     /**
@@ -47,13 +65,15 @@ public class RoomUserRepository {
     public void save(Long userId, Long roomId, String nickname, String role) {
         String sql = "INSERT INTO chat_room_users (user_id, room_id, nickname, role) VALUES (?, ?, ?, ?)";
         Map<String, Object> result = jdbcsql.executeUpdate(sql,
-                new Object[]{userId, roomId, nickname, role},
-                null, null);
+                new Object[]{userId, roomId, nickname, role}, null);
 
         Long affectedRows = (Long) result.get("affected_rows");
         if (affectedRows == null || affectedRows == 0) {
             throw new RuntimeException("사용자 " + userId + "를 방 " + roomId + "에 추가하지 못했습니다.");
         }
+        membershipIndex.put(userId, roomId, new RoomMembershipIndex.Member(nickname, role));
+        roomSummaries.memberAdded(roomId);
+        cacheInvalidator.memberChanged(userId, roomId);
     }
 
     /**
@@ -66,13 +86,15 @@ public class RoomUserRepository {
     public void updateNickname(Long userId, Long roomId, String newNickname) {
         String sql = "UPDATE chat_room_users SET nickname = ? WHERE user_id = ? AND room_id = ?";
         Map<String, Object> result = jdbcsql.executeUpdate(sql,
-                new Object[]{newNickname, userId, roomId},
-                null, null);
+                new Object[]{newNickname, userId, roomId}, null);
 
         Long affectedRows = (Long) result.get("affected_rows");
         if (affectedRows == null || affectedRows == 0) {
             logger.warn("경고: 방 {}의 사용자 {}의 닉네임이 업데이트되지 않았습니다. 사용자가 방에 없을 수 있습니다.", roomId, userId);
+            return;
         }
+        membershipIndex.rename(userId, roomId, newNickname);
+        cacheInvalidator.memberChanged(userId, roomId);
     }
     
     /**
@@ -83,16 +105,8 @@ public class RoomUserRepository {
      * @return 사용자의 닉네임 문자열 또는 찾을 수 없는 경우 null
      */
     public String getNickname(Long userId, Long roomId) {
-    	String sql = "SELECT nickname FROM chat_room_users WHERE user_id = ? AND room_id = ?";
-    	
-    	List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql,
-                new Object[]{userId, roomId});
-
-        if (parsedTable.isEmpty()) {
-            return null;
-        }
-        
-        return (String) parsedTable.get(0).values().iterator().next();
+        RoomMembershipIndex.Member member = membershipIndex.find(userId, roomId);
+        return member != null ? member.nickname() : null;
     }
 
     /**
@@ -104,13 +118,16 @@ public class RoomUserRepository {
     public void delete(Long userId, Long roomId) {
         String sql = "DELETE FROM chat_room_users WHERE user_id = ? AND room_id = ?";
         Map<String, Object> result = jdbcsql.executeUpdate(sql,
-                new Object[]{userId, roomId},
-                null, null);
+                new Object[]{userId, roomId}, null);
 
         Long affectedRows = (Long) result.get("affected_rows");
         if (affectedRows == null || affectedRows == 0) {
             logger.warn("경고: 사용자 {}가 방 {}에 없거나 제거할 수 없었습니다.", userId, roomId);
+        } else {
+            roomSummaries.memberRemoved(roomId);
         }
+        membershipIndex.remove(userId, roomId);
+        cacheInvalidator.memberChanged(userId, roomId);
     }
 
     /**
@@ -121,22 +138,19 @@ public class RoomUserRepository {
      * @return 참여하고 있으면 true, 아니면 false
      */
     public boolean exists(Long userId, Long roomId) {
-        String sql = "SELECT COUNT(1) FROM chat_room_users WHERE user_id = ? AND room_id = ?";
-        if( userId == null ) { // userId가 null인 경우 존재하지 않는 것으로 처리
-        	return false;
-        }
-        
-        List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql,
-                new Object[]{userId, roomId});
-
-        if (parsedTable.isEmpty()) { // 결과 자체가 없는 경우 (쿼리 오류 등)
-            return false;
-        }
-
-        long count = ((Number) parsedTable.get(0).values().iterator().next()).longValue();
-        return count > 0;
+        return membershipIndex.find(userId, roomId) != null;
     }
     
+    /**
+     * 사용자가 참여하고 있는 방 ID 집합을 반환합니다.
+     *
+     * @param userId 사용자의 ID
+     * @return 참여 중인 방 ID의 읽기 전용 집합. 로그인하지 않은 경우(null) 빈 집합
+     */
+    public Set<Long> findRoomIdsByUserId(Long userId) {
+        return membershipIndex.roomsOf(userId);
+    }
+
     /**
      * 특정 채팅방에서 사용자의 역할을 조회합니다.
      *
@@ -145,25 +159,23 @@ public class RoomUserRepository {
      * @return 사용자의 역할 문자열 (예: "ADMIN", "MEMBER") 또는 찾을 수 없는 경우 null
      */
     public String getRole(Long userId, Long roomId) {
-    	String sql = "SELECT role FROM chat_room_users WHERE user_id = ? AND room_id = ?";
-        List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql,
-                new Object[]{userId, roomId});
-
-        if (parsedTable.isEmpty()) {
-            return null;
-        }
-        
-        return (String) parsedTable.get(0).values().iterator().next();
+        RoomMembershipIndex.Member member = membershipIndex.find(userId, roomId);
+        return member != null ? member.role() : null;
     }
 
     /**
-     * 특정 채팅방에 속한 모든 사용자들을 제거합니다. (방 삭제 시 사용)
+     * 특정 채팅방에 속한 사용자를 최대 {@code limit}명 제거합니다. (방 삭제 purge 작업에서 반복 호출)
      *
      * @param roomId 사용자들을 제거할 방의 ID
+     * @param limit 이번 배치에서 제거할 최대 행 수
+     * @return 제거된 행 수
      */
-    public void deleteByRoomId(Long roomId) {
-        String sql = "DELETE FROM chat_room_users WHERE room_id = ?";
-        jdbcsql.executeUpdate(sql, new Object[]{roomId}, null, null);
+    public long deleteBatchByRoomId(Long roomId, int limit) {
+        String sql = "DELETE TOP (?) FROM chat_room_users WHERE room_id = ?";
+        Object affected = jdbcsql.executeUpdate(sql, new Object[]{limit, roomId}, null).get("affected_rows");
+        membershipIndex.evictRoom(roomId);
+        cacheInvalidator.roomChanged(roomId);
+        return affected != null ? (long) affected : 0L;
     }
 
     /**
@@ -172,7 +184,15 @@ public class RoomUserRepository {
      * @param userId 제거할 사용자의 ID
      */
     public void deleteByUserId(Long userId) {
+        // 참여자 수를 줄일 방 목록을 삭제 전에 확보
+        List<Long> roomIds = jdbcsql.query("SELECT room_id FROM chat_room_users WHERE user_id = ?",
+                new Object[]{userId}, (rs, cols) -> rs.getLong(1));
         String sql = "DELETE FROM chat_room_users WHERE user_id = ?";
-        jdbcsql.executeUpdate(sql, new Object[]{userId}, null, null);
+        jdbcsql.executeUpdate(sql, new Object[]{userId}, null);
+        membershipIndex.removeUser(userId);
+        roomIds.forEach(roomId -> {
+            roomSummaries.memberRemoved(roomId);
+            cacheInvalidator.memberChanged(userId, roomId);
+        });
     }
 }
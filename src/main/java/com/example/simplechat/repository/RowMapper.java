@@ -0,0 +1,25 @@
+package com.example.simplechat.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link JDBC_SQL}의 조회 결과 한 행을 타입이 지정된 객체로 변환하는 콜백 인터페이스입니다.
+ * 행마다 Map을 만들지 않고 {@link ResultSet}에서 필요한 컬럼만 바로 읽어 엔티티를 생성합니다.
+ *
+ * @param <T> 매핑 결과 타입
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * 현재 커서가 가리키는 행을 객체로 매핑합니다.
+     * 커서를 이동(next)하거나 ResultSet을 닫아서는 안 됩니다.
+     *
+     * @param rs 현재 행에 위치한 ResultSet
+     * @param cols 구문 실행 시 한 번만 계산된 컬럼 이름 → 인덱스 정보
+     * @return 매핑된 객체
+     * @throws SQLException 컬럼 값을 읽는 중 오류가 발생한 경우
+     */
+    T mapRow(ResultSet rs, ColumnIndex cols) throws SQLException;
+}
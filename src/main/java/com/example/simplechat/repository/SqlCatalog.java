@@ -0,0 +1,201 @@
+package com.example.simplechat.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 리포지토리에서 사용하는 이름 있는 SQL 구문 모음입니다.
+ * <p>
+ * 모든 구문은 매개변수화된 고정 문자열이므로 SQL Server 계획 캐시와 드라이버 구문 풀
+ * (mssql-jdbc {@code statementPoolingCacheSize})에서 같은 항목으로 재사용됩니다.
+ * 호출마다 SQL 문자열을 조립하지 않도록, 개수가 달라지는 IN 목록은 {@link #inListBucket(int)}으로
+ * 정해진 크기(1, 2, 4, ..., {@link #MAX_IN_LIST})로 올림하고 남는 자리는 마지막 값으로 채워 바인딩합니다.
+ * 채울 수 없는 여러 행 INSERT는 {@link #rowBucket(int)}으로 같은 크기의 조각으로 나누어 실행합니다.
+ * </p>
+ */
+final class SqlCatalog {
+
+    private SqlCatalog() { }
+
+    // ---------------------------------------------------------------------
+    // chat_messages
+    // ---------------------------------------------------------------------
+
+    /** 기록 조회 시 ChatMessageDto에 필요한 컬럼 (ix_chat_messages_room_message 커버링 대상) */
+    static final String MESSAGE_HISTORY_COLUMNS =
+            "message_id, room_id, author_id, author_name, message_type, content, created_at";
+
+    static final String MESSAGE_HISTORY_LATEST =
+            "SELECT TOP (?) " + MESSAGE_HISTORY_COLUMNS + " FROM chat_messages WHERE room_id = ? ORDER BY message_id DESC";
+
+    static final String MESSAGE_HISTORY_BEFORE =
+            "SELECT TOP (?) " + MESSAGE_HISTORY_COLUMNS + " FROM chat_messages WHERE room_id = ? AND message_id < ? ORDER BY message_id DESC";
+
+    static final String MESSAGE_HISTORY_AFTER =
+            "SELECT TOP (?) " + MESSAGE_HISTORY_COLUMNS + " FROM chat_messages WHERE room_id = ? AND message_id > ? ORDER BY message_id ASC";
+
+    static final String MESSAGE_UPDATE_CONTENT =
+            "UPDATE chat_messages SET content = ?, message_type = ? WHERE message_id = ?";
+
+    /**
+     * 매개변수: (ord, room_id, author_id, author_name, message_type, content, parent_message_id) × 버킷 크기.
+     * ON 1 = 0 조건으로 모든 원본 행이 INSERT되며, OUTPUT에서 원본의 ord를 함께 돌려받습니다. (SQL Server)
+     */
+    static final BucketedStatement MESSAGE_INSERT_MERGE = new BucketedStatement(
+            "MERGE INTO chat_messages AS t USING (VALUES %s) "
+            + "AS src (ord, room_id, author_id, author_name, message_type, content, parent_message_id) "
+            + "ON 1 = 0 WHEN NOT MATCHED THEN "
+            + "INSERT (room_id, author_id, author_name, message_type, content, parent_message_id) "
+            + "VALUES (src.room_id, src.author_id, src.author_name, src.message_type, src.content, src.parent_message_id) "
+            + "OUTPUT src.ord, INSERTED.message_id, INSERTED.created_at;",
+            "(CAST(? AS INT), CAST(? AS BIGINT), CAST(? AS BIGINT), ?, ?, ?, CAST(? AS BIGINT))");
+
+    /**
+     * 매개변수: (room_id, author_id, author_name, message_type, content, parent_message_id) × 버킷 크기.
+     * OUTPUT 절이 없는 DB(perf 프로필의 H2)용. IDENTITY는 삽입 순서대로 증가하므로 message_id 순으로 정렬하면
+     * VALUES의 행 순서와 일치합니다.
+     */
+    static final BucketedStatement MESSAGE_INSERT_FINAL_TABLE = new BucketedStatement(
+            "SELECT message_id, created_at FROM FINAL TABLE ("
+            + "INSERT INTO chat_messages (room_id, author_id, author_name, message_type, content, parent_message_id) "
+            + "VALUES %s) ORDER BY message_id",
+            "(?, ?, ?, ?, ?, ?)");
+
+    // ---------------------------------------------------------------------
+    // users
+    // ---------------------------------------------------------------------
+
+    /** 변경된 필드와 관계없이 수정 가능한 컬럼을 모두 갱신하는 고정 UPDATE */
+    static final String USER_UPDATE =
+            "UPDATE users SET nickname = ?, password_hash = ?, status_message = ?, profile_image_url = ? WHERE user_id = ?";
+
+    /** 매개변수: user_id × 버킷 크기 */
+    static final BucketedStatement USER_BY_IDS = new BucketedStatement(
+            "SELECT * FROM users WHERE user_id IN (%s) AND deleted_at IS NULL");
+
+    /** 매개변수: user_id × 버킷 크기. findProfileById와 같은 컬럼만 조회 */
+    static final BucketedStatement USER_PROFILES_BY_IDS = new BucketedStatement(
+            "SELECT user_id, username, nickname, status_message, profile_image_url FROM users WHERE user_id IN (%s) AND deleted_at IS NULL");
+
+    // ---------------------------------------------------------------------
+    // chat_rooms
+    // ---------------------------------------------------------------------
+
+    /** 변경된 필드와 관계없이 수정 가능한 컬럼을 모두 갱신하는 고정 UPDATE */
+    static final String ROOM_UPDATE =
+            "UPDATE chat_rooms SET room_name = ?, room_type = ?, owner_id = ?, password_hash = ? WHERE room_id = ?";
+
+    // ---------------------------------------------------------------------
+    // notifications
+    // ---------------------------------------------------------------------
+
+    static final String NOTIFICATION_BY_RECEIVER =
+            "SELECT * FROM notifications WHERE receiver_id = ? ORDER BY created_at DESC";
+
+    static final String NOTIFICATION_BY_RECEIVER_AND_READ =
+            "SELECT * FROM notifications WHERE receiver_id = ? AND is_read = ? ORDER BY created_at DESC";
+
+    /** 매개변수: is_read, notification_id × 버킷 크기, receiver_id */
+    static final BucketedStatement NOTIFICATION_SET_READ = new BucketedStatement(
+            "UPDATE notifications SET is_read = ? WHERE notification_id IN (%s) AND receiver_id = ?");
+
+    // ---------------------------------------------------------------------
+    // IN 목록 버킷
+    // ---------------------------------------------------------------------
+
+    /** 하나의 구문에 넣을 수 있는 IN 목록 최대 크기. 이보다 긴 목록은 호출 측에서 나누어 실행합니다. */
+    static final int MAX_IN_LIST = 128;
+
+    /**
+     * n개의 값을 담을 수 있는 가장 작은 버킷 크기(2의 거듭제곱, 최대 {@link #MAX_IN_LIST})를 반환합니다.
+     *
+     * @param n 실제 값 개수 (1 이상)
+     * @return 버킷 크기
+     */
+    static int inListBucket(int n) {
+        if (n <= 1) return 1;
+        int bucket = Integer.highestOneBit(n - 1) << 1;
+        return Math.min(bucket, MAX_IN_LIST);
+    }
+
+    /**
+     * 남은 n개의 행 중 다음 구문에 담을 개수(n 이하의 가장 큰 2의 거듭제곱, 최대 {@link #MAX_IN_LIST})를 반환합니다.
+     * 여러 행 INSERT처럼 남는 자리를 채울 수 없는 구문을 버킷 크기 조각으로 나눌 때 사용합니다. (예: 200 → 128, 64, 8)
+     *
+     * @param n 남은 행 개수 (1 이상)
+     * @return 이번 구문의 행 개수
+     */
+    static int rowBucket(int n) {
+        return Math.min(Integer.highestOneBit(n), MAX_IN_LIST);
+    }
+
+    /**
+     * 반복 목록을 하나 가진 템플릿에 대해 버킷 크기별 구문을 미리 만들어 두는 클래스입니다.
+     */
+    static final class BucketedStatement {
+        private final String[] sqlByBucket = new String[MAX_IN_LIST + 1];
+
+        private BucketedStatement(String template) {
+            this(template, "?");
+        }
+
+        /**
+         * @param template {@code %s} 자리에 목록이 들어갈 구문
+         * @param item 목록 항목 하나의 자리 표시자 (IN 목록은 {@code ?}, 여러 행 VALUES는 {@code (?, ?, ...)})
+         */
+        private BucketedStatement(String template, String item) {
+            StringBuilder placeholders = new StringBuilder(item);
+            for (int size = 1; size <= MAX_IN_LIST; size++) {
+                if (size > 1) placeholders.append(", ").append(item);
+                if (Integer.bitCount(size) == 1) {
+                    sqlByBucket[size] = String.format(template, placeholders);
+                }
+            }
+        }
+
+        /**
+         * 버킷 크기에 해당하는 구문을 반환합니다.
+         *
+         * @param bucket {@link #inListBucket(int)}로 얻은 버킷 크기
+         * @return 고정 SQL 구문
+         */
+        String sql(int bucket) {
+            return sqlByBucket[bucket];
+        }
+    }
+
+    /**
+     * 값 목록을 버킷 크기만큼 채운 배열을 {@code target}의 {@code offset} 위치부터 기록합니다.
+     * 남는 자리는 마지막 값으로 채우며, IN 조건에서 중복 값은 결과에 영향을 주지 않습니다.
+     *
+     * @param values 실제 값 목록 (1개 이상, bucket 이하)
+     * @param bucket 버킷 크기
+     * @param target 매개변수 배열
+     * @param offset 기록 시작 위치
+     */
+    static void fillInList(List<?> values, int bucket, Object[] target, int offset) {
+        Object last = values.get(values.size() - 1);
+        for (int i = 0; i < bucket; i++) {
+            target[offset + i] = i < values.size() ? values.get(i) : last;
+        }
+    }
+
+    /**
+     * 긴 목록을 {@link #MAX_IN_LIST} 크기 단위로 나눕니다.
+     *
+     * @param values 전체 값 목록
+     * @param <T> 값 타입
+     * @return 나눈 하위 목록들 (원본 목록의 뷰)
+     */
+    static <T> List<List<T>> chunks(List<T> values) {
+        if (values.size() <= MAX_IN_LIST) {
+            return Collections.singletonList(values);
+        }
+        List<List<T>> result = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += MAX_IN_LIST) {
+            result.add(values.subList(i, Math.min(i + MAX_IN_LIST, values.size())));
+        }
+        return result;
+    }
+}
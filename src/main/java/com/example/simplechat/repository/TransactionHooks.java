@@ -0,0 +1,33 @@
+package com.example.simplechat.repository;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 리포지토리의 인메모리 인덱스/캐시가 DB 변경을 반영할 시점을 정하는 도우미입니다.
+ */
+final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * 실제 트랜잭션 안이면 커밋 후에, 아니면(자동 커밋) 즉시 작업을 실행합니다.
+     * 롤백된 변경이 인메모리 상태에 남지 않도록 합니다.
+     *
+     * @param action 실행할 작업
+     */
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package com.example.simplechat.repository;
 
 import com.example.simplechat.model.User;
-import java.sql.Timestamp;
-import java.time.format.DateTimeFormatter;
-import java.util.Collections;
-import java.util.List;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
@@ -22,61 +23,59 @@ public class UserRepository {
 	private final JDBC_SQL jdbcsql;
 	
 	/**
-	 * 사용자 이름으로 사용자를 조회합니다.
+	 * 사용자 이름으로 사용자를 조회합니다. 삭제 요청된 계정은 제외합니다.
 	 *
 	 * @param username 조회할 사용자의 사용자 이름
 	 * @return 해당 사용자 이름의 {@link User} 객체를 포함하는 {@link Optional}. 사용자가 없으면 Optional.empty() 반환.
 	 */
+	@ReadOnlyQuery
 	public Optional<User> findByUsername(String username) {
-		String sql = "SELECT * FROM users WHERE username = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{username});
-
-		if( parsedTable.isEmpty() )
-			return Optional.empty();
-		
-		Map<String, Object> userRow = parsedTable.get(0);
-		return Optional.of(mapRowToUser(userRow));
+		String sql = "SELECT * FROM users WHERE username = ? AND deleted_at IS NULL";
+		return jdbcsql.queryForObject(sql, new Object[]{username}, UserRepository::mapRowToUser);
 	}
 	
 	/**
-	 * 사용자 ID로 사용자를 조회합니다.
+	 * 사용자 ID로 사용자를 조회합니다. 삭제 요청된 계정은 제외합니다.
 	 *
 	 * @param id 조회할 사용자의 ID
 	 * @return 해당 ID의 {@link User} 객체를 포함하는 {@link Optional}. 사용자가 없으면 Optional.empty() 반환.
 	 */
+	@ReadOnlyQuery
 	public Optional<User> findById(Long id) {
-		String sql = "SELECT * FROM users WHERE user_id = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{id});
-
-		if( parsedTable.isEmpty() )
-			return Optional.empty();
-		
-		Map<String, Object> userRow = parsedTable.get(0);
-		return Optional.of(mapRowToUser(userRow));
+		String sql = "SELECT * FROM users WHERE user_id = ? AND deleted_at IS NULL";
+		return jdbcsql.queryForObject(sql, new Object[]{id}, UserRepository::mapRowToUser);
+	}
+	
+	/**
+	 * 여러 사용자 ID를 한 번에 조회합니다. 친구 목록, 접속 상태 알림, 멘션 알림처럼
+	 * 사용자를 여러 명 읽어야 하는 경로에서 ID마다 {@link #findById(Long)}를 호출하는 대신 사용합니다.
+	 * 조회는 고정 크기 버킷의 {@code IN} 구문으로 묶여 실행됩니다. ({@link SqlCatalog#inListBucket(int)})
+	 *
+	 * @param ids 조회할 사용자 ID 목록. null과 중복은 무시
+	 * @return 사용자 ID → {@link User}. 존재하지 않거나 삭제 요청된 ID는 포함되지 않음
+	 */
+	@ReadOnlyQuery
+	public Map<Long, User> findAllByIds(Collection<Long> ids) {
+		return toMap(queryByIds(SqlCatalog.USER_BY_IDS, ids));
 	}
 	
 	/**
-	 * 데이터베이스 행(Map)을 {@link User} 엔티티로 매핑합니다.
+	 * 데이터베이스 조회 결과의 한 행을 {@link User} 엔티티로 매핑합니다.
+	 * 조회 결과에 없는 컬럼은 null로 남습니다.
 	 *
-	 * @param row 데이터베이스에서 조회된 단일 행을 나타내는 Map
+	 * @param rs 현재 행에 위치한 ResultSet
+	 * @param cols 구문당 한 번 계산된 컬럼 인덱스
 	 * @return 매핑된 {@link User} 객체
+	 * @throws SQLException 컬럼 값을 읽는 중 오류가 발생한 경우
 	 */
-	public static User mapRowToUser(Map<String, Object> row) {
-		User user = new User((Long)row.get("user_id") , (String) row.get("username"));
+	public static User mapRowToUser(ResultSet rs, ColumnIndex cols) throws SQLException {
+		User user = new User(cols.getLong(rs, "user_id"), cols.getString(rs, "username"));
 
-		user.setPassword_hash((String) row.get("password_hash"));
-        user.setNickname((String) row.get("nickname"));
-        user.setStatus_message((String) row.get("status_message"));
-        user.setProfile_image_url((String) row.get("profile_image_url"));
-		
-		Object createdAtObj = row.get("created_at");
-		if (createdAtObj instanceof Timestamp) {
-			user.setCreated_at(((Timestamp) createdAtObj).toLocalDateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-		} else if (createdAtObj != null) {
-			user.setCreated_at(createdAtObj.toString());
-		} else {
-			user.setCreated_at(null);
-		}
+		user.setPassword_hash(cols.getString(rs, "password_hash"));
+		user.setNickname(cols.getString(rs, "nickname"));
+		user.setStatus_message(cols.getString(rs, "status_message"));
+		user.setProfile_image_url(cols.getString(rs, "profile_image_url"));
+		user.setCreated_at(DB_Utils.formatTimestamp(cols.getTimestamp(rs, "created_at")));
 		
 		return user;
 	}
@@ -102,21 +101,21 @@ public class UserRepository {
 	 * @return ID와 생성 시간이 채워진 {@link User} 객체
 	 */
 	private User insert(User user) {
-		String sql = "INSERT INTO users (username, password_hash, nickname) VALUES ( ?, ?, ? )";
-		Map<String, Object> result = jdbcsql.executeUpdate(sql, 
+		jdbcsql.executeInsertReturning("users",
+				new String[]{"username", "password_hash", "nickname"},
 				new Object[]{user.getUsername(), user.getPassword_hash(), user.getNickname()},
-				new String[] {"user_id"}, new String[] {"created_at"});
-		
-		if( result != null && result.containsKey("user_id")) {
-			user.setId(((Number)result.get("user_id")).longValue());
-			user.setCreated_at(((Timestamp)result.get("created_at")).toLocalDateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-		}
+				new String[]{"user_id", "created_at"},
+				(rs, cols) -> {
+					user.setId(rs.getLong(1));
+					user.setCreated_at(DB_Utils.formatTimestamp(rs.getTimestamp(2)));
+					return user;
+				});
 		return user;
 	}
 	
 	/**
 	 * 기존 사용자 정보를 업데이트합니다.
-	 * {@link User#getChangedFields(User)}를 사용하여 변경된 필드만 동적으로 SQL 쿼리를 구성하여 업데이트합니다.
+	 * {@link User#getChangedFields(User)}로 변경 여부를 확인한 뒤, 수정 가능한 컬럼을 모두 갱신하는 고정 구문({@link SqlCatalog#USER_UPDATE})으로 업데이트합니다.
 	 *
 	 * @param user 업데이트할 {@link User} 객체
 	 * @return 업데이트된 {@link User} 객체
@@ -130,18 +129,10 @@ public class UserRepository {
 		Map<String, Object> Changed = user.getChangedFields(fromdb.get());
 		if (Changed.isEmpty()) { return user; } // 변경 사항 없으면 바로 리턴
 		
-		StringBuilder sql = new StringBuilder("UPDATE users SET ");
-		List<Object> values = new ArrayList<>();
-		
-		for( Map.Entry<String, Object> entry : Changed.entrySet() ) {
-			sql.append(entry.getKey()).append(" = ?, ");
-			values.add(entry.getValue());
-		}
-		sql.delete(sql.length() - 2, sql.length()); // 마지막 ", " 제거
-		sql.append(" WHERE user_id = ?");
-		values.add(user.getId());
+		Object[] values = {user.getNickname(), user.getPassword_hash(), user.getStatus_message(),
+				user.getProfile_image_url(), user.getId()};
 		
-		Long affectedRows = (long)jdbcsql.executeUpdate(sql.toString(), values.toArray(), null, null).get("affected_rows");
+		Long affectedRows = (long)jdbcsql.executeUpdate(SqlCatalog.USER_UPDATE, values, null).get("affected_rows");
 		
 		if (affectedRows == null || affectedRows == 0L) {
 			throw new RuntimeException("ID " + user.getId() + "를 가진 사용자를 찾을 수 없거나 업데이트할 수 없습니다.");
@@ -166,72 +157,72 @@ public class UserRepository {
 	}
 	
 	/**
-	 * 사용자 ID를 기준으로 사용자를 삭제합니다.
+	 * 사용자를 삭제 상태로 표시합니다. 표시된 계정은 즉시 로그인과 조회에서 제외되며,
+	 * 작성한 메시지, 친구 관계, 알림과 사용자 행 자체는 purge 작업이 나누어 삭제합니다.
+	 * 사용자 이름은 purge가 끝날 때까지 사용 중으로 남습니다.
 	 *
 	 * @param id 삭제할 사용자의 ID
-	 * @throws RuntimeException 사용자를 찾을 수 없거나 삭제에 실패한 경우
+	 * @return 이번 호출로 표시되었으면 true, 없거나 이미 삭제 상태면 false
 	 */
-	public void deleteById(Long id) {
-		String sql = "DELETE FROM users WHERE user_id = ?";
-		Long affectedRows = (long)jdbcsql.executeUpdate(sql, new Object[]{id}, null, null).get("affected_rows");
-		
-		if (affectedRows == null || affectedRows == 0L) {
-			throw new RuntimeException("ID " + id + "를 가진 사용자를 찾을 수 없거나 삭제할 수 없습니다.");
+	public boolean markDeleted(Long id) {
+		String sql = "UPDATE users SET deleted_at = CURRENT_TIMESTAMP WHERE user_id = ? AND deleted_at IS NULL";
+		Object affected = jdbcsql.executeUpdate(sql, new Object[]{id}, null).get("affected_rows");
+		return affected != null && (long) affected > 0;
+	}
+	
+	/**
+	 * 삭제 상태로 표시된 사용자 행을 삭제합니다. 사용자를 참조하는 행이 모두 지워진 뒤에 호출해야 합니다.
+	 * 이미 삭제된 경우에도 오류 없이 넘어가므로 purge 작업을 재시작해도 안전합니다.
+	 *
+	 * @param id 삭제할 사용자의 ID
+	 * @return 이번 호출로 삭제되었으면 true
+	 * @throws RuntimeException 삭제에 실패한 경우 (아직 참조하는 행이 남은 경우 등)
+	 */
+	public boolean deleteTombstoned(Long id) {
+		String sql = "DELETE FROM users WHERE user_id = ? AND deleted_at IS NOT NULL";
+		Object affected = jdbcsql.executeUpdate(sql, new Object[]{id}, null).get("affected_rows");
+		if (affected == null) {
+			throw new RuntimeException("ID " + id + "를 가진 사용자를 삭제할 수 없습니다.");
 		}
+		return (long) affected > 0;
 	}
 	
 	/**
 	 * 특정 사용자 이름의 사용자가 존재하는지 확인합니다.
+	 * 삭제 요청된 계정도 purge가 끝날 때까지 이름을 사용 중이므로 포함합니다.
 	 *
 	 * @param username 확인할 사용자의 사용자 이름
 	 * @return 해당 사용자 이름의 사용자가 존재하면 true, 그렇지 않으면 false
 	 */
+	@ReadOnlyQuery
 	public boolean existsByUsername(String username) {
 		String sql = "SELECT COUNT(1) FROM users WHERE username = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{username});
-
-		if (parsedTable.isEmpty()) {
-			return false;
-		}
-
-		long count = ((Number) parsedTable.get(0).values().iterator().next()).longValue();
-		return count > 0;
+		return jdbcsql.queryForObject(sql, new Object[]{username}, (rs, cols) -> rs.getLong(1))
+				.orElse(0L) > 0;
 	}
 	
 	/**
-	 * 특정 ID의 사용자가 존재하는지 확인합니다.
+	 * 특정 ID의 사용자가 존재하는지 확인합니다. 삭제 요청된 계정은 제외합니다.
 	 *
 	 * @param userId 확인할 사용자의 ID
 	 * @return 해당 ID의 사용자가 존재하면 true, 그렇지 않으면 false
 	 */
+	@ReadOnlyQuery
 	public boolean existsById(Long userId) {
-		String sql = "SELECT COUNT(1) FROM users WHERE user_id = ?";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{userId});
-
-		if (parsedTable.isEmpty()) {
-			return false;
-		}
-
-		long count = ((Number) parsedTable.get(0).values().iterator().next()).longValue();
-		return count > 0;
+		String sql = "SELECT COUNT(1) FROM users WHERE user_id = ? AND deleted_at IS NULL";
+		return jdbcsql.queryForObject(sql, new Object[]{userId}, (rs, cols) -> rs.getLong(1))
+				.orElse(0L) > 0;
 	}
 	
 	/**
-	 * 모든 사용자 목록을 조회합니다.
+	 * 삭제 요청되지 않은 모든 사용자 목록을 조회합니다.
 	 *
 	 * @return 모든 {@link User} 객체 목록. 사용자가 없으면 빈 리스트를 반환합니다.
 	 */
+	@ReadOnlyQuery
 	public List<User> findAll() {
-		String sql = "SELECT * FROM users";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, null);
-
-		if (parsedTable.isEmpty()) {
-			return Collections.emptyList();
-		}
-
-		return parsedTable.stream()
-			.map(UserRepository::mapRowToUser)
-			.collect(Collectors.toList());
+		String sql = "SELECT * FROM users WHERE deleted_at IS NULL";
+		return jdbcsql.query(sql, null, UserRepository::mapRowToUser);
 	}
 	
 	/**
@@ -239,32 +230,73 @@ public class UserRepository {
 	 *
 	 * @return 전체 사용자 수
 	 */
+	@ReadOnlyQuery
 	public long count() {
 		String sql = "SELECT COUNT(*) FROM users";
-		List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, null);
-
-		if (parsedTable.isEmpty()) {
-			return 0L;
-		}
-		
-		return ((Number) parsedTable.get(0).values().iterator().next()).longValue();
+		return jdbcsql.queryForObject(sql, null, (rs, cols) -> rs.getLong(1)).orElse(0L);
 	}
 	
 	/**
 	 * 사용자 ID를 기준으로 특정 프로필 관련 필드를 조회합니다.
+	 * 반환되는 {@link User}에는 user_id, username, nickname, status_message, profile_image_url만 채워집니다.
 	 *
 	 * @param userId 프로필 정보를 조회할 사용자의 ID
-	 * @return 사용자 프로필 정보를 담은 {@link Map}을 포함하는 {@link Optional}. 사용자가 없으면 Optional.empty() 반환.
+	 * @return 프로필 필드만 채워진 {@link User}를 포함하는 {@link Optional}. 사용자가 없거나 삭제 요청된 경우 Optional.empty() 반환.
 	 */
-	public Optional<Map<String, Object>> findProfileById(Long userId) {
-	    String sql = "SELECT user_id, username, nickname, status_message, profile_image_url FROM users WHERE user_id = ?";
-	    List<Map<String, Object>> parsedTable = jdbcsql.executeSelect(sql, new Object[]{userId});
-
-	    if (parsedTable.isEmpty()) {
-	        return Optional.empty();
-	    }
+	@ReadOnlyQuery
+	public Optional<User> findProfileById(Long userId) {
+	    String sql = "SELECT user_id, username, nickname, status_message, profile_image_url FROM users WHERE user_id = ? AND deleted_at IS NULL";
+	    return jdbcsql.queryForObject(sql, new Object[]{userId}, UserRepository::mapRowToUser);
+	}
 
-	    return Optional.of(parsedTable.get(0));
+	/**
+	 * {@link #findProfileById(Long)}와 같지만, 조회에 실패하면 빈 값 대신 예외를 던집니다.
+	 * 결과를 캐시에 저장하는 쪽에서 "사용자 없음"과 "조회 실패"를 구분할 때 사용합니다.
+	 *
+	 * @param userId 프로필 정보를 조회할 사용자의 ID
+	 * @return 프로필 필드만 채워진 {@link User}를 포함하는 {@link Optional}. 사용자가 없으면 Optional.empty() 반환.
+	 * @throws org.springframework.dao.DataAccessException 조회에 실패한 경우
+	 */
+	@ReadOnlyQuery
+	public Optional<User> findProfileByIdOrThrow(Long userId) {
+	    String sql = "SELECT user_id, username, nickname, status_message, profile_image_url FROM users WHERE user_id = ? AND deleted_at IS NULL";
+	    return jdbcsql.queryForObjectOrThrow(sql, new Object[]{userId}, UserRepository::mapRowToUser);
+	}
+	
+	/**
+	 * 여러 사용자의 프로필 필드를 한 번에 조회합니다. 반환되는 {@link User}에는
+	 * {@link #findProfileById(Long)}와 같은 필드만 채워집니다.
+	 *
+	 * @param userIds 조회할 사용자 ID 목록. null과 중복은 무시
+	 * @return 사용자 ID → 프로필 필드만 채워진 {@link User}. 존재하지 않는 ID는 포함되지 않음
+	 */
+	@ReadOnlyQuery
+	public Map<Long, User> findProfilesByIds(Collection<Long> userIds) {
+		return toMap(queryByIds(SqlCatalog.USER_PROFILES_BY_IDS, userIds));
+	}
+	
+	// ID 개수를 버킷 크기로 올림하여 구문 종류를 고정 (SqlCatalog 참고)
+	private List<User> queryByIds(SqlCatalog.BucketedStatement statement, Collection<Long> ids) {
+		List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+		if (distinct.isEmpty()) {
+			return List.of();
+		}
+		List<User> users = new ArrayList<>(distinct.size());
+		for (List<Long> chunk : SqlCatalog.chunks(distinct)) {
+			int bucket = SqlCatalog.inListBucket(chunk.size());
+			Object[] params = new Object[bucket];
+			SqlCatalog.fillInList(chunk, bucket, params, 0);
+			users.addAll(jdbcsql.query(statement.sql(bucket), params, UserRepository::mapRowToUser));
+		}
+		return users;
+	}
+	
+	private static Map<Long, User> toMap(List<User> users) {
+		Map<Long, User> byId = new LinkedHashMap<>();
+		for (User user : users) {
+			byId.put(user.getId(), user);
+		}
+		return byId;
 	}
 
 }
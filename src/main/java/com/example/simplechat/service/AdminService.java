@@ -4,6 +4,7 @@ import com.example.simplechat.dto.ChatRoomUserDto;
 import com.example.simplechat.dto.RoomCreateDto;
 import com.example.simplechat.exception.RegistrationException;
 import com.example.simplechat.model.ChatRoom;
+import com.example.simplechat.model.RoomMetadata;
 import com.example.simplechat.repository.RoomRepository;
 import com.example.simplechat.repository.RoomUserRepository;
 import com.example.simplechat.repository.UserRepository;
@@ -32,7 +33,7 @@ public class AdminService {
 
     // 현재 선택된 채팅방을 저장하는 필드.
     // 멀티스레드 환경에서는 주의하여 사용해야 합니다 (단일 관리자 세션용으로 가정).
-    private ChatRoom serverChat_room = null;
+    private RoomMetadata serverChat_room = null;
 
     /**
      * 관리자 명령 문자열을 파싱하고 실행합니다.
@@ -77,10 +78,10 @@ public class AdminService {
                 chatRoomService.createRoom(new RoomCreateDto(result.args, room_type, pass_hash), 0L);
                 return "채팅방 '" + result.args + "'가 생성되었습니다.";
             case "enter":
-                Optional<ChatRoom> room = roomRepository.findByName(result.args);
+                Optional<RoomMetadata> room = roomRepository.findByName(result.args);
                 if( room.isPresent() ) {
                     serverChat_room = room.get();
-                    return "'" + room.get().getName() + "' 방에 입장했습니다.";
+                    return "'" + room.get().name() + "' 방에 입장했습니다.";
                 } else {
                     return "해당하는 방이 없습니다.";
                 }
@@ -88,7 +89,7 @@ public class AdminService {
                 if( serverChat_room == null )
                     return "선택된 방이 없습니다. '/enter 방이름' 명령으로 방에 입장해주세요.";
                 
-                List<ChatRoomUserDto> allUsers = roomRepository.findUsersByRoomId(serverChat_room.getId());
+                List<ChatRoomUserDto> allUsers = roomRepository.findUsersByRoomId(serverChat_room.id());
                 if( allUsers.isEmpty() ) {
                     return "이 방에는 사용자가 없습니다.";
                 } else {
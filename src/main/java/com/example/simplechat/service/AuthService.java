@@ -4,6 +4,7 @@ import com.example.simplechat.dto.LoginRequestDto;
 import com.example.simplechat.dto.UserRegistrationRequestDto;
 import com.example.simplechat.exception.RegistrationException;
 import com.example.simplechat.model.ChatRoom;
+import com.example.simplechat.model.PurgeJob;
 import com.example.simplechat.model.User;
 import com.example.simplechat.repository.RoomUserRepository;
 import com.example.simplechat.repository.UserRepository;
@@ -25,6 +26,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final RoomUserRepository roomUserRepository;
     private final ChatRoomService chatRoomService;
+    private final PurgeService purgeService;
 
     /**
      * 새로운 사용자를 등록합니다.
@@ -38,7 +40,7 @@ public class AuthService {
     public User register(UserRegistrationRequestDto requestDto) {
         if (requestDto.username().equals("system")) {
             throw new RegistrationException("INVALID_USERNAME", "유효하지 않은 사용자명입니다.");
-        } else if (!userRepository.findByUsername(requestDto.username()).isEmpty()) {
+        } else if (userRepository.existsByUsername(requestDto.username())) {
             throw new RegistrationException("DUPLICATE_USERNAME", "사용자명이 이미 존재합니다.");
         }
 
@@ -66,14 +68,16 @@ public class AuthService {
 
     /**
      * 사용자 계정을 삭제합니다.
-     * 해당 사용자가 소유한 채팅방을 먼저 삭제하고, 모든 채팅방 멤버십 정보 및 사용자 계정 자체를 삭제합니다.
+     * 계정을 삭제 상태로 표시하고, 해당 사용자가 소유한 채팅방과 모든 채팅방 멤버십 정보를 삭제합니다.
+     * 방, 작성한 메시지, 친구 관계, 알림과 계정 행은 {@link PurgeService}의 백그라운드 작업으로 삭제됩니다.
      *
      * @param userId 삭제할 사용자의 ID
      * @throws RuntimeException 해당 ID의 사용자를 찾을 수 없는 경우
      */
     @Transactional
     public void deleteAccount(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        // 삭제 상태로 표시하면 즉시 로그인과 사용자 조회에서 제외됨
+        if (!userRepository.markDeleted(userId)) {
             throw new RuntimeException("해당 ID의 사용자를 찾을 수 없습니다: " + userId);
         }
 
@@ -85,7 +89,7 @@ public class AuthService {
         // 사용자가 속한 모든 채팅방 멤버십 정보 삭제
         roomUserRepository.deleteByUserId(userId);
 
-        // 사용자 계정 자체를 삭제
-        userRepository.deleteById(userId);
+        // 작성한 메시지, 친구 관계, 알림과 계정 행은 위에서 등록된 방 purge 작업이 끝난 뒤 나누어 삭제 (방이 owner_id로 사용자를 참조)
+        purgeService.enqueue(PurgeJob.JobType.ACCOUNT, userId);
     }
 }
@@ -10,20 +10,25 @@ import com.example.simplechat.event.ChangeNicknameEvent;
 import com.example.simplechat.event.ChatMessageAddedToRoomEvent;
 import com.example.simplechat.exception.RegistrationException;
 import com.example.simplechat.model.ChatMessage;
-import com.example.simplechat.model.ChatRoom;
 import com.example.simplechat.model.Notification;
+import com.example.simplechat.model.RoomMetadata;
 import com.example.simplechat.model.User;
 import com.example.simplechat.repository.FileRepository;
 import com.example.simplechat.repository.MessageRepository;
 import com.example.simplechat.repository.RoomUserRepository;
 import com.example.simplechat.repository.UserRepository;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
@@ -38,6 +43,7 @@ import org.springframework.web.multipart.MultipartFile;
 public class ChatMessageService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatMessageService.class);
+    private static final int DEFAULT_PAGE_SIZE = 20;
     private final MessageRepository msgRepository;
     private final RoomUserRepository roomUserRepository;
     private final UserRepository userRepository;
@@ -46,12 +52,21 @@ public class ChatMessageService {
     private final LinkPreviewService linkPreviewService;
     private final NotificationService notificationService;
     private final ChatRoomService chatRoomService;
+    private final Executor applicationTaskExecutor;
+    private final RoomEventLanes roomEventLanes;
 
     @Qualifier("chatFileRepository")
     private final FileRepository chatFileRepository;
 
-    @Value("${file.profile-static-url-prefix}")
-    private String profileStaticUrlPrefix;
+    private final UserProfileCache userProfileCache;
+
+    /**
+     * 작성자 닉네임을 확인하고 방 레인에 자리를 예약해 저장할 준비를 마친 메시지입니다. ({@link #prepareChat} 참고)
+     *
+     * @param msgDto     보낼 메시지의 세부 정보가 포함된 DTO
+     * @param authorName 작성자의 방 닉네임
+     */
+    public record PreparedChat(ChatMessageRequestDto msgDto, String authorName) {}
 
     /**
      * 새 채팅 메시지를 저장하고, 실시간 배포를 위한 이벤트를 발행하며, 멘션된 모든 사용자에게 알림을 보냅니다.
@@ -59,32 +74,82 @@ public class ChatMessageService {
      * @param msgDto 보낼 메시지의 세부 정보가 포함된 DTO
      */
     public void addChat_publish(ChatMessageRequestDto msgDto) {
+        submitChat(prepareChat(msgDto));
+    }
+
+    /**
+     * 작성자의 방 닉네임을 조회하고 방 레인에 메시지 하나의 자리를 예약합니다. 레인이 밀려 있으면 잠시 기다리므로
+     * 레인 스레드가 아닌 곳에서 호출해야 합니다. 예약한 자리는 {@link #submitChat}이 사용하거나 반납합니다.
+     *
+     * @param msgDto 보낼 메시지의 세부 정보가 포함된 DTO
+     * @return 저장할 준비를 마친 메시지
+     * @throws RegistrationException 방 레인이 밀려 있어 받을 수 없는 경우 (BUSY)
+     */
+    public PreparedChat prepareChat(ChatMessageRequestDto msgDto) {
         String authorName = roomUserRepository.getNickname(msgDto.authorId(), msgDto.roomId());
-        ChatMessage savedMessage = msgRepository.save(new ChatMessage(msgDto, authorName));
-        eventPublisher.publishEvent(
-            new ChatMessageAddedToRoomEvent(this, savedMessage, msgDto.roomId()));
+        // 역압은 저장 전에 여기서 검: 방 레인이 밀려 있으면 저장하지 않고 보낸 사용자에게 거절을 알림
+        if (!roomEventLanes.tryReserve(msgDto.roomId())) {
+            throw new RegistrationException("BUSY", "메시지가 몰려 처리하지 못했습니다. 잠시 후 다시 보내주세요.");
+        }
+        return new PreparedChat(msgDto, authorName);
+    }
 
-        // 멘션된 사용자에게 알림 보내기
+    /**
+     * {@link #prepareChat}으로 준비한 메시지를 저장 대기열에 넣습니다. 저장이 끝나면 예약한 방 레인 자리에서 이벤트를 발행하고,
+     * 멘션된 사용자에게 알림을 보냅니다.
+     *
+     * @param chat 저장할 준비를 마친 메시지
+     * @throws RegistrationException 저장 대기열이 가득 차 받을 수 없는 경우 (BUSY)
+     */
+    public void submitChat(PreparedChat chat) {
+        ChatMessageRequestDto msgDto = chat.msgDto();
+        String authorName = chat.authorName();
+        // 저장은 write-behind 배치로 처리되며, ID가 할당된 뒤에 이벤트를 발행
+        // 저장이 완료된 순서(= ID 순서)대로 writer 스레드에서 예약한 방 레인 자리에 넣고, 이벤트 발행과 브로드캐스트는 레인에서 처리
+        CompletableFuture<ChatMessage> saved;
+        try {
+            saved = msgRepository.saveAsync(new ChatMessage(msgDto, authorName),
+                savedMessage -> roomEventLanes.executeReserved(msgDto.roomId(), () -> eventPublisher.publishEvent(
+                    new ChatMessageAddedToRoomEvent(this, savedMessage, msgDto.roomId()))));
+        } catch (RejectedExecutionException e) {
+            roomEventLanes.cancelReservation(msgDto.roomId());
+            throw new RegistrationException("BUSY", "메시지가 몰려 처리하지 못했습니다. 잠시 후 다시 보내주세요.");
+        }
+        saved.exceptionally(ex -> {
+            roomEventLanes.cancelReservation(msgDto.roomId());
+            logger.error("방 {}의 메시지 저장/발행 중 오류 발생: {}", msgDto.roomId(), ex.getMessage(), ex);
+            return null;
+        });
+
+        // 멘션된 사용자에게 알림 보내기 (DB 작업이 있으므로 방 레인을 막지 않도록 공용 실행기에서 처리)
         if (msgDto.mentionedUserIds() != null && !msgDto.mentionedUserIds().isEmpty()) {
-            sendMentionNotifications(msgDto, savedMessage);
+            saved.thenAcceptAsync(savedMessage -> sendMentionNotifications(msgDto, savedMessage), applicationTaskExecutor)
+                .exceptionally(ex -> {
+                    logger.error("방 {}의 멘션 알림 전송 중 오류 발생: {}", msgDto.roomId(), ex.getMessage(), ex);
+                    return null;
+                });
         }
     }
 
     private void sendMentionNotifications(ChatMessageRequestDto msgDto, ChatMessage savedMessage) {
-        User author = userRepository.findById(msgDto.authorId())
+        // 작성자와 멘션된 사용자를 한 번의 조회로 읽음 (대량 멘션도 버킷 크기의 IN 조회 몇 번으로 처리)
+        List<Long> userIds = new ArrayList<>(msgDto.mentionedUserIds());
+        userIds.add(msgDto.authorId());
+        Map<Long, User> users = userRepository.findProfilesByIds(userIds);
+        User author = Optional.ofNullable(users.get(msgDto.authorId()))
             .orElseThrow(() -> new RegistrationException("NOT_FOUND", "작성자를 찾을 수 없습니다."));
-        ChatRoom room = chatRoomService.getRoomById(msgDto.roomId());
+        RoomMetadata room = chatRoomService.getRoomById(msgDto.roomId());
 
         for (Long mentionedUserId : msgDto.mentionedUserIds()) {
-            userRepository.findById(mentionedUserId).ifPresent(mentionedUser -> {
+            Optional.ofNullable(users.get(mentionedUserId)).ifPresent(mentionedUser -> {
                 if (!mentionedUser.getId().equals(author.getId())) { // 자신을 멘션한 경우 제외
                     String content =
-                        author.getNickname() + "님이 '" + room.getName() + "' 방에서 당신을 멘션했습니다.";
+                        author.getNickname() + "님이 '" + room.name() + "' 방에서 당신을 멘션했습니다.";
                     Notification notification = new Notification(
                         mentionedUserId,
                         Notification.NotificationType.MENTION,
                         content,
-                        room.getId(),
+                        room.id(),
                         null // 현재는 메타데이터 필요 없음
                     );
                     notificationService.save(notification);
@@ -122,7 +187,7 @@ public class ChatMessageService {
             throw new RegistrationException("FORBIDDEN", "이 메시지를 삭제할 권한이 없습니다.");
         }
 
-        msgRepository.deleteById(messageId);
+        msgRepository.deleteById(messageId, roomId);
 
         // 삭제 이벤트 발행
         ChatMessage deleteEventMessage = new ChatMessage(messageId, roomId,
@@ -170,18 +235,39 @@ public class ChatMessageService {
         logger.info("메시지 {}가 사용자 {}에 의해 수정되었습니다.", messageId, userId);
     }
 
+    /**
+     * 메시지가 속한 방의 ID를 반환합니다.
+     *
+     * @param messageId 메시지 ID
+     * @return 방 ID
+     * @throws RegistrationException 메시지가 없는 경우 발생합니다.
+     */
+    public Long getRoomIdOfMessage(Long messageId) {
+        return msgRepository.findById(messageId)
+            .orElseThrow(() -> new RegistrationException("NOT_FOUND", "메시지를 찾을 수 없습니다."))
+            .getRoom_id();
+    }
+
     /**
      * 페이지네이션을 사용하여 지정된 방의 채팅 메시지 목록을 검색합니다.
      *
-     * @param msgListDto 페이지네이션 매개변수(roomId, beginId, rowCount)를 포함하는 DTO
+     * @param msgListDto 페이지네이션 매개변수(roomId, beginId, rowCount, direction)를 포함하는 DTO
      * @return 메시지 목록을 포함하는 {@link ChatMessageListDto}
      */
     public ChatMessageListDto getMessageList(ChatMessageListRequestDto msgListDto) {
-        List<ChatMessage> messages = msgRepository.findTopNByRoomIdOrderById(
-            msgListDto.roomId(),
-            msgListDto.beginId(),
-            msgListDto.rowCount(),
-            "DESC");
+        Long roomId = msgListDto.roomId();
+        Long cursor = msgListDto.beginId();
+        int rowCount = msgListDto.rowCount() != null ? msgListDto.rowCount() : DEFAULT_PAGE_SIZE;
+
+        // 결과는 항상 오래된 순(시간순)으로 반환
+        List<ChatMessage> messages;
+        if (cursor == null) {
+            messages = msgRepository.findLatestByRoomId(roomId, rowCount).reversed();
+        } else if (msgListDto.direction() == ChatMessageListRequestDto.Direction.AFTER) {
+            messages = msgRepository.findAfterId(roomId, cursor, rowCount);
+        } else {
+            messages = msgRepository.findBeforeId(roomId, cursor, rowCount).reversed();
+        }
 
         List<ChatMessageDto> messageDtos = mapMessagesToDto(messages);
 
@@ -193,17 +279,13 @@ public class ChatMessageService {
             }
         });
 
-        return new ChatMessageListDto(msgListDto.roomId(), messageDtos.reversed());
+        return new ChatMessageListDto(roomId, messageDtos);
     }
 
     private List<ChatMessageDto> mapMessagesToDto(List<ChatMessage> messages) {
         return messages.stream()
             .map(msg -> {
-                String profileImageUrl = userRepository.findProfileById(msg.getAuthor_id())
-                    .map(profileData -> (String) profileData.get("profile_image_url"))
-                    .map(url -> url != null && !url.isBlank() ? profileStaticUrlPrefix + "/" + url
-                        : profileStaticUrlPrefix + "/default.png")
-                    .orElse(profileStaticUrlPrefix + "/default.png");
+                String profileImageUrl = userProfileCache.getProfileImageUrl(msg.getAuthor_id());
 
                 return new ChatMessageDto(msg, profileImageUrl);
             })
@@ -211,17 +293,25 @@ public class ChatMessageService {
     }
 
     /**
-     * 채팅방에 파일 업로드를 처리합니다. 파일을 저장하고, 해당하는 채팅 메시지를 생성하며, 이벤트를 발행합니다.
+     * 채팅방에 업로드된 파일을 저장합니다. 메시지는 {@link #addFileMessage}로 따로 만듭니다.
      *
-     * @param roomId 파일이 업로드된 방의 ID
-     * @param userId 파일을 업로드하는 사용자의 ID
      * @param file 업로드된 파일
+     * @return 파일 메시지 내용 ("원본 파일명:저장된 파일명")
      */
-    public void uploadChatFile(Long roomId, Long userId, MultipartFile file) {
+    public String storeChatFile(MultipartFile file) {
         String storedFilename = chatFileRepository.save(file);
         String originalFilename = file.getOriginalFilename();
-        String fileInfoContent = originalFilename + ":" + storedFilename;
+        return originalFilename + ":" + storedFilename;
+    }
 
+    /**
+     * 저장된 파일에 대한 채팅 메시지를 생성하고 이벤트를 발행합니다.
+     *
+     * @param roomId 파일이 업로드된 방의 ID
+     * @param userId 파일을 업로드하는 사용자의 ID
+     * @param fileInfoContent {@link #storeChatFile}이 반환한 파일 메시지 내용
+     */
+    public void addFileMessage(Long roomId, Long userId, String fileInfoContent) {
         String authorName = roomUserRepository.getNickname(userId, roomId);
         ChatMessage fileMessage = new ChatMessage(roomId, userId, authorName, fileInfoContent,
             ChatMessage.MsgType.FILE);
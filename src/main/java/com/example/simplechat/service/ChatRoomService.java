@@ -5,22 +5,35 @@ import com.example.simplechat.dto.ChatRoomListDto;
 import com.example.simplechat.dto.ChatRoomUserDto;
 import com.example.simplechat.dto.NotificationDto;
 import com.example.simplechat.dto.RoomCreateDto;
+import com.example.simplechat.dto.RoomDirectoryPageDto;
 import com.example.simplechat.dto.RoomInitDataDto;
 import com.example.simplechat.dto.UserEventDto;
+import com.example.simplechat.event.RoomCreatedEvent;
 import com.example.simplechat.event.UserExitedRoomEvent;
 import com.example.simplechat.exception.RegistrationException;
 import com.example.simplechat.model.ChatMessage;
 import com.example.simplechat.model.ChatRoom;
 import com.example.simplechat.model.Notification;
+import com.example.simplechat.model.PurgeJob;
+import com.example.simplechat.model.RoomMetadata;
 import com.example.simplechat.model.User;
 import com.example.simplechat.repository.MessageRepository;
 import com.example.simplechat.repository.RoomRepository;
+import com.example.simplechat.repository.RoomSummaryCache;
 import com.example.simplechat.repository.RoomUserRepository;
 import com.example.simplechat.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -40,6 +53,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class ChatRoomService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatRoomService.class);
+    private static final int MAX_ROOM_PAGE_SIZE = 100;
     private final RoomRepository roomRepository;
     private final RoomUserRepository roomUserRepository;
     private final UserRepository userRepository;
@@ -51,6 +65,8 @@ public class ChatRoomService {
     private final NotificationService notificationService;
     private final SimpMessagingTemplate messagingTemplate;
     private final ObjectMapper objectMapper;
+    private final PurgeService purgeService;
+    private final UserProfileCache userProfileCache;
 
 
     @Value("${file.profile-static-url-prefix}")
@@ -66,14 +82,14 @@ public class ChatRoomService {
      * @throws RegistrationException 사용자가 해당 방의 멤버가 아닌 경우
      */
     public RoomInitDataDto initRoom(Long roomId, Long userId, int lines) {
-        ChatRoom room = getRoomById(roomId);
+        RoomMetadata room = getRoomById(roomId);
 
         if (!roomUserRepository.exists(userId, roomId)) {
             throw new RegistrationException("FORBIDDEN", "이 방의 멤버가 아닙니다.");
         }
 
         List<ChatMessageDto> messageDtos = mapMessagesToDto(
-            msgRepository.findTopNByRoomIdOrderById(roomId, null, lines, "DESC"));
+            msgRepository.findLatestByRoomId(roomId, lines));
 
         // 메시지에서 발견된 URL에 대한 링크 미리보기를 비동기적으로 요청합니다.
         messageDtos.forEach(dto -> {
@@ -96,17 +112,13 @@ public class ChatRoomService {
             })
             .collect(Collectors.toList());
 
-        return new RoomInitDataDto(correctedUsers, messageDtos, room.getName());
+        return new RoomInitDataDto(correctedUsers, messageDtos, room.name());
     }
 
     private List<ChatMessageDto> mapMessagesToDto(List<ChatMessage> messages) {
         return messages.stream()
             .map(msg -> {
-                String profileImageUrl = userRepository.findProfileById(msg.getAuthor_id())
-                    .map(profileData -> (String) profileData.get("profile_image_url"))
-                    .map(url -> url != null && !url.isBlank() ? profileStaticUrlPrefix + "/" + url
-                        : profileStaticUrlPrefix + "/default.png")
-                    .orElse(profileStaticUrlPrefix + "/default.png");
+                String profileImageUrl = userProfileCache.getProfileImageUrl(msg.getAuthor_id());
 
                 return new ChatMessageDto(msg, profileImageUrl);
             })
@@ -115,29 +127,90 @@ public class ChatRoomService {
 
 
     /**
-     * 사용자 수와 같은 메타데이터를 포함하여 모든 채팅방 목록을 검색합니다.
+     * 사용자 수와 같은 메타데이터를 포함하여 방 목록 스냅샷의 한 페이지를 만듭니다.
+     * 방 정보와 참여자 수는 불변 스냅샷에서, 참여 여부는 사용자의 참여 방 집합에서 채우므로 DB를 다시 읽지 않습니다.
      *
-     * @param userId 현재 사용자의 ID. 각 방의 멤버인지 확인하는 데 사용됩니다.
-     * @return {@link ChatRoomListDto} 객체 목록
+     * @param userId 현재 사용자의 ID. 각 방의 멤버인지 확인하는 데 사용됩니다. (비로그인 시 null)
+     * @param roomType 이 유형의 방만 포함 ("PUBLIC", "PRIVATE", "GAME"). null이면 전체
+     * @param cursor 이 방 ID 다음 방부터 포함. null이면 처음부터
+     * @param limit 페이지 크기 (최대 {@value #MAX_ROOM_PAGE_SIZE}). null이면 나머지 전체
+     * @return 방 목록 페이지와 다음 커서, ETag
+     * @throws RegistrationException 알 수 없는 방 유형인 경우
      */
-    public List<ChatRoomListDto> getRoomList(Long userId) {
-        List<ChatRoomListDto> roomsFromDb = roomRepository.findAllWithCount();
-
-        return roomsFromDb.stream()
-            .map(roomDto -> new ChatRoomListDto(
-                roomDto.id(),
-                roomDto.name(),
-                roomDto.roomType(),
-                roomDto.ownerName(),
-                roomDto.userCount(),
-                roomSessionManager.getConnectedUsers(roomDto.id()).size(),
-                roomUserRepository.exists(userId, roomDto.id())
-            ))
-            .collect(Collectors.toList());
+    public RoomDirectoryPageDto getRoomDirectory(Long userId, String roomType, Long cursor, Integer limit) {
+        ChatRoom.RoomType type = parseRoomType(roomType);
+        int pageSize = limit == null ? Integer.MAX_VALUE : Math.clamp(limit, 1, MAX_ROOM_PAGE_SIZE);
+        RoomSummaryCache.Snapshot snapshot = roomRepository.findDirectorySnapshot();
+        Set<Long> joined = roomUserRepository.findRoomIdsByUserId(userId);
+
+        List<RoomSummaryCache.RoomSummary> rooms = snapshot.rooms();
+        List<ChatRoomListDto> page = new ArrayList<>(Math.min(pageSize, rooms.size()));
+        Long nextCursor = null;
+        for (int i = firstAfter(rooms, cursor); i < rooms.size(); i++) {
+            RoomSummaryCache.RoomSummary room = rooms.get(i);
+            if (type != null && !type.name().equals(room.roomType())) {
+                continue;
+            }
+            if (page.size() == pageSize) {
+                nextCursor = page.get(page.size() - 1).id();
+                break;
+            }
+            page.add(new ChatRoomListDto(room.id(), room.name(), room.roomType(), room.ownerName(), room.memberCount(),
+                roomSessionManager.getConnectedUsers(room.id()).size(), joined.contains(room.id())));
+        }
+
+        return new RoomDirectoryPageDto(snapshot.version(), page, nextCursor,
+            directoryEtag(snapshot.version(), page, nextCursor, type, cursor));
+    }
+
+    /**
+     * 방 목록 페이지의 강한 ETag를 만듭니다.
+     * 스냅샷 버전은 방 정보/참여자 수를, 다이제스트는 직렬화한 페이지(사용자별 참여 여부와 접속자 수 포함)와 페이지 범위를 반영합니다.
+     * 강한 검증자로 쓰이므로 충돌이 현실적으로 일어나지 않도록 SHA-256을 사용합니다.
+     */
+    private String directoryEtag(long version, List<ChatRoomListDto> page, Long nextCursor,
+                                 ChatRoom.RoomType type, Long cursor) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(objectMapper.writeValueAsBytes(page));
+            digest.update((nextCursor + "|" + type + "|" + cursor).getBytes(StandardCharsets.UTF_8));
+            return "\"" + version + "-" + HexFormat.of().formatHex(digest.digest()) + "\"";
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("방 목록 ETag를 만들 수 없습니다.", e);
+        }
+    }
+
+    private static ChatRoom.RoomType parseRoomType(String roomType) {
+        if (roomType == null || roomType.isBlank()) {
+            return null;
+        }
+        try {
+            return ChatRoom.RoomType.valueOf(roomType.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RegistrationException("INVALID_ROOM_TYPE", "알 수 없는 방 유형입니다: " + roomType);
+        }
+    }
+
+    // 방 ID 오름차순 목록에서 cursor보다 큰 첫 위치 (이진 탐색)
+    private static int firstAfter(List<RoomSummaryCache.RoomSummary> rooms, Long cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        int lo = 0;
+        int hi = rooms.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (rooms.get(mid).id() <= cursor) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
     }
 
     /**
-     * 새 채팅방을 만들고 생성자를 방의 관리자로 설정합니다.
+     * 새 채팅방을 만들고 생성자를 방의 관리자로 설정합니다. {@link RoomCreatedEvent}를 발행합니다.
      *
      * @param roomcreateDto 새 방의 세부 정보(이름, 유형, 비밀번호)를 포함하는 DTO
      * @param userId 방을 만드는 사용자의 ID
@@ -159,6 +232,7 @@ public class ChatRoomService {
         Long roomId = roomRepository.save(newRoom).getId();
 
         roomUserRepository.save(userId, roomId, user.getNickname(), "ADMIN");
+        eventPublisher.publishEvent(new RoomCreatedEvent(this, roomId));
         return roomId;
     }
 
@@ -176,16 +250,16 @@ public class ChatRoomService {
     public Long enterRoom(Long roomId, Long userId, String password) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다!"));
-        ChatRoom room = roomRepository.findById(roomId)
+        RoomMetadata room = roomRepository.findById(roomId)
             .orElseThrow(() -> new IllegalArgumentException("방을 찾을 수 없습니다!"));
 
         if (roomUserRepository.exists(userId, roomId)) {
-            logger.info("사용자 {}는 이미 방 {}에 있습니다.", user.getNickname(), room.getName());
+            logger.info("사용자 {}는 이미 방 {}에 있습니다.", user.getNickname(), room.name());
             return roomId;
         }
 
-        if (room.getRoom_type() == ChatRoom.RoomType.PRIVATE) {
-            if (password == null || !passwordEncoder.matches(password, room.getPassword_hash())) {
+        if (room.roomType() == ChatRoom.RoomType.PRIVATE) {
+            if (password == null || !passwordEncoder.matches(password, room.passwordHash())) {
                 throw new RegistrationException("FORBIDDEN", "비밀번호가 틀렸습니다.");
             }
         }
@@ -219,7 +293,8 @@ public class ChatRoomService {
     }
 
     /**
-     * 채팅방과 모든 관련 데이터를 삭제합니다. 방 소유자만 이 작업을 수행할 수 있습니다. 연결된 사용자에게 알리기 위해
+     * 채팅방과 모든 관련 데이터를 삭제합니다. 방 소유자만 이 작업을 수행할 수 있습니다.
+     * 방은 즉시 삭제 상태로 표시되어 목록과 조회에서 사라지고, 실제 데이터는 {@link PurgeService}가 나누어 삭제합니다. 연결된 사용자에게 알리기 위해
      * {@link UserExitedRoomEvent}를 발행합니다.
      *
      * @param roomId 삭제할 방의 ID
@@ -233,13 +308,15 @@ public class ChatRoomService {
             throw new RegistrationException("FORBIDDEN", "이 방을 삭제할 권한이 없습니다.");
         }
 
+        if (!roomRepository.markDeleted(roomId)) {
+            throw new RegistrationException("NOT_FOUND", "이미 삭제되었거나 존재하지 않는 방입니다.");
+        }
+        // 메시지와 참여 정보는 양이 많을 수 있으므로 백그라운드 purge 작업이 나누어 삭제
+        purgeService.enqueue(PurgeJob.JobType.ROOM, roomId);
+
         eventPublisher.publishEvent(
             new UserExitedRoomEvent(this, null, roomId, UserEventDto.EventType.ROOM_DELETED));
 
-        msgRepository.deleteByRoomId(roomId);
-        roomUserRepository.deleteByRoomId(roomId);
-        roomRepository.deleteById(roomId);
-
         logger.info("방 {}이(가) 사용자 {}에 의해 삭제되었습니다.", roomId, userId);
     }
 
@@ -250,19 +327,19 @@ public class ChatRoomService {
      * @return 사용자가 있는 방에 대한 {@link ChatRoomListDto} 객체 목록
      */
     public List<ChatRoomListDto> findRoomsByUserId(Long userId) {
-        List<Map<String, Object>> roomInfos = roomUserRepository.findRoomsByUserId(userId);
+        List<RoomUserRepository.JoinedRoom> roomInfos = roomUserRepository.findRoomsByUserId(userId);
 
         return roomInfos.stream()
-            .map(row -> {
-                Long roomId = (Long) row.get("room_id");
+            .map(room -> {
+                Long roomId = room.roomId();
                 int totalUsers = roomRepository.countUsersByRoomId(roomId);
                 int connectedUsers = roomSessionManager.getConnectedUsers(roomId).size();
 
                 return new ChatRoomListDto(
                     roomId,
-                    (String) row.get("room_name"),
-                    (String) row.get("room_type"),
-                    (String) row.get("owner_name"),
+                    room.roomName(),
+                    room.roomType(),
+                    room.ownerName(),
                     totalUsers,
                     connectedUsers,
                     true
@@ -271,7 +348,7 @@ public class ChatRoomService {
             .collect(Collectors.toList());
     }
 
-    public ChatRoom getRoomById(Long roomId) {
+    public RoomMetadata getRoomById(Long roomId) {
         return roomRepository.findById(roomId)
             .orElseThrow(() -> new IllegalArgumentException("방을 찾을 수 없습니다!"));
     }
@@ -288,7 +365,7 @@ public class ChatRoomService {
         return roomRepository.findAll();
     }
 
-    public Optional<ChatRoom> findByName(String name) {
+    public Optional<RoomMetadata> findByName(String name) {
         return roomRepository.findByName(name);
     }
 
@@ -335,7 +412,7 @@ public class ChatRoomService {
             .orElseThrow(() -> new RegistrationException("NOT_FOUND", "초대자를 찾을 수 없습니다."));
         User invitee = userRepository.findById(inviteeId)
             .orElseThrow(() -> new RegistrationException("NOT_FOUND", "초대받은 사람을 찾을 수 없습니다."));
-        ChatRoom room = roomRepository.findById(roomId)
+        RoomMetadata room = roomRepository.findById(roomId)
             .orElseThrow(() -> new RegistrationException("NOT_FOUND", "방을 찾을 수 없습니다."));
 
         if (!roomUserRepository.exists(inviterId, roomId)) {
@@ -346,15 +423,15 @@ public class ChatRoomService {
         }
 
         String content =
-            inviter.getNickname() + "님이 '" + room.getName() + "' 방으로 당신을 초대했습니다.";
+            inviter.getNickname() + "님이 '" + room.name() + "' 방으로 당신을 초대했습니다.";
 
         String metadata;
         try {
             metadata = objectMapper.writeValueAsString(Map.of(
                 "inviterId", inviter.getId(),
                 "inviterNickname", inviter.getNickname(),
-                "roomId", room.getId(),
-                "roomName", room.getName()
+                "roomId", room.id(),
+                "roomName", room.name()
             ));
         } catch (Exception e) {
             throw new RuntimeException("메타데이터 직렬화에 실패했습니다.", e);
@@ -0,0 +1,57 @@
+package com.example.simplechat.service;
+
+import java.util.function.Consumer;
+
+/**
+ * 노드 사이에 메시지를 주고받는 통로입니다. {@link ClusterSessionRegistry}의 상태 동기화와
+ * {@link RoomAffinityRouter}의 방 작업 전달, {@code ClusterCacheInvalidator}의 캐시 무효화 전달에 사용합니다.
+ * {@code cluster.registry.transport}로 구현을 고릅니다. (local: 단일 노드, stomp: STOMP 브로커 경유)
+ */
+public interface ClusterChannel {
+
+    /** 노드 간 상태 메시지를 주고받는 브로커 destination. 클라이언트는 구독/발행할 수 없습니다. */
+    String DESTINATION = "/topic/cluster-sessions";
+
+    /** 노드 간 캐시 무효화 메시지를 주고받는 브로커 destination. 클라이언트는 구독/발행할 수 없습니다. */
+    String CACHE_DESTINATION = "/topic/cluster-caches";
+
+    /** 노드별 전용 큐 destination의 접두사. 뒤에 노드 ID를 붙입니다. 클라이언트는 구독/발행할 수 없습니다. */
+    String NODE_QUEUE_PREFIX = "/queue/cluster-node-";
+
+    /**
+     * 다른 노드와 메시지를 주고받는지 여부입니다. false이면 레지스트리는 메시지를 만들지 않습니다.
+     *
+     * @return 다른 노드와 연결되는 구현이면 true
+     */
+    boolean enabled();
+
+    /**
+     * 현재 브로커에 연결되어 있어 메시지를 보낼 수 있는지 여부입니다.
+     */
+    boolean connected();
+
+    /**
+     * destination을 구독할 핸들러를 등록합니다. 연결(재연결 포함)될 때마다 다시 구독하며, 이미 연결되어 있으면 바로 구독합니다.
+     * 핸들러는 채널의 I/O 스레드에서 호출되므로 오래 걸리는 작업은 다른 실행기로 넘겨야 합니다.
+     *
+     * @param destination 구독할 destination
+     * @param handler 받은 메시지(자기 자신이 보낸 메시지 포함)를 처리할 콜백
+     */
+    void listen(String destination, Consumer<String> handler);
+
+    /**
+     * 연결되어 있지 않으면 연결을 시작합니다. 이미 연결되었거나 연결 중이면 아무것도 하지 않습니다.
+     *
+     * @param onConnected 연결(재연결 포함)이 완료되고 등록된 destination을 모두 구독한 뒤 호출할 콜백
+     */
+    void connect(Runnable onConnected);
+
+    /**
+     * destination으로 메시지를 보냅니다. 연결되어 있지 않으면 버립니다.
+     *
+     * @param destination 보낼 destination
+     * @param message JSON 메시지
+     * @return 브로커로 보냈으면 true, 연결되어 있지 않거나 전송에 실패해 버렸으면 false
+     */
+    boolean publish(String destination, String message);
+}
@@ -0,0 +1,535 @@
+package com.example.simplechat.service;
+
+import com.example.simplechat.dto.ClusterNodeDto;
+import com.example.simplechat.dto.ClusterSessionMessage;
+import com.example.simplechat.dto.ClusterSessionMessage.OnlineEntry;
+import com.example.simplechat.dto.ClusterSessionMessage.Type;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 모든 노드의 방 세션과 presence 세션을 합쳐 보여 주는 레지스트리입니다.
+ * <p>
+ * 노드마다 자기 세션은 직접 세고, 다른 노드의 세션은 {@link ClusterChannel}로 받은 변경분(ROOM_JOIN/ROOM_LEAVE,
+ * ONLINE/OFFLINE, NICKNAME)으로 따라갑니다. 조회용으로는 모든 노드를 합친 방별 접속자(사용자별 세션 수)와
+ * 접속 중인 사용자 맵을 따로 유지하므로, 조회는 잠금 없이 바로 읽습니다.
+ * </p>
+ * <p>
+ * 각 노드는 {@code cluster.registry.heartbeat-ms}마다 HEARTBEAT를, {@code cluster.registry.snapshot-interval-ms}마다
+ * 전체 상태(SNAPSHOT)를 보냅니다. 어떤 메시지든 받으면 보낸 노드의 임대를 {@code cluster.registry.lease-ms}만큼 연장하고,
+ * 임대가 끝난 노드(비정상 종료 등)의 세션은 모두 지웁니다. 처음 보는 노드의 변경분은 버리고 SYNC_REQUEST로 전체 상태를
+ * 다시 받습니다. 연결(재연결 포함) 직후에는 SYNC_REQUEST와 자기 SNAPSHOT을 보내 빠진 변경분을 맞춥니다.
+ * 노드가 새로 보이거나 임대 만료로 빠지면 등록된 멤버십 리스너({@link #addMembershipListener})를 호출합니다.
+ * 현재 노드가 멈춤(GC, 일시 정지)이나 연결 끊김으로 임대 시간보다 오래 하트비트를 보내지 못했다가 다시 보내면, 다른 노드에서는
+ * 이미 빠진 것으로 처리되었을 수 있으므로 재합류 리스너({@link #addRejoinListener})를 호출합니다.
+ * </p>
+ * <p>
+ * 단일 노드({@code cluster.registry.transport=local})에서는 메시지를 주고받지 않고 자기 세션만 셉니다.
+ * 임대 만료로 지워진 사용자에 대해서는 오프라인 알림을 보내지 않습니다. (친구 목록 조회 시에는 오프라인으로 표시됩니다)
+ * 지연 초기화 환경에서도 하트비트 스케줄이 등록되도록 {@code @Lazy(false)}로 즉시 생성합니다.
+ * </p>
+ */
+@Component
+@Lazy(false)
+public class ClusterSessionRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterSessionRegistry.class);
+
+    /**
+     * 노드 하나의 세션 상태입니다. 레지스트리 잠금 안에서만 접근합니다.
+     */
+    private static final class NodeState {
+        // Key: roomId, Value: (Key: userId, Value: 세션 수)
+        final Map<Long, Map<Long, Integer>> rooms = new HashMap<>();
+        // Key: userId, Value: 접속 정보
+        final Map<Long, OnlineEntry> online = new HashMap<>();
+        long leaseExpiresAt;
+    }
+
+    private final ClusterChannel channel;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final long leaseMs;
+    private final long snapshotIntervalMs;
+
+    private final Object lock = new Object();
+    private final NodeState local = new NodeState();
+    private final Map<String, NodeState> remotes = new HashMap<>();
+    private long lastSnapshotAt;
+    // 하트비트(또는 전체 상태)를 마지막으로 브로커에 보낸 시각
+    private long lastHeartbeatAt;
+    private final List<Runnable> membershipListeners = new CopyOnWriteArrayList<>();
+    private final List<Runnable> rejoinListeners = new CopyOnWriteArrayList<>();
+    private final List<Runnable> connectedListeners = new CopyOnWriteArrayList<>();
+
+    // 모든 노드를 합친 조회용 상태. 잠금 안에서 갱신하고 잠금 없이 읽음
+    // Key: roomId, Value: (Key: userId, Value: 세션 수)
+    private final Map<Long, Map<Long, Integer>> roomUsers = new ConcurrentHashMap<>();
+    // Key: userId, Value: 접속 정보 (세션 수는 모든 노드의 합)
+    private final Map<Long, OnlineEntry> presence = new ConcurrentHashMap<>();
+
+    public ClusterSessionRegistry(ClusterChannel channel, ObjectMapper objectMapper,
+                                  @Value("${cluster.registry.node-id:}") String nodeId,
+                                  @Value("${cluster.registry.lease-ms:6000}") long leaseMs,
+                                  @Value("${cluster.registry.snapshot-interval-ms:30000}") long snapshotIntervalMs) {
+        this.channel = channel;
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.leaseMs = leaseMs;
+        this.snapshotIntervalMs = snapshotIntervalMs;
+    }
+
+    /**
+     * 생성이 끝난 뒤 채널에 수신 핸들러를 등록합니다.
+     */
+    @PostConstruct
+    void start() {
+        channel.listen(ClusterChannel.DESTINATION, this::receive);
+        logger.info("[ClusterRegistry] 노드 ID: {} (클러스터 동기화: {})", nodeId, channel.enabled());
+    }
+
+    /**
+     * 현재 노드의 ID를 반환합니다.
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 현재 노드와 임대가 유효한 다른 노드의 ID를 반환합니다.
+     *
+     * @return 정렬된 노드 ID Set (현재 노드 포함)
+     */
+    public Set<String> liveNodes() {
+        synchronized (lock) {
+            Set<String> nodes = new TreeSet<>(remotes.keySet());
+            nodes.add(nodeId);
+            return nodes;
+        }
+    }
+
+    /**
+     * 노드가 새로 보이거나 빠질 때마다 호출할 리스너를 등록합니다. 리스너는 레지스트리 잠금 밖에서 호출됩니다.
+     *
+     * @param listener 멤버십 변경 시 실행할 작업
+     */
+    public void addMembershipListener(Runnable listener) {
+        membershipListeners.add(listener);
+    }
+
+    /**
+     * 현재 노드가 임대 시간보다 오래 하트비트를 보내지 못했다가 다시 보낼 때 호출할 리스너를 등록합니다.
+     * 그 사이 다른 노드가 현재 노드의 방을 넘겨받아 처리했을 수 있으므로, 현재 노드에만 있는 상태를 버릴 때 사용합니다.
+     * 리스너는 레지스트리 잠금 밖에서 호출됩니다.
+     *
+     * @param listener 재합류 시 실행할 작업
+     */
+    public void addRejoinListener(Runnable listener) {
+        rejoinListeners.add(listener);
+    }
+
+    /**
+     * 채널이 연결(재연결 포함)될 때마다 호출할 리스너를 등록합니다. 연결이 끊긴 동안 받지 못한 메시지가 있을 수 있으므로,
+     * 다른 노드의 메시지로 맞추던 상태를 다시 맞출 때 사용합니다. 리스너는 레지스트리 잠금 밖에서 호출됩니다.
+     *
+     * @param listener 연결 시 실행할 작업
+     */
+    public void addConnectedListener(Runnable listener) {
+        connectedListeners.add(listener);
+    }
+
+    private void fireMembershipChanged() {
+        fire(membershipListeners, "멤버십 변경");
+    }
+
+    private static void fire(List<Runnable> listeners, String event) {
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                logger.error("[ClusterRegistry] {} 처리 중 오류 발생: {}", event, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 현재 노드에서 방 세션 하나가 열렸음을 기록합니다.
+     *
+     * @param roomId 채팅방 ID
+     * @param userId 사용자 ID
+     */
+    public void roomSessionOpened(Long roomId, Long userId) {
+        synchronized (lock) {
+            adjustRoom(local, roomId, userId, 1);
+            publish(new ClusterSessionMessage(Type.ROOM_JOIN, nodeId, roomId, userId, null, null, null, null));
+        }
+    }
+
+    /**
+     * 현재 노드에서 방 세션 하나가 닫혔음을 기록합니다.
+     *
+     * @param roomId 채팅방 ID
+     * @param userId 사용자 ID
+     */
+    public void roomSessionClosed(Long roomId, Long userId) {
+        synchronized (lock) {
+            adjustRoom(local, roomId, userId, -1);
+            publish(new ClusterSessionMessage(Type.ROOM_LEAVE, nodeId, roomId, userId, null, null, null, null));
+        }
+    }
+
+    /**
+     * 현재 노드에서 사용자의 presence 세션 하나가 열렸음을 기록합니다.
+     *
+     * @param userId 사용자 ID
+     * @param username 사용자 이름
+     * @param nickname 닉네임
+     * @return 클러스터 전체에서 이 사용자의 첫 세션이면 true
+     */
+    public boolean userSessionOpened(Long userId, String username, String nickname) {
+        synchronized (lock) {
+            adjustOnline(local, userId, username, nickname, 1);
+            publish(new ClusterSessionMessage(Type.ONLINE, nodeId, null, userId, username, nickname, null, null));
+            OnlineEntry merged = presence.get(userId);
+            return merged != null && merged.sessions() == 1;
+        }
+    }
+
+    /**
+     * 현재 노드에서 사용자의 presence 세션 하나가 닫혔음을 기록합니다.
+     *
+     * @param userId 사용자 ID
+     * @return 클러스터 전체에서 이 사용자의 마지막 세션이었으면 닫히기 전의 접속 정보, 아니면 null
+     */
+    public OnlineEntry userSessionClosed(Long userId) {
+        synchronized (lock) {
+            OnlineEntry before = presence.get(userId);
+            if (!local.online.containsKey(userId)) {
+                return null;
+            }
+            adjustOnline(local, userId, null, null, -1);
+            publish(new ClusterSessionMessage(Type.OFFLINE, nodeId, null, userId, null, null, null, null));
+            return presence.containsKey(userId) ? null : before;
+        }
+    }
+
+    /**
+     * 접속 중인 사용자의 닉네임을 모든 노드에서 갱신합니다.
+     *
+     * @param userId 사용자 ID
+     * @param nickname 새 닉네임
+     */
+    public void nicknameChanged(Long userId, String nickname) {
+        synchronized (lock) {
+            if (!presence.containsKey(userId)) {
+                return;
+            }
+            renameOnline(userId, nickname);
+            publish(new ClusterSessionMessage(Type.NICKNAME, nodeId, null, userId, null, nickname, null, null));
+        }
+    }
+
+    /**
+     * 모든 노드를 합쳐 특정 방에 접속 중인 사용자 ID를 반환합니다.
+     *
+     * @param roomId 방 ID
+     * @return 접속 중인 사용자 ID의 읽기 전용 Set. 접속자가 없으면 빈 Set
+     */
+    public Set<Long> connectedUsers(Long roomId) {
+        Map<Long, Integer> users = roomUsers.get(roomId);
+        return users == null ? Set.of() : Collections.unmodifiableSet(users.keySet());
+    }
+
+    /**
+     * 모든 노드를 합쳐 사용자가 presence 세션을 하나라도 열어 두었는지 확인합니다.
+     */
+    public boolean isOnline(Long userId) {
+        return presence.containsKey(userId);
+    }
+
+    /**
+     * 모든 노드를 합친 사용자의 접속 정보를 반환합니다.
+     *
+     * @return 접속 정보, 접속 중이 아니면 null
+     */
+    public OnlineEntry onlineUser(Long userId) {
+        return presence.get(userId);
+    }
+
+    /**
+     * 모든 노드를 합친 접속 중인 사용자 수를 반환합니다.
+     */
+    public int onlineCount() {
+        return presence.size();
+    }
+
+    /**
+     * 모든 노드를 합친 접속 중인 사용자를 순회합니다.
+     */
+    public void forEachOnline(BiConsumer<Long, OnlineEntry> action) {
+        presence.forEach(action);
+    }
+
+    /**
+     * 레지스트리가 알고 있는 노드별 세션 수와 임대 상태를 반환합니다.
+     */
+    public List<ClusterNodeDto> nodes() {
+        synchronized (lock) {
+            long now = System.currentTimeMillis();
+            List<ClusterNodeDto> nodes = new ArrayList<>(remotes.size() + 1);
+            nodes.add(new ClusterNodeDto(nodeId, true, roomSessionCount(local), onlineSessionCount(local), -1));
+            remotes.forEach((id, state) -> nodes.add(new ClusterNodeDto(id, false, roomSessionCount(state),
+                onlineSessionCount(state), Math.max(0, state.leaseExpiresAt - now))));
+            return nodes;
+        }
+    }
+
+    /**
+     * 채널 연결을 확인하고, 하트비트(또는 주기적인 전체 상태)를 보낸 뒤 임대가 끝난 노드를 지웁니다.
+     */
+    @Scheduled(fixedDelayString = "${cluster.registry.heartbeat-ms:2000}")
+    public void tick() {
+        if (!channel.enabled()) {
+            return;
+        }
+        channel.connect(this::onConnected);
+        long now = System.currentTimeMillis();
+        boolean expired = false;
+        boolean rejoined = false;
+        synchronized (lock) {
+            boolean sent = now - lastSnapshotAt >= snapshotIntervalMs
+                ? publishSnapshot(now)
+                : publish(ClusterSessionMessage.of(Type.HEARTBEAT, nodeId));
+            if (sent) {
+                rejoined = lastHeartbeatAt > 0 && now - lastHeartbeatAt > leaseMs;
+                lastHeartbeatAt = now;
+            }
+            Iterator<Map.Entry<String, NodeState>> it = remotes.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, NodeState> entry = it.next();
+                if (entry.getValue().leaseExpiresAt < now) {
+                    it.remove();
+                    subtract(entry.getValue());
+                    expired = true;
+                    logger.warn("[ClusterRegistry] 노드 {}의 임대가 만료되어 세션을 정리했습니다.", entry.getKey());
+                }
+            }
+        }
+        if (rejoined) {
+            logger.warn("[ClusterRegistry] 임대 시간({}ms)보다 오래 하트비트를 보내지 못했다가 다시 합류했습니다.", leaseMs);
+            fire(rejoinListeners, "재합류");
+        }
+        if (expired) {
+            fireMembershipChanged();
+        }
+    }
+
+    private void onConnected() {
+        synchronized (lock) {
+            publish(ClusterSessionMessage.of(Type.SYNC_REQUEST, nodeId));
+            publishSnapshot(System.currentTimeMillis());
+        }
+        fire(connectedListeners, "연결");
+    }
+
+    /**
+     * 다른 노드가 보낸 메시지를 반영합니다. 자기 자신이 보낸 메시지는 무시합니다.
+     */
+    void receive(String payload) {
+        ClusterSessionMessage message;
+        try {
+            message = objectMapper.readValue(payload, ClusterSessionMessage.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("[ClusterRegistry] 알 수 없는 메시지를 무시합니다: {}", e.getMessage());
+            return;
+        }
+        if (message.type() == null || message.nodeId() == null || nodeId.equals(message.nodeId())) {
+            return;
+        }
+
+        boolean joined = false;
+        synchronized (lock) {
+            NodeState state = remotes.get(message.nodeId());
+            if (message.type() == Type.SNAPSHOT) {
+                if (state != null) {
+                    subtract(state);
+                } else {
+                    joined = true;
+                    logger.info("[ClusterRegistry] 노드 {}가 합류했습니다.", message.nodeId());
+                }
+                state = new NodeState();
+                remotes.put(message.nodeId(), state);
+                load(state, message);
+            } else if (message.type() == Type.SYNC_REQUEST) {
+                publishSnapshot(System.currentTimeMillis());
+            } else if (state == null) {
+                // 처음 보는 노드: 이전 상태를 모르므로 변경분은 버리고 전체 상태를 요청
+                publish(ClusterSessionMessage.of(Type.SYNC_REQUEST, nodeId));
+                return;
+            }
+            if (state == null) {
+                return;
+            }
+            state.leaseExpiresAt = System.currentTimeMillis() + leaseMs;
+
+            switch (message.type()) {
+                case ROOM_JOIN -> adjustRoom(state, message.roomId(), message.userId(), 1);
+                case ROOM_LEAVE -> adjustRoom(state, message.roomId(), message.userId(), -1);
+                case ONLINE -> adjustOnline(state, message.userId(), message.username(), message.nickname(), 1);
+                case OFFLINE -> adjustOnline(state, message.userId(), null, null, -1);
+                case NICKNAME -> renameOnline(message.userId(), message.nickname());
+                default -> { }
+            }
+        }
+        if (joined) {
+            fireMembershipChanged();
+        }
+    }
+
+    private boolean publishSnapshot(long now) {
+        lastSnapshotAt = now;
+        Map<Long, Map<Long, Integer>> rooms = new HashMap<>();
+        local.rooms.forEach((roomId, users) -> rooms.put(roomId, new HashMap<>(users)));
+        return publish(new ClusterSessionMessage(Type.SNAPSHOT, nodeId, null, null, null, null,
+            rooms, new HashMap<>(local.online)));
+    }
+
+    private boolean publish(ClusterSessionMessage message) {
+        if (!channel.enabled()) {
+            return false;
+        }
+        try {
+            return channel.publish(ClusterChannel.DESTINATION, objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            logger.error("[ClusterRegistry] 메시지 JSON 변환 실패: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private void load(NodeState state, ClusterSessionMessage snapshot) {
+        if (snapshot.rooms() != null) {
+            snapshot.rooms().forEach((roomId, users) ->
+                users.forEach((userId, count) -> adjustRoom(state, roomId, userId, count)));
+        }
+        if (snapshot.online() != null) {
+            snapshot.online().forEach((userId, entry) ->
+                adjustOnline(state, userId, entry.username(), entry.nickname(), entry.sessions()));
+        }
+    }
+
+    /**
+     * 노드의 상태를 합친 상태에서 모두 뺍니다. (노드 상태 자체는 그대로 둠)
+     */
+    private void subtract(NodeState state) {
+        state.rooms.forEach((roomId, users) ->
+            users.forEach((userId, count) -> mergeRoom(roomId, userId, -count)));
+        state.online.forEach((userId, entry) -> mergeOnline(userId, null, null, -entry.sessions()));
+    }
+
+    private void adjustRoom(NodeState state, Long roomId, Long userId, int delta) {
+        if (roomId == null || userId == null || delta == 0) {
+            return;
+        }
+        Map<Long, Integer> users = state.rooms.computeIfAbsent(roomId, k -> new HashMap<>());
+        int before = users.getOrDefault(userId, 0);
+        int after = Math.max(0, before + delta);
+        if (after == 0) {
+            users.remove(userId);
+            if (users.isEmpty()) {
+                state.rooms.remove(roomId);
+            }
+        } else {
+            users.put(userId, after);
+        }
+        mergeRoom(roomId, userId, after - before);
+    }
+
+    private void adjustOnline(NodeState state, Long userId, String username, String nickname, int delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        OnlineEntry current = state.online.get(userId);
+        int before = current == null ? 0 : current.sessions();
+        int after = Math.max(0, before + delta);
+        if (after == 0) {
+            state.online.remove(userId);
+        } else {
+            state.online.put(userId, new OnlineEntry(
+                username != null ? username : current.username(),
+                nickname != null ? nickname : current.nickname(), after));
+        }
+        mergeOnline(userId, username, nickname, after - before);
+    }
+
+    private void renameOnline(Long userId, String nickname) {
+        if (userId == null || nickname == null) {
+            return;
+        }
+        local.online.computeIfPresent(userId, (id, e) -> new OnlineEntry(e.username(), nickname, e.sessions()));
+        remotes.values().forEach(state -> state.online.computeIfPresent(userId,
+            (id, e) -> new OnlineEntry(e.username(), nickname, e.sessions())));
+        presence.computeIfPresent(userId, (id, e) -> new OnlineEntry(e.username(), nickname, e.sessions()));
+    }
+
+    private void mergeRoom(Long roomId, Long userId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        roomUsers.compute(roomId, (id, users) -> {
+            Map<Long, Integer> merged = users != null ? users : new ConcurrentHashMap<>();
+            merged.merge(userId, delta, (a, b) -> a + b > 0 ? a + b : null);
+            return merged.isEmpty() ? null : merged;
+        });
+    }
+
+    private void mergeOnline(Long userId, String username, String nickname, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        presence.compute(userId, (id, current) -> {
+            int sessions = (current == null ? 0 : current.sessions()) + delta;
+            if (sessions <= 0) {
+                return null;
+            }
+            return new OnlineEntry(
+                username != null ? username : current.username(),
+                nickname != null ? nickname : current.nickname(), sessions);
+        });
+    }
+
+    private static int roomSessionCount(NodeState state) {
+        int count = 0;
+        for (Map<Long, Integer> users : state.rooms.values()) {
+            for (int sessions : users.values()) {
+                count += sessions;
+            }
+        }
+        return count;
+    }
+
+    private static int onlineSessionCount(NodeState state) {
+        int count = 0;
+        for (OnlineEntry entry : state.online.values()) {
+            count += entry.sessions();
+        }
+        return count;
+    }
+}
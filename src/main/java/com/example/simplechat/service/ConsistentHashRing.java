@@ -0,0 +1,64 @@
+package com.example.simplechat.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 방 ID를 노드 ID에 배정하는 consistent hash 링입니다. 생성 후에는 바뀌지 않습니다.
+ * <p>
+ * 노드마다 가상 노드를 여러 개 링에 올려 방이 고르게 나뉘도록 하고, 노드가 하나 늘거나 줄 때 그 노드의 몫에 해당하는
+ * 방만 소유 노드가 바뀝니다. 같은 노드 목록이면 어느 노드에서 만들어도 같은 배정이 나옵니다.
+ * </p>
+ */
+final class ConsistentHashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final List<String> members;
+
+    ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        this.members = List.copyOf(nodeIds);
+        for (String nodeId : members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+    }
+
+    /**
+     * 방을 소유하는 노드 ID를 반환합니다.
+     *
+     * @param roomId 채팅방 ID
+     * @return 소유 노드 ID, 링이 비어 있으면 null
+     */
+    String ownerOf(Long roomId) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(mix(roomId));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    List<String> members() {
+        return members;
+    }
+
+    // FNV-1a 64비트 해시 후 비트 섞기
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    // splitmix64 최종 단계. 연속된 방 ID도 링 전체에 고르게 흩어지도록 함
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -6,8 +6,10 @@ import com.example.simplechat.exception.RegistrationException;
 import com.example.simplechat.model.Friendship;
 import com.example.simplechat.model.Notification;
 import com.example.simplechat.model.User;
+import com.example.simplechat.repository.FriendGraph;
 import com.example.simplechat.repository.FriendshipRepository;
 import com.example.simplechat.repository.UserRepository;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -27,6 +29,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class FriendshipService {
 
     private final FriendshipRepository friendshipRepository;
+    private final FriendGraph friendGraph;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
     private final SimpMessagingTemplate messagingTemplate;
@@ -76,12 +79,15 @@ public class FriendshipService {
      * @return {@link FriendResponseDto} 객체 목록
      */
     public List<FriendResponseDto> getFriends(long userId) {
-        List<Friendship> friendships = friendshipRepository.findByUserIdAndStatus(userId, Friendship.Status.ACCEPTED);
+        // 친구 ID는 친구 그래프에서 읽음 (친구 관계 조회 없음)
+        List<Long> friendIds = new ArrayList<>(friendGraph.friendCount(userId));
+        friendGraph.forEachFriend(userId, friendIds::add);
+        // 친구마다 조회하지 않고 한 번에 조회 (친구가 많으면 버킷 크기의 IN 조회 몇 번으로 나뉨)
+        Map<Long, User> friends = userRepository.findAllByIds(friendIds);
 
-        return friendships.stream()
-                .map(friendship -> {
-                    long friendId = friendship.getUserId1() == userId ? friendship.getUserId2() : friendship.getUserId1();
-                    User friend = userRepository.findById(friendId)
+        return friendIds.stream()
+                .map(friendId -> {
+                    User friend = Optional.ofNullable(friends.get(friendId))
                             .orElseThrow(() -> new IllegalStateException("친구 사용자를 찾을 수 없습니다."));
                     String url = friend.getProfile_image_url();
                     friend.setProfile_image_url(url != null && !url.isBlank() ? profileStaticUrlPrefix + "/" + url : profileStaticUrlPrefix + "/default.png");
@@ -0,0 +1,36 @@
+package com.example.simplechat.service;
+
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 단일 노드용 {@link ClusterChannel}입니다. 다른 노드가 없으므로 메시지를 주고받지 않습니다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cluster.registry", name = "transport", havingValue = "local", matchIfMissing = true)
+public class LocalClusterChannel implements ClusterChannel {
+
+    @Override
+    public boolean enabled() {
+        return false;
+    }
+
+    @Override
+    public boolean connected() {
+        return false;
+    }
+
+    @Override
+    public void listen(String destination, Consumer<String> handler) {
+    }
+
+    @Override
+    public void connect(Runnable onConnected) {
+    }
+
+    @Override
+    public boolean publish(String destination, String message) {
+        return false;
+    }
+}
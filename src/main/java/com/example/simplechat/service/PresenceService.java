@@ -1,14 +1,15 @@
 package com.example.simplechat.service;
 
+import com.example.simplechat.dto.ClusterSessionMessage.OnlineEntry;
 import com.example.simplechat.dto.NotificationDto;
 import com.example.simplechat.dto.PresenceChangeDto;
-import com.example.simplechat.model.Friendship;
+import com.example.simplechat.event.UserProfileChangedEvent;
 import com.example.simplechat.model.Notification;
-import com.example.simplechat.model.User;
-import com.example.simplechat.repository.FriendshipRepository;
+import com.example.simplechat.repository.FriendGraph;
 import com.example.simplechat.repository.UserRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -20,36 +21,44 @@ import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.socket.messaging.SessionConnectEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 /**
  * 사용자의 온라인/오프라인 접속 상태를 추적하고, 친구들에게 접속 상태 변경을 알리는 서비스입니다.
  * WebSocket 세션 연결 및 연결 해제 이벤트를 처리합니다.
+ * <p>
+ * 접속 중인 사용자는 {@link ClusterSessionRegistry}가 모든 노드를 합쳐 사용자 ID별로 username/닉네임과 세션 수를 보관하며,
+ * 클러스터 전체에서 첫 세션이 연결될 때와 마지막 세션이 끊길 때만 상태 변경을 알립니다. 알림 대상은 {@link FriendGraph}의
+ * 친구 중 현재 접속 중인(다른 노드 포함) 사용자로 한정하므로 연결 해제 처리에는 DB 조회가 없습니다.
+ * </p>
  */
 @Component
 @RequiredArgsConstructor
 public class PresenceService {
     private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
     private final UserRepository userRepository;
-    private final FriendshipRepository friendshipRepository;
+    private final FriendGraph friendGraph;
+    private final ClusterSessionRegistry clusterSessionRegistry;
     private final SimpMessagingTemplate messagingTemplate;
     private final ObjectMapper objectMapper; // ObjectMapper 주입
 
     // 접속한 사용자를 관리하는 맵 (Thread-safe한 ConcurrentHashMap 사용)
-    // Key: WebSocket Session ID, Value: User ID
+    // 현재 노드의 세션만 보관. Key: WebSocket Session ID, Value: User ID
     private final Map<String, Long> connectedUsers = new ConcurrentHashMap<>();
 
     /**
      * 사용자가 웹소켓에 연결되었을 때 실행되는 이벤트 리스너입니다.
-     * 세션 정보를 추출하여 연결된 사용자 맵에 추가하고, 친구들에게 접속 상태 변경을 알립니다.
+     * 세션 정보를 추출하여 연결된 사용자 맵에 추가하고, 첫 세션이면 친구들에게 접속 상태 변경을 알립니다.
      *
      * @param event 세션 연결 이벤트
      */
     @EventListener
     public void handleSessionConnected(SessionConnectEvent event) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
-        // room_id가 있는 세션은 채팅방 입장 시 연결되는 세션이므로 presence 추적에서 제외
+        // room_id가 있는 세션은 방마다 따로 여는 이전 방식의 채팅방 세션이므로 presence 추적에서 제외
+        // (여러 방을 구독하는 단일 세션은 room_id 없이 연결되므로 presence 세션으로 집계)
         if (headerAccessor.getSessionAttributes() != null && headerAccessor.getSessionAttributes().get("room_id") != null) {
             return;
         }
@@ -59,15 +68,18 @@ public class PresenceService {
 
         userRepository.findByUsername(username).ifPresent(user -> {
             connectedUsers.put(sessionId, user.getId());
+            boolean first = clusterSessionRegistry.userSessionOpened(user.getId(), user.getUsername(), user.getNickname());
             logger.info("[Presence] 사용자 연결됨: {} (ID: {})", user.getNickname(), user.getId());
-            
-            notifyPresenceChange(user, true);
+
+            if (first) {
+                notifyPresenceChange(user.getId(), user.getNickname(), true);
+            }
         });
     }
 
     /**
      * 사용자의 웹소켓 연결이 끊겼을 때 실행되는 이벤트 리스너입니다.
-     * 연결된 사용자 맵에서 해당 사용자를 제거하고, 친구들에게 접속 상태 변경을 알립니다.
+     * 연결된 사용자 맵에서 해당 세션을 제거하고, 마지막 세션이면 친구들에게 접속 상태 변경을 알립니다.
      *
      * @param event 세션 연결 해제 이벤트
      */
@@ -80,25 +92,39 @@ public class PresenceService {
 
         if (userId != null) {
             logger.info("[Presence] 사용자 연결 해제됨: (ID: {})", userId);
-            
-            userRepository.findById(userId).ifPresent(user -> {
-            	notifyPresenceChange(user, false);
-            });
+
+            OnlineEntry last = clusterSessionRegistry.userSessionClosed(userId);
+            if (last != null) {
+                notifyPresenceChange(userId, last.nickname(), false);
+            }
+        }
+    }
+
+    /**
+     * 접속 중인 사용자의 닉네임이 바뀌면 이후 상태 변경 알림에 새 닉네임을 사용하도록 갱신합니다.
+     *
+     * @param event 프로필 변경 이벤트
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleUserProfileChanged(UserProfileChangedEvent event) {
+        if (!clusterSessionRegistry.isOnline(event.getUserId())) {
+            return;
         }
+        userRepository.findProfileById(event.getUserId()).ifPresent(user ->
+            clusterSessionRegistry.nicknameChanged(user.getId(), user.getNickname()));
     }
 
     /**
-     * 친구들에게 사용자의 접속 상태 변경을 알립니다.
+     * 접속 중인 친구들에게 사용자의 접속 상태 변경을 알립니다.
      * {@link Notification.NotificationType#PRESENCE_UPDATE} 유형의 알림을 각 친구의 개인 큐로 전송합니다.
      *
-     * @param user 상태가 변경된 사용자
+     * @param userId 상태가 변경된 사용자의 ID
+     * @param nickname 상태가 변경된 사용자의 닉네임
      * @param isOnline 접속 여부 (true: 온라인, false: 오프라인)
      */
-    private void notifyPresenceChange(User user, boolean isOnline) {
-        List<Friendship> friendships = friendshipRepository.findByUserIdAndStatus(user.getId(), Friendship.Status.ACCEPTED);
-
+    private void notifyPresenceChange(long userId, String nickname, boolean isOnline) {
         try {
-            PresenceChangeDto payload = new PresenceChangeDto(user.getId(), user.getNickname(), isOnline);
+            PresenceChangeDto payload = new PresenceChangeDto(userId, nickname, isOnline);
             String metadata = objectMapper.writeValueAsString(payload); // 주입된 ObjectMapper 사용
 
             NotificationDto notification = NotificationDto.builder()
@@ -106,26 +132,45 @@ public class PresenceService {
                 .metadata(metadata)
                 .build();
 
-            friendships.forEach(friendship -> {
-                long friendId = friendship.getUserId1() == user.getId() ? friendship.getUserId2() : friendship.getUserId1();
-                userRepository.findById(friendId).ifPresent(friendUser -> {
-                    messagingTemplate.convertAndSendToUser(friendUser.getUsername(), "/queue/notifications", notification);
-                });
-            });
+            for (String friendUsername : onlineFriendUsernames(userId)) {
+                messagingTemplate.convertAndSendToUser(friendUsername, "/queue/notifications", notification);
+            }
         } catch (JsonProcessingException e) { // Exception -> JsonProcessingException으로 변경
             logger.error("접속 상태 알림 생성 중 JSON 변환 실패: {}", e.getMessage(), e);
         } catch (Exception e) {
             logger.error("접속 상태 알림 전송 중 오류 발생: {}", e.getMessage(), e);
         }
     }
+
+    /**
+     * 친구 목록과 접속자 목록의 교집합을 구합니다. 둘 중 작은 쪽을 순회하며 다른 쪽에서 찾습니다.
+     */
+    private List<String> onlineFriendUsernames(long userId) {
+        List<String> usernames = new ArrayList<>();
+        if (friendGraph.friendCount(userId) <= clusterSessionRegistry.onlineCount()) {
+            friendGraph.forEachFriend(userId, friendId -> {
+                OnlineEntry friend = clusterSessionRegistry.onlineUser(friendId);
+                if (friend != null) {
+                    usernames.add(friend.username());
+                }
+            });
+        } else {
+            clusterSessionRegistry.forEachOnline((id, online) -> {
+                if (friendGraph.areFriends(userId, id)) {
+                    usernames.add(online.username());
+                }
+            });
+        }
+        return usernames;
+    }
     
     /**
-     * 특정 사용자가 현재 접속 중인지 확인합니다.
+     * 특정 사용자가 현재 접속 중인지(다른 노드 포함) 확인합니다.
      *
      * @param userId 확인할 사용자의 ID
      * @return 접속 중이면 true, 아니면 false
      */
     public boolean isUserOnline(Long userId) {
-        return connectedUsers.containsValue(userId);
+        return clusterSessionRegistry.isOnline(userId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,227 @@
+package com.example.simplechat.service;
+
+import com.example.simplechat.model.PurgeJob;
+import com.example.simplechat.repository.FriendshipRepository;
+import com.example.simplechat.repository.MessageRepository;
+import com.example.simplechat.repository.NotificationRepository;
+import com.example.simplechat.repository.PurgeJobRepository;
+import com.example.simplechat.repository.RoomRepository;
+import com.example.simplechat.repository.RoomUserRepository;
+import com.example.simplechat.repository.UserRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * 방 삭제, 계정 삭제, 메시지 보존 기간 정리를 백그라운드에서 작은 배치로 나누어 수행하는 서비스입니다.
+ * <p>
+ * 요청 처리 중에는 방이나 계정을 tombstone으로 표시하고 purge_jobs에 작업만 등록합니다. 이 서비스가 주기적으로
+ * 등록 순서대로 작업을 꺼내 {@code purge.batch-size}행씩 삭제하고, 배치 사이에 {@code purge.batch-delay-ms}만큼 쉽니다.
+ * 배치마다 별도의 짧은 트랜잭션으로 커밋하고 진행 상황을 기록하므로 잠금이 오래 유지되지 않으며,
+ * 서버가 재시작되어도 남은 작업을 이어서 처리합니다.
+ * </p>
+ * <p>
+ * 여러 노드가 같은 DB를 쓰는 경우 맨 앞의 작업을 조건부 UPDATE로 잡은 노드만 처리하고, 배치마다 {@code purge.lease-ms}만큼
+ * 임대를 연장합니다. 처리하던 노드가 멈추면 임대가 끝난 뒤 다른 노드가 이어서 처리합니다.
+ * </p>
+ * <p>
+ * 지연 초기화 환경에서도 스케줄이 등록되도록 {@code @Lazy(false)}로 즉시 생성합니다.
+ * </p>
+ */
+@Service
+@Lazy(false)
+@RequiredArgsConstructor
+public class PurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurgeService.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final PurgeJobRepository purgeJobRepository;
+    private final MessageRepository msgRepository;
+    private final RoomUserRepository roomUserRepository;
+    private final RoomRepository roomRepository;
+    private final UserRepository userRepository;
+    private final FriendshipRepository friendshipRepository;
+    private final NotificationRepository notificationRepository;
+    private final ClusterSessionRegistry clusterSessionRegistry;
+
+    // SQL Server의 잠금 확대 기준(약 5,000개)보다 작게 유지
+    @Value("${purge.batch-size:4000}")
+    private int batchSize;
+
+    @Value("${purge.batch-delay-ms:50}")
+    private long batchDelayMs;
+
+    @Value("${purge.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    // 배치 하나(와 배치 사이 휴식)보다 충분히 길게 유지
+    @Value("${purge.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${chat.message-retention-days:0}")
+    private long messageRetentionDays;
+
+    /**
+     * purge 작업을 등록합니다. 호출한 트랜잭션과 함께 커밋됩니다.
+     *
+     * @param jobType 작업 유형
+     * @param targetId 대상 ID (방 ID 또는 사용자 ID)
+     * @return 등록된 작업
+     */
+    public PurgeJob enqueue(PurgeJob.JobType jobType, Long targetId) {
+        PurgeJob job = purgeJobRepository.save(new PurgeJob(jobType, targetId, null));
+        logger.info("[PurgeService] 작업 {} 등록: {} {}", job.getId(), jobType, targetId);
+        return job;
+    }
+
+    /**
+     * 미완료 purge 작업 목록을 반환합니다.
+     *
+     * @return PENDING/RUNNING 상태의 작업 목록
+     */
+    public List<PurgeJob> getUnfinishedJobs() {
+        return purgeJobRepository.findUnfinished();
+    }
+
+    /**
+     * 미완료 작업을 등록 순서대로 처리합니다. 한 번의 실행에서 최대 {@code purge.max-batches-per-run}개의 배치를 처리하고,
+     * 남은 작업은 다음 실행에서 이어서 처리합니다. 다른 노드가 맨 앞의 작업을 처리 중이면 이번 실행은 건너뜁니다.
+     */
+    @Scheduled(fixedDelayString = "${purge.poll-interval-ms:5000}", initialDelayString = "${purge.initial-delay-ms:10000}")
+    public void runPendingJobs() {
+        String owner = clusterSessionRegistry.nodeId();
+        int batches = 0;
+        while (batches < maxBatchesPerRun && !Thread.currentThread().isInterrupted()) {
+            Optional<PurgeJob> next = purgeJobRepository.claimNext(owner, leaseMs);
+            if (next.isEmpty()) {
+                return;
+            }
+            PurgeJob job = next.get();
+            try {
+                int ran = runJob(job, owner, maxBatchesPerRun - batches);
+                if (ran < 0) {
+                    logger.warn("[PurgeService] 작업 {}의 임대가 끝나 다른 노드에 넘깁니다.", job.getId());
+                    return;
+                }
+                batches += ran;
+            } catch (RuntimeException e) {
+                logger.error("[PurgeService] 작업 {} ({} {}) 실패: {}", job.getId(), job.getJobType(), job.getTargetId(), e.getMessage(), e);
+                purgeJobRepository.updateProgress(job.getId(), owner, leaseMs, PurgeJob.Status.FAILED, job.getDeletedRows(),
+                        truncate(e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * 보존 기간({@code chat.message-retention-days})이 지난 메시지를 삭제하는 작업을 매일 등록합니다.
+     * 0 이하이면 메시지를 보존 기간으로 삭제하지 않습니다. 모든 노드에서 실행되지만, 같은 범위를 덮는 작업이 이미 있으면 등록하지 않습니다.
+     */
+    @Scheduled(cron = "${purge.retention-cron:0 30 0 * * ?}")
+    public void enqueueMessageRetention() {
+        if (messageRetentionDays <= 0) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(messageRetentionDays);
+        msgRepository.findMaxIdCreatedBefore(cutoff)
+            .flatMap(purgeJobRepository::saveRetentionIfAbsent)
+            .ifPresent(job -> logger.info("[PurgeService] 작업 {} 등록: {} 이전 메시지 (message_id <= {})",
+                job.getId(), cutoff, job.getCursorId()));
+    }
+
+    /**
+     * 잡은 작업 하나를 끝나거나 배치 한도에 이를 때까지 처리합니다.
+     *
+     * @return 처리한 배치 수. 임대를 잃어 중단했으면 -1
+     */
+    private int runJob(PurgeJob job, String owner, int batchBudget) {
+        int batches = 0;
+        while (batches < batchBudget) {
+            long deleted = deleteNextBatch(job);
+            batches++;
+            if (deleted == 0) {
+                return finish(job, owner) ? batches : -1;
+            }
+            job.setDeletedRows(job.getDeletedRows() + deleted);
+            if (!purgeJobRepository.updateProgress(job.getId(), owner, leaseMs, PurgeJob.Status.RUNNING, job.getDeletedRows(), null)) {
+                return -1;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * 작업 유형별로 다음 배치를 삭제합니다. 자식 테이블부터 지우며, 더 지울 행이 없으면 0을 반환합니다.
+     */
+    private long deleteNextBatch(PurgeJob job) {
+        return switch (job.getJobType()) {
+            case ROOM -> {
+                long deleted = msgRepository.deleteBatchByRoomId(job.getTargetId(), batchSize);
+                yield deleted != 0 ? deleted : roomUserRepository.deleteBatchByRoomId(job.getTargetId(), batchSize);
+            }
+            case MESSAGE_RETENTION -> msgRepository.deleteBatchUpTo(job.getCursorId(), batchSize);
+            // 소유한 방의 ROOM 작업이 먼저 처리되므로 사용자를 참조하는 나머지 행만 지우고, 계정 행은 finish()에서 삭제
+            case ACCOUNT -> {
+                long deleted = msgRepository.deleteBatchByAuthorId(job.getTargetId(), batchSize);
+                if (deleted == 0) {
+                    deleted = friendshipRepository.deleteBatchByUserId(job.getTargetId(), batchSize);
+                }
+                if (deleted == 0) {
+                    deleted = notificationRepository.deleteBatchByReceiverId(job.getTargetId(), batchSize);
+                }
+                yield deleted;
+            }
+        };
+    }
+
+    private boolean finish(PurgeJob job, String owner) {
+        switch (job.getJobType()) {
+            case ROOM -> roomRepository.deleteTombstoned(job.getTargetId());
+            case ACCOUNT -> {
+                if (userRepository.deleteTombstoned(job.getTargetId())) {
+                    job.setDeletedRows(job.getDeletedRows() + 1);
+                }
+            }
+            default -> { }
+        }
+        if (!purgeJobRepository.updateProgress(job.getId(), owner, leaseMs, PurgeJob.Status.DONE, job.getDeletedRows(), null)) {
+            return false;
+        }
+        logger.info("[PurgeService] 작업 {} 완료: {} {} ({}행 삭제)", job.getId(), job.getJobType(), job.getTargetId(), job.getDeletedRows());
+        return true;
+    }
+
+    /**
+     * 배치 사이에 쉬어 다른 쓰기 작업에 잠금과 I/O를 양보합니다.
+     *
+     * @return 종료 중(인터럽트)이면 false
+     */
+    private boolean pause() {
+        if (batchDelayMs > 0) {
+            try {
+                Thread.sleep(batchDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return !Thread.currentThread().isInterrupted();
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,514 @@
+package com.example.simplechat.service;
+
+import com.example.simplechat.dto.ChatMessageListDto;
+import com.example.simplechat.dto.ChatMessageListRequestDto;
+import com.example.simplechat.dto.ChatMessageRequestDto;
+import com.example.simplechat.dto.NickChangeDto;
+import com.example.simplechat.dto.RoomAffinityStatsDto;
+import com.example.simplechat.dto.RoomForwardMessage;
+import com.example.simplechat.dto.RoomForwardMessage.Kind;
+import com.example.simplechat.dto.RoomInitDataDto;
+import com.example.simplechat.exception.RegistrationException;
+import com.example.simplechat.repository.RecentMessageBuffer;
+import com.example.simplechat.repository.RoomMembershipIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * 방마다 소유 노드를 정하고, 방 단위 작업을 소유 노드에서 실행하도록 전달하는 라우터입니다.
+ * <p>
+ * {@link ClusterSessionRegistry}가 알고 있는 살아 있는 노드로 {@link ConsistentHashRing}을 만들어 방의 소유 노드를 정합니다.
+ * 메시지 전송/파일 메시지/수정/삭제, 메시지 목록 조회, 방 입장 데이터 조회는 소유 노드에서만 실행하므로
+ * 최근 메시지 버퍼({@link RecentMessageBuffer})는 소유 노드에만 적재되고, 노드 간 무효화 없이 최신 상태를 유지합니다.
+ * 입장/퇴장/강제 퇴장/초대/방 닉네임 변경/방 삭제도 소유 노드에서 실행하므로, 메시지 전송마다 읽는 참여자 인덱스
+ * ({@link RoomMembershipIndex})는 소유 노드에서 변경 즉시 반영되고 참여자 이벤트도 메시지와 같은 방 레인 순서로 나갑니다.
+ * 소유 노드에서 전달받은 메시지 전송은 닉네임 조회와 방 레인({@link RoomEventLanes}) 예약을 공용 실행기에서 하고,
+ * 저장 대기열에 넣고 응답하는 일만 방 레인에서 하므로 레인 스레드가 DB 조회나 예약 대기로 막히지 않습니다.
+ * </p>
+ * <p>
+ * 작업은 {@link ClusterChannel}의 노드 전용 큐({@link ClusterChannel#NODE_QUEUE_PREFIX} + 노드 ID)로 보내고, 결과가 필요한 작업은
+ * 보낸 노드의 큐로 응답을 받습니다. 메시지 전송도 소유 노드가 받아들였다는 응답을 기다리므로, 거절(BUSY 등)은 보낸 사용자에게 전달됩니다.
+ * 전달받은 작업은 다시 전달하지 않습니다. (노드마다 링이 잠시 다를 때 되돌려 보내지 않도록)
+ * 채널이 연결되어 있지 않거나 요청을 보내지 못했으면 현재 노드에서 실행합니다. 요청을 보낸 뒤
+ * {@code cluster.affinity.forward-timeout-ms} 안에 응답이 없으면 소유 노드가 이미 실행했을 수 있으므로 다시 실행하지 않고
+ * UNAVAILABLE로 실패시킵니다.
+ * </p>
+ * <p>
+ * 노드가 합류하거나 빠져 링이 바뀌면, 더 이상 소유하지 않는 방의 최근 메시지 버퍼를 새 소유 노드로 넘기고(HANDOFF) 버퍼에서 내보내며,
+ * 그 방의 참여자 목록도 인덱스에서 내립니다.
+ * 새 소유 노드는 넘겨받은 버퍼를 DB 조회 없이 적재하고, {@code cluster.affinity.handoff-settle-ms} 뒤에 그 사이 저장을 마친 메시지를
+ * 주 DB에서 채웁니다. 임대 만료로 빠진 노드의 방은 새 소유 노드가 처음 조회할 때 DB에서 적재합니다.
+ * 현재 노드가 임대 시간보다 오래 멈췄다가 재합류하면 그 사이 다른 노드가 방을 맡아 저장한 메시지가 버퍼에 빠져 있을 수 있으므로
+ * 버퍼와 참여자 인덱스를 모두 비우고 DB에서 다시 적재합니다.
+ * 지연 초기화 환경에서도 노드 큐를 바로 구독하도록 {@code @Lazy(false)}로 즉시 생성합니다.
+ * </p>
+ */
+@Component
+@Lazy(false)
+public class RoomAffinityRouter {
+    private static final Logger logger = LoggerFactory.getLogger(RoomAffinityRouter.class);
+
+    /**
+     * 소유 노드로 전달하는 작업의 종류입니다.
+     */
+    enum Op {
+        SEND_MESSAGE, FILE_MESSAGE, EDIT_MESSAGE, DELETE_MESSAGE, MESSAGE_LIST, INIT_ROOM,
+        ENTER_ROOM, EXIT_ROOM, DELETE_ROOM, KICK_USER, INVITE_USER, CHANGE_NICKNAME
+    }
+
+    /**
+     * 메시지 단위 작업, 방 입장 데이터 조회, 참여자 변경의 인자입니다. 작업마다 필요한 필드만 채웁니다.
+     * (content는 입장 시 비밀번호로도 사용하고, targetUserId는 강제 퇴장/초대 대상입니다)
+     */
+    record RoomOpArgs(Long userId, Long messageId, String content, Integer lines, Long targetUserId) {}
+
+    private final ClusterChannel channel;
+    private final ClusterSessionRegistry clusterSessionRegistry;
+    private final ObjectMapper objectMapper;
+    private final ChatMessageService chatMessageService;
+    private final ChatRoomService chatRoomService;
+    private final RecentMessageBuffer recentMessageBuffer;
+    private final RoomMembershipIndex roomMembershipIndex;
+    private final RoomEventLanes roomEventLanes;
+    private final Executor applicationTaskExecutor;
+    private final int virtualNodes;
+    private final long forwardTimeoutMs;
+    private final long handoffSettleMs;
+    private final String nodeId;
+
+    private volatile ConsistentHashRing ring;
+    // Key: correlationId, Value: 응답을 기다리는 요청
+    private final Map<String, CompletableFuture<RoomForwardMessage>> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder served = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder handoffsSent = new LongAdder();
+    private final LongAdder handoffsReceived = new LongAdder();
+
+    public RoomAffinityRouter(ClusterChannel channel, ClusterSessionRegistry clusterSessionRegistry,
+                              ObjectMapper objectMapper, ChatMessageService chatMessageService,
+                              ChatRoomService chatRoomService, RecentMessageBuffer recentMessageBuffer,
+                              RoomMembershipIndex roomMembershipIndex, RoomEventLanes roomEventLanes,
+                              @Qualifier("applicationTaskExecutor") Executor applicationTaskExecutor,
+                              @Value("${cluster.affinity.virtual-nodes:128}") int virtualNodes,
+                              @Value("${cluster.affinity.forward-timeout-ms:3000}") long forwardTimeoutMs,
+                              @Value("${cluster.affinity.handoff-settle-ms:1000}") long handoffSettleMs) {
+        this.channel = channel;
+        this.clusterSessionRegistry = clusterSessionRegistry;
+        this.objectMapper = objectMapper;
+        this.chatMessageService = chatMessageService;
+        this.chatRoomService = chatRoomService;
+        this.recentMessageBuffer = recentMessageBuffer;
+        this.roomMembershipIndex = roomMembershipIndex;
+        this.roomEventLanes = roomEventLanes;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.virtualNodes = Math.max(1, virtualNodes);
+        this.forwardTimeoutMs = forwardTimeoutMs;
+        this.handoffSettleMs = handoffSettleMs;
+        this.nodeId = clusterSessionRegistry.nodeId();
+        this.ring = new ConsistentHashRing(clusterSessionRegistry.liveNodes(), this.virtualNodes);
+    }
+
+    /**
+     * 생성이 끝난 뒤 노드 큐를 구독하고 멤버십 리스너를 등록합니다.
+     */
+    @PostConstruct
+    void start() {
+        channel.listen(ClusterChannel.NODE_QUEUE_PREFIX + nodeId, this::receive);
+        clusterSessionRegistry.addMembershipListener(this::membershipChanged);
+        clusterSessionRegistry.addRejoinListener(this::rejoined);
+    }
+
+    /**
+     * 새 채팅 메시지를 소유 노드에서 저장하고 발행합니다. 소유 노드가 메시지를 저장 대기열에 넣을 때까지 기다립니다.
+     *
+     * @param msgDto 보낼 메시지의 세부 정보가 포함된 DTO
+     * @throws RegistrationException 소유 노드가 메시지를 거절(BUSY 등)했거나 응답하지 않은 경우(UNAVAILABLE)
+     */
+    public void sendMessage(ChatMessageRequestDto msgDto) {
+        call(msgDto.roomId(), Op.SEND_MESSAGE, msgDto, Void.class, () -> {
+            chatMessageService.addChat_publish(msgDto);
+            return null;
+        });
+    }
+
+    /**
+     * 저장된 파일에 대한 채팅 메시지를 소유 노드에서 생성합니다.
+     */
+    public void addFileMessage(Long roomId, Long userId, String fileInfoContent) {
+        call(roomId, Op.FILE_MESSAGE, new RoomOpArgs(userId, null, fileInfoContent, null, null), Void.class, () -> {
+            chatMessageService.addFileMessage(roomId, userId, fileInfoContent);
+            return null;
+        });
+    }
+
+    /**
+     * 메시지를 소유 노드에서 수정합니다.
+     */
+    public void editMessage(Long messageId, Long userId, String newContent) {
+        Long roomId = chatMessageService.getRoomIdOfMessage(messageId);
+        call(roomId, Op.EDIT_MESSAGE, new RoomOpArgs(userId, messageId, newContent, null, null), Void.class, () -> {
+            chatMessageService.editMessage(messageId, userId, newContent);
+            return null;
+        });
+    }
+
+    /**
+     * 메시지를 소유 노드에서 삭제합니다.
+     */
+    public void deleteMessage(Long messageId, Long userId) {
+        Long roomId = chatMessageService.getRoomIdOfMessage(messageId);
+        call(roomId, Op.DELETE_MESSAGE, new RoomOpArgs(userId, messageId, null, null, null), Void.class, () -> {
+            chatMessageService.deleteMessage(messageId, userId);
+            return null;
+        });
+    }
+
+    /**
+     * 메시지 목록을 소유 노드에서 조회합니다.
+     */
+    public ChatMessageListDto getMessageList(ChatMessageListRequestDto msgListDto) {
+        return call(msgListDto.roomId(), Op.MESSAGE_LIST, msgListDto, ChatMessageListDto.class,
+            () -> chatMessageService.getMessageList(msgListDto));
+    }
+
+    /**
+     * 방 입장 데이터를 소유 노드에서 조회합니다.
+     */
+    public RoomInitDataDto initRoom(Long roomId, Long userId, int lines) {
+        return call(roomId, Op.INIT_ROOM, new RoomOpArgs(userId, null, null, lines, null), RoomInitDataDto.class,
+            () -> chatRoomService.initRoom(roomId, userId, lines));
+    }
+
+    /**
+     * 사용자를 소유 노드에서 방에 입장시킵니다.
+     *
+     * @return 방의 ID
+     */
+    public Long enterRoom(Long roomId, Long userId, String password) {
+        return call(roomId, Op.ENTER_ROOM, new RoomOpArgs(userId, null, password, null, null), Long.class,
+            () -> chatRoomService.enterRoom(roomId, userId, password));
+    }
+
+    /**
+     * 사용자를 소유 노드에서 방에서 내보냅니다.
+     */
+    public void exitRoom(Long roomId, Long userId) {
+        call(roomId, Op.EXIT_ROOM, new RoomOpArgs(userId, null, null, null, null), Void.class, () -> {
+            chatRoomService.exitRoom(roomId, userId);
+            return null;
+        });
+    }
+
+    /**
+     * 방을 소유 노드에서 삭제 상태로 표시합니다.
+     */
+    public void deleteRoom(Long roomId, Long userId) {
+        call(roomId, Op.DELETE_ROOM, new RoomOpArgs(userId, null, null, null, null), Void.class, () -> {
+            chatRoomService.deleteRoom(roomId, userId);
+            return null;
+        });
+    }
+
+    /**
+     * 사용자를 소유 노드에서 방에서 강제 퇴장시킵니다.
+     */
+    public void kickUser(Long roomId, Long kickerId, Long userIdToKick) {
+        call(roomId, Op.KICK_USER, new RoomOpArgs(kickerId, null, null, null, userIdToKick), Void.class, () -> {
+            chatRoomService.kickUser(roomId, kickerId, userIdToKick);
+            return null;
+        });
+    }
+
+    /**
+     * 사용자를 소유 노드에서 방에 초대합니다.
+     */
+    public void inviteUser(Long roomId, Long inviterId, Long inviteeId) {
+        call(roomId, Op.INVITE_USER, new RoomOpArgs(inviterId, null, null, null, inviteeId), Void.class, () -> {
+            chatRoomService.inviteUserToRoom(roomId, inviterId, inviteeId);
+            return null;
+        });
+    }
+
+    /**
+     * 방 안의 닉네임을 소유 노드에서 변경합니다.
+     */
+    public void changeNickname(NickChangeDto nickChangeDto) {
+        call(nickChangeDto.roomId(), Op.CHANGE_NICKNAME, nickChangeDto, Void.class, () -> {
+            chatMessageService.changeNicknameInRoom(nickChangeDto);
+            return null;
+        });
+    }
+
+    /**
+     * 링 구성과 전달/인계 횟수를 반환합니다.
+     */
+    public RoomAffinityStatsDto stats() {
+        return new RoomAffinityStatsDto(nodeId, ring.members(), forwarded.sum(), served.sum(), timeouts.sum(),
+            handoffsSent.sum(), handoffsReceived.sum());
+    }
+
+    /**
+     * 방의 소유 노드가 다른 노드이고 그 노드로 보낼 수 있으면 소유 노드 ID를, 현재 노드에서 실행해야 하면 null을 반환합니다.
+     */
+    private String remoteOwnerOf(Long roomId) {
+        if (roomId == null || !channel.connected()) {
+            return null;
+        }
+        String owner = ring.ownerOf(roomId);
+        return owner == null || owner.equals(nodeId) ? null : owner;
+    }
+
+    private <T> T call(Long roomId, Op op, Object args, Class<T> resultType, Supplier<T> local) {
+        String owner = remoteOwnerOf(roomId);
+        if (owner == null) {
+            return local.get();
+        }
+        forwarded.increment();
+        String correlationId = UUID.randomUUID().toString();
+        CompletableFuture<RoomForwardMessage> reply = new CompletableFuture<>();
+        pending.put(correlationId, reply);
+        try {
+            if (!send(owner, new RoomForwardMessage(Kind.REQUEST, correlationId, nodeId, op.name(), roomId,
+                    objectMapper.valueToTree(args), null, null))) {
+                // 요청이 나가지 않았으므로 소유 노드가 실행했을 리 없음
+                logger.warn("[RoomAffinity] 노드 {}로 방 {}의 {} 요청을 보내지 못해 현재 노드에서 실행합니다.", owner, roomId, op);
+                return local.get();
+            }
+            RoomForwardMessage result = reply.get(forwardTimeoutMs, TimeUnit.MILLISECONDS);
+            if (result.errorCode() != null) {
+                throw new RegistrationException(result.errorCode(), result.errorMessage());
+            }
+            return resultType == Void.class || result.payload() == null
+                ? null : objectMapper.treeToValue(result.payload(), resultType);
+        } catch (TimeoutException e) {
+            // 소유 노드가 요청을 받아 실행 중이거나 이미 실행했을 수 있으므로 현재 노드에서 다시 실행하지 않음
+            timeouts.increment();
+            logger.warn("[RoomAffinity] 노드 {}가 방 {}의 {} 요청에 응답하지 않았습니다.", owner, roomId, op);
+            throw new RegistrationException("UNAVAILABLE", "요청 처리 결과를 확인하지 못했습니다. 잠시 후 확인해 주세요.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RegistrationException("UNAVAILABLE", "요청 처리가 중단되었습니다.");
+        } catch (ExecutionException | JsonProcessingException e) {
+            throw new RegistrationException("INTERNAL_ERROR", "소유 노드의 응답을 처리하지 못했습니다.");
+        } finally {
+            pending.remove(correlationId);
+        }
+    }
+
+    /**
+     * 노드 큐로 메시지를 보냅니다.
+     *
+     * @return 브로커로 보냈으면 true
+     */
+    private boolean send(String targetNode, RoomForwardMessage message) {
+        try {
+            return channel.publish(ClusterChannel.NODE_QUEUE_PREFIX + targetNode, objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            logger.error("[RoomAffinity] 메시지 JSON 변환 실패: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 노드 큐로 받은 메시지를 처리합니다. 채널의 I/O 스레드에서 호출되므로 작업 실행은 다른 스레드로 넘깁니다.
+     */
+    private void receive(String payload) {
+        RoomForwardMessage message;
+        try {
+            message = objectMapper.readValue(payload, RoomForwardMessage.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("[RoomAffinity] 알 수 없는 메시지를 무시합니다: {}", e.getMessage());
+            return;
+        }
+        if (message.kind() == null) {
+            return;
+        }
+        switch (message.kind()) {
+            case REPLY -> {
+                CompletableFuture<RoomForwardMessage> reply = pending.get(message.correlationId());
+                if (reply != null) {
+                    reply.complete(message);
+                }
+            }
+            case REQUEST -> {
+                served.increment();
+                if (Op.SEND_MESSAGE.name().equals(message.op())) {
+                    applicationTaskExecutor.execute(() -> serveMessage(message));
+                } else {
+                    applicationTaskExecutor.execute(() -> serve(message,
+                        () -> execute(Op.valueOf(message.op()), message.roomId(), message.payload())));
+                }
+            }
+            case HANDOFF -> receiveHandoff(message);
+        }
+    }
+
+    /**
+     * 전달받은 메시지 전송을 처리합니다. 닉네임 조회와 방 레인 예약(레인이 밀려 있으면 기다림)은 공용 실행기에서 하고,
+     * 저장 대기열에 넣고 응답하는 일만 방 레인에 넘기므로 같은 레인을 쓰는 방들의 브로드캐스트를 막지 않습니다.
+     * 보낸 노드는 응답을 받은 뒤에 같은 사용자의 다음 메시지를 보내므로 사용자별 순서는 유지됩니다.
+     */
+    private void serveMessage(RoomForwardMessage request) {
+        ChatMessageService.PreparedChat chat;
+        try {
+            chat = chatMessageService.prepareChat(objectMapper.treeToValue(request.payload(), ChatMessageRequestDto.class));
+        } catch (Exception e) {
+            reply(request, null, e);
+            return;
+        }
+        roomEventLanes.execute(request.roomId(), () -> serve(request, () -> {
+            chatMessageService.submitChat(chat);
+            return null;
+        }));
+    }
+
+    private void serve(RoomForwardMessage request, Callable<?> task) {
+        Object result;
+        try {
+            result = task.call();
+        } catch (Exception e) {
+            reply(request, null, e);
+            return;
+        }
+        reply(request, result, null);
+    }
+
+    private void reply(RoomForwardMessage request, Object result, Exception failure) {
+        String errorCode = null;
+        String errorMessage = null;
+        if (failure instanceof RegistrationException e) {
+            errorCode = e.getErrorCode();
+            errorMessage = e.getMessage();
+        } else if (failure != null) {
+            logger.error("[RoomAffinity] 방 {}의 {} 요청 처리 중 오류 발생: {}", request.roomId(), request.op(),
+                failure.getMessage(), failure);
+            errorCode = "INTERNAL_ERROR";
+            errorMessage = "요청을 처리하지 못했습니다.";
+        }
+        if (request.correlationId() != null) {
+            send(request.fromNode(), new RoomForwardMessage(Kind.REPLY, request.correlationId(), nodeId, null,
+                request.roomId(), result == null ? null : objectMapper.valueToTree(result), errorCode, errorMessage));
+        }
+    }
+
+    private Object execute(Op op, Long roomId, JsonNode payload) throws JsonProcessingException {
+        switch (op) {
+            case MESSAGE_LIST -> {
+                return chatMessageService.getMessageList(objectMapper.treeToValue(payload, ChatMessageListRequestDto.class));
+            }
+            case CHANGE_NICKNAME -> chatMessageService.changeNicknameInRoom(
+                objectMapper.treeToValue(payload, NickChangeDto.class));
+            default -> {
+                RoomOpArgs args = objectMapper.treeToValue(payload, RoomOpArgs.class);
+                switch (op) {
+                    case FILE_MESSAGE -> chatMessageService.addFileMessage(roomId, args.userId(), args.content());
+                    case EDIT_MESSAGE -> chatMessageService.editMessage(args.messageId(), args.userId(), args.content());
+                    case DELETE_MESSAGE -> chatMessageService.deleteMessage(args.messageId(), args.userId());
+                    case INIT_ROOM -> {
+                        return chatRoomService.initRoom(roomId, args.userId(), args.lines());
+                    }
+                    case ENTER_ROOM -> {
+                        return chatRoomService.enterRoom(roomId, args.userId(), args.content());
+                    }
+                    case EXIT_ROOM -> chatRoomService.exitRoom(roomId, args.userId());
+                    case DELETE_ROOM -> chatRoomService.deleteRoom(roomId, args.userId());
+                    case KICK_USER -> chatRoomService.kickUser(roomId, args.userId(), args.targetUserId());
+                    case INVITE_USER -> chatRoomService.inviteUserToRoom(roomId, args.userId(), args.targetUserId());
+                    default -> { }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 링을 다시 만들고, 더 이상 소유하지 않는 방의 버퍼를 새 소유 노드로 넘깁니다.
+     */
+    private void membershipChanged() {
+        ConsistentHashRing updated = new ConsistentHashRing(clusterSessionRegistry.liveNodes(), virtualNodes);
+        ring = updated;
+        logger.info("[RoomAffinity] 링 갱신: 노드 {}개 {}", updated.members().size(), updated.members());
+        // 더 이상 소유하지 않는 방의 참여자 목록은 내림 (다시 소유하게 되면 DB에서 새로 적재)
+        for (Long roomId : roomMembershipIndex.roomIds()) {
+            String owner = updated.ownerOf(roomId);
+            if (owner != null && !owner.equals(nodeId)) {
+                roomEventLanes.execute(roomId, () -> roomMembershipIndex.unloadRoom(roomId));
+            }
+        }
+        if (!channel.connected()) {
+            return;
+        }
+        for (Long roomId : recentMessageBuffer.roomIds()) {
+            String owner = updated.ownerOf(roomId);
+            if (owner != null && !owner.equals(nodeId)) {
+                // 이미 레인에 들어간 이 방의 작업이 끝난 뒤에 넘김
+                roomEventLanes.execute(roomId, () -> handOff(roomId, owner));
+            }
+        }
+    }
+
+    /**
+     * 다른 노드에서 빠졌다가 재합류했으므로, 그 사이 다른 노드가 저장한 메시지나 바꾼 참여 정보가 빠졌을 수 있는
+     * 버퍼와 참여자 인덱스를 모두 내보냅니다.
+     */
+    private void rejoined() {
+        List<Long> roomIds = recentMessageBuffer.roomIds();
+        roomIds.forEach(recentMessageBuffer::evictRoom);
+        roomMembershipIndex.evictAll();
+        logger.warn("[RoomAffinity] 재합류하여 방 {}개의 최근 메시지 버퍼와 참여자 인덱스를 비웠습니다.", roomIds.size());
+    }
+
+    private void handOff(Long roomId, String owner) {
+        RecentMessageBuffer.Handoff handoff = recentMessageBuffer.export(roomId);
+        recentMessageBuffer.evictRoom(roomId);
+        if (handoff == null) {
+            return;
+        }
+        handoffsSent.increment();
+        send(owner, new RoomForwardMessage(Kind.HANDOFF, null, nodeId, null, roomId,
+            objectMapper.valueToTree(handoff), null, null));
+    }
+
+    private void receiveHandoff(RoomForwardMessage message) {
+        RecentMessageBuffer.Handoff handoff;
+        try {
+            handoff = objectMapper.treeToValue(message.payload(), RecentMessageBuffer.Handoff.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("[RoomAffinity] 방 {}의 버퍼를 읽지 못했습니다: {}", message.roomId(), e.getMessage());
+            return;
+        }
+        if (recentMessageBuffer.importRoom(message.roomId(), handoff)) {
+            handoffsReceived.increment();
+            logger.info("[RoomAffinity] 노드 {}에서 방 {}의 최근 메시지 {}개를 넘겨받았습니다.",
+                message.fromNode(), message.roomId(), handoff.messages().size());
+            CompletableFuture.runAsync(() -> recentMessageBuffer.catchUp(message.roomId()),
+                    CompletableFuture.delayedExecutor(handoffSettleMs, TimeUnit.MILLISECONDS, applicationTaskExecutor))
+                .exceptionally(ex -> {
+                    logger.error("[RoomAffinity] 방 {}의 버퍼 보충 중 오류 발생: {}", message.roomId(), ex.getMessage(), ex);
+                    return null;
+                });
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.simplechat.service;
+
+import com.example.simplechat.dto.RoomDeltaDto;
+import com.example.simplechat.dto.RoomDeltaDto.DeltaType;
+import com.example.simplechat.dto.UserEventDto.EventType;
+import com.example.simplechat.event.RoomCreatedEvent;
+import com.example.simplechat.event.UserEnteredRoomEvent;
+import com.example.simplechat.event.UserExitedRoomEvent;
+import com.example.simplechat.repository.RoomRepository;
+import com.example.simplechat.repository.RoomSummaryCache;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 방 목록 변경분을 {@code /topic/rooms}로 실시간 전달하는 컴포넌트입니다.
+ * <p>
+ * 방 생성/삭제, 참여/퇴장, 접속/연결 해제 이벤트가 오면 해당 방만 표시해 두고,
+ * {@code room-directory.delta-window-ms}마다 표시된 방들을 방 목록 스냅샷과 현재 접속자 수로 다시 읽어
+ * 방당 하나의 변경분으로 묶어 한 번에 보냅니다. 짧은 시간 안의 입장/퇴장 반복은 이렇게 합쳐지고,
+ * 마지막으로 보낸 값과 같은 참여자/접속자 수는 보내지 않습니다.
+ * </p>
+ * <p>
+ * DB 변경을 동반한 이벤트는 커밋 후에 표시하므로, 변경분을 만들 때는 방 목록 스냅샷에 이미 반영되어 있습니다.
+ * 지연 초기화 환경에서도 전송 스케줄이 등록되도록 {@code @Lazy(false)}로 즉시 생성합니다.
+ * </p>
+ */
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+public class RoomDirectoryPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomDirectoryPublisher.class);
+    private static final String DESTINATION = "/topic/rooms";
+
+    private final RoomRepository roomRepository;
+    private final RoomSessionManager roomSessionManager;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // 다음 전송 때 변경분을 만들 방. 같은 방의 여러 이벤트는 우선순위가 높은 종류 하나로 합침 (DELETED > CREATED > UPDATED)
+    private final Map<Long, DeltaType> pending = new ConcurrentHashMap<>();
+    // 방별로 마지막에 보낸 (참여자 수, 접속자 수). 전송 스레드에서만 접근
+    private final Map<Long, int[]> lastSent = new HashMap<>();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleRoomCreated(RoomCreatedEvent event) {
+        mark(event.getRoomId(), DeltaType.CREATED);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleUserEnteredRoom(UserEnteredRoomEvent event) {
+        mark(event.getRoomId(), DeltaType.UPDATED);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleUserExitedRoom(UserExitedRoomEvent event) {
+        mark(event.getRoomId(), event.getEventType() == EventType.ROOM_DELETED
+            ? DeltaType.DELETED : DeltaType.UPDATED);
+    }
+
+    private void mark(Long roomId, DeltaType type) {
+        if (roomId == null) {
+            return;
+        }
+        pending.merge(roomId, type, (prev, next) -> priority(prev) >= priority(next) ? prev : next);
+    }
+
+    private static int priority(DeltaType type) {
+        return switch (type) {
+            case DELETED -> 2;
+            case CREATED -> 1;
+            case UPDATED -> 0;
+        };
+    }
+
+    /**
+     * 표시된 방들의 변경분을 만들어 한 메시지로 보냅니다.
+     */
+    @Scheduled(fixedDelayString = "${room-directory.delta-window-ms:500}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        RoomSummaryCache.Snapshot snapshot = roomRepository.findDirectorySnapshot();
+        Map<Long, RoomSummaryCache.RoomSummary> rooms = new HashMap<>();
+        for (RoomSummaryCache.RoomSummary room : snapshot.rooms()) {
+            rooms.put(room.id(), room);
+        }
+
+        List<RoomDeltaDto> deltas = new ArrayList<>();
+        for (Long roomId : List.copyOf(pending.keySet())) {
+            DeltaType type = pending.remove(roomId);
+            RoomSummaryCache.RoomSummary room = rooms.get(roomId);
+            if (type == DeltaType.DELETED || room == null) {
+                lastSent.remove(roomId);
+                deltas.add(new RoomDeltaDto(DeltaType.DELETED, roomId, snapshot.version(), null, null, null, null, null));
+                continue;
+            }
+            int connCount = roomSessionManager.getConnectedUsers(roomId).size();
+            int[] previous = lastSent.put(roomId, new int[]{room.memberCount(), connCount});
+            if (type == DeltaType.CREATED) {
+                deltas.add(new RoomDeltaDto(DeltaType.CREATED, roomId, snapshot.version(), room.name(), room.roomType(),
+                    room.ownerName(), room.memberCount(), connCount));
+            } else if (previous == null || previous[0] != room.memberCount() || previous[1] != connCount) {
+                deltas.add(new RoomDeltaDto(DeltaType.UPDATED, roomId, snapshot.version(), null, null, null,
+                    room.memberCount(), connCount));
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            messagingTemplate.convertAndSend(DESTINATION, deltas);
+            logger.debug("방 목록 변경분 {}개를 {}로 전송했습니다.", deltas.size(), DESTINATION);
+        } catch (MessagingException e) {
+            logger.error("방 목록 변경분 전송 중 오류 발생.", e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.simplechat.service;
+
+import com.example.simplechat.dto.RoomLaneStatsDto;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 방 단위로 순서를 보장하는 이벤트 전송 실행기입니다.
+ * <p>
+ * 방 ID를 해시해 고정된 개수({@code room-events.lanes})의 레인 중 하나에 배정하고, 각 레인은 스레드 하나가
+ * 대기열의 작업을 순서대로 처리합니다. 같은 방의 메시지/수정/삭제/입장/퇴장 브로드캐스트는 항상 같은 레인에서
+ * 제출된 순서대로 전송되고, 서로 다른 방은 여러 레인에서 병렬로 처리됩니다. 한 방에 작업이 몰려도 같은 레인을
+ * 쓰는 방들만 영향을 받습니다.
+ * </p>
+ * <p>
+ * 레인에 넣는 작업은 대부분 이미 커밋된 메시지의 브로드캐스트이고 제출 스레드는 주로 배치 저장 스레드이므로,
+ * {@link #execute}는 막거나 버리지 않습니다. 대신 새 메시지는 저장하기 전에 {@link #tryReserve}로 레인의 자리
+ * ({@code room-events.lane-capacity}개)를 예약하며, 자리가 없으면 STOMP 수신 스레드가 {@code room-events.offer-timeout-ms}까지
+ * 기다린 뒤 메시지를 거절합니다. 예약한 자리는 {@link #executeReserved}의 작업이 끝나거나 {@link #cancelReservation}으로 반납됩니다.
+ * 레인 스레드에서 같은 레인으로 제출한 작업은 자기 자신을 기다리지 않도록 바로 실행합니다. (이미 순서대로 처리 중이므로 순서는 유지됩니다)
+ * </p>
+ */
+@Component
+public class RoomEventLanes {
+    private static final Logger logger = LoggerFactory.getLogger(RoomEventLanes.class);
+
+    // 현재 스레드가 처리 중인 레인 번호 (레인 스레드가 아니면 null)
+    private static final ThreadLocal<Integer> CURRENT_LANE = new ThreadLocal<>();
+
+    private final Lane[] lanes;
+    private final long offerTimeoutMs;
+
+    public RoomEventLanes(@Value("${room-events.lanes:0}") int laneCount,
+                          @Value("${room-events.lane-capacity:1000}") int capacity,
+                          @Value("${room-events.offer-timeout-ms:200}") long offerTimeoutMs) {
+        int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane(i, capacity);
+        }
+        logger.info("[RoomEventLanes] 레인 {}개, 레인당 대기열 {}", count, capacity);
+    }
+
+    /**
+     * 방의 레인에서 작업을 실행합니다. 같은 방의 작업은 제출된 순서대로 실행됩니다.
+     *
+     * @param roomId 채팅방 ID
+     * @param task 실행할 작업
+     */
+    public void execute(Long roomId, Runnable task) {
+        Lane lane = laneOf(roomId);
+        Integer current = CURRENT_LANE.get();
+        if (current != null && current == lane.index) {
+            task.run();
+            return;
+        }
+        lane.submit(task);
+    }
+
+    /**
+     * 방의 레인에 새 메시지 하나를 위한 자리를 예약합니다. 저장하기 전, 메시지를 받은 스레드에서 호출합니다.
+     * 자리가 없으면 {@code room-events.offer-timeout-ms}까지 기다립니다. 레인 스레드 자신은 기다리지 않습니다.
+     *
+     * @param roomId 채팅방 ID
+     * @return 예약했으면 true, 레인이 밀려 있어 거절해야 하면 false
+     */
+    public boolean tryReserve(Long roomId) {
+        Lane lane = laneOf(roomId);
+        Integer current = CURRENT_LANE.get();
+        long waitMs = current != null && current == lane.index ? 0 : offerTimeoutMs;
+        return lane.reserve(waitMs);
+    }
+
+    /**
+     * {@link #tryReserve}로 예약한 자리에서 작업을 실행하고, 작업이 끝나면 자리를 반납합니다.
+     *
+     * @param roomId 채팅방 ID
+     * @param task 실행할 작업
+     */
+    public void executeReserved(Long roomId, Runnable task) {
+        Lane lane = laneOf(roomId);
+        execute(roomId, () -> {
+            try {
+                task.run();
+            } finally {
+                lane.slots.release();
+            }
+        });
+    }
+
+    /**
+     * 작업을 제출하지 않게 된 예약(저장 실패 등)을 반납합니다.
+     *
+     * @param roomId 채팅방 ID
+     */
+    public void cancelReservation(Long roomId) {
+        laneOf(roomId).slots.release();
+    }
+
+    /**
+     * 방의 레인에 작업을 넘기는 {@link Executor}를 반환합니다. {@code CompletableFuture}의 후속 작업을 방 순서대로 실행할 때 사용합니다.
+     *
+     * @param roomId 채팅방 ID
+     * @return 방의 레인 실행기
+     */
+    public Executor executorFor(Long roomId) {
+        return task -> execute(roomId, task);
+    }
+
+    private Lane laneOf(Long roomId) {
+        // 연속된 방 ID가 레인에 고르게 퍼지도록 비트를 섞은 뒤 나머지 연산
+        long h = roomId == null ? 0 : roomId * 0x9E3779B97F4A7C15L;
+        return lanes[(int) Math.floorMod(h ^ (h >>> 32), (long) lanes.length)];
+    }
+
+    /**
+     * 레인별 대기열 깊이와 처리 통계를 반환합니다.
+     *
+     * @return 레인 통계 목록
+     */
+    public List<RoomLaneStatsDto> stats() {
+        List<RoomLaneStatsDto> result = new ArrayList<>(lanes.length);
+        for (Lane lane : lanes) {
+            result.add(lane.stats());
+        }
+        return result;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+        for (Lane lane : lanes) {
+            try {
+                lane.executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private final class Lane {
+        private final int index;
+        private final int capacity;
+        private final ThreadPoolExecutor executor;
+        // 새 메시지용 자리. 대기열 자체는 제한하지 않고 저장 전에 이 자리로 유입량을 제한
+        private final Semaphore slots;
+        private final AtomicInteger maxDepth = new AtomicInteger();
+        private final LongAdder rejected = new LongAdder();
+
+        Lane(int index, int capacity) {
+            this.index = index;
+            this.capacity = capacity;
+            this.slots = new Semaphore(capacity);
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(() -> {
+                        CURRENT_LANE.set(index);
+                        runnable.run();
+                    }, "room-lane-" + index);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> logger.debug("[RoomEventLanes] 종료된 레인 {}에 제출된 작업을 버렸습니다.", index));
+        }
+
+        void submit(Runnable task) {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    logger.error("[RoomEventLanes] 레인 {} 작업 실행 중 오류 발생: {}", index, e.getMessage(), e);
+                }
+            });
+            maxDepth.accumulateAndGet(executor.getQueue().size(), Math::max);
+        }
+
+        // 자리가 나기를 waitMs까지 기다리고, 그래도 없으면 거절로 기록
+        private boolean reserve(long waitMs) {
+            try {
+                if (waitMs > 0 ? slots.tryAcquire(waitMs, TimeUnit.MILLISECONDS) : slots.tryAcquire()) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            rejected.increment();
+            logger.warn("[RoomEventLanes] 레인 {}이(가) 밀려 새 메시지를 거절했습니다. (용량 {})", index, capacity);
+            return false;
+        }
+
+        RoomLaneStatsDto stats() {
+            return new RoomLaneStatsDto(index, executor.getQueue().size(), capacity, maxDepth.get(),
+                executor.getCompletedTaskCount(), rejected.sum());
+        }
+    }
+}
@@ -12,6 +12,11 @@ import org.springframework.stereotype.Component;
  * 채팅방 및 사용자 세션을 관리하는 컴포넌트입니다.
  * 각 채팅방에 접속한 사용자들의 세션 정보를 추적하고, 세션 ID와 사용자 ID 간의 매핑을 유지합니다.
  * 이를 통해 특정 방에 접속한 사용자 목록 조회, 특정 사용자의 접속 여부 확인 등의 기능을 제공합니다.
+ * <p>
+ * 세션 등록/해제는 {@link ClusterSessionRegistry}에도 알리며, 접속자 조회는 모든 노드를 합친 레지스트리의 상태를 읽습니다.
+ * 같은 사용자가 한 방에 여러 세션(탭)을 열어도 마지막 세션이 닫힐 때까지 접속 중으로 봅니다.
+ * 하나의 세션이 여러 방을 동시에 구독할 수 있으므로 세션은 (세션, 방) 단위로 추적합니다.
+ * </p>
  */
 @Component
 @RequiredArgsConstructor
@@ -19,91 +24,101 @@ public class RoomSessionManager {
 
 	private static final Logger logger = LoggerFactory.getLogger(RoomSessionManager.class);
 
-	/**
-	 * 세션 정보를 저장하는 내부 레코드 클래스입니다.
-	 *
-	 * @param roomId 사용자가 접속한 방의 ID
-	 * @param userId 사용자의 ID
-	 */
-	private record SessionInfo(Long roomId, Long userId) { }
-	
-	// Key: roomId, Value: Map<userId, sessionId>
-	private final Map<Long, Map<Long, String>> sessionsByRoom = new ConcurrentHashMap<>();
+	private final ClusterSessionRegistry clusterSessionRegistry;
 	
-	// Key: sessionId, Value: SessionInfo (roomId, userId)
-	private final Map<String, SessionInfo> sessionInfoById = new ConcurrentHashMap<>();
+	// 현재 노드의 세션만 보관. Key: sessionId, Value: (roomId -> userId)
+	// 하나의 세션이 여러 방을 구독할 수 있으므로 (세션, 방) 단위로 등록/해제합니다.
+	private final Map<String, Map<Long, Long>> roomsBySession = new ConcurrentHashMap<>();
 	
 	
 	/**
-	 * 새로운 사용자 세션을 등록합니다.
-	 * 사용자가 채팅방에 접속했을 때 호출됩니다.
+	 * 세션에 채팅방을 등록합니다.
+	 * 사용자가 세션에서 채팅방 토픽을 구독했을 때 호출됩니다.
 	 *
 	 * @param roomId 사용자가 접속한 방 ID
 	 * @param userId 사용자 ID
 	 * @param sessionId 웹소켓 세션 ID
+	 * @return 이 세션에 새로 등록된 방이면 true, 이미 등록되어 있었으면 false
 	 */
-	public void registerSession(Long roomId, Long userId, String sessionId) {
-	    sessionsByRoom.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>()).put(userId, sessionId);
-	    sessionInfoById.put(sessionId, new SessionInfo (roomId, userId));
+	public boolean registerSession(Long roomId, Long userId, String sessionId) {
+	    Map<Long, Long> rooms = roomsBySession.computeIfAbsent(sessionId, k -> new ConcurrentHashMap<>());
+	    if (rooms.putIfAbsent(roomId, userId) != null) {
+	        return false; // 같은 세션의 같은 방 중복 구독
+	    }
+	    clusterSessionRegistry.roomSessionOpened(roomId, userId);
 	    logger.info("[SessionManager] 세션 등록됨: 방 ID={} 사용자 ID={} 세션 ID={}", roomId, userId, sessionId);
+	    return true;
 	}
 
 	/**
-	 * 세션 연결 종료 시 세션을 제거합니다.
-	 * 사용자가 채팅방에서 나갔을 때 호출됩니다.
+	 * 세션에서 채팅방 하나를 해제합니다.
+	 * 사용자가 세션에서 채팅방 토픽의 구독을 취소했을 때 호출됩니다.
+	 *
+	 * @param sessionId 웹소켓 세션 ID
+	 * @param roomId 해제할 방 ID
+	 * @return 해제된 사용자 ID, 등록되어 있지 않았으면 null
+	 */
+	public Long unregisterSession(String sessionId, Long roomId) {
+	    Map<Long, Long> rooms = roomsBySession.get(sessionId);
+	    Long userId = rooms != null ? rooms.remove(roomId) : null;
+	    if (userId != null) {
+	        clusterSessionRegistry.roomSessionClosed(roomId, userId);
+	        logger.info("[SessionManager] 세션 해제됨: 방 ID={} 사용자 ID={} 세션 ID={}", roomId, userId, sessionId);
+	    }
+	    return userId;
+	}
+
+	/**
+	 * 세션 연결 종료 시 세션에 등록된 모든 방을 해제합니다.
 	 *
 	 * @param sessionId 연결 종료된 웹소켓 세션 ID
+	 * @return 해제된 방 ID와 사용자 ID의 맵. 등록된 방이 없으면 빈 맵을 반환합니다.
 	 */
-	public void unregisterSession(String sessionId) {
-		SessionInfo info = sessionInfoById.remove(sessionId);
-	    if (info != null) {
-	        Map<Long, String> usersInRoom = sessionsByRoom.get(info.roomId());
-	        if (usersInRoom != null) {
-	            usersInRoom.remove(info.userId());
-	            // 방에 아무도 없으면 방 자체를 맵에서 제거 (메모리 관리)
-	            if (usersInRoom.isEmpty()) {
-	                sessionsByRoom.remove(info.roomId());
-	            }
-	        }
-	        logger.info("[SessionManager] 세션 해제됨: 방 ID={} 사용자 ID={} 세션 ID={}", info.roomId(), info.userId(), sessionId);
+	public Map<Long, Long> unregisterSession(String sessionId) {
+		Map<Long, Long> rooms = roomsBySession.remove(sessionId);
+	    if (rooms == null) {
+	        return Map.of();
 	    }
+	    rooms.forEach((roomId, userId) -> {
+	        clusterSessionRegistry.roomSessionClosed(roomId, userId);
+	        logger.info("[SessionManager] 세션 해제됨: 방 ID={} 사용자 ID={} 세션 ID={}", roomId, userId, sessionId);
+	    });
+	    return rooms;
 	}
 
 	/**
-	 * 특정 방에 현재 접속 중인 모든 사용자의 ID Set을 반환합니다.
+	 * 특정 방에 현재 접속 중인 모든 사용자의 ID Set을 반환합니다. (모든 노드 포함)
 	 *
 	 * @param roomId 방 ID
 	 * @return 접속 중인 사용자 ID의 Set. 접속자가 없으면 빈 Set을 반환합니다.
 	 */
 	public Set<Long> getConnectedUsers(Long roomId) {
-	    return sessionsByRoom.getOrDefault(roomId, Map.of()).keySet();
+	    return clusterSessionRegistry.connectedUsers(roomId);
 	}
 
 	/**
-	 * 특정 사용자가 특정 방에 접속 중인지 확인합니다.
+	 * 특정 사용자가 특정 방에 접속 중인지 확인합니다. (모든 노드 포함)
 	 *
 	 * @param roomId 방 ID
 	 * @param userId 사용자 ID
 	 * @return 접속 중이면 true, 아니면 false
 	 */
 	public boolean isUserConnected(Long roomId, Long userId) {
-	    return sessionsByRoom.getOrDefault(roomId, Map.of()).containsKey(userId);
+	    return clusterSessionRegistry.connectedUsers(roomId).contains(userId);
 	}
 
 	/**
-	 * 특정 사용자의 현재 세션 ID를 반환합니다.
-	 * 사용자가 여러 방에 동시에 접속하지 않는다는 가정 하에 효율적으로 동작합니다.
+	 * 특정 사용자의 현재 노드 세션 ID를 반환합니다.
+	 * 한 세션이 여러 방을 구독하므로, 사용자가 세션을 여러 개 열었다면 그중 하나를 반환합니다.
 	 * 주로 DM (Direct Message) 기능 구현에 사용될 수 있습니다.
 	 *
 	 * @param userId 사용자 ID
 	 * @return 세션 ID 문자열, 접속 중이 아니면 null
 	 */
 	public String getSessionId(Long userId) {
-	    for (Map<Long, String> usersInRoom : sessionsByRoom.values()) {
-	        for (Map.Entry<Long, String> entry : usersInRoom.entrySet()) {
-	            if (entry.getKey().equals(userId)) {
-	                return entry.getValue();
-	            }
+	    for (Map.Entry<String, Map<Long, Long>> entry : roomsBySession.entrySet()) {
+	        if (entry.getValue().containsValue(userId)) {
+	            return entry.getKey();
 	        }
 	    }
 	    return null;
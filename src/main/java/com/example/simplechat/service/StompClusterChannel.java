@@ -0,0 +1,147 @@
+package com.example.simplechat.service;
+
+import jakarta.annotation.PreDestroy;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.stomp.ReactorNettyTcpStompClient;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.stereotype.Component;
+
+/**
+ * STOMP 브로커를 통해 노드 간 메시지를 주고받는 {@link ClusterChannel}입니다.
+ * <p>
+ * 브로커 릴레이 모드({@code websocket.broker.mode=relay})와 같은 브로커를 사용하며, 노드마다 별도의 STOMP 연결을 하나 엽니다.
+ * 등록된 destination은 연결될 때마다 모두 다시 구독합니다.
+ * 연결이 끊기면 {@link ClusterSessionRegistry}의 다음 주기에 다시 연결합니다.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "cluster.registry", name = "transport", havingValue = "stomp")
+public class StompClusterChannel implements ClusterChannel {
+    private static final Logger logger = LoggerFactory.getLogger(StompClusterChannel.class);
+
+    private final ReactorNettyTcpStompClient client;
+    private final StompHeaders connectHeaders = new StompHeaders();
+    private final AtomicBoolean connecting = new AtomicBoolean();
+    // Key: destination, Value: 핸들러. 구독과 연결 완료 처리가 겹치지 않도록 자신을 잠금으로 사용
+    private final Map<String, Consumer<String>> listeners = new LinkedHashMap<>();
+    private volatile StompSession session;
+
+    public StompClusterChannel(@Value("${websocket.broker.relay.host:localhost}") String host,
+                               @Value("${websocket.broker.relay.port:61613}") int port,
+                               @Value("${websocket.broker.relay.login:guest}") String login,
+                               @Value("${websocket.broker.relay.passcode:guest}") String passcode) {
+        this.client = new ReactorNettyTcpStompClient(host, port);
+        this.client.setMessageConverter(new StringMessageConverter());
+        this.connectHeaders.setLogin(login);
+        this.connectHeaders.setPasscode(passcode);
+    }
+
+    @Override
+    public boolean enabled() {
+        return true;
+    }
+
+    @Override
+    public boolean connected() {
+        StompSession current = session;
+        return current != null && current.isConnected();
+    }
+
+    @Override
+    public void listen(String destination, Consumer<String> handler) {
+        synchronized (listeners) {
+            listeners.put(destination, handler);
+            StompSession current = session;
+            if (current != null && current.isConnected()) {
+                subscribe(current, destination, handler);
+            }
+        }
+    }
+
+    private static void subscribe(StompSession target, String destination, Consumer<String> handler) {
+        target.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders frameHeaders) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders frameHeaders, Object payload) {
+                handler.accept((String) payload);
+            }
+        });
+    }
+
+    @Override
+    public void connect(Runnable onConnected) {
+        StompSession current = session;
+        if ((current != null && current.isConnected()) || !connecting.compareAndSet(false, true)) {
+            return;
+        }
+        client.connectAsync(connectHeaders, new StompSessionHandlerAdapter() {
+            @Override
+            public void afterConnected(StompSession connected, StompHeaders headers) {
+                synchronized (listeners) {
+                    listeners.forEach((destination, handler) -> subscribe(connected, destination, handler));
+                    session = connected;
+                }
+                logger.info("[ClusterChannel] 브로커에 연결되었습니다.");
+                onConnected.run();
+            }
+
+            @Override
+            public void handleException(StompSession failed, StompCommand command, StompHeaders headers,
+                                        byte[] payload, Throwable exception) {
+                logger.error("[ClusterChannel] 메시지 처리 중 오류 발생: {}", exception.getMessage(), exception);
+            }
+
+            @Override
+            public void handleTransportError(StompSession failed, Throwable exception) {
+                logger.warn("[ClusterChannel] 브로커 연결 오류: {}", exception.getMessage());
+                session = null;
+            }
+        }).whenComplete((connected, ex) -> {
+            connecting.set(false);
+            if (ex != null) {
+                logger.warn("[ClusterChannel] 브로커 연결 실패: {}", ex.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public boolean publish(String destination, String message) {
+        StompSession current = session;
+        if (current == null || !current.isConnected()) {
+            return false;
+        }
+        try {
+            current.send(destination, message);
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("[ClusterChannel] 메시지 전송 실패: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        StompSession current = session;
+        if (current != null && current.isConnected()) {
+            current.disconnect();
+        }
+        client.shutdown();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.simplechat.service;
+
+import com.example.simplechat.dto.CacheStatsDto;
+import com.example.simplechat.event.UserProfileChangedEvent;
+import com.example.simplechat.model.User;
+import com.example.simplechat.repository.UserRepository;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 사용자 ID → 프로필 이미지의 최종 정적 URL을 보관하는 크기 제한 LRU 캐시입니다.
+ * <p>
+ * 메시지 목록/브로드캐스트마다 작성자 프로필을 DB에서 다시 읽지 않도록, 처음 조회할 때
+ * {@code file.profile-static-url-prefix}까지 붙인 URL(이미지가 없으면 기본 이미지 URL)을 만들어 저장합니다.
+ * 최대 {@code cache.user-profile.max-size}개를 넘으면 가장 오래 사용하지 않은 항목부터 밀어냅니다.
+ * </p>
+ * <p>
+ * {@link UserProfileChangedEvent}를 받으면 해당 사용자의 항목을 지웁니다. 트랜잭션 안에서 발행된 경우 커밋 후에 지우므로
+ * 커밋 전의 이전 값이 다시 캐시에 올라가는 일이 없습니다.
+ * </p>
+ */
+@Component
+public class UserProfileCache {
+    private static final Logger logger = LoggerFactory.getLogger(UserProfileCache.class);
+
+    private final UserRepository userRepository;
+    private final String defaultImageUrl;
+    private final String imageUrlPrefix;
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    // 무효화가 일어날 때마다 증가. 조회 도중 무효화가 있었다면 읽어 온 (이전) 값을 저장하지 않음
+    private final AtomicLong generation = new AtomicLong();
+
+    // accessOrder=true: get()이 항목을 가장 최근 위치로 옮기므로 모든 접근을 동기화
+    private final Map<Long, String> imageUrls;
+
+    public UserProfileCache(UserRepository userRepository,
+                            @Value("${file.profile-static-url-prefix}") String profileStaticUrlPrefix,
+                            @Value("${cache.user-profile.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.imageUrlPrefix = profileStaticUrlPrefix + "/";
+        this.defaultImageUrl = profileStaticUrlPrefix + "/default.png";
+        this.maxSize = maxSize;
+        this.imageUrls = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                if (size() > UserProfileCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 사용자의 프로필 이미지 URL을 반환합니다. 캐시에 없으면 DB에서 읽어 저장합니다.
+     *
+     * @param userId 사용자 ID
+     * @return 클라이언트가 바로 사용할 수 있는 프로필 이미지 URL. 사용자가 없거나 이미지가 없으면 기본 이미지 URL.
+     *         DB 조회에 실패한 경우에도 기본 이미지 URL을 반환하지만 캐시에는 저장하지 않음
+     */
+    public String getProfileImageUrl(Long userId) {
+        if (userId == null) {
+            return defaultImageUrl;
+        }
+        synchronized (imageUrls) {
+            String cached = imageUrls.get(userId);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+
+        // DB 조회는 잠금 밖에서 수행 (같은 사용자를 동시에 조회하면 중복 조회될 수 있으나 결과는 같음)
+        long observed = generation.get();
+        String resolved;
+        try {
+            resolved = userRepository.findProfileByIdOrThrow(userId)
+                .map(User::getProfile_image_url)
+                .map(this::resolveImageUrl)
+                .orElse(defaultImageUrl);
+        } catch (DataAccessException e) {
+            // 조회 실패: 이번 응답에만 기본 이미지를 쓰고 저장하지 않음 (다음 조회에서 다시 읽음)
+            logger.warn("프로필 이미지 조회 실패, 기본 이미지 사용: userId={}", userId, e);
+            return defaultImageUrl;
+        }
+        synchronized (imageUrls) {
+            if (generation.get() == observed) {
+                imageUrls.put(userId, resolved);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * 저장된 파일명을 클라이언트용 정적 URL로 변환합니다.
+     *
+     * @param filename users.profile_image_url 값 (null 허용)
+     * @return 정적 URL. 파일명이 비어 있으면 기본 이미지 URL
+     */
+    public String resolveImageUrl(String filename) {
+        return filename != null && !filename.isBlank() ? imageUrlPrefix + filename : defaultImageUrl;
+    }
+
+    /**
+     * 특정 사용자의 캐시 항목을 지웁니다.
+     *
+     * @param userId 사용자 ID
+     */
+    public void invalidate(Long userId) {
+        synchronized (imageUrls) {
+            generation.incrementAndGet();
+            if (imageUrls.remove(userId) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * 캐시를 모두 비웁니다. (다른 노드의 무효화를 놓쳤을 수 있을 때)
+     */
+    public void evictAll() {
+        synchronized (imageUrls) {
+            generation.incrementAndGet();
+            invalidations.add(imageUrls.size());
+            imageUrls.clear();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleUserProfileChanged(UserProfileChangedEvent event) {
+        invalidate(event.getUserId());
+    }
+
+    /**
+     * 캐시 크기와 적중 통계를 반환합니다.
+     *
+     * @return 캐시 통계
+     */
+    public CacheStatsDto stats() {
+        int size;
+        synchronized (imageUrls) {
+            size = imageUrls.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return new CacheStatsDto("user-profile", size, maxSize, hitCount, missCount,
+            total == 0 ? 0.0 : (double) hitCount / total, evictions.sum(), invalidations.sum());
+    }
+}
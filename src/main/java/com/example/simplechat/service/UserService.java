@@ -2,14 +2,15 @@ package com.example.simplechat.service;
 
 import com.example.simplechat.dto.ProfileUpdateRequestDto;
 import com.example.simplechat.dto.UserProfileDto;
+import com.example.simplechat.event.UserProfileChangedEvent;
 import com.example.simplechat.exception.RegistrationException;
 import com.example.simplechat.model.User;
 import com.example.simplechat.repository.FileRepository;
 import com.example.simplechat.repository.UserRepository;
-import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -23,6 +24,7 @@ import org.springframework.web.multipart.MultipartFile;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Qualifier("profileFileRepository")
     private final FileRepository profileFileRepository;
@@ -39,11 +41,11 @@ public class UserService {
      * @throws RegistrationException 해당 ID의 사용자를 찾을 수 없는 경우
      */
     public UserProfileDto getUserProfile(Long userId) {
-        Map<String, Object> profileData =
+        User profile =
                 userRepository.findProfileById(userId)
                         .orElseThrow(() -> new RegistrationException("NOT_FOUND", "ID " + userId + "을(를) 가진 사용자를 찾을 수 없습니다."));
 
-        String imageUrl = (String) profileData.get("profile_image_url");
+        String imageUrl = profile.getProfile_image_url();
 
         if (imageUrl == null || imageUrl.isBlank()) {
             imageUrl = profileStaticUrlPrefix + "/default.png"; // 기본 이미지 경로
@@ -52,10 +54,10 @@ public class UserService {
         }
 
         return new UserProfileDto(
-                (Long) profileData.get("user_id"),
-                (String) profileData.get("username"),
-                (String) profileData.get("nickname"),
-                (String) profileData.get("status_message"),
+                profile.getId(),
+                profile.getUsername(),
+                profile.getNickname(),
+                profile.getStatus_message(),
                 imageUrl
         );
     }
@@ -77,6 +79,7 @@ public class UserService {
         user.setStatus_message(profileDto.statusMessage());
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(this, userId));
 
         return getUserProfile(userId);
     }
@@ -104,6 +107,7 @@ public class UserService {
 
         user.setProfile_image_url(newFilename);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(this, userId));
 
         return profileStaticUrlPrefix + "/" + newFilename;
     }
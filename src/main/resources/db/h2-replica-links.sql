@@ -0,0 +1,9 @@
+-- perf-replica 프로필: 복제본 역할을 하는 두 번째 H2 DB의 테이블을 주 DB의 읽기 전용 링크 테이블로 만듭니다.
+-- 복제본 연결이 열릴 때마다 실행되므로 IF NOT EXISTS로 한 번만 생성합니다.
+
+CREATE LINKED TABLE IF NOT EXISTS users('org.h2.Driver', 'jdbc:h2:mem:simplechat;MODE=MSSQLServer;DATABASE_TO_LOWER=TRUE', 'sa', '', 'public', 'users') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS chat_rooms('org.h2.Driver', 'jdbc:h2:mem:simplechat;MODE=MSSQLServer;DATABASE_TO_LOWER=TRUE', 'sa', '', 'public', 'chat_rooms') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS chat_room_users('org.h2.Driver', 'jdbc:h2:mem:simplechat;MODE=MSSQLServer;DATABASE_TO_LOWER=TRUE', 'sa', '', 'public', 'chat_room_users') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS chat_messages('org.h2.Driver', 'jdbc:h2:mem:simplechat;MODE=MSSQLServer;DATABASE_TO_LOWER=TRUE', 'sa', '', 'public', 'chat_messages') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS notifications('org.h2.Driver', 'jdbc:h2:mem:simplechat;MODE=MSSQLServer;DATABASE_TO_LOWER=TRUE', 'sa', '', 'public', 'notifications') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS friendships('org.h2.Driver', 'jdbc:h2:mem:simplechat;MODE=MSSQLServer;DATABASE_TO_LOWER=TRUE', 'sa', '', 'public', 'friendships') READONLY;
@@ -0,0 +1,92 @@
+-- SimpleChat 스키마 (SQL Server / H2 MSSQLServer 모드 공용)
+-- perf 프로필에서는 spring.sql.init으로 내장 DB에 적용됩니다.
+
+CREATE TABLE users (
+    user_id             BIGINT IDENTITY(1,1) PRIMARY KEY,
+    username            NVARCHAR(50)  NOT NULL UNIQUE,
+    password_hash       NVARCHAR(255) NOT NULL,
+    nickname            NVARCHAR(50)  NOT NULL,
+    status_message      NVARCHAR(255) NULL,
+    profile_image_url   NVARCHAR(255) NULL,
+    created_at          DATETIME2     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    deleted_at          DATETIME2     NULL          -- 계정 삭제 요청 시각(tombstone). 실제 행은 purge 작업이 지움
+);
+
+CREATE TABLE chat_rooms (
+    room_id             BIGINT IDENTITY(1,1) PRIMARY KEY,
+    room_name           NVARCHAR(100) NOT NULL UNIQUE,
+    room_type           NVARCHAR(20)  NOT NULL,
+    owner_id            BIGINT        NULL REFERENCES users(user_id),
+    password_hash       NVARCHAR(255) NULL,
+    created_at          DATETIME2     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    deleted_at          DATETIME2     NULL          -- 삭제 요청 시각(tombstone). 실제 행은 purge 작업이 지움
+);
+
+CREATE TABLE chat_room_users (
+    user_id             BIGINT        NOT NULL REFERENCES users(user_id),
+    room_id             BIGINT        NOT NULL REFERENCES chat_rooms(room_id),
+    nickname            NVARCHAR(50)  NOT NULL,
+    role                NVARCHAR(20)  NOT NULL,
+    PRIMARY KEY (user_id, room_id)
+);
+
+CREATE INDEX ix_chat_room_users_room ON chat_room_users (room_id);
+
+CREATE TABLE chat_messages (
+    message_id          BIGINT IDENTITY(1,1) PRIMARY KEY,
+    room_id             BIGINT        NOT NULL REFERENCES chat_rooms(room_id),
+    author_id           BIGINT        NOT NULL REFERENCES users(user_id),
+    author_name         NVARCHAR(50)  NULL,
+    message_type        NVARCHAR(20)  NOT NULL,
+    content             NVARCHAR(4000) NULL,
+    parent_message_id   BIGINT        NULL,
+    created_at          DATETIME2     NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 방별 메시지 기록 조회(keyset 페이지네이션: room_id = ? AND message_id < ? ORDER BY message_id DESC)용 인덱스.
+-- SQL Server에서는 db/sqlserver/chat_messages_history_index.sql의 INCLUDE 버전(커버링 인덱스)을 사용합니다.
+CREATE INDEX ix_chat_messages_room_message ON chat_messages (room_id, message_id DESC);
+
+-- 계정 purge에서 작성자별로 메시지를 나누어 지울 때 사용
+CREATE INDEX ix_chat_messages_author ON chat_messages (author_id);
+
+CREATE TABLE notifications (
+    notification_id     BIGINT IDENTITY(1,1) PRIMARY KEY,
+    receiver_id         BIGINT        NOT NULL REFERENCES users(user_id),
+    notification_type   NVARCHAR(30)  NOT NULL,
+    content             NVARCHAR(500) NULL,
+    related_entity_id   BIGINT        NULL,
+    metadata            NVARCHAR(1000) NULL,
+    is_read             BIT           NOT NULL DEFAULT 0,
+    created_at          DATETIME2     NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX ix_notifications_receiver ON notifications (receiver_id);
+
+CREATE TABLE friendships (
+    relation_id         BIGINT IDENTITY(1,1) PRIMARY KEY,
+    user_id_1           BIGINT        NOT NULL REFERENCES users(user_id),
+    user_id_2           BIGINT        NOT NULL REFERENCES users(user_id),
+    status              NVARCHAR(20)  NOT NULL,
+    created_at          DATETIME2     NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX ix_friendships_user1 ON friendships (user_id_1, status);
+CREATE INDEX ix_friendships_user2 ON friendships (user_id_2, status);
+
+-- 방/계정/보존 기간 삭제를 작은 배치로 나누어 처리하는 백그라운드 purge 작업 (PurgeService)
+CREATE TABLE purge_jobs (
+    job_id              BIGINT IDENTITY(1,1) PRIMARY KEY,
+    job_type            NVARCHAR(30)  NOT NULL,
+    target_id           BIGINT        NULL,
+    status              NVARCHAR(20)  NOT NULL,
+    cursor_id           BIGINT        NULL,
+    deleted_rows        BIGINT        NOT NULL DEFAULT 0,
+    last_error          NVARCHAR(1000) NULL,
+    owner_node          NVARCHAR(100) NULL,         -- 작업을 잡은 노드 ID
+    lease_until         DATETIME2     NULL,         -- 이 시각까지 진행 기록이 없으면 다른 노드가 이어서 처리
+    created_at          DATETIME2     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at          DATETIME2     NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX ix_purge_jobs_status ON purge_jobs (status, job_id);
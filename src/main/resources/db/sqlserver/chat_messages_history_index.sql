@@ -0,0 +1,10 @@
+-- 메시지 기록 조회용 커버링 인덱스 (SQL Server 전용, H2는 INCLUDE 미지원)
+-- MessageRepository의 findLatestByRoomId / findBeforeId / findAfterId가 조회하는 컬럼을 모두 포함하므로
+-- 클러스터형 인덱스(message_id) 키 조회 없이 인덱스 탐색만으로 한 페이지를 읽습니다.
+
+IF EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_chat_messages_room_message' AND object_id = OBJECT_ID('chat_messages'))
+    DROP INDEX ix_chat_messages_room_message ON chat_messages;
+
+CREATE NONCLUSTERED INDEX ix_chat_messages_room_message
+    ON chat_messages (room_id, message_id DESC)
+    INCLUDE (author_id, author_name, message_type, content, created_at);
@@ -0,0 +1,35 @@
+-- 백그라운드 purge 작업용 스키마 변경 (SQL Server). db/schema.sql의 해당 부분과 같습니다.
+-- chat_rooms.deleted_at: 삭제 요청된 방의 tombstone. 목록/조회에서 즉시 제외되고 실제 행은 PurgeService가 지웁니다.
+
+IF COL_LENGTH('chat_rooms', 'deleted_at') IS NULL
+    ALTER TABLE chat_rooms ADD deleted_at DATETIME2 NULL;
+
+-- users.deleted_at: 삭제 요청된 계정의 tombstone. 로그인/조회에서 즉시 제외되고, 작성한 메시지와 친구 관계, 알림, 행은 PurgeService가 지웁니다.
+IF COL_LENGTH('users', 'deleted_at') IS NULL
+    ALTER TABLE users ADD deleted_at DATETIME2 NULL;
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_chat_messages_author' AND object_id = OBJECT_ID('chat_messages'))
+    CREATE INDEX ix_chat_messages_author ON chat_messages (author_id);
+
+IF OBJECT_ID('purge_jobs') IS NULL
+BEGIN
+    CREATE TABLE purge_jobs (
+        job_id              BIGINT IDENTITY(1,1) PRIMARY KEY,
+        job_type            NVARCHAR(30)  NOT NULL,
+        target_id           BIGINT        NULL,
+        status              NVARCHAR(20)  NOT NULL,
+        cursor_id           BIGINT        NULL,
+        deleted_rows        BIGINT        NOT NULL DEFAULT 0,
+        last_error          NVARCHAR(1000) NULL,
+        owner_node          NVARCHAR(100) NULL,
+        lease_until         DATETIME2     NULL,
+        created_at          DATETIME2     NOT NULL DEFAULT SYSDATETIME(),
+        updated_at          DATETIME2     NOT NULL DEFAULT SYSDATETIME()
+    );
+
+    CREATE INDEX ix_purge_jobs_status ON purge_jobs (status, job_id);
+END
+
+-- 여러 노드가 작업을 나누어 잡기 위한 임대 컬럼 (이전 버전으로 만든 테이블용)
+IF COL_LENGTH('purge_jobs', 'owner_node') IS NULL
+    ALTER TABLE purge_jobs ADD owner_node NVARCHAR(100) NULL, lease_until DATETIME2 NULL;
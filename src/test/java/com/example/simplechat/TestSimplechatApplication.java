@@ -0,0 +1,19 @@
+package com.example.simplechat;
+
+import org.springframework.boot.SpringApplication;
+
+import com.example.simplechat.config.EmbeddedStompBrokerConfig;
+
+/**
+ * 내장 STOMP 브로커를 함께 띄우는 로컬 실행용 진입점입니다.
+ * <p>
+ * 릴레이 모드 다중 노드 확인에서 브로커를 맡을 첫 번째 노드를 {@code ./gradlew bootTestRun}으로 실행합니다.
+ * </p>
+ */
+public class TestSimplechatApplication {
+	public static void main(String[] args) {
+		SpringApplication.from(SimplechatApplication::main)
+			.with(EmbeddedStompBrokerConfig.class)
+			.run(args);
+	}
+}
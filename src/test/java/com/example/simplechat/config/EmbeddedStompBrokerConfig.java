@@ -0,0 +1,48 @@
+package com.example.simplechat.config;
+
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * 같은 JVM 안에서 STOMP 브로커(ActiveMQ Artemis)를 띄우는 설정입니다.
+ * <p>
+ * 테스트 클래스패스에만 있으며, 외부 브로커 없이 릴레이 모드({@code websocket.broker.mode=relay})를
+ * 확인하거나 여러 노드를 로컬에서 띄워 볼 때 {@link com.example.simplechat.TestSimplechatApplication}으로
+ * 불러옵니다. 한 노드만 브로커를 띄우고 나머지 노드는 그 포트로 릴레이하면 됩니다.
+ * </p>
+ * <p>
+ * 영속화와 보안은 끄고, {@code /topic/}은 multicast, {@code /queue/}는 anycast 주소로 매핑합니다.
+ * 운영 jar에는 포함되지 않으며 운영 환경에서는 별도의 브로커를 사용합니다.
+ * </p>
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class EmbeddedStompBrokerConfig {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedStompBrokerConfig.class);
+
+    /**
+     * 내장 브로커를 시작합니다. 릴레이가 연결을 시도하기 전에 떠 있도록 지연 초기화하지 않습니다.
+     */
+    @Bean(destroyMethod = "stop")
+    @Lazy(false)
+    public EmbeddedActiveMQ embeddedStompBroker(@Value("${websocket.broker.embedded.host:127.0.0.1}") String host,
+                                                @Value("${websocket.broker.embedded.port:61613}") int port) throws Exception {
+        ConfigurationImpl configuration = new ConfigurationImpl();
+        configuration.setPersistenceEnabled(false);
+        configuration.setSecurityEnabled(false);
+        configuration.setJMXManagementEnabled(false);
+        configuration.addAcceptorConfiguration("stomp", "tcp://" + host + ":" + port
+            + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+
+        EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        broker.start();
+        logger.info("[EmbeddedStompBroker] 내장 STOMP 브로커 시작: {}:{}", host, port);
+        return broker;
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.simplechat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 두 Spring 컨텍스트(노드 a, b)가 같은 JVM 안의 {@link ClusterChannel}을 공유할 때 {@link ClusterSessionRegistry}가
+ * 서로의 세션을 따라가는지 확인합니다.
+ * <p>
+ * 하트비트는 스케줄러 대신 {@link ClusterSessionRegistry#tick()}을 직접 호출해 보냅니다.
+ * 채널은 STOMP 채널처럼 노드마다 별도 스레드에서 메시지를 전달하고, 연결이 끊긴 노드로 가는 메시지는 버립니다.
+ * </p>
+ */
+class ClusterSessionRegistryTest {
+    private static final long LEASE_MS = 1500;
+
+    private Hub hub;
+    private ConfigurableApplicationContext contextA;
+    private ConfigurableApplicationContext contextB;
+    private ClusterSessionRegistry nodeA;
+    private ClusterSessionRegistry nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        hub = new Hub();
+        contextA = startNode("a");
+        contextB = startNode("b");
+        nodeA = contextA.getBean(ClusterSessionRegistry.class);
+        nodeB = contextB.getBean(ClusterSessionRegistry.class);
+
+        nodeA.tick();
+        nodeB.tick();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(nodeA.liveNodes()).containsExactly("a", "b");
+            assertThat(nodeB.liveNodes()).containsExactly("a", "b");
+        });
+    }
+
+    @AfterEach
+    void stopNodes() {
+        contextA.close();
+        contextB.close();
+        hub.shutdown();
+    }
+
+    @Test
+    void roomJoinAndOnlineDeltasReachTheOtherNode() {
+        nodeA.roomSessionOpened(1L, 31L);
+        assertThat(nodeA.userSessionOpened(31L, "user31", "nick31")).isTrue();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(nodeB.connectedUsers(1L)).containsExactly(31L);
+            assertThat(nodeB.isOnline(31L)).isTrue();
+        });
+
+        // 같은 사용자가 b에도 접속: 클러스터 전체의 첫 세션이 아니고, 세션 수는 두 노드의 합
+        assertThat(nodeB.userSessionOpened(31L, "user31", "nick31")).isFalse();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+            assertThat(nodeA.onlineUser(31L).sessions()).isEqualTo(2));
+
+        nodeA.roomSessionClosed(1L, 31L);
+        assertThat(nodeA.userSessionClosed(31L)).isNull();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(nodeB.connectedUsers(1L)).isEmpty();
+            assertThat(nodeB.onlineUser(31L).sessions()).isEqualTo(1);
+        });
+        assertThat(nodeB.userSessionClosed(31L)).isNotNull();
+    }
+
+    @Test
+    void snapshotResyncsMissedDeltasAfterReconnect() {
+        hub.channel("b").disconnect();
+
+        nodeA.roomSessionOpened(2L, 7L);
+        nodeA.userSessionOpened(7L, "user7", "nick7");
+        hub.flush();
+        assertThat(nodeB.connectedUsers(2L)).isEmpty();
+        assertThat(nodeB.isOnline(7L)).isFalse();
+
+        // 다음 주기에 다시 연결하면서 SYNC_REQUEST를 보내고 a의 SNAPSHOT으로 빠진 변경분을 맞춤
+        nodeB.tick();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(nodeB.connectedUsers(2L)).containsExactly(7L);
+            assertThat(nodeB.onlineUser(7L).nickname()).isEqualTo("nick7");
+        });
+    }
+
+    @Test
+    void expiredLeaseRemovesTheNodesSessions() {
+        AtomicInteger membershipChanges = new AtomicInteger();
+        nodeB.addMembershipListener(membershipChanges::incrementAndGet);
+
+        nodeA.roomSessionOpened(3L, 11L);
+        nodeA.userSessionOpened(11L, "user11", "nick11");
+        nodeB.roomSessionOpened(3L, 12L);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+            assertThat(nodeB.connectedUsers(3L)).containsExactlyInAnyOrder(11L, 12L));
+
+        // 비정상 종료: a는 더 이상 아무것도 보내지 않음
+        hub.channel("a").disconnect();
+
+        await().atMost(Duration.ofSeconds(5)).pollInterval(Duration.ofMillis(200)).untilAsserted(() -> {
+            nodeB.tick();
+            assertThat(nodeB.liveNodes()).containsExactly("b");
+        });
+        assertThat(nodeB.connectedUsers(3L)).containsExactly(12L);
+        assertThat(nodeB.isOnline(11L)).isFalse();
+        assertThat(membershipChanges).hasValue(1);
+    }
+
+    @Test
+    void heartbeatGapLongerThanLeaseNotifiesRejoin() throws InterruptedException {
+        AtomicInteger rejoins = new AtomicInteger();
+        nodeA.addRejoinListener(rejoins::incrementAndGet);
+
+        nodeA.tick();
+        assertThat(rejoins).hasValue(0);
+
+        // 임대 시간보다 오래 연결이 끊겨 b에서는 a가 빠진 상태
+        hub.channel("a").disconnect();
+        Thread.sleep(LEASE_MS + 200);
+        nodeA.tick();
+        assertThat(rejoins).hasValue(1);
+
+        nodeA.tick();
+        assertThat(rejoins).hasValue(1);
+    }
+
+    private ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(NodeConfig.class)
+            .web(WebApplicationType.NONE)
+            .initializers(context -> context.getBeanFactory()
+                .registerSingleton("clusterChannel", hub.channel(nodeId)))
+            .properties("spring.main.banner-mode=off")
+            .run("--cluster.registry.node-id=" + nodeId,
+                "--cluster.registry.lease-ms=" + LEASE_MS,
+                "--cluster.registry.snapshot-interval-ms=600000");
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @Import(ClusterSessionRegistry.class)
+    static class NodeConfig {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    /**
+     * 같은 JVM 안의 노드들을 잇는 브로커 대용입니다.
+     */
+    static final class Hub {
+        private final Map<String, InMemoryClusterChannel> channels = new ConcurrentHashMap<>();
+
+        InMemoryClusterChannel channel(String nodeId) {
+            return channels.computeIfAbsent(nodeId, id -> new InMemoryClusterChannel(this));
+        }
+
+        void publish(String destination, String message) {
+            channels.values().forEach(channel -> channel.deliver(destination, message));
+        }
+
+        /**
+         * 지금까지 보낸 메시지가 모든 노드에서 처리될 때까지 기다립니다.
+         */
+        void flush() {
+            channels.values().forEach(InMemoryClusterChannel::flush);
+        }
+
+        void shutdown() {
+            channels.values().forEach(channel -> channel.io.shutdownNow());
+        }
+    }
+
+    /**
+     * 연결된 동안에만 메시지를 주고받는 {@link ClusterChannel}입니다. 받은 메시지는 노드별 I/O 스레드 하나에서 순서대로 처리합니다.
+     */
+    static final class InMemoryClusterChannel implements ClusterChannel {
+        private final Hub hub;
+        private final ExecutorService io = Executors.newSingleThreadExecutor();
+        private final List<Map.Entry<String, Consumer<String>>> listeners = new CopyOnWriteArrayList<>();
+        private volatile boolean connected;
+
+        InMemoryClusterChannel(Hub hub) {
+            this.hub = hub;
+        }
+
+        @Override
+        public boolean enabled() {
+            return true;
+        }
+
+        @Override
+        public boolean connected() {
+            return connected;
+        }
+
+        @Override
+        public void listen(String destination, Consumer<String> handler) {
+            listeners.add(Map.entry(destination, handler));
+        }
+
+        @Override
+        public void connect(Runnable onConnected) {
+            if (connected) {
+                return;
+            }
+            connected = true;
+            onConnected.run();
+        }
+
+        @Override
+        public boolean publish(String destination, String message) {
+            if (!connected) {
+                return false;
+            }
+            hub.publish(destination, message);
+            return true;
+        }
+
+        void disconnect() {
+            connected = false;
+            flush();
+        }
+
+        private void deliver(String destination, String message) {
+            if (!connected) {
+                return;
+            }
+            io.execute(() -> listeners.stream()
+                .filter(listener -> listener.getKey().equals(destination))
+                .forEach(listener -> listener.getValue().accept(message)));
+        }
+
+        private void flush() {
+            try {
+                io.submit(() -> { }).get();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}